@@ -0,0 +1,41 @@
+#!/bin/sh
+# Training run for the AppCDS archive, used by the Dockerfile.
+#
+# Starts the application with the prod profile against the in-memory database, waits for it
+# to report ready (which means the warmup has run), renders one citation over HTTP, then
+# stops it. The JVM writes every class it loaded to the archive as it exits.
+#
+# Usage: cds-training.sh <archive-file>
+set -eu
+
+ARCHIVE="$1"
+PORT=8080
+BASE_URL="http://127.0.0.1:${PORT}"
+
+cd /app
+SPRING_PROFILES_ACTIVE=prod SERVER_PORT="$PORT" \
+  OTLP_TRACING_ENDPOINT="http://127.0.0.1:1/v1/traces" \
+  java -XX:ArchiveClassesAtExit="$ARCHIVE" @/app/java.args &
+PID=$!
+
+ready=false
+for _ in $(seq 1 300); do
+  if wget -qO- "${BASE_URL}/actuator/health/readiness" 2>/dev/null | grep -q '"UP"'; then
+    ready=true
+    break
+  fi
+  sleep 1
+done
+if [ "$ready" != true ]; then
+  echo "Application did not become ready during the training run" >&2
+  kill "$PID"
+  exit 1
+fi
+
+wget -qO- --header 'Content-Type: application/json' \
+  --post-data '{"title": "Dune", "author": "Frank Herbert"}' \
+  "${BASE_URL}/api/cite/book?style=apa" > /dev/null
+
+kill -TERM "$PID"
+wait "$PID" || true
+test -s "$ARCHIVE"
@@ -0,0 +1,47 @@
+#!/bin/sh
+# Startup benchmark comparing the plain image (fat jar on a stock JRE) with the default
+# image (layered jar, jlink runtime and AppCDS archive).
+#
+# Builds both images, starts each one RUNS times, and reports the time from `docker run`
+# until /actuator/health/readiness reports UP (so the warmup is included) and the resident
+# memory of the container at that point. The same prod profile and in-memory database are
+# used for both, so only the image differs.
+#
+# Usage: scripts/startup-benchmark.sh [runs]     (default: 5 runs per image)
+set -eu
+
+RUNS="${1:-5}"
+PORT=18080
+IMAGE=citation-service-benchmark
+
+cd "$(dirname "$0")/.."
+docker build -q --target plain -t "${IMAGE}:plain" . > /dev/null
+docker build -q -t "${IMAGE}:cds" . > /dev/null
+
+now_ms() {
+  date +%s%3N
+}
+
+run_once() {
+  start=$(now_ms)
+  id=$(docker run -d --rm -p "${PORT}:8080" -e SPRING_PROFILES_ACTIVE=prod \
+    -e OTLP_TRACING_ENDPOINT=http://127.0.0.1:1/v1/traces "$1")
+  until curl -fs "http://127.0.0.1:${PORT}/actuator/health/readiness" 2>/dev/null \
+      | grep -q '"UP"'; do
+    sleep 0.05
+  done
+  end=$(now_ms)
+  rss=$(docker stats --no-stream --format '{{.MemUsage}}' "$id" | cut -d/ -f1)
+  docker stop -t 5 "$id" > /dev/null
+  printf '%-6s %8d ms  %s\n' "$2" $((end - start)) "$rss"
+}
+
+printf '%-6s %11s  %s\n' image ready memory
+for tag in plain cds; do
+  i=0
+  while [ "$i" -lt "$RUNS" ]; do
+    run_once "${IMAGE}:${tag}" "$tag"
+    i=$((i + 1))
+  done
+done
+docker image ls "$IMAGE" --format '{{.Tag}}: {{.Size}}'
@@ -0,0 +1,140 @@
+package com.columbia.coms4156.citationservice.controller;
+
+import com.columbia.coms4156.citationservice.controller.dto.CacheStatsResponse;
+import com.columbia.coms4156.citationservice.controller.dto.EndpointQueryStats;
+import com.columbia.coms4156.citationservice.exception.ValidationException;
+import com.columbia.coms4156.citationservice.service.CacheStatsService;
+import com.columbia.coms4156.citationservice.service.FlightRecorderService;
+import com.columbia.coms4156.citationservice.service.QueryStatsService;
+import com.columbia.coms4156.citationservice.utils.ResponseUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for operational endpoints used to observe the running service.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+  /**
+   * Longest a recording may run before stopping by itself, in seconds.
+   */
+  private static final long MAX_RECORDING_SECONDS = 3600;
+
+  /**
+   * Header carrying the admin token the Flight Recorder endpoints require.
+   */
+  private static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+
+  /**
+   * Service reporting second-level and query cache statistics.
+   */
+  @Autowired
+  private CacheStatsService cacheStatsService;
+
+  /**
+   * Service reporting the SQL statements issued per endpoint.
+   */
+  @Autowired
+  private QueryStatsService queryStatsService;
+
+  /**
+   * Service running the on-demand Flight Recorder recording.
+   */
+  @Autowired
+  private FlightRecorderService flightRecorderService;
+
+  /**
+   * Reports the hit, miss and put counts of the second-level and query caches.
+   *
+   * @return ResponseEntity containing the cache statistics with HTTP 200 status
+   */
+  @GetMapping("/cache-stats")
+  public ResponseEntity<CacheStatsResponse> getCacheStats() {
+    return ResponseUtil.ok(cacheStatsService.getStats());
+  }
+
+  /**
+   * Reports how many SQL statements each endpoint has issued, in total and per request.
+   *
+   * @return ResponseEntity containing the statement counts per endpoint with HTTP 200 status
+   */
+  @GetMapping("/query-stats")
+  public ResponseEntity<List<EndpointQueryStats>> getQueryStats() {
+    return ResponseUtil.ok(queryStatsService.getStats());
+  }
+
+  /**
+   * Starts a Java Flight Recorder recording of this instance. Requires {@code jfr.enabled}
+   * and the admin token in the {@value #ADMIN_TOKEN_HEADER} header.
+   *
+   * @param token the admin token
+   * @param settings the predefined JDK settings to record with: "default" or "profile"
+   * @param maxSeconds the time after which the recording stops by itself (1 to 3600)
+   * @return ResponseEntity containing the recording ID with HTTP 200 status, HTTP 400 for
+   *         invalid parameters, HTTP 401 without a valid token, HTTP 404 if recordings are
+   *         disabled, or HTTP 409 if a recording is already running
+   */
+  @PostMapping("/jfr/start")
+  public ResponseEntity<Map<String, Object>> startRecording(
+      @RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token,
+      @RequestParam(defaultValue = "default") String settings,
+      @RequestParam(defaultValue = "300") long maxSeconds) {
+    flightRecorderService.checkAccess(token);
+    if (maxSeconds < 1 || maxSeconds > MAX_RECORDING_SECONDS) {
+      throw new ValidationException("maxSeconds must be between 1 and " + MAX_RECORDING_SECONDS);
+    }
+    long id = flightRecorderService.start(settings, Duration.ofSeconds(maxSeconds));
+    return ResponseUtil.ok(Map.of("recordingId", id, "settings", settings,
+        "maxSeconds", maxSeconds));
+  }
+
+  /**
+   * Stops the Java Flight Recorder recording and streams it back as a {@code .jfr} file,
+   * to be opened with JDK Mission Control or {@code jfr print}. Requires {@code jfr.enabled}
+   * and the admin token in the {@value #ADMIN_TOKEN_HEADER} header.
+   *
+   * @param token the admin token
+   * @return ResponseEntity streaming the recording with HTTP 200 status, HTTP 401 without a
+   *         valid token, or HTTP 404 if recordings are disabled or none has been started
+   * @throws IOException if the recording cannot be written
+   */
+  @PostMapping("/jfr/stop")
+  public ResponseEntity<StreamingResponseBody> stopRecording(
+      @RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token)
+      throws IOException {
+    flightRecorderService.checkAccess(token);
+    Path file = flightRecorderService.stop();
+    StreamingResponseBody body = out -> {
+      try {
+        Files.copy(file, out);
+      } finally {
+        Files.deleteIfExists(file);
+      }
+    };
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+        .contentLength(Files.size(file))
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename(file.getFileName().toString()).build().toString())
+        .body(body);
+  }
+}
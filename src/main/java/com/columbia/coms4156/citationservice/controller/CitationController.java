@@ -7,8 +7,10 @@ import com.columbia.coms4156.citationservice.model.Book;
 import com.columbia.coms4156.citationservice.model.CitationResponse;
 import com.columbia.coms4156.citationservice.model.GroupCitationResponse;
 import com.columbia.coms4156.citationservice.model.Video;
+import com.columbia.coms4156.citationservice.repository.SubmissionRepository.GroupVersion;
 import com.columbia.coms4156.citationservice.service.CitationService;
 import com.columbia.coms4156.citationservice.service.SourceService;
+import com.columbia.coms4156.citationservice.utils.EntityTags;
 import com.columbia.coms4156.citationservice.utils.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +27,8 @@ import org.springframework.web.bind.annotation.RestController;
 import jakarta.validation.Valid;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.time.Instant;
+
 /**
  * REST Controller for Citation creation API endpoints.
  * Provides endpoints for citation generation for various source types and
@@ -92,7 +96,7 @@ public class CitationController {
    */
   @GetMapping("/book/{id}")
   public ResponseEntity<?> generateBookCitation(@PathVariable Long id, HttpServletRequest request) {
-    LOGGER.info("Received request to generate citation for book ID: {}", id);
+    LOGGER.debug("Received request to generate citation for book ID: {}", id);
     validateId(id, "Book");
 
     Book book = sourceService.findBookById(id)
@@ -119,7 +123,7 @@ public class CitationController {
       @Valid @RequestBody Book book,
       @RequestParam(defaultValue = "MLA") String style,
       HttpServletRequest request) {
-    LOGGER.info("Received request to generate citation for book: {} with style: {}", book, style);
+    LOGGER.debug("Received request to generate citation for book: {} with style: {}", book, style);
     if (book == null) {
       throw new ValidationException(
           "Request body cannot be null. Please provide book information.");
@@ -144,7 +148,7 @@ public class CitationController {
   @GetMapping("/video/{id}")
   public ResponseEntity<?> generateVideoCitation(@PathVariable Long id,
                                                  HttpServletRequest request) {
-    LOGGER.info("Received request to generate citation for video ID: {}", id);
+    LOGGER.debug("Received request to generate citation for video ID: {}", id);
     validateId(id, "Video");
 
     Video video = sourceService.findVideoById(id)
@@ -174,7 +178,8 @@ public class CitationController {
       @Valid @RequestBody Video video,
       @RequestParam(defaultValue = "MLA") String style,
       HttpServletRequest request) {
-    LOGGER.info("Received request to generate citation for video: {} with style: {}", video, style);
+    LOGGER.debug("Received request to generate citation for video: {} with style: {}",
+        video, style);
     if (video == null) {
       throw new ValidationException(
           "Request body cannot be null. Please provide video information.");
@@ -199,7 +204,7 @@ public class CitationController {
   @GetMapping("/article/{id}")
   public ResponseEntity<?> generateArticleCitation(@PathVariable Long id,
                                                    HttpServletRequest request) {
-    LOGGER.info("Received request to generate citation for article ID: {}", id);
+    LOGGER.debug("Received request to generate citation for article ID: {}", id);
     validateId(id, "Article");
 
     Article article = sourceService.findArticleById(id)
@@ -226,7 +231,7 @@ public class CitationController {
       @Valid @RequestBody Article article,
       @RequestParam(defaultValue = "MLA") String style,
       HttpServletRequest request) {
-    LOGGER.info("Received request to generate citation for article: {} with style: {}",
+    LOGGER.debug("Received request to generate citation for article: {} with style: {}",
         article, style);
     if (article == null) {
       throw new ValidationException(
@@ -263,7 +268,7 @@ public class CitationController {
       @RequestParam(defaultValue = "MLA") String style,
       @RequestParam(defaultValue = "false") boolean backfill,
       HttpServletRequest request) {
-    LOGGER.info("Received request to generate citation for source ID: {}", citationId);
+    LOGGER.debug("Received request to generate citation for source ID: {}", citationId);
     validateId(citationId, "CitationId");
     validateStyle(style);
 
@@ -275,12 +280,17 @@ public class CitationController {
 
   /**
    * Generate citations for all sources in a submission group.
+   * Without backfill, the response carries an ETag and Last-Modified date derived from the
+   * versions of the submission, its citations and their sources; a request whose
+   * If-None-Match or If-Modified-Since shows the group is unchanged gets HTTP 304 without
+   * any citation being formatted.
    *
    * @param submissionId The unique identifier of the submission group
    * @param style The citation style (MLA, APA, Chicago)
    * @param backfill Whether to include backfill information (currently not implemented)
-   * @param request The HTTP request object for error context
+   * @param request The HTTP request object for error context and conditional headers
    * @return ResponseEntity containing GroupCitationResponse with HTTP 200 status if successful,
+   * HTTP 304 if the client's copy is current,
    * HTTP 404 with error message if submission not found, or HTTP 400 if invalid parameters
    */
   @GetMapping("/group/{submissionId}")
@@ -289,13 +299,35 @@ public class CitationController {
       @RequestParam(defaultValue = "MLA") String style,
       @RequestParam(defaultValue = "false") boolean backfill,
       HttpServletRequest request) {
-    LOGGER.info("Received request to generate citations for submission group ID: {}", submissionId);
+    LOGGER.debug("Received request to generate citations for submission group ID: {}",
+        submissionId);
     validateId(submissionId, "Submission");
     validateStyle(style);
 
+    if (backfill) {
+      // Backfilled fields come from external APIs, so the stored versions don't cover them
+      GroupCitationResponse response = citationService.generateCitationsForGroup(
+          submissionId, style, true);
+      LOGGER.info("Successfully generated citations for submission group ID: {}", submissionId);
+      return ResponseUtil.ok(response);
+    }
+
+    GroupVersion version = citationService.findGroupVersion(submissionId)
+        .orElseThrow(() -> new ResourceNotFoundException(
+            "Submission not found with ID: " + submissionId));
+    String eTag = EntityTags.of(version.getSubmissionVersion(), version.getCitationCount(),
+        version.getCitationIdSum(), version.getCitationVersionSum(),
+        version.getSourceVersionSum());
+    Instant lastModified = EntityTags.latest(version.getSubmissionUpdatedAt(),
+        version.getCitationsUpdatedAt(), version.getSourcesUpdatedAt());
+    if (EntityTags.isNotModified(request, eTag, lastModified)) {
+      LOGGER.debug("Submission group ID {} not modified", submissionId);
+      return ResponseUtil.notModified(eTag, lastModified);
+    }
+
     GroupCitationResponse response = citationService.generateCitationsForGroup(
-        submissionId, style, backfill);
+        submissionId, style, false);
     LOGGER.info("Successfully generated citations for submission group ID: {}", submissionId);
-    return ResponseUtil.ok(response);
+    return ResponseUtil.ok(response, eTag, lastModified);
   }
 }
\ No newline at end of file
@@ -1,34 +1,47 @@
 package com.columbia.coms4156.citationservice.controller;
 
+import com.columbia.coms4156.citationservice.controller.dto.BulkDeleteRequest;
 import com.columbia.coms4156.citationservice.controller.dto.BulkSourceRequest;
+import com.columbia.coms4156.citationservice.controller.dto.SearchHit;
 import com.columbia.coms4156.citationservice.controller.dto.SourceBatchResponse;
+import com.columbia.coms4156.citationservice.controller.dto.SourcePage;
 import com.columbia.coms4156.citationservice.exception.ResourceNotFoundException;
 import com.columbia.coms4156.citationservice.exception.ValidationException;
 import com.columbia.coms4156.citationservice.model.Book;
 import com.columbia.coms4156.citationservice.model.Video;
 import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Source;
+import com.columbia.coms4156.citationservice.service.SourceDeleteService;
+import com.columbia.coms4156.citationservice.service.SourceSearchService;
 import com.columbia.coms4156.citationservice.service.SourceService;
+import com.columbia.coms4156.citationservice.service.SourceSuggestService;
+import com.columbia.coms4156.citationservice.utils.EntityTags;
 import com.columbia.coms4156.citationservice.utils.ResponseUtil;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import jakarta.validation.Valid;
 import jakarta.servlet.http.HttpServletRequest;
-import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * REST Controller for Source management API endpoints.
@@ -46,12 +59,48 @@ public class SourceController {
   /** Logger for this class. */
   private static final Logger LOGGER = LoggerFactory.getLogger(SourceController.class);
 
+  /** Default number of sources returned per page by the list endpoints. */
+  private static final String DEFAULT_PAGE_LIMIT = "50";
+
+  /** Maximum number of sources a client may request per page. */
+  private static final int MAX_PAGE_LIMIT = 500;
+
+  /** Default number of hits returned by the search endpoint. */
+  private static final String DEFAULT_SEARCH_LIMIT = "20";
+
+  /** Default number of suggestions returned by the suggest endpoint. */
+  private static final String DEFAULT_SUGGEST_LIMIT = "10";
+
+  /** Maximum number of source IDs a bulk delete request may list. */
+  private static final int MAX_BULK_DELETE_IDS = 10000;
+
+  /** Media type of JSON Merge Patch documents (RFC 7396). */
+  private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
   /**
    * Service for source management operations.
    */
   @Autowired
   private SourceService sourceService;
 
+  /**
+   * Service for set-based bulk deletes of sources.
+   */
+  @Autowired
+  private SourceDeleteService sourceDeleteService;
+
+  /**
+   * Service for full-text search across sources.
+   */
+  @Autowired
+  private SourceSearchService sourceSearchService;
+
+  /**
+   * Service for typeahead suggestions of existing sources.
+   */
+  @Autowired
+  private SourceSuggestService sourceSuggestService;
+
   /**
    * Validates that an ID is not null and is positive.
    *
@@ -66,6 +115,100 @@ public class SourceController {
     }
   }
 
+  /**
+   * Validates that a page size limit is within the supported range.
+   *
+   * @param limit the requested page size
+   * @throws ValidationException if the limit is out of range
+   */
+  private void validateLimit(int limit) {
+    if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+      throw new ValidationException(
+          "limit must be between 1 and " + MAX_PAGE_LIMIT + ". Provided limit: " + limit);
+    }
+  }
+
+  /**
+   * Builds the response for a single stored source: HTTP 304 if the request's
+   * If-None-Match or If-Modified-Since shows the client's copy is current, otherwise
+   * the source with HTTP 200. Either way the source's ETag and Last-Modified are set.
+   *
+   * @param source the stored source
+   * @param request the request carrying the conditional headers
+   * @return the response
+   */
+  private ResponseEntity<?> conditionalOk(Source source, HttpServletRequest request) {
+    String eTag = EntityTags.ofVersion(source.getVersion());
+    if (EntityTags.isNotModified(request, eTag, source.getUpdatedAt())) {
+      return ResponseUtil.notModified(eTag, source.getUpdatedAt());
+    }
+    return ResponseUtil.ok(source, eTag, source.getUpdatedAt());
+  }
+
+  /**
+   * Builds the response for an updated source, carrying its new ETag and Last-Modified.
+   *
+   * @param source the updated source
+   * @return the response with HTTP 200 status
+   */
+  private ResponseEntity<?> updatedOk(Source source) {
+    return ResponseUtil.ok(source, EntityTags.ofVersion(source.getVersion()),
+        source.getUpdatedAt());
+  }
+
+  /**
+   * Search books, videos and articles by title, author, publisher and journal.
+   * Every term of the query must match; results are ranked by relevance.
+   *
+   * @param q The free-text query
+   * @param limit The maximum number of hits to return (1-500, default 20)
+   * @param request The HTTP request object for error context
+   * @return ResponseEntity containing the ranked hits with HTTP 200 status,
+   *         HTTP 400 if the query is blank or the limit is invalid,
+   *         or HTTP 500 if an error occurs
+   */
+  @GetMapping("/search")
+  public ResponseEntity<?> searchSources(
+      @RequestParam(required = false) String q,
+      @RequestParam(defaultValue = DEFAULT_SEARCH_LIMIT) int limit,
+      HttpServletRequest request) {
+    LOGGER.debug("Received request to search sources (q: {}, limit: {})", q, limit);
+    if (q == null || q.isBlank()) {
+      throw new ValidationException("Search query 'q' cannot be blank.");
+    }
+    validateLimit(limit);
+    List<SearchHit> hits = sourceSearchService.search(q, limit);
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("Search for '{}' returned {} hits", q, hits.size());
+    }
+    return ResponseUtil.ok(hits);
+  }
+
+  /**
+   * Suggest existing books, videos and articles while a title or author is being typed,
+   * so clients can reuse a stored source instead of creating a duplicate.
+   * Matches word prefixes and tolerates misspellings.
+   *
+   * @param q The partially typed title or author
+   * @param limit The maximum number of suggestions to return (1-500, default 10)
+   * @param request The HTTP request object for error context
+   * @return ResponseEntity containing the suggestions, best first, with HTTP 200 status,
+   *         HTTP 400 if the query is blank or the limit is invalid,
+   *         or HTTP 500 if an error occurs
+   */
+  @GetMapping("/suggest")
+  public ResponseEntity<?> suggestSources(
+      @RequestParam(required = false) String q,
+      @RequestParam(defaultValue = DEFAULT_SUGGEST_LIMIT) int limit,
+      HttpServletRequest request) {
+    LOGGER.debug("Received request to suggest sources (q: {}, limit: {})", q, limit);
+    if (q == null || q.isBlank()) {
+      throw new ValidationException("Suggestion query 'q' cannot be blank.");
+    }
+    validateLimit(limit);
+    return ResponseUtil.ok(sourceSuggestService.suggest(q, limit));
+  }
+
   // Book Endpoints
   /**
    * Create a new book citation source in the database.
@@ -78,7 +221,7 @@ public class SourceController {
   @PostMapping("/book")
   public ResponseEntity<?> createBook(@Valid @RequestBody Book book,
                                        HttpServletRequest request) {
-    LOGGER.info("Received request to create book: {}", book);
+    LOGGER.debug("Received request to create book: {}", book);
     if (book == null) {
       throw new ValidationException(
           "Request body cannot be null. Please provide book information.");
@@ -92,20 +235,26 @@ public class SourceController {
   }
 
   /**
-   * Retrieve all book citation sources from the database.
+   * Retrieve book citation sources from the database, one keyset-paginated page at a time.
    *
+   * @param limit The maximum number of books to return (1-500, default 50)
+   * @param cursor The nextCursor value from the previous page; omit for the first page
    * @param request The HTTP request object for error context
-   * @return ResponseEntity containing a list of all books with HTTP 200 status,
-   *         or HTTP 500 if an error occurs
+   * @return ResponseEntity containing a page of books ordered by ID with HTTP 200 status,
+   *         HTTP 400 if the limit or cursor is invalid, or HTTP 500 if an error occurs
    */
   @GetMapping("/book")
-  public ResponseEntity<?> getAllBooks(HttpServletRequest request) {
-    LOGGER.info("Received request to retrieve all books");
-    List<Book> books = sourceService.getAllBooks();
+  public ResponseEntity<?> getBooks(
+      @RequestParam(defaultValue = DEFAULT_PAGE_LIMIT) int limit,
+      @RequestParam(required = false) String cursor,
+      HttpServletRequest request) {
+    LOGGER.debug("Received request to retrieve books (limit: {}, cursor: {})", limit, cursor);
+    validateLimit(limit);
+    SourcePage<Book> page = sourceService.getBooks(cursor, limit);
     if (LOGGER.isInfoEnabled()) {
-      LOGGER.info("Successfully retrieved {} books", books.size());
+      LOGGER.info("Successfully retrieved {} books", page.getItems().size());
     }
-    return ResponseUtil.ok(books);
+    return ResponseUtil.ok(page);
   }
 
   /**
@@ -113,12 +262,13 @@ public class SourceController {
    *
    * @param id The unique identifier of the book to retrieve
    * @param request The HTTP request object for error context
-   * @return ResponseEntity containing the book with HTTP 200 status if found,
+   * @return ResponseEntity containing the book with its ETag and Last-Modified and HTTP 200
+   *         status if found, HTTP 304 if the client's copy is current,
    *         or HTTP 404 if the book doesn't exist
    */
   @GetMapping("/book/{id}")
   public ResponseEntity<?> getBookById(@PathVariable Long id, HttpServletRequest request) {
-    LOGGER.info("Received request to retrieve book with ID: {}", id);
+    LOGGER.debug("Received request to retrieve book with ID: {}", id);
     validateId(id, "Book");
 
     Book book = sourceService.findBookById(id)
@@ -128,7 +278,7 @@ public class SourceController {
               "No book found with ID: " + id + ". Please verify the book ID and try again.");
         });
     LOGGER.info("Successfully retrieved book: {}", book);
-    return ResponseUtil.ok(book);
+    return conditionalOk(book, request);
   }
 
   /**
@@ -136,28 +286,67 @@ public class SourceController {
    *
    * @param id The unique identifier of the book to update
    * @param book The book entity containing updated information
+   * @param ifMatch The ETag the update was made against; omit to update unconditionally
    * @param request The HTTP request object for error context
-   * @return ResponseEntity containing the updated book with HTTP 200 status if successful,
-   *         HTTP 404 if the book doesn't exist, or HTTP 500 if an error occurs
+   * @return ResponseEntity containing the updated book with its new ETag and HTTP 200 status
+   *         if successful, HTTP 404 if the book doesn't exist, HTTP 412 if the book has
+   *         changed since the If-Match ETag, or HTTP 500 if an error occurs
    */
   @PutMapping("/book/{id}")
-  public ResponseEntity<?> updateBook(@PathVariable Long id,
-                                        @Valid @RequestBody Book book,
-                                        HttpServletRequest request) {
+  public ResponseEntity<?> updateBook(
+      @PathVariable Long id,
+      @Valid @RequestBody Book book,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      HttpServletRequest request) {
     validateId(id, "Book");
     if (book == null) {
       throw new ValidationException(
           "Request body cannot be null. Please provide book information.");
     }
 
-    Book updatedBook = sourceService.updateBook(id, book);
+    Long expectedVersion = EntityTags.expectedVersion(ifMatch);
+    Book updatedBook = sourceService.updateBook(id, book, expectedVersion);
     if (updatedBook == null) {
       LOGGER.warn("Book not found for update with ID: {}", id);
       throw new ResourceNotFoundException(
           "No book found with ID: " + id + ". Cannot update non-existent book.");
     }
     LOGGER.info("Successfully updated book with ID: {}", id);
-    return ResponseUtil.ok(updatedBook);
+    return updatedOk(updatedBook);
+  }
+
+  /**
+   * Partially update an existing book citation source with a JSON Merge Patch (RFC 7396):
+   * fields in the body are set, fields set to null are cleared and all other fields keep
+   * their stored values. Only the changed columns are written.
+   *
+   * @param id The unique identifier of the book to patch
+   * @param patch The merge patch, a JSON object holding the book fields to change
+   * @param ifMatch The ETag the patch was made against; omit to patch unconditionally
+   * @param request The HTTP request object for error context
+   * @return ResponseEntity containing the patched book with its new ETag and HTTP 200 status
+   *         if successful, HTTP 400 if the patch is invalid, HTTP 404 if the book doesn't
+   *         exist, or HTTP 412 if the book has changed since the If-Match ETag
+   */
+  @PatchMapping(value = "/book/{id}",
+      consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<?> patchBook(
+      @PathVariable Long id,
+      @RequestBody JsonNode patch,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      HttpServletRequest request) {
+    LOGGER.debug("Received request to patch book with ID: {}", id);
+    validateId(id, "Book");
+
+    Long expectedVersion = EntityTags.expectedVersion(ifMatch);
+    Book patchedBook = sourceService.patchBook(id, patch, expectedVersion);
+    if (patchedBook == null) {
+      LOGGER.warn("Book not found for patch with ID: {}", id);
+      throw new ResourceNotFoundException(
+          "No book found with ID: " + id + ". Cannot patch non-existent book.");
+    }
+    LOGGER.info("Successfully patched book with ID: {}", id);
+    return updatedOk(patchedBook);
   }
 
   /**
@@ -170,7 +359,7 @@ public class SourceController {
    */
   @DeleteMapping("/book/{id}")
   public ResponseEntity<?> deleteBook(@PathVariable Long id, HttpServletRequest request) {
-    LOGGER.info("Received request to delete book with ID: {}", id);
+    LOGGER.debug("Received request to delete book with ID: {}", id);
     validateId(id, "Book");
 
     sourceService.findBookById(id)
@@ -196,7 +385,7 @@ public class SourceController {
   @PostMapping("/video")
   public ResponseEntity<?> createVideo(@Valid @RequestBody Video video,
                                         HttpServletRequest request) {
-    LOGGER.info("Received request to create video: {}", video);
+    LOGGER.debug("Received request to create video: {}", video);
     if (video == null) {
       throw new ValidationException(
           "Request body cannot be null. Please provide video information.");
@@ -210,20 +399,26 @@ public class SourceController {
   }
 
   /**
-   * Retrieve all video citation sources from the database.
+   * Retrieve video citation sources from the database, one keyset-paginated page at a time.
    *
+   * @param limit The maximum number of videos to return (1-500, default 50)
+   * @param cursor The nextCursor value from the previous page; omit for the first page
    * @param request The HTTP request object for error context
-   * @return ResponseEntity containing a list of all videos with HTTP 200 status,
-   *         or HTTP 500 if an error occurs
+   * @return ResponseEntity containing a page of videos ordered by ID with HTTP 200 status,
+   *         HTTP 400 if the limit or cursor is invalid, or HTTP 500 if an error occurs
    */
   @GetMapping("/video")
-  public ResponseEntity<?> getAllVideos(HttpServletRequest request) {
-    LOGGER.info("Received request to retrieve all videos");
-    List<Video> videos = sourceService.getAllVideos();
+  public ResponseEntity<?> getVideos(
+      @RequestParam(defaultValue = DEFAULT_PAGE_LIMIT) int limit,
+      @RequestParam(required = false) String cursor,
+      HttpServletRequest request) {
+    LOGGER.debug("Received request to retrieve videos (limit: {}, cursor: {})", limit, cursor);
+    validateLimit(limit);
+    SourcePage<Video> page = sourceService.getVideos(cursor, limit);
     if (LOGGER.isInfoEnabled()) {
-      LOGGER.info("Successfully retrieved {} videos", videos.size());
+      LOGGER.info("Successfully retrieved {} videos", page.getItems().size());
     }
-    return ResponseUtil.ok(videos);
+    return ResponseUtil.ok(page);
   }
 
   /**
@@ -231,12 +426,13 @@ public class SourceController {
    *
    * @param id The unique identifier of the video to retrieve
    * @param request The HTTP request object for error context
-   * @return ResponseEntity containing the video with HTTP 200 status if found,
+   * @return ResponseEntity containing the video with its ETag and Last-Modified and HTTP 200
+   *         status if found, HTTP 304 if the client's copy is current,
    *         or HTTP 404 if the video doesn't exist
    */
   @GetMapping("/video/{id}")
   public ResponseEntity<?> getVideoById(@PathVariable Long id, HttpServletRequest request) {
-    LOGGER.info("Received request to retrieve video with ID: {}", id);
+    LOGGER.debug("Received request to retrieve video with ID: {}", id);
     validateId(id, "Video");
 
     Video video = sourceService.findVideoById(id)
@@ -246,7 +442,7 @@ public class SourceController {
               "No video found with ID: " + id + ". Please verify the video ID and try again.");
         });
     LOGGER.info("Successfully retrieved video: {}", video);
-    return ResponseUtil.ok(video);
+    return conditionalOk(video, request);
   }
 
   /**
@@ -254,29 +450,68 @@ public class SourceController {
    *
    * @param id The unique identifier of the video to update
    * @param video The video entity containing updated information
+   * @param ifMatch The ETag the update was made against; omit to update unconditionally
    * @param request The HTTP request object for error context
-   * @return ResponseEntity containing the updated video with HTTP 200 status if successful,
-   *         HTTP 404 if the video doesn't exist, or HTTP 500 if an error occurs
+   * @return ResponseEntity containing the updated video with its new ETag and HTTP 200 status
+   *         if successful, HTTP 404 if the video doesn't exist, HTTP 412 if the video has
+   *         changed since the If-Match ETag, or HTTP 500 if an error occurs
    */
   @PutMapping("/video/{id}")
-  public ResponseEntity<?> updateVideo(@PathVariable Long id,
-                                      @Valid @RequestBody Video video,
-                                      HttpServletRequest request) {
-    LOGGER.info("Received request to update video with ID: {}", id);
+  public ResponseEntity<?> updateVideo(
+      @PathVariable Long id,
+      @Valid @RequestBody Video video,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      HttpServletRequest request) {
+    LOGGER.debug("Received request to update video with ID: {}", id);
     validateId(id, "Video");
     if (video == null) {
       throw new ValidationException(
           "Request body cannot be null. Please provide video information.");
     }
 
-    Video updatedVideo = sourceService.updateVideo(id, video);
+    Long expectedVersion = EntityTags.expectedVersion(ifMatch);
+    Video updatedVideo = sourceService.updateVideo(id, video, expectedVersion);
     if (updatedVideo == null) {
       LOGGER.warn("Video not found for update with ID: {}", id);
       throw new ResourceNotFoundException(
           "No video found with ID: " + id + ". Cannot update non-existent video.");
     }
     LOGGER.info("Successfully updated video with ID: {}", id);
-    return ResponseUtil.ok(updatedVideo);
+    return updatedOk(updatedVideo);
+  }
+
+  /**
+   * Partially update an existing video citation source with a JSON Merge Patch (RFC 7396):
+   * fields in the body are set, fields set to null are cleared and all other fields keep
+   * their stored values. Only the changed columns are written.
+   *
+   * @param id The unique identifier of the video to patch
+   * @param patch The merge patch, a JSON object holding the video fields to change
+   * @param ifMatch The ETag the patch was made against; omit to patch unconditionally
+   * @param request The HTTP request object for error context
+   * @return ResponseEntity containing the patched video with its new ETag and HTTP 200 status
+   *         if successful, HTTP 400 if the patch is invalid, HTTP 404 if the video doesn't
+   *         exist, or HTTP 412 if the video has changed since the If-Match ETag
+   */
+  @PatchMapping(value = "/video/{id}",
+      consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<?> patchVideo(
+      @PathVariable Long id,
+      @RequestBody JsonNode patch,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      HttpServletRequest request) {
+    LOGGER.debug("Received request to patch video with ID: {}", id);
+    validateId(id, "Video");
+
+    Long expectedVersion = EntityTags.expectedVersion(ifMatch);
+    Video patchedVideo = sourceService.patchVideo(id, patch, expectedVersion);
+    if (patchedVideo == null) {
+      LOGGER.warn("Video not found for patch with ID: {}", id);
+      throw new ResourceNotFoundException(
+          "No video found with ID: " + id + ". Cannot patch non-existent video.");
+    }
+    LOGGER.info("Successfully patched video with ID: {}", id);
+    return updatedOk(patchedVideo);
   }
 
   /**
@@ -289,7 +524,7 @@ public class SourceController {
    */
   @DeleteMapping("/video/{id}")
   public ResponseEntity<?> deleteVideo(@PathVariable Long id, HttpServletRequest request) {
-    LOGGER.info("Received request to delete video with ID: {}", id);
+    LOGGER.debug("Received request to delete video with ID: {}", id);
     validateId(id, "Video");
 
     sourceService.findVideoById(id)
@@ -315,7 +550,7 @@ public class SourceController {
   @PostMapping("/article")
   public ResponseEntity<?> createArticle(@Valid @RequestBody Article article,
                                          HttpServletRequest request) {
-    LOGGER.info("Received request to create article: {}", article);
+    LOGGER.debug("Received request to create article: {}", article);
     if (article == null) {
       throw new ValidationException(
           "Request body cannot be null. Please provide article information.");
@@ -329,20 +564,26 @@ public class SourceController {
   }
 
   /**
-   * Retrieve all article citation sources from the database.
+   * Retrieve article citation sources from the database, one keyset-paginated page at a time.
    *
+   * @param limit The maximum number of articles to return (1-500, default 50)
+   * @param cursor The nextCursor value from the previous page; omit for the first page
    * @param request The HTTP request object for error context
-   * @return ResponseEntity containing a list of all articles with HTTP 200 status,
-   *         or HTTP 500 if an error occurs
+   * @return ResponseEntity containing a page of articles ordered by ID with HTTP 200 status,
+   *         HTTP 400 if the limit or cursor is invalid, or HTTP 500 if an error occurs
    */
   @GetMapping("/article")
-  public ResponseEntity<?> getAllArticles(HttpServletRequest request) {
-    LOGGER.info("Received request to retrieve all articles");
-    List<Article> articles = sourceService.getAllArticles();
+  public ResponseEntity<?> getArticles(
+      @RequestParam(defaultValue = DEFAULT_PAGE_LIMIT) int limit,
+      @RequestParam(required = false) String cursor,
+      HttpServletRequest request) {
+    LOGGER.debug("Received request to retrieve articles (limit: {}, cursor: {})", limit, cursor);
+    validateLimit(limit);
+    SourcePage<Article> page = sourceService.getArticles(cursor, limit);
     if (LOGGER.isInfoEnabled()) {
-      LOGGER.info("Successfully retrieved {} articles", articles.size());
+      LOGGER.info("Successfully retrieved {} articles", page.getItems().size());
     }
-    return ResponseUtil.ok(articles);
+    return ResponseUtil.ok(page);
   }
 
   /**
@@ -350,12 +591,13 @@ public class SourceController {
    *
    * @param id The unique identifier of the article to retrieve
    * @param request The HTTP request object for error context
-   * @return ResponseEntity containing the article with HTTP 200 status if found,
+   * @return ResponseEntity containing the article with its ETag and Last-Modified and HTTP 200
+   *         status if found, HTTP 304 if the client's copy is current,
    *         or HTTP 404 if the article doesn't exist
    */
   @GetMapping("/article/{id}")
   public ResponseEntity<?> getArticleById(@PathVariable Long id, HttpServletRequest request) {
-    LOGGER.info("Received request to retrieve article with ID: {}", id);
+    LOGGER.debug("Received request to retrieve article with ID: {}", id);
     validateId(id, "Article");
 
     Article article = sourceService.findArticleById(id)
@@ -365,7 +607,7 @@ public class SourceController {
               "No article found with ID: " + id + ". Please verify the article ID and try again.");
         });
     LOGGER.info("Successfully retrieved article: {}", article);
-    return ResponseUtil.ok(article);
+    return conditionalOk(article, request);
   }
 
   /**
@@ -373,29 +615,68 @@ public class SourceController {
    *
    * @param id The unique identifier of the article to update
    * @param article The article entity containing updated information
+   * @param ifMatch The ETag the update was made against; omit to update unconditionally
    * @param request The HTTP request object for error context
-   * @return ResponseEntity containing the updated article with HTTP 200 status if successful,
-   *         HTTP 404 if the article doesn't exist, or HTTP 500 if an error occurs
+   * @return ResponseEntity containing the updated article with its new ETag and HTTP 200 status
+   *         if successful, HTTP 404 if the article doesn't exist, HTTP 412 if the article has
+   *         changed since the If-Match ETag, or HTTP 500 if an error occurs
    */
   @PutMapping("/article/{id}")
-  public ResponseEntity<?> updateArticle(@PathVariable Long id,
-                                        @Valid @RequestBody Article article,
-                                        HttpServletRequest request) {
-    LOGGER.info("Received request to update article with ID: {}", id);
+  public ResponseEntity<?> updateArticle(
+      @PathVariable Long id,
+      @Valid @RequestBody Article article,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      HttpServletRequest request) {
+    LOGGER.debug("Received request to update article with ID: {}", id);
     validateId(id, "Article");
     if (article == null) {
       throw new ValidationException(
           "Request body cannot be null. Please provide article information.");
     }
 
-    Article updatedArticle = sourceService.updateArticle(id, article);
+    Long expectedVersion = EntityTags.expectedVersion(ifMatch);
+    Article updatedArticle = sourceService.updateArticle(id, article, expectedVersion);
     if (updatedArticle == null) {
       LOGGER.warn("Article not found for update with ID: {}", id);
       throw new ResourceNotFoundException(
           "No article found with ID: " + id + ". Cannot update non-existent article.");
     }
     LOGGER.info("Successfully updated article with ID: {}", id);
-    return ResponseUtil.ok(updatedArticle);
+    return updatedOk(updatedArticle);
+  }
+
+  /**
+   * Partially update an existing article citation source with a JSON Merge Patch (RFC 7396):
+   * fields in the body are set, fields set to null are cleared and all other fields keep
+   * their stored values. Only the changed columns are written.
+   *
+   * @param id The unique identifier of the article to patch
+   * @param patch The merge patch, a JSON object holding the article fields to change
+   * @param ifMatch The ETag the patch was made against; omit to patch unconditionally
+   * @param request The HTTP request object for error context
+   * @return ResponseEntity containing the patched article with its new ETag and HTTP 200 status
+   *         if successful, HTTP 400 if the patch is invalid, HTTP 404 if the article doesn't
+   *         exist, or HTTP 412 if the article has changed since the If-Match ETag
+   */
+  @PatchMapping(value = "/article/{id}",
+      consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<?> patchArticle(
+      @PathVariable Long id,
+      @RequestBody JsonNode patch,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      HttpServletRequest request) {
+    LOGGER.debug("Received request to patch article with ID: {}", id);
+    validateId(id, "Article");
+
+    Long expectedVersion = EntityTags.expectedVersion(ifMatch);
+    Article patchedArticle = sourceService.patchArticle(id, patch, expectedVersion);
+    if (patchedArticle == null) {
+      LOGGER.warn("Article not found for patch with ID: {}", id);
+      throw new ResourceNotFoundException(
+          "No article found with ID: " + id + ". Cannot patch non-existent article.");
+    }
+    LOGGER.info("Successfully patched article with ID: {}", id);
+    return updatedOk(patchedArticle);
   }
 
   /**
@@ -408,7 +689,7 @@ public class SourceController {
    */
   @DeleteMapping("/article/{id}")
   public ResponseEntity<?> deleteArticle(@PathVariable Long id, HttpServletRequest request) {
-    LOGGER.info("Received request to delete article with ID: {}", id);
+    LOGGER.debug("Received request to delete article with ID: {}", id);
     validateId(id, "Article");
 
     sourceService.findArticleById(id)
@@ -422,6 +703,42 @@ public class SourceController {
     return ResponseUtil.noContent();
   }
 
+  /**
+   * Delete many sources at once, selected by ID list and/or filter criteria, with
+   * set-based statements run in chunked transactions. Every criterion given must match.
+   * Sources still cited are kept unless cascade is set, which deletes their citations too.
+   *
+   * @param request The IDs, media type and updatedBefore cutoff selecting the sources,
+   *                and the cascade flag
+   * @return ResponseEntity containing the matched, deleted and kept counts with HTTP 200
+   *         status, or HTTP 400 if no criterion is given or a criterion is invalid
+   */
+  @PostMapping("/sources/delete")
+  public ResponseEntity<?> deleteSources(@RequestBody BulkDeleteRequest request) {
+    if (request == null) {
+      throw new ValidationException("Request body cannot be null. Please provide ids or"
+          + " filter criteria.");
+    }
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Received request to bulk delete sources (mediaType: {}, updatedBefore: {},"
+          + " cascade: {})", request.getMediaType(), request.getUpdatedBefore(),
+          request.isCascade());
+    }
+    List<Long> ids = request.getIds();
+    if (ids == null && request.getMediaType() == null && request.getUpdatedBefore() == null) {
+      throw new ValidationException(
+          "Provide ids, mediaType or updatedBefore to select the sources to delete.");
+    }
+    if (ids != null) {
+      if (ids.isEmpty() || ids.size() > MAX_BULK_DELETE_IDS) {
+        throw new ValidationException("ids must hold between 1 and " + MAX_BULK_DELETE_IDS
+            + " source IDs. Provided: " + ids.size());
+      }
+      ids.forEach(id -> validateId(id, "Source"));
+    }
+    return ResponseUtil.ok(sourceDeleteService.deleteSources(request));
+  }
+
   // Batch endpoint: accepts multiple sources and optional submissionId
   /**
    * Add or append multiple sources to the database.
@@ -439,7 +756,7 @@ public class SourceController {
   public ResponseEntity<SourceBatchResponse> addSources(
       @RequestBody BulkSourceRequest request,
       @RequestParam(value = "submissionId", required = false) Long submissionId) {
-    LOGGER.info("Received request to add bulk sources. SubmissionId: {}", submissionId);
+    LOGGER.debug("Received request to add bulk sources. SubmissionId: {}", submissionId);
     // return 400 Bad Request when the request has no sources
     if (request == null || request.getSources() == null || request.getSources().isEmpty()) {
       LOGGER.warn("Received empty bulk source request");
@@ -0,0 +1,97 @@
+package com.columbia.coms4156.citationservice.controller.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO representing a bulk source delete request.
+ *
+ * <p>Selects the sources to delete by ID list and/or filter criteria; all the criteria
+ * given must match. Sources still cited are kept unless {@code cascade} is set, in which
+ * case their citations are deleted with them.</p>
+ */
+public class BulkDeleteRequest {
+    /** The IDs of the sources to delete, or null to select by the other criteria. */
+    private List<Long> ids;
+
+    /** The media type to restrict to ("book", "video" or "article"), or null for all. */
+    private String mediaType;
+
+    /** Only delete sources last written before this time, or null for any time. */
+    private Instant updatedBefore;
+
+    /** Whether to delete the citations of cited sources instead of keeping the sources. */
+    private boolean cascade;
+
+    /**
+     * Gets the IDs of the sources to delete.
+     *
+     * @return the source IDs, or null
+     */
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    /**
+     * Sets the IDs of the sources to delete.
+     *
+     * @param idsParam the source IDs
+     */
+    public void setIds(List<Long> idsParam) {
+        this.ids = idsParam;
+    }
+
+    /**
+     * Gets the media type to restrict to.
+     *
+     * @return the media type, or null
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Sets the media type to restrict to.
+     *
+     * @param mediaTypeParam the media type
+     */
+    public void setMediaType(String mediaTypeParam) {
+        this.mediaType = mediaTypeParam;
+    }
+
+    /**
+     * Gets the time sources must have been last written before.
+     *
+     * @return the cutoff time, or null
+     */
+    public Instant getUpdatedBefore() {
+        return updatedBefore;
+    }
+
+    /**
+     * Sets the time sources must have been last written before.
+     *
+     * @param updatedBeforeParam the cutoff time
+     */
+    public void setUpdatedBefore(Instant updatedBeforeParam) {
+        this.updatedBefore = updatedBeforeParam;
+    }
+
+    /**
+     * Whether the citations of cited sources are deleted along with them.
+     *
+     * @return true to delete citations, false to keep cited sources
+     */
+    public boolean isCascade() {
+        return cascade;
+    }
+
+    /**
+     * Sets whether the citations of cited sources are deleted along with them.
+     *
+     * @param cascadeParam true to delete citations, false to keep cited sources
+     */
+    public void setCascade(boolean cascadeParam) {
+        this.cascade = cascadeParam;
+    }
+}
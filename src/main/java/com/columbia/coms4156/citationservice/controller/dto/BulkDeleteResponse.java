@@ -0,0 +1,113 @@
+package com.columbia.coms4156.citationservice.controller.dto;
+
+/**
+ * DTO reporting the outcome of a bulk source delete.
+ */
+public class BulkDeleteResponse {
+    /** The number of sources that matched the request. */
+    private long matchedSources;
+
+    /** The number of sources deleted. */
+    private long deletedSources;
+
+    /** The number of citations deleted along with their sources. */
+    private long deletedCitations;
+
+    /** The number of matching sources kept because a citation references them. */
+    private long keptCitedSources;
+
+    /**
+     * Default constructor for BulkDeleteResponse.
+     */
+    public BulkDeleteResponse() {
+        // Empty constructor required for JSON deserialization
+    }
+
+    /**
+     * Constructs a BulkDeleteResponse with the given counts.
+     *
+     * @param matchedSourcesParam the number of matching sources
+     * @param deletedSourcesParam the number of sources deleted
+     * @param deletedCitationsParam the number of citations deleted
+     * @param keptCitedSourcesParam the number of cited sources kept
+     */
+    public BulkDeleteResponse(long matchedSourcesParam, long deletedSourcesParam,
+                              long deletedCitationsParam, long keptCitedSourcesParam) {
+        this.matchedSources = matchedSourcesParam;
+        this.deletedSources = deletedSourcesParam;
+        this.deletedCitations = deletedCitationsParam;
+        this.keptCitedSources = keptCitedSourcesParam;
+    }
+
+    /**
+     * Gets the number of sources that matched the request.
+     *
+     * @return the number of matching sources
+     */
+    public long getMatchedSources() {
+        return matchedSources;
+    }
+
+    /**
+     * Sets the number of sources that matched the request.
+     *
+     * @param matchedSourcesParam the number of matching sources
+     */
+    public void setMatchedSources(long matchedSourcesParam) {
+        this.matchedSources = matchedSourcesParam;
+    }
+
+    /**
+     * Gets the number of sources deleted.
+     *
+     * @return the number of sources deleted
+     */
+    public long getDeletedSources() {
+        return deletedSources;
+    }
+
+    /**
+     * Sets the number of sources deleted.
+     *
+     * @param deletedSourcesParam the number of sources deleted
+     */
+    public void setDeletedSources(long deletedSourcesParam) {
+        this.deletedSources = deletedSourcesParam;
+    }
+
+    /**
+     * Gets the number of citations deleted along with their sources.
+     *
+     * @return the number of citations deleted
+     */
+    public long getDeletedCitations() {
+        return deletedCitations;
+    }
+
+    /**
+     * Sets the number of citations deleted along with their sources.
+     *
+     * @param deletedCitationsParam the number of citations deleted
+     */
+    public void setDeletedCitations(long deletedCitationsParam) {
+        this.deletedCitations = deletedCitationsParam;
+    }
+
+    /**
+     * Gets the number of matching sources kept because a citation references them.
+     *
+     * @return the number of cited sources kept
+     */
+    public long getKeptCitedSources() {
+        return keptCitedSources;
+    }
+
+    /**
+     * Sets the number of matching sources kept because a citation references them.
+     *
+     * @param keptCitedSourcesParam the number of cited sources kept
+     */
+    public void setKeptCitedSources(long keptCitedSourcesParam) {
+        this.keptCitedSources = keptCitedSourcesParam;
+    }
+}
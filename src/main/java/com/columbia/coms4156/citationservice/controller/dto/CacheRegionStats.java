@@ -0,0 +1,124 @@
+package com.columbia.coms4156.citationservice.controller.dto;
+
+/**
+ * DTO reporting the hit, miss and put counts of one second-level or query cache region
+ * since startup.
+ */
+public class CacheRegionStats {
+    /** The name of the cache region. */
+    private String region;
+
+    /** The number of lookups answered from the region. */
+    private long hitCount;
+
+    /** The number of lookups the region could not answer. */
+    private long missCount;
+
+    /** The number of entries put into the region. */
+    private long putCount;
+
+    /**
+     * Default constructor for CacheRegionStats.
+     */
+    public CacheRegionStats() {
+        // Empty constructor required for JSON deserialization
+    }
+
+    /**
+     * Constructs a CacheRegionStats with the given counts.
+     *
+     * @param regionParam the name of the cache region
+     * @param hitCountParam the number of hits
+     * @param missCountParam the number of misses
+     * @param putCountParam the number of puts
+     */
+    public CacheRegionStats(String regionParam, long hitCountParam, long missCountParam,
+                            long putCountParam) {
+        this.region = regionParam;
+        this.hitCount = hitCountParam;
+        this.missCount = missCountParam;
+        this.putCount = putCountParam;
+    }
+
+    /**
+     * Gets the region name.
+     *
+     * @return the region name
+     */
+    public String getRegion() {
+        return region;
+    }
+
+    /**
+     * Sets the region name.
+     *
+     * @param regionParam the region name
+     */
+    public void setRegion(String regionParam) {
+        this.region = regionParam;
+    }
+
+    /**
+     * Gets the hit count.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Sets the hit count.
+     *
+     * @param hitCountParam the hit count
+     */
+    public void setHitCount(long hitCountParam) {
+        this.hitCount = hitCountParam;
+    }
+
+    /**
+     * Gets the miss count.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Sets the miss count.
+     *
+     * @param missCountParam the miss count
+     */
+    public void setMissCount(long missCountParam) {
+        this.missCount = missCountParam;
+    }
+
+    /**
+     * Gets the put count.
+     *
+     * @return the put count
+     */
+    public long getPutCount() {
+        return putCount;
+    }
+
+    /**
+     * Sets the put count.
+     *
+     * @param putCountParam the put count
+     */
+    public void setPutCount(long putCountParam) {
+        this.putCount = putCountParam;
+    }
+
+    /**
+     * Gets the share of lookups answered from the region.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if the region has not been read yet
+     */
+    public double getHitRatio() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+}
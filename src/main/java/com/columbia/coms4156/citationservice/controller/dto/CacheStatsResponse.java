@@ -0,0 +1,94 @@
+package com.columbia.coms4156.citationservice.controller.dto;
+
+import java.util.List;
+
+/**
+ * DTO reporting second-level and query cache effectiveness since startup: totals across
+ * all entity regions, totals for the query cache, and the counts of each region.
+ */
+public class CacheStatsResponse {
+    /** Entity cache totals across all regions. */
+    private CacheRegionStats secondLevelCache;
+
+    /** Query cache totals. */
+    private CacheRegionStats queryCache;
+
+    /** Counts per cache region, ordered by region name. */
+    private List<CacheRegionStats> regions;
+
+    /**
+     * Default constructor for CacheStatsResponse.
+     */
+    public CacheStatsResponse() {
+        // Empty constructor required for JSON deserialization
+    }
+
+    /**
+     * Constructs a CacheStatsResponse with the given statistics.
+     *
+     * @param secondLevelCacheParam entity cache totals
+     * @param queryCacheParam query cache totals
+     * @param regionsParam counts per cache region
+     */
+    public CacheStatsResponse(CacheRegionStats secondLevelCacheParam,
+                              CacheRegionStats queryCacheParam,
+                              List<CacheRegionStats> regionsParam) {
+        this.secondLevelCache = secondLevelCacheParam;
+        this.queryCache = queryCacheParam;
+        this.regions = regionsParam;
+    }
+
+    /**
+     * Gets the entity cache totals.
+     *
+     * @return the entity cache totals
+     */
+    public CacheRegionStats getSecondLevelCache() {
+        return secondLevelCache;
+    }
+
+    /**
+     * Sets the entity cache totals.
+     *
+     * @param secondLevelCacheParam the entity cache totals
+     */
+    public void setSecondLevelCache(CacheRegionStats secondLevelCacheParam) {
+        this.secondLevelCache = secondLevelCacheParam;
+    }
+
+    /**
+     * Gets the query cache totals.
+     *
+     * @return the query cache totals
+     */
+    public CacheRegionStats getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Sets the query cache totals.
+     *
+     * @param queryCacheParam the query cache totals
+     */
+    public void setQueryCache(CacheRegionStats queryCacheParam) {
+        this.queryCache = queryCacheParam;
+    }
+
+    /**
+     * Gets the counts per cache region.
+     *
+     * @return the counts per region
+     */
+    public List<CacheRegionStats> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Sets the counts per cache region.
+     *
+     * @param regionsParam the counts per region
+     */
+    public void setRegions(List<CacheRegionStats> regionsParam) {
+        this.regions = regionsParam;
+    }
+}
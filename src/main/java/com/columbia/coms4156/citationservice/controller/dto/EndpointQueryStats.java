@@ -0,0 +1,146 @@
+package com.columbia.coms4156.citationservice.controller.dto;
+
+/**
+ * DTO reporting the SQL statements issued by one endpoint since startup: how many requests
+ * it served, how many statements they issued in total and at most, and the time spent.
+ */
+public class EndpointQueryStats {
+    /** The HTTP method and URI pattern of the endpoint. */
+    private String endpoint;
+
+    /** The number of requests served. */
+    private long requests;
+
+    /** The total number of SQL statements issued. */
+    private long statements;
+
+    /** The largest number of SQL statements issued by a single request. */
+    private long maxStatements;
+
+    /** The total time spent executing SQL statements, in milliseconds. */
+    private long timeMillis;
+
+    /**
+     * Default constructor for EndpointQueryStats.
+     */
+    public EndpointQueryStats() {
+        // Empty constructor required for JSON deserialization
+    }
+
+    /**
+     * Constructs an EndpointQueryStats with the given totals.
+     *
+     * @param endpointParam the HTTP method and URI pattern
+     * @param requestsParam the number of requests
+     * @param statementsParam the total number of statements
+     * @param maxStatementsParam the largest number of statements in one request
+     * @param timeMillisParam the total statement time in milliseconds
+     */
+    public EndpointQueryStats(String endpointParam, long requestsParam, long statementsParam,
+                              long maxStatementsParam, long timeMillisParam) {
+        this.endpoint = endpointParam;
+        this.requests = requestsParam;
+        this.statements = statementsParam;
+        this.maxStatements = maxStatementsParam;
+        this.timeMillis = timeMillisParam;
+    }
+
+    /**
+     * Gets the endpoint.
+     *
+     * @return the HTTP method and URI pattern
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Sets the endpoint.
+     *
+     * @param endpointParam the HTTP method and URI pattern
+     */
+    public void setEndpoint(String endpointParam) {
+        this.endpoint = endpointParam;
+    }
+
+    /**
+     * Gets the number of requests.
+     *
+     * @return the number of requests
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Sets the number of requests.
+     *
+     * @param requestsParam the number of requests
+     */
+    public void setRequests(long requestsParam) {
+        this.requests = requestsParam;
+    }
+
+    /**
+     * Gets the total number of statements.
+     *
+     * @return the total number of statements
+     */
+    public long getStatements() {
+        return statements;
+    }
+
+    /**
+     * Sets the total number of statements.
+     *
+     * @param statementsParam the total number of statements
+     */
+    public void setStatements(long statementsParam) {
+        this.statements = statementsParam;
+    }
+
+    /**
+     * Gets the largest number of statements issued by one request.
+     *
+     * @return the largest number of statements
+     */
+    public long getMaxStatements() {
+        return maxStatements;
+    }
+
+    /**
+     * Sets the largest number of statements issued by one request.
+     *
+     * @param maxStatementsParam the largest number of statements
+     */
+    public void setMaxStatements(long maxStatementsParam) {
+        this.maxStatements = maxStatementsParam;
+    }
+
+    /**
+     * Gets the total statement time.
+     *
+     * @return the total statement time in milliseconds
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * Sets the total statement time.
+     *
+     * @param timeMillisParam the total statement time in milliseconds
+     */
+    public void setTimeMillis(long timeMillisParam) {
+        this.timeMillis = timeMillisParam;
+    }
+
+    /**
+     * Gets the average number of statements per request.
+     *
+     * @return the average, or 0 if no requests were served
+     */
+    public double getAverageStatements() {
+        return requests == 0 ? 0.0 : (double) statements / requests;
+    }
+}
@@ -0,0 +1,139 @@
+package com.columbia.coms4156.citationservice.controller.dto;
+
+/**
+ * DTO representing one ranked result of a full-text source search.
+ *
+ * <p>Identifies the matching source by media type and ID, carries its title and author
+ * for display, and the relevance score the results are ordered by (higher is better).</p>
+ */
+public class SearchHit {
+    /** The media type of the matching source: book, video or article. */
+    private String mediaType;
+
+    /** The ID of the matching source. */
+    private Long id;
+
+    /** The title of the matching source. */
+    private String title;
+
+    /** The author of the matching source. */
+    private String author;
+
+    /** The relevance score of the match; only comparable within one search. */
+    private double score;
+
+    /**
+     * Default constructor for SearchHit.
+     */
+    public SearchHit() {
+        // Empty constructor required for JSON deserialization
+    }
+
+    /**
+     * Constructs a SearchHit with the given fields.
+     *
+     * @param mediaTypeParam the media type of the source
+     * @param idParam the ID of the source
+     * @param titleParam the title of the source
+     * @param authorParam the author of the source
+     * @param scoreParam the relevance score
+     */
+    public SearchHit(String mediaTypeParam, Long idParam, String titleParam,
+                     String authorParam, double scoreParam) {
+        this.mediaType = mediaTypeParam;
+        this.id = idParam;
+        this.title = titleParam;
+        this.author = authorParam;
+        this.score = scoreParam;
+    }
+
+    /**
+     * Gets the media type.
+     *
+     * @return the media type
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Sets the media type.
+     *
+     * @param mediaTypeParam the media type
+     */
+    public void setMediaType(String mediaTypeParam) {
+        this.mediaType = mediaTypeParam;
+    }
+
+    /**
+     * Gets the source ID.
+     *
+     * @return the source ID
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the source ID.
+     *
+     * @param idParam the source ID
+     */
+    public void setId(Long idParam) {
+        this.id = idParam;
+    }
+
+    /**
+     * Gets the title.
+     *
+     * @return the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Sets the title.
+     *
+     * @param titleParam the title
+     */
+    public void setTitle(String titleParam) {
+        this.title = titleParam;
+    }
+
+    /**
+     * Gets the author.
+     *
+     * @return the author
+     */
+    public String getAuthor() {
+        return author;
+    }
+
+    /**
+     * Sets the author.
+     *
+     * @param authorParam the author
+     */
+    public void setAuthor(String authorParam) {
+        this.author = authorParam;
+    }
+
+    /**
+     * Gets the relevance score.
+     *
+     * @return the score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Sets the relevance score.
+     *
+     * @param scoreParam the score
+     */
+    public void setScore(double scoreParam) {
+        this.score = scoreParam;
+    }
+}
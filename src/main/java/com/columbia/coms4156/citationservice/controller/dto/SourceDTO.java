@@ -18,6 +18,9 @@ public class SourceDTO {
     /** The ISBN of the source, if applicable. */
     private String isbn;
 
+    /** The DOI of the source, if applicable. */
+    private String doi;
+
     /** The publisher of the source. */
     private String publisher;
 
@@ -156,6 +159,24 @@ public class SourceDTO {
         this.isbn = isbnParam;
     }
 
+    /**
+     * Gets the DOI of the source.
+     *
+     * @return the DOI
+     */
+    public String getDoi() {
+        return this.doi;
+    }
+
+    /**
+     * Sets the DOI of the source.
+     *
+     * @param doiParam the DOI to set
+     */
+    public void setDoi(String doiParam) {
+        this.doi = doiParam;
+    }
+
     /**
      * Gets the publisher of the source.
      *
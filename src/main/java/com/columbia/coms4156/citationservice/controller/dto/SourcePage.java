@@ -0,0 +1,98 @@
+package com.columbia.coms4156.citationservice.controller.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO representing one keyset-paginated page of sources.
+ *
+ * <p>Contains the sources on the page (ordered by ascending ID), the page size limit that
+ * was applied, and an opaque cursor for fetching the next page, which is null once the
+ * last page has been reached.</p>
+ *
+ * @param <T> the source type on the page
+ */
+public class SourcePage<T> {
+    /** The sources on this page, ordered by ascending ID. */
+    private List<T> items;
+
+    /** Opaque cursor to pass back to fetch the next page, or null if there is none. */
+    private String nextCursor;
+
+    /** The maximum number of sources requested for this page. */
+    private int limit;
+
+    /**
+     * Default constructor for SourcePage.
+     */
+    public SourcePage() {
+        this.items = new ArrayList<>();
+    }
+
+    /**
+     * Constructs a SourcePage with the given items, next cursor and limit.
+     *
+     * @param itemsParam the sources on this page
+     * @param nextCursorParam the cursor for the next page, or null if there is none
+     * @param limitParam the page size limit that was applied
+     */
+    public SourcePage(List<T> itemsParam, String nextCursorParam, int limitParam) {
+        this.items = itemsParam == null ? new ArrayList<>() : itemsParam;
+        this.nextCursor = nextCursorParam;
+        this.limit = limitParam;
+    }
+
+    /**
+     * Gets the sources on this page.
+     *
+     * @return the sources on this page
+     */
+    public List<T> getItems() {
+        return this.items;
+    }
+
+    /**
+     * Sets the sources on this page.
+     *
+     * @param itemsParam the sources to set
+     */
+    public void setItems(List<T> itemsParam) {
+        this.items = itemsParam == null ? new ArrayList<>() : itemsParam;
+    }
+
+    /**
+     * Gets the cursor for the next page.
+     *
+     * @return the next cursor, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    /**
+     * Sets the cursor for the next page.
+     *
+     * @param nextCursorParam the next cursor to set
+     */
+    public void setNextCursor(String nextCursorParam) {
+        this.nextCursor = nextCursorParam;
+    }
+
+    /**
+     * Gets the page size limit that was applied.
+     *
+     * @return the page size limit
+     */
+    public int getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Sets the page size limit that was applied.
+     *
+     * @param limitParam the page size limit to set
+     */
+    public void setLimit(int limitParam) {
+        this.limit = limitParam;
+    }
+}
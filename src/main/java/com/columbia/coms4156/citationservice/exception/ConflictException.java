@@ -0,0 +1,17 @@
+package com.columbia.coms4156.citationservice.exception;
+
+/**
+ * Exception thrown when a request conflicts with the current state of the service, such
+ * as starting a Flight Recorder recording while another one is running.
+ */
+public class ConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new ConflictException with the specified message.
+     *
+     * @param message the detail message
+     */
+    public ConflictException(String message) {
+        super(message);
+    }
+}
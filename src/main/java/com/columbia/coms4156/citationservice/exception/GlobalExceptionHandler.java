@@ -4,6 +4,8 @@ import com.columbia.coms4156.citationservice.model.ErrorResponse;
 import com.columbia.coms4156.citationservice.utils.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -173,6 +175,97 @@ public class GlobalExceptionHandler {
         return ResponseUtil.badRequest(errorMessage, request.getRequestURI());
     }
 
+    /**
+     * Handles DataIntegrityViolationException (e.g., a source whose title and author
+     * duplicate an existing source of the same type, or deleting a source that is still cited).
+     *
+     * @param ex the exception
+     * @param request the web request
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(
+            DataIntegrityViolationException ex, HttpServletRequest request) {
+        if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn("Data integrity violation: {}", ex.getMostSpecificCause().getMessage());
+        }
+        return ResponseUtil.conflict(
+                "Request conflicts with an existing resource (e.g., a source with the same "
+                        + "title and author already exists, or the source is still cited).",
+                request.getRequestURI());
+    }
+
+    /**
+     * Handles PreconditionFailedException (e.g., an If-Match ETag that no longer matches).
+     *
+     * @param ex the exception
+     * @param request the web request
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(
+            PreconditionFailedException ex, HttpServletRequest request) {
+        if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn("Precondition failed: {}", ex.getMessage());
+        }
+        return ResponseUtil.error("Precondition Failed", ex.getMessage(),
+                org.springframework.http.HttpStatus.PRECONDITION_FAILED,
+                request.getRequestURI());
+    }
+
+    /**
+     * Handles UnauthorizedException (e.g., a Flight Recorder request without the admin token).
+     *
+     * @param ex the exception
+     * @param request the web request
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<ErrorResponse> handleUnauthorizedException(
+            UnauthorizedException ex, HttpServletRequest request) {
+        if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn("Unauthorized: {}", ex.getMessage());
+        }
+        return ResponseUtil.error("Unauthorized", ex.getMessage(),
+                org.springframework.http.HttpStatus.UNAUTHORIZED,
+                request.getRequestURI());
+    }
+
+    /**
+     * Handles ConflictException (e.g., starting a recording while one is running).
+     *
+     * @param ex the exception
+     * @param request the web request
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflictException(
+            ConflictException ex, HttpServletRequest request) {
+        if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn("Conflict: {}", ex.getMessage());
+        }
+        return ResponseUtil.conflict(ex.getMessage(), request.getRequestURI());
+    }
+
+    /**
+     * Handles OptimisticLockingFailureException, raised when another request updated the
+     * same row between this request reading and writing it.
+     *
+     * @param ex the exception
+     * @param request the web request
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, HttpServletRequest request) {
+        if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn("Concurrent modification: {}", ex.getMessage());
+        }
+        return ResponseUtil.conflict(
+                "The resource was modified by another request. Fetch it again and retry.",
+                request.getRequestURI());
+    }
+
     /**
      * Handles all other exceptions.
      *
@@ -0,0 +1,17 @@
+package com.columbia.coms4156.citationservice.exception;
+
+/**
+ * Exception thrown when a conditional request's precondition does not hold, such as an
+ * update whose If-Match ETag no longer matches the current version of the resource.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    /**
+     * Constructs a new PreconditionFailedException with the specified message.
+     *
+     * @param message the detail message
+     */
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
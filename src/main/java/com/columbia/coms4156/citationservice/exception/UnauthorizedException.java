@@ -0,0 +1,17 @@
+package com.columbia.coms4156.citationservice.exception;
+
+/**
+ * Exception thrown when a request to a protected endpoint, such as the Flight Recorder
+ * endpoints, does not carry the credentials it needs.
+ */
+public class UnauthorizedException extends RuntimeException {
+
+    /**
+     * Constructs a new UnauthorizedException with the specified message.
+     *
+     * @param message the detail message
+     */
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.columbia.coms4156.citationservice.exception;
+
+/**
+ * Exception thrown when a lookup to an upstream API is shed because the upstream's
+ * concurrency limit is reached and too many lookups are already waiting for it.
+ */
+public class UpstreamOverloadedException extends RuntimeException {
+
+    /**
+     * Constructs a new UpstreamOverloadedException with the specified message.
+     *
+     * @param message the detail message
+     */
+    public UpstreamOverloadedException(String message) {
+        super(message);
+    }
+}
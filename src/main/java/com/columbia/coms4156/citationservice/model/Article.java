@@ -1,11 +1,15 @@
 package com.columbia.coms4156.citationservice.model;
 
+import com.columbia.coms4156.citationservice.utils.Identifiers;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
+import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
-import jakarta.persistence.Table;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "articles")
+@DynamicUpdate
+@DiscriminatorValue("article")
 public class Article extends Source {
 
     /**
@@ -48,6 +52,14 @@ public class Article extends Source {
     @Column
     private String doi;
 
+    /**
+     * The DOI without any resolver or {@code doi:} prefix, lower-cased; kept in sync by
+     * {@link #setDoi(String)}. Indexed, so the same article is found however its DOI was typed.
+     */
+    @JsonIgnore
+    @Column(name = "canonical_doi")
+    private String canonicalDoi;
+
     /**
      * The URL of the article.
      */
@@ -175,7 +187,8 @@ public class Article extends Source {
     }
 
     /**
-     * Sets the DOI.
+     * Sets the DOI. A resolver URL such as {@code https://doi.org/} or a {@code doi:} prefix
+     * is accepted and kept; the canonical form drops it.
      *
      * @param doiParam the DOI to set
      * @throws IllegalArgumentException if doiParam is blank or doesn't follow DOI format
@@ -184,26 +197,23 @@ public class Article extends Source {
         if (doiParam != null && doiParam.trim().isEmpty()) {
             throw new IllegalArgumentException("DOI cannot be blank");
         }
-        if (doiParam != null && !isValidDoi(doiParam)) {
+        String canonical = Identifiers.canonicalDoi(doiParam);
+        if (doiParam != null && canonical == null) {
             throw new IllegalArgumentException(
                 "DOI must follow standard format (e.g., 10.1000/123456)");
         }
         this.doi = doiParam;
+        this.canonicalDoi = canonical;
     }
 
     /**
-     * Validates DOI format.
-     * DOI format: starts with "10." followed by a registrant code and a suffix
+     * Gets the DOI canonicalized without prefix and in lower case, the key backfill lookups
+     * and de-duplication use.
      *
-     * @param doiValue the DOI to validate
-     * @return true if valid DOI format, false otherwise
+     * @return the canonical DOI, or null if the article has no DOI
      */
-    private boolean isValidDoi(String doiValue) {
-        if (doiValue == null || doiValue.trim().isEmpty()) {
-            return false;
-        }
-        // DOI pattern: 10. followed by registrant code (digits) / suffix
-        return doiValue.matches("^10\\.[0-9]{4,}/[\\S]+$");
+    public String getCanonicalDoi() {
+        return canonicalDoi;
     }
 
     /**
@@ -293,6 +303,16 @@ public class Article extends Source {
         return java.time.Year.now().getValue();
     }
 
+    /**
+     * Gets the media type of this source.
+     *
+     * @return {@link MediaType#ARTICLE}
+     */
+    @Override
+    public MediaType getMediaType() {
+        return MediaType.ARTICLE;
+    }
+
     @Override
     public String toString() {
         return "Article{"
@@ -1,8 +1,11 @@
 package com.columbia.coms4156.citationservice.model;
 
+import com.columbia.coms4156.citationservice.utils.Identifiers;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
+import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
-import jakarta.persistence.Table;
+import org.hibernate.annotations.DynamicUpdate;
 
 /**
  * Model class representing a Book entity for citation generation.
@@ -17,7 +20,8 @@ import jakarta.persistence.Table;
  * @since 1.0
  */
 @Entity
-@Table(name = "books")
+@DynamicUpdate
+@DiscriminatorValue("book")
 public class Book extends Source {
 
     /**
@@ -31,44 +35,9 @@ public class Book extends Source {
     private static final int FUTURE_YEAR_BUFFER = 10;
 
     /**
-     * Length of ISBN-10.
+     * Length of the canonical ISBN-13 column.
      */
-    private static final int ISBN_10_LENGTH = 10;
-
-    /**
-     * Length of ISBN-13.
-     */
-    private static final int ISBN_13_LENGTH = 13;
-
-    /**
-     * ISBN-10 checksum modulus.
-     */
-    private static final int ISBN_10_MODULUS = 11;
-
-    /**
-     * ISBN-10 X character value.
-     */
-    private static final int ISBN_10_X_VALUE = 10;
-
-    /**
-     * ISBN-13 multiplier for odd positions.
-     */
-    private static final int ISBN_13_ODD_MULTIPLIER = 3;
-
-    /**
-     * General base 10 value.
-     */
-    private static final int BASE_10 = 10;
-
-    /**
-     * ISBN-10 checksum calculation limit (excludes check digit).
-     */
-    private static final int ISBN_10_CHECKSUM_LIMIT = 9;
-
-    /**
-     * ISBN-13 checksum calculation limit (excludes check digit).
-     */
-    private static final int ISBN_13_CHECKSUM_LIMIT = 12;
+    private static final int CANONICAL_ISBN_LENGTH = 13;
 
     // Instance Variables
     /**
@@ -106,6 +75,14 @@ public class Book extends Source {
     @Column
     private String isbn;
 
+    /**
+     * The ISBN canonicalized to its 13 digits (an ISBN-10 is converted), kept in sync by
+     * {@link #setIsbn(String)}. Indexed, so the same book is found however its ISBN was typed.
+     */
+    @JsonIgnore
+    @Column(name = "canonical_isbn", length = CANONICAL_ISBN_LENGTH)
+    private String canonicalIsbn;
+
     // Constructors
     /**
      * Default constructor for JPA entity creation.
@@ -234,10 +211,32 @@ public class Book extends Source {
         if (isbnParam != null && isbnParam.trim().isEmpty()) {
             throw new IllegalArgumentException("ISBN cannot be blank");
         }
-        if (isbnParam != null && !isValidIsbn(isbnParam)) {
+        String canonical = Identifiers.canonicalIsbn(isbnParam);
+        if (isbnParam != null && canonical == null) {
             throw new IllegalArgumentException("ISBN must be a valid ISBN-10 or ISBN-13 format");
         }
         this.isbn = isbnParam;
+        this.canonicalIsbn = canonical;
+    }
+
+    /**
+     * Gets the ISBN canonicalized to ISBN-13, the key backfill lookups and
+     * de-duplication use.
+     *
+     * @return the 13-digit ISBN, or null if the book has no ISBN
+     */
+    public String getCanonicalIsbn() {
+        return canonicalIsbn;
+    }
+
+    /**
+     * Gets the media type of this source.
+     *
+     * @return {@link MediaType#BOOK}
+     */
+    @Override
+    public MediaType getMediaType() {
+        return MediaType.BOOK;
     }
 
     /**
@@ -283,75 +282,4 @@ public class Book extends Source {
     private int getCurrentYear() {
         return java.time.Year.now().getValue();
     }
-
-    /**
-     * Validates ISBN format and checksum.
-     * Supports both ISBN-10 and ISBN-13 formats
-     *
-     * @param isbnValue the ISBN to validate
-     * @return true if valid ISBN format and checksum, false otherwise
-     */
-    private boolean isValidIsbn(String isbnValue) {
-        if (isbnValue == null || isbnValue.trim().isEmpty()) {
-            return false;
-        }
-
-        // Remove hyphens and spaces
-        String cleanIsbn = isbnValue.replaceAll("[\\s\\-]", "");
-
-        if (cleanIsbn.length() == ISBN_10_LENGTH) {
-            return isValidIsbn10(cleanIsbn);
-        } else if (cleanIsbn.length() == ISBN_13_LENGTH) {
-            return isValidIsbn13(cleanIsbn);
-        }
-
-        return false;
-    }
-
-    /**
-     * Validates ISBN-10 format and checksum.
-     *
-     * @param isbn10 the ISBN-10 to validate (without hyphens)
-     * @return true if valid ISBN-10, false otherwise
-     */
-    private boolean isValidIsbn10(String isbn10) {
-        if (!isbn10.matches("^[0-9]{9}[0-9X]$")) {
-            return false;
-        }
-
-        int sum = 0;
-        for (int i = 0; i < ISBN_10_CHECKSUM_LIMIT; i++) {
-            int digit = Character.getNumericValue(isbn10.charAt(i));
-            sum += (i + 1) * digit;
-        }
-
-        char checkChar = isbn10.charAt(ISBN_10_CHECKSUM_LIMIT);
-        int checkDigit = (checkChar == 'X') ? ISBN_10_X_VALUE
-            : Character.getNumericValue(checkChar);
-
-        return (sum % ISBN_10_MODULUS) == checkDigit;
-    }
-
-    /**
-     * Validates ISBN-13 format and checksum.
-     *
-     * @param isbn13 the ISBN-13 to validate (without hyphens)
-     * @return true if valid ISBN-13, false otherwise
-     */
-    private boolean isValidIsbn13(String isbn13) {
-        if (!isbn13.matches("^[0-9]{13}$")) {
-            return false;
-        }
-
-        int sum = 0;
-        for (int i = 0; i < ISBN_13_CHECKSUM_LIMIT; i++) {
-            int digit = Character.getNumericValue(isbn13.charAt(i));
-            sum += (i % 2 == 0) ? digit : digit * ISBN_13_ODD_MULTIPLIER;
-        }
-
-        int checkDigit = Character.getNumericValue(isbn13.charAt(ISBN_13_CHECKSUM_LIMIT));
-        int calculatedCheck = (BASE_10 - (sum % BASE_10)) % BASE_10;
-
-        return checkDigit == calculatedCheck;
-    }
 }
@@ -1,7 +1,10 @@
 package com.columbia.coms4156.citationservice.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -11,16 +14,31 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 /**
  * Citation entity representing a single citation within a Submission.
- * Instead of a strict FK to a specific Media table, this stores mediaId and mediaType
- * so backend logic can resolve which media table to query (Book/Video/Article).
+ * References the cited Book, Video or Article through a foreign key to the shared
+ * sources table, and records its media type for filtering without loading the source.
+ * Cached in the {@value #CACHE_REGION} second-level cache region.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Citation.CACHE_REGION)
 @Table(name = "citations")
 public class Citation {
 
+    /**
+     * Second-level cache region holding citations.
+     */
+    public static final String CACHE_REGION = "citations";
+
     /**
      * The unique identifier for the citation.
      */
@@ -28,6 +46,24 @@ public class Citation {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Optimistic-locking version, incremented by Hibernate on every update of the citation.
+     * Part of the ETag of the submission group the citation belongs to.
+     */
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * When the citation was last written; stamped by Hibernate on insert and update.
+     */
+    @UpdateTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "updated_at")
+    @JsonIgnore
+    private Instant updatedAt;
+
     /**
      * The submission that contains this citation.
      */
@@ -44,16 +80,19 @@ public class Citation {
     private String userInputMetaData; // JSON string provided by user
 
     /**
-     * The ID of the media record (Book/Video/Article).
+     * The cited source (Book/Video/Article).
      */
-    @Column(name = "media_id")
-    private Long mediaId; // id of the media record (Book/Video/Article)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "source_id")
+    @JsonIgnore
+    private Source source;
 
     /**
-     * The type of media (e.g., "book", "video", "article").
+     * The media type of the cited source, stored as its lower-case value (e.g. "book").
      */
-    @Column(name = "media_type")
-    private String mediaType; // e.g. "book", "video", "article"
+    @Convert(converter = MediaTypeConverter.class)
+    @Column(name = "media_type", length = Source.MEDIA_TYPE_LENGTH)
+    private MediaType mediaType;
 
     /**
      * Default constructor for Citation.
@@ -68,14 +107,14 @@ public class Citation {
      *
      * @param submissionParam the submission containing this citation
      * @param userInputMetaDataParam the user-provided metadata
-     * @param mediaIdParam the media ID
-     * @param mediaTypeParam the media type
+     * @param sourceParam the cited source
+     * @param mediaTypeParam the media type of the cited source
      */
     public Citation(Submission submissionParam, String userInputMetaDataParam,
-                   Long mediaIdParam, String mediaTypeParam) {
+                   Source sourceParam, MediaType mediaTypeParam) {
         this.submission = submissionParam;
         this.userInputMetaData = userInputMetaDataParam;
-        this.mediaId = mediaIdParam;
+        this.source = sourceParam;
         this.mediaType = mediaTypeParam;
     }
 
@@ -101,6 +140,42 @@ public class Citation {
         this.id = idParam;
     }
 
+    /**
+     * Gets the optimistic-locking version.
+     *
+     * @return the version, or null before the citation is first saved
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the optimistic-locking version.
+     *
+     * @param versionParam the version to set
+     */
+    public void setVersion(Long versionParam) {
+        this.version = versionParam;
+    }
+
+    /**
+     * Gets when the citation was last written.
+     *
+     * @return the last write time, or null before the citation is first saved
+     */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Sets when the citation was last written.
+     *
+     * @param updatedAtParam the last write time to set
+     */
+    public void setUpdatedAt(Instant updatedAtParam) {
+        this.updatedAt = updatedAtParam;
+    }
+
     /**
      * Gets the submission containing this citation.
      *
@@ -142,46 +217,50 @@ public class Citation {
     }
 
     /**
-     * Gets the media ID.
+     * Gets the cited source.
      *
-     * @return the media ID
+     * @return the cited source, possibly an uninitialized lazy proxy
      */
-    public Long getMediaId() {
-        return mediaId;
+    public Source getSource() {
+        return source;
     }
 
     /**
-     * Sets the media ID.
+     * Sets the cited source and takes over its media type.
      *
-     * @param mediaIdParam the media ID to set
-     * @throws IllegalArgumentException if mediaIdParam is negative
+     * @param sourceParam the cited source (can be null to clear the relationship)
      */
-    public void setMediaId(Long mediaIdParam) {
-        if (mediaIdParam != null && mediaIdParam < 0) {
-            throw new IllegalArgumentException("Media ID cannot be negative");
+    public void setSource(Source sourceParam) {
+        this.source = sourceParam;
+        if (sourceParam != null) {
+            this.mediaType = sourceParam.getMediaType();
         }
-        this.mediaId = mediaIdParam;
     }
 
     /**
-     * Gets the media type.
+     * Gets the ID of the cited source without initializing it.
+     *
+     * @return the source ID, or null if no source is set
+     */
+    public Long getMediaId() {
+        return source != null ? source.getId() : null;
+    }
+
+    /**
+     * Gets the media type of the cited source.
      *
      * @return the media type
      */
-    public String getMediaType() {
+    public MediaType getMediaType() {
         return mediaType;
     }
 
     /**
-     * Sets the media type.
+     * Sets the media type of the cited source.
      *
      * @param mediaTypeParam the media type to set
-     * @throws IllegalArgumentException if mediaTypeParam is blank
      */
-    public void setMediaType(String mediaTypeParam) {
-        if (mediaTypeParam != null && mediaTypeParam.trim().isEmpty()) {
-            throw new IllegalArgumentException("Media type cannot be blank");
-        }
+    public void setMediaType(MediaType mediaTypeParam) {
         this.mediaType = mediaTypeParam;
     }
 
@@ -190,8 +269,8 @@ public class Citation {
         return "Citation{"
                 + "id=" + id
                 + ", submissionId=" + (submission != null ? submission.getId() : null)
-                + ", mediaId=" + mediaId
-                + ", mediaType='" + mediaType + '\''
+                + ", mediaId=" + getMediaId()
+                + ", mediaType='" + (mediaType != null ? mediaType.getValue() : null) + '\''
                 + '}';
     }
 }
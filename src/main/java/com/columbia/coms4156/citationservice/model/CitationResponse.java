@@ -1,7 +1,10 @@
 package com.columbia.coms4156.citationservice.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.List;
+
 /**
  * Response DTO for citation generation endpoints.
  */
@@ -19,6 +22,14 @@ public class CitationResponse {
     @JsonProperty("CitationString")
     private String citationString;
 
+    /**
+     * The upstream APIs that could not be reached while backfilling, so the stored metadata
+     * was used instead; omitted when empty.
+     */
+    @JsonProperty("BackfillUnavailable")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> backfillUnavailable;
+
     /**
      * Default constructor for CitationResponse.
      * Required for JSON deserialization.
@@ -82,6 +93,24 @@ public class CitationResponse {
         this.citationString = citationStringParam;
     }
 
+    /**
+     * Gets the upstream APIs that could not be reached while backfilling.
+     *
+     * @return the unreachable upstream APIs, or null if all were reached
+     */
+    public List<String> getBackfillUnavailable() {
+        return backfillUnavailable;
+    }
+
+    /**
+     * Sets the upstream APIs that could not be reached while backfilling.
+     *
+     * @param backfillUnavailableParam the unreachable upstream APIs
+     */
+    public void setBackfillUnavailable(List<String> backfillUnavailableParam) {
+        this.backfillUnavailable = backfillUnavailableParam;
+    }
+
     @Override
     public String toString() {
         return "CitationResponse{"
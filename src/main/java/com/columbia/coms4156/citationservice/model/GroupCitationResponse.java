@@ -1,6 +1,8 @@
 package com.columbia.coms4156.citationservice.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,6 +22,14 @@ public class GroupCitationResponse {
     @JsonProperty("Citations")
     private Map<String, String> citations; // CitationID -> CitationString mapping
 
+    /**
+     * The upstream APIs that could not be reached while backfilling, so the stored metadata
+     * was used instead; omitted when empty.
+     */
+    @JsonProperty("BackfillUnavailable")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> backfillUnavailable;
+
     /**
      * Default constructor for GroupCitationResponse.
      * Required for JSON deserialization.
@@ -83,6 +93,24 @@ public class GroupCitationResponse {
         this.citations = citationsParam;
     }
 
+    /**
+     * Gets the upstream APIs that could not be reached while backfilling.
+     *
+     * @return the unreachable upstream APIs, or null if all were reached
+     */
+    public List<String> getBackfillUnavailable() {
+        return backfillUnavailable;
+    }
+
+    /**
+     * Sets the upstream APIs that could not be reached while backfilling.
+     *
+     * @param backfillUnavailableParam the unreachable upstream APIs
+     */
+    public void setBackfillUnavailable(List<String> backfillUnavailableParam) {
+        this.backfillUnavailable = backfillUnavailableParam;
+    }
+
     @Override
     public String toString() {
         return "GroupCitationResponse{"
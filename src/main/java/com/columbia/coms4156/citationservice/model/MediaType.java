@@ -0,0 +1,67 @@
+package com.columbia.coms4156.citationservice.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * The kinds of source media a citation can refer to.
+ * Each value carries the lower-case name used in API requests and as the
+ * discriminator of the shared sources table.
+ */
+public enum MediaType {
+
+    /** A book, stored as a {@link Book}. */
+    BOOK("book"),
+
+    /** A video, stored as a {@link Video}. */
+    VIDEO("video"),
+
+    /** A journal article, stored as an {@link Article}. */
+    ARTICLE("article");
+
+    /**
+     * The lower-case name of the media type.
+     */
+    private final String value;
+
+    /**
+     * Constructs a MediaType.
+     *
+     * @param valueParam the lower-case name of the media type
+     */
+    MediaType(String valueParam) {
+        this.value = valueParam;
+    }
+
+    /**
+     * Gets the lower-case name of the media type, e.g. "book".
+     *
+     * @return the lower-case name
+     */
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Resolves a media type from its name, ignoring case and surrounding whitespace.
+     *
+     * @param name the media type name, e.g. "book" or "Video"
+     * @return the matching media type
+     * @throws IllegalArgumentException if name is null or not a supported media type
+     */
+    @JsonCreator
+    public static MediaType fromValue(String name) {
+        if (name != null) {
+            String normalized = name.trim().toLowerCase(Locale.ENGLISH);
+            for (MediaType type : values()) {
+                if (type.value.equals(normalized)) {
+                    return type;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported media type: " + name);
+    }
+}
@@ -0,0 +1,36 @@
+package com.columbia.coms4156.citationservice.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a {@link MediaType} as its lower-case value (e.g. "book"), the form citations have
+ * always been written with, so rows written before media types became an enum still load.
+ * Reading ignores case, so values written in upper case load too.
+ */
+@Converter
+public class MediaTypeConverter implements AttributeConverter<MediaType, String> {
+
+    /**
+     * Converts a media type to its stored lower-case value.
+     *
+     * @param attribute the media type, or null
+     * @return the lower-case value, or null
+     */
+    @Override
+    public String convertToDatabaseColumn(MediaType attribute) {
+        return attribute == null ? null : attribute.getValue();
+    }
+
+    /**
+     * Converts a stored value to its media type.
+     *
+     * @param dbData the stored value in any case, or null
+     * @return the media type, or null
+     * @throws IllegalArgumentException if the value is not a supported media type
+     */
+    @Override
+    public MediaType convertToEntityAttribute(String dbData) {
+        return dbData == null ? null : MediaType.fromValue(dbData);
+    }
+}
@@ -1,19 +1,81 @@
 package com.columbia.coms4156.citationservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
+import jakarta.persistence.DiscriminatorColumn;
+import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Inheritance;
+import jakarta.persistence.InheritanceType;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.Locale;
 
 /**
  * Abstract base class for different source media types (Book, Video, Article, etc.).
  * Contains the common fields shared by all sources.
+ *
+ * <p>All media types are stored in the single {@code sources} table, told apart by the
+ * {@code media_type} discriminator column, so a {@link Citation} can reference any source
+ * through one foreign key and a submission's sources load in a single join.</p>
+ *
+ * <p>Sources are read far more often than written, so all subtypes are kept in the
+ * {@value #CACHE_REGION} second-level cache region (sized and expired in ehcache.xml).</p>
+ *
+ * <p>Updates are generated per write with {@link DynamicUpdate}, so an UPDATE sets only
+ * the columns that actually changed rather than every column of the wide shared row.
+ * Hibernate does not inherit the annotation, so each subtype repeats it.</p>
+ *
+ * <p>Books and articles also store their ISBN and DOI in canonical form (see
+ * {@link com.columbia.coms4156.citationservice.utils.Identifiers}) in indexed columns, so
+ * lookups by identifier find the same work however it was typed.</p>
  */
-@MappedSuperclass
+@Entity
+@Cacheable
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Source.CACHE_REGION)
+@Table(name = "sources", uniqueConstraints = @UniqueConstraint(
+        name = "uk_sources_media_type_dedupe_key", columnNames = {"media_type", "dedupe_key"}),
+        indexes = {
+            @Index(name = "idx_sources_canonical_isbn", columnList = "canonical_isbn"),
+            @Index(name = "idx_sources_canonical_doi", columnList = "canonical_doi")})
+@Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+@DiscriminatorColumn(name = "media_type", length = Source.MEDIA_TYPE_LENGTH)
 public abstract class Source {
 
+    /**
+     * Second-level cache region holding sources of every media type.
+     */
+    public static final String CACHE_REGION = "sources";
+
+    /**
+     * Maximum length of the media type discriminator column.
+     */
+    static final int MEDIA_TYPE_LENGTH = 16;
+
+    /**
+     * Maximum length of the de-duplication key (title and author columns are 255 each).
+     */
+    private static final int DEDUPE_KEY_LENGTH = 512;
+
+    /**
+     * Separator placed between title and author in the de-duplication key.
+     */
+    private static final char DEDUPE_KEY_SEPARATOR = '\u001f';
+
     /**
      * Unique identifier for the media entity.
      * Auto-generated by the database using identity strategy.
@@ -22,6 +84,24 @@ public abstract class Source {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Optimistic-locking version, incremented by Hibernate on every update of the source.
+     * Served to clients as the ETag of the source.
+     */
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * When the source was last written; stamped by Hibernate on insert and update.
+     */
+    @UpdateTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "updated_at")
+    @JsonIgnore
+    private Instant updatedAt;
+
     /**
      * The title of the source.
      */
@@ -36,6 +116,16 @@ public abstract class Source {
     @Column(nullable = false)
     private String author;
 
+    /**
+     * Normalized title/author key used to de-duplicate sources on insert.
+     * Kept in sync by the title and author setters and backed by a unique constraint
+     * together with the media type, so concurrent bulk requests can upsert against it
+     * instead of find-then-insert.
+     */
+    @JsonIgnore
+    @Column(name = "dedupe_key", length = DEDUPE_KEY_LENGTH)
+    private String dedupeKey;
+
     /**
      * Default constructor for Source.
      * Required by JPA for entity instantiation.
@@ -78,6 +168,42 @@ public abstract class Source {
         this.id = idParam;
     }
 
+    /**
+     * Gets the optimistic-locking version.
+     *
+     * @return the version, or null before the source is first saved
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the optimistic-locking version.
+     *
+     * @param versionParam the version to set
+     */
+    public void setVersion(Long versionParam) {
+        this.version = versionParam;
+    }
+
+    /**
+     * Gets when the source was last written.
+     *
+     * @return the last write time, or null before the source is first saved
+     */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Sets when the source was last written.
+     *
+     * @param updatedAtParam the last write time to set
+     */
+    public void setUpdatedAt(Instant updatedAtParam) {
+        this.updatedAt = updatedAtParam;
+    }
+
     /**
      * Gets the title.
      *
@@ -101,6 +227,7 @@ public abstract class Source {
             throw new IllegalArgumentException("Title cannot be blank");
         }
         this.title = titleParam;
+        this.dedupeKey = dedupeKeyOf(title, author);
     }
 
     /**
@@ -126,6 +253,42 @@ public abstract class Source {
             throw new IllegalArgumentException("Author cannot be blank");
         }
         this.author = authorParam;
+        this.dedupeKey = dedupeKeyOf(title, author);
+    }
+
+    /**
+     * Gets the media type of this source, matching its discriminator value.
+     *
+     * @return the media type
+     */
+    @JsonIgnore
+    public abstract MediaType getMediaType();
+
+    /**
+     * Gets the de-duplication key derived from the title and author.
+     *
+     * @return the de-duplication key, or null until both title and author are set
+     */
+    public String getDedupeKey() {
+        return dedupeKey;
+    }
+
+    /**
+     * Builds the de-duplication key for a title and author pair.
+     * Both values are trimmed and lower-cased so that the key matches the
+     * case-insensitive title+author lookups used during bulk ingestion.
+     *
+     * @param titleValue the source title
+     * @param authorValue the source author
+     * @return the de-duplication key, or null if either value is null
+     */
+    public static String dedupeKeyOf(String titleValue, String authorValue) {
+        if (titleValue == null || authorValue == null) {
+            return null;
+        }
+        return titleValue.trim().toLowerCase(Locale.ENGLISH)
+                + DEDUPE_KEY_SEPARATOR
+                + authorValue.trim().toLowerCase(Locale.ENGLISH);
     }
 
     @Override
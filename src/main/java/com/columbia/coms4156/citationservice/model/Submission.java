@@ -1,6 +1,7 @@
 package com.columbia.coms4156.citationservice.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -13,7 +14,11 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -52,6 +57,24 @@ public class Submission {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Optimistic-locking version, incremented by Hibernate on every update of the submission.
+     * Part of the ETag of the submission group; bumped when citations are added.
+     */
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * When the submission was last written; stamped by Hibernate on insert and update.
+     */
+    @UpdateTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "updated_at")
+    @JsonIgnore
+    private Instant updatedAt;
+
     /**
      * The user who created this submission.
      */
@@ -116,6 +139,42 @@ public class Submission {
         this.id = idParam;
     }
 
+    /**
+     * Gets the optimistic-locking version.
+     *
+     * @return the version, or null before the submission is first saved
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the optimistic-locking version.
+     *
+     * @param versionParam the version to set
+     */
+    public void setVersion(Long versionParam) {
+        this.version = versionParam;
+    }
+
+    /**
+     * Gets when the submission was last written.
+     *
+     * @return the last write time, or null before the submission is first saved
+     */
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Sets when the submission was last written.
+     *
+     * @param updatedAtParam the last write time to set
+     */
+    public void setUpdatedAt(Instant updatedAtParam) {
+        this.updatedAt = updatedAtParam;
+    }
+
     /**
      * Gets the user who created the submission.
      *
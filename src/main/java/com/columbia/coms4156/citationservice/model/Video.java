@@ -1,11 +1,13 @@
 package com.columbia.coms4156.citationservice.model;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
-import jakarta.persistence.Table;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "videos")
+@DynamicUpdate
+@DiscriminatorValue("video")
 public class Video extends Source {
 
     /**
@@ -184,6 +186,16 @@ public class Video extends Source {
         this.releaseYear = releaseYearParam;
     }
 
+    /**
+     * Gets the media type of this source.
+     *
+     * @return {@link MediaType#VIDEO}
+     */
+    @Override
+    public MediaType getMediaType() {
+        return MediaType.VIDEO;
+    }
+
     @Override
     public String toString() {
         return "Video{"
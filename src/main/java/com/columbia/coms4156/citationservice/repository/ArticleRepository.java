@@ -1,6 +1,7 @@
 package com.columbia.coms4156.citationservice.repository;
 
 import com.columbia.coms4156.citationservice.model.Article;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -33,4 +34,22 @@ public interface ArticleRepository extends JpaRepository<Article, Long> {
      * @return an Optional containing the found article, or empty if no article was found
      */
     Optional<Article> findByTitleIgnoreCaseAndAuthorIgnoreCase(String title, String author);
+
+    /**
+     * Finds an article by its canonical DOI, using the index on that column.
+     *
+     * @param canonicalDoi the DOI without prefix, in lower case
+     * @return an Optional containing the first article with that DOI, or empty if none
+     */
+    Optional<Article> findFirstByCanonicalDoiOrderByIdAsc(String canonicalDoi);
+
+    /**
+     * Finds the next page of articles after the given ID, ordered by ascending ID
+     * (keyset pagination).
+     *
+     * @param afterId the ID of the last article already returned (0 for the first page)
+     * @param pageable the page request; only its size is used (the page number must be 0)
+     * @return up to {@code pageable.getPageSize()} articles with IDs greater than afterId
+     */
+    List<Article> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
 }
@@ -1,6 +1,7 @@
 package com.columbia.coms4156.citationservice.repository;
 
 import com.columbia.coms4156.citationservice.model.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -63,4 +64,25 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @throws IllegalArgumentException if title or author is null
      */
     Optional<Book> findByTitleIgnoreCaseAndAuthorIgnoreCase(String title, String author);
+
+    /**
+     * Finds a book by its canonical ISBN-13, using the index on that column.
+     * Used to detect duplicates however the ISBN was typed, before falling back to
+     * title and author.
+     *
+     * @param canonicalIsbn The ISBN canonicalized to its 13 digits
+     * @return An Optional containing the first book with that ISBN, or empty if none
+     */
+    Optional<Book> findFirstByCanonicalIsbnOrderByIdAsc(String canonicalIsbn);
+
+    /**
+     * Finds the next page of books after the given ID, ordered by ascending ID.
+     * Used for keyset pagination: the query is a range scan on the primary key,
+     * so its cost does not grow with how deep the client has paged.
+     *
+     * @param afterId The ID of the last book already returned (0 for the first page)
+     * @param pageable The page request; only its size is used (the page number must be 0)
+     * @return Up to {@code pageable.getPageSize()} books with IDs greater than afterId
+     */
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
 }
@@ -2,6 +2,8 @@ package com.columbia.coms4156.citationservice.repository;
 
 import com.columbia.coms4156.citationservice.model.Citation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -18,13 +20,22 @@ public interface CitationRepository extends JpaRepository<Citation, Long> {
     List<Citation> findBySubmissionId(Long submissionId);
 
     /**
-     * Finds an existing citation for a given submission, media id and media type.
+     * Finds all citations of a submission together with their cited sources in a single
+     * join, ordered by citation ID.
      *
      * @param submissionId the submission ID to search for
-     * @param mediaId the media ID to search for
-     * @param mediaType the media type to search for
+     * @return the citations of the submission with their sources loaded
+     */
+    @Query("select c from Citation c left join fetch c.source"
+            + " where c.submission.id = :submissionId order by c.id")
+    List<Citation> findWithSourceBySubmissionId(@Param("submissionId") Long submissionId);
+
+    /**
+     * Finds an existing citation for a given submission and cited source.
+     *
+     * @param submissionId the submission ID to search for
+     * @param sourceId the cited source ID to search for
      * @return an optional containing the citation if found, or empty if not found
      */
-    Optional<Citation> findBySubmissionIdAndMediaIdAndMediaType(
-        Long submissionId, Long mediaId, String mediaType);
+    Optional<Citation> findBySubmissionIdAndSourceId(Long submissionId, Long sourceId);
 }
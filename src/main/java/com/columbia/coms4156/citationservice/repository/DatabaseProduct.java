@@ -0,0 +1,57 @@
+package com.columbia.coms4156.citationservice.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Identifies the database the application is connected to, so repositories issuing
+ * native SQL can pick PostgreSQL-specific statements in production and portable ones
+ * on H2 (local development and tests).
+ */
+@Component
+public class DatabaseProduct {
+
+    /**
+     * Database product name reported by the PostgreSQL JDBC driver.
+     */
+    private static final String POSTGRES_PRODUCT_NAME = "PostgreSQL";
+
+    /**
+     * JDBC template bound to the application data source.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Whether the connected database is PostgreSQL; resolved lazily on first use.
+     */
+    private final AtomicReference<Boolean> postgres = new AtomicReference<>();
+
+    /**
+     * Constructs a new DatabaseProduct.
+     *
+     * @param jdbcTemplateParam the JDBC template used to read the connection metadata
+     */
+    public DatabaseProduct(JdbcTemplate jdbcTemplateParam) {
+        this.jdbcTemplate = jdbcTemplateParam;
+    }
+
+    /**
+     * Determines (once) whether the underlying database is PostgreSQL.
+     *
+     * @return true if connected to PostgreSQL
+     */
+    public boolean isPostgres() {
+        Boolean result = postgres.get();
+        if (result == null) {
+            String productName = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection ->
+                            connection.getMetaData().getDatabaseProductName());
+            result = POSTGRES_PRODUCT_NAME.equalsIgnoreCase(productName);
+            postgres.set(result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,225 @@
+package com.columbia.coms4156.citationservice.repository;
+
+import com.columbia.coms4156.citationservice.model.Citation;
+import com.columbia.coms4156.citationservice.model.Source;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repository deleting sources, and optionally the citations referencing them, with
+ * set-based statements instead of loading and removing one entity at a time.
+ *
+ * <p>Sources are selected in keyset-ordered batches by ID list, media type and last write
+ * time, together with whether any citation still references them. Each batch is then
+ * removed with one {@code DELETE ... WHERE id IN (...)} per table. Deleting citations
+ * first bumps the version of the submissions losing them, so their group ETags and
+ * Last-Modified dates change.</p>
+ *
+ * <p>These statements bypass Hibernate, so the deleted sources are evicted from the
+ * second-level cache explicitly. Deleting citations evicts the citation region as a whole,
+ * since their IDs are never read.</p>
+ */
+@Repository
+public class SourceDeleteRepository {
+
+    /**
+     * Whether a citation references the source, selected alongside each candidate row.
+     */
+    private static final String CITED =
+            "EXISTS (SELECT 1 FROM citations c WHERE c.source_id = s.id)";
+
+    /**
+     * JDBC template bound to the application data source (joins the current transaction).
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Entity manager factory whose second-level cache holds the deleted rows. Its Hibernate
+     * session factory is looked up when a cache is evicted, not at construction, so this
+     * repository does not wait for Hibernate to finish bootstrapping in the background.
+     */
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructs a new SourceDeleteRepository.
+     *
+     * @param jdbcTemplateParam the JDBC template to run the statements with
+     * @param entityManagerFactoryParam the JPA entity manager factory backed by Hibernate
+     */
+    public SourceDeleteRepository(NamedParameterJdbcTemplate jdbcTemplateParam,
+                                  EntityManagerFactory entityManagerFactoryParam) {
+        this.jdbcTemplate = jdbcTemplateParam;
+        this.entityManagerFactory = entityManagerFactoryParam;
+    }
+
+    /**
+     * Finds the next batch of sources matching the criteria after the given ID, in ID order.
+     *
+     * @param ids the IDs to restrict to, or null for any ID
+     * @param mediaType the discriminator to restrict to (e.g. "book"), or null for any type
+     * @param updatedBefore only match sources last written before this time, or null
+     * @param afterId the ID of the last source already returned (0 for the first batch)
+     * @param limit the maximum number of sources to return
+     * @return the matching sources with their media type and whether they are cited
+     */
+    public List<SourceRef> findBatch(List<Long> ids, String mediaType, Instant updatedBefore,
+                                     long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT s.id, s.media_type, ")
+                .append(CITED).append(" AS cited FROM sources s WHERE s.id > :afterId");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+        if (ids != null) {
+            sql.append(" AND s.id IN (:ids)");
+            params.addValue("ids", ids);
+        }
+        if (mediaType != null) {
+            sql.append(" AND s.media_type = :mediaType");
+            params.addValue("mediaType", mediaType);
+        }
+        if (updatedBefore != null) {
+            sql.append(" AND s.updated_at < :updatedBefore");
+            params.addValue("updatedBefore", Timestamp.from(updatedBefore));
+        }
+        sql.append(" ORDER BY s.id LIMIT :limit");
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new SourceRef(
+                rs.getLong("id"), rs.getString("media_type"), rs.getBoolean("cited")));
+    }
+
+    /**
+     * Deletes the citations referencing the given sources, bumping the version of every
+     * submission that loses one.
+     *
+     * @param sourceIds the IDs of the cited sources
+     * @return the number of citations deleted
+     */
+    public int deleteCitationsOf(List<Long> sourceIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", sourceIds);
+        jdbcTemplate.update("UPDATE submissions SET version = COALESCE(version, 0) + 1,"
+                + " updated_at = CURRENT_TIMESTAMP WHERE id IN (SELECT c.submission_id"
+                + " FROM citations c WHERE c.source_id IN (:ids))", params);
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM citations WHERE source_id IN (:ids)", params);
+        if (deleted > 0) {
+            secondLevelCache().evictEntityData(Citation.class);
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes the given sources. Sources a citation still references are left in place,
+     * so delete their citations first to remove them.
+     *
+     * @param ids the IDs of the sources to delete
+     * @return the IDs of the sources that were deleted
+     */
+    public List<Long> deleteUncited(List<Long> ids) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        int deleted = jdbcTemplate.update("DELETE FROM sources s WHERE s.id IN (:ids)"
+                + " AND NOT " + CITED, params);
+        List<Long> deletedIds = ids;
+        if (deleted < ids.size()) {
+            // A citation was added, or a source deleted, since the batch was selected
+            Set<Long> remaining = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT id FROM sources WHERE id IN (:ids)", params, Long.class));
+            deletedIds = ids.stream().filter(id -> !remaining.contains(id)).toList();
+        }
+        evict(deletedIds);
+        return deletedIds;
+    }
+
+    /**
+     * Evicts deleted sources from the second-level cache.
+     *
+     * @param ids the IDs of the deleted sources
+     */
+    private void evict(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Cache cache = secondLevelCache();
+        for (Long id : ids) {
+            cache.evictEntityData(Source.class, id);
+        }
+    }
+
+    /**
+     * Looks up the second-level cache of the Hibernate session factory.
+     *
+     * @return the second-level cache
+     */
+    private Cache secondLevelCache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * A source selected for deletion: its ID, media type and whether it is cited.
+     */
+    public static final class SourceRef {
+
+        /**
+         * The ID of the source.
+         */
+        private final long id;
+
+        /**
+         * The media type discriminator of the source, e.g. "book".
+         */
+        private final String mediaType;
+
+        /**
+         * Whether a citation referenced the source when it was selected.
+         */
+        private final boolean cited;
+
+        /**
+         * Constructs a new SourceRef.
+         *
+         * @param idParam the ID of the source
+         * @param mediaTypeParam the media type discriminator of the source
+         * @param citedParam whether a citation references the source
+         */
+        public SourceRef(long idParam, String mediaTypeParam, boolean citedParam) {
+            this.id = idParam;
+            this.mediaType = mediaTypeParam;
+            this.cited = citedParam;
+        }
+
+        /**
+         * Gets the ID of the source.
+         *
+         * @return the source ID
+         */
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * Gets the media type discriminator of the source.
+         *
+         * @return the media type, e.g. "book"
+         */
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Whether a citation referenced the source when it was selected.
+         *
+         * @return true if the source is cited
+         */
+        public boolean isCited() {
+            return cited;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.columbia.coms4156.citationservice.repository;
+
+import com.columbia.coms4156.citationservice.model.Source;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for operations across all source media types.
+ * Books, videos and articles share the sources table, so this repository reads
+ * them together; the per-type repositories remain for type-specific queries.
+ */
+@Repository
+public interface SourceRepository extends JpaRepository<Source, Long> {
+
+    /**
+     * Finds the next page of sources of any media type after the given ID,
+     * ordered by ascending ID.
+     *
+     * @param afterId The ID of the last source already returned (0 for the first page)
+     * @param pageable The page request; only its size is used (the page number must be 0)
+     * @return Up to {@code pageable.getPageSize()} sources with IDs greater than afterId
+     */
+    List<Source> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+}
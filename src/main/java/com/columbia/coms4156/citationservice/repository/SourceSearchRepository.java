@@ -0,0 +1,90 @@
+package com.columbia.coms4156.citationservice.repository;
+
+import com.columbia.coms4156.citationservice.controller.dto.SearchHit;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository running ranked full-text search over books, videos and articles on PostgreSQL.
+ *
+ * <p>The sources table gets a GIN index over a weighted {@code tsvector} expression (title
+ * weighted highest, then author, then publisher or journal). The search query repeats
+ * exactly the same expression so the planner can answer the {@code @@} match from the
+ * index, and orders the matches by {@code ts_rank}.</p>
+ */
+@Repository
+public class SourceSearchRepository {
+
+    /**
+     * Text search configuration used both for indexing and for parsing queries.
+     */
+    private static final String TS_CONFIG = "'english'";
+
+    /**
+     * The weighted document expression indexed and matched for every source. Books have no
+     * journal and articles no publisher, so concatenating both covers either.
+     */
+    private static final String DOCUMENT = weighted("title", "A")
+            + " || " + weighted("author", "B")
+            + " || " + weighted("coalesce(publisher, '') || ' ' || coalesce(journal, '')", "C");
+
+    /**
+     * JDBC template bound to the application data source.
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a new SourceSearchRepository.
+     *
+     * @param jdbcTemplateParam the JDBC template to run the search statements with
+     */
+    public SourceSearchRepository(NamedParameterJdbcTemplate jdbcTemplateParam) {
+        this.jdbcTemplate = jdbcTemplateParam;
+    }
+
+    /**
+     * Creates the GIN full-text index if it does not already exist.
+     * PostgreSQL only; the expression uses PostgreSQL text search functions.
+     */
+    public void createIndex() {
+        jdbcTemplate.getJdbcTemplate().execute(
+                "CREATE INDEX IF NOT EXISTS sources_search_idx ON sources USING GIN ((" + DOCUMENT
+                        + "))");
+    }
+
+    /**
+     * Finds the sources matching every term of the query, best match first.
+     * PostgreSQL only.
+     *
+     * @param query the free-text query
+     * @param limit the maximum number of hits to return
+     * @return the ranked hits
+     */
+    public List<SearchHit> search(String query, int limit) {
+        String sql = "SELECT media_type, id, title, author, ts_rank(" + DOCUMENT + ", q) AS score"
+                + " FROM sources, plainto_tsquery(" + TS_CONFIG + ", :query) q"
+                + " WHERE " + DOCUMENT + " @@ q"
+                + " ORDER BY score DESC, media_type, id LIMIT :limit";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", query)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new SearchHit(
+                rs.getString("media_type"), rs.getLong("id"), rs.getString("title"),
+                rs.getString("author"), rs.getDouble("score")));
+    }
+
+    /**
+     * Builds a weighted tsvector expression for one text expression.
+     *
+     * @param text the column or text expression
+     * @param weight the tsvector weight label
+     * @return the expression
+     */
+    private static String weighted(String text, String weight) {
+        return "setweight(to_tsvector(" + TS_CONFIG + ", coalesce(" + text + ", '')), '"
+                + weight + "')";
+    }
+}
@@ -0,0 +1,235 @@
+package com.columbia.coms4156.citationservice.repository;
+
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Source;
+import com.columbia.coms4156.citationservice.model.Video;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Repository performing race-free inserts of source media keyed on {@link Source#getDedupeKey()}.
+ *
+ * <p>Bulk ingestion used to look a source up by title and author and insert it when missing,
+ * so two concurrent requests citing the same new work could both miss and insert duplicates.
+ * This repository lets the database arbitrate instead: on PostgreSQL it issues
+ * {@code INSERT ... ON CONFLICT (media_type, dedupe_key) DO NOTHING}, and on other databases
+ * (H2 for local development and tests) the equivalent standard {@code MERGE ... WHEN NOT
+ * MATCHED}. Either way the unique constraint on media type and key guarantees a single row
+ * per work without serializable isolation, explicit locks or retries.</p>
+ *
+ * <p>The canonical ISBN and DOI columns are written alongside the values as entered, so
+ * the identifier lookups find upserted rows too.</p>
+ */
+@Repository
+public class SourceUpsertRepository {
+
+    /**
+     * Table holding every source media type.
+     */
+    private static final String TABLE = "sources";
+
+    /**
+     * Columns written when upserting a book.
+     */
+    private static final List<String> BOOK_COLUMNS = List.of(
+            "title", "author", "dedupe_key", "publisher", "publication_year",
+            "city", "edition", "isbn", "canonical_isbn");
+
+    /**
+     * Columns written when upserting a video.
+     */
+    private static final List<String> VIDEO_COLUMNS = List.of(
+            "title", "author", "dedupe_key", "director", "duration_seconds",
+            "platform", "url", "release_year");
+
+    /**
+     * Columns written when upserting an article.
+     */
+    private static final List<String> ARTICLE_COLUMNS = List.of(
+            "title", "author", "dedupe_key", "journal", "volume", "issue",
+            "pages", "doi", "canonical_doi", "url", "publication_year");
+
+    /**
+     * JDBC template bound to the application data source (joins the current JPA transaction).
+     */
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Identifies the connected database so the matching upsert statement is used.
+     */
+    private final DatabaseProduct databaseProduct;
+
+    /**
+     * Constructs a new SourceUpsertRepository.
+     *
+     * @param jdbcTemplateParam the JDBC template to execute the upserts with
+     * @param databaseProductParam the connected database product
+     */
+    public SourceUpsertRepository(NamedParameterJdbcTemplate jdbcTemplateParam,
+                                  DatabaseProduct databaseProductParam) {
+        this.jdbcTemplate = jdbcTemplateParam;
+        this.databaseProduct = databaseProductParam;
+    }
+
+    /**
+     * Inserts the book unless one with the same de-duplication key already exists.
+     *
+     * @param book the book to insert (title and author must be set)
+     * @return the id of the inserted or pre-existing book and whether it was inserted
+     */
+    public UpsertResult upsertBook(Book book) {
+        return upsert(BOOK_COLUMNS, book);
+    }
+
+    /**
+     * Inserts the video unless one with the same de-duplication key already exists.
+     *
+     * @param video the video to insert (title and author must be set)
+     * @return the id of the inserted or pre-existing video and whether it was inserted
+     */
+    public UpsertResult upsertVideo(Video video) {
+        return upsert(VIDEO_COLUMNS, video);
+    }
+
+    /**
+     * Inserts the article unless one with the same de-duplication key already exists.
+     *
+     * @param article the article to insert (title and author must be set)
+     * @return the id of the inserted or pre-existing article and whether it was inserted
+     */
+    public UpsertResult upsertArticle(Article article) {
+        return upsert(ARTICLE_COLUMNS, article);
+    }
+
+    /**
+     * Runs the dialect-specific upsert and resolves the id of the winning row.
+     *
+     * @param columns the type-specific columns to write, in snake case
+     * @param source the entity supplying the column values
+     * @return the upsert result
+     */
+    private UpsertResult upsert(List<String> columns, Source source) {
+        if (source.getDedupeKey() == null) {
+            throw new IllegalArgumentException("Title and author are required to upsert a source");
+        }
+        // The discriminator comes from the MediaType enum, never from user input.
+        String mediaType = "'" + source.getMediaType().getValue() + "'";
+        SqlParameterSource params = new BeanPropertySqlParameterSource(source);
+        if (databaseProduct.isPostgres()) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    postgresInsertSql(mediaType, columns), params, Long.class);
+            return ids.isEmpty()
+                    ? new UpsertResult(findId(mediaType, params), false)
+                    : new UpsertResult(ids.get(0), true);
+        }
+        boolean inserted = jdbcTemplate.update(mergeSql(mediaType, columns), params) > 0;
+        return new UpsertResult(findId(mediaType, params), inserted);
+    }
+
+    /**
+     * Finds the id of the row holding the source's de-duplication key.
+     *
+     * @param mediaType the quoted discriminator literal
+     * @param params the parameters supplying the de-duplication key
+     * @return the id of the row
+     */
+    private Long findId(String mediaType, SqlParameterSource params) {
+        return jdbcTemplate.queryForObject("SELECT id FROM " + TABLE
+                + " WHERE media_type = " + mediaType + " AND dedupe_key = :dedupeKey",
+                params, Long.class);
+    }
+
+    /**
+     * Builds the PostgreSQL {@code INSERT ... ON CONFLICT DO NOTHING RETURNING id} statement.
+     *
+     * @param mediaType the quoted discriminator literal
+     * @param columns the columns to write
+     * @return the SQL statement
+     */
+    private static String postgresInsertSql(String mediaType, List<String> columns) {
+        return "INSERT INTO " + TABLE + " (media_type, " + String.join(", ", columns) + ")"
+                + " VALUES (" + mediaType + ", " + placeholders(columns) + ")"
+                + " ON CONFLICT (media_type, dedupe_key) DO NOTHING RETURNING id";
+    }
+
+    /**
+     * Builds the standard {@code MERGE ... WHEN NOT MATCHED THEN INSERT} statement.
+     *
+     * @param mediaType the quoted discriminator literal
+     * @param columns the columns to write
+     * @return the SQL statement
+     */
+    private static String mergeSql(String mediaType, List<String> columns) {
+        return "MERGE INTO " + TABLE + " t"
+                + " USING (SELECT " + mediaType + " AS media_type,"
+                + " CAST(:dedupeKey AS VARCHAR) AS dedupe_key) s"
+                + " ON t.media_type = s.media_type AND t.dedupe_key = s.dedupe_key"
+                + " WHEN NOT MATCHED THEN INSERT (media_type, " + String.join(", ", columns) + ")"
+                + " VALUES (" + mediaType + ", " + placeholders(columns) + ")";
+    }
+
+    /**
+     * Maps snake case column names to named parameters for the matching bean properties.
+     *
+     * @param columns the column names
+     * @return the comma-separated named parameter list
+     */
+    private static String placeholders(List<String> columns) {
+        return columns.stream()
+                .map(column -> ":" + JdbcUtils.convertUnderscoreNameToPropertyName(column))
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Outcome of an upsert: the id of the row holding the de-duplication key and
+     * whether this call inserted it (false when an existing row won).
+     */
+    public static final class UpsertResult {
+
+        /**
+         * The id of the inserted or pre-existing row.
+         */
+        private final Long id;
+
+        /**
+         * Whether the row was inserted by this call.
+         */
+        private final boolean inserted;
+
+        /**
+         * Constructs a new UpsertResult.
+         *
+         * @param idParam the id of the row
+         * @param insertedParam whether the row was inserted by this call
+         */
+        public UpsertResult(Long idParam, boolean insertedParam) {
+            this.id = idParam;
+            this.inserted = insertedParam;
+        }
+
+        /**
+         * Gets the id of the inserted or pre-existing row.
+         *
+         * @return the row id
+         */
+        public Long getId() {
+            return id;
+        }
+
+        /**
+         * Whether the row was inserted by this call.
+         *
+         * @return true if inserted, false if an existing row was matched
+         */
+        public boolean isInserted() {
+            return inserted;
+        }
+    }
+}
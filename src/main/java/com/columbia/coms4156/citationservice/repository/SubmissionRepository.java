@@ -2,9 +2,13 @@ package com.columbia.coms4156.citationservice.repository;
 
 import com.columbia.coms4156.citationservice.model.Submission;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SubmissionRepository extends JpaRepository<Submission, Long> {
@@ -15,5 +19,85 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
      * @return a list of submissions for the specified user
      */
     List<Submission> findByUserId(Long userId);
-}
 
+    /**
+     * Reads the versions and modification times of a submission, its citations and their
+     * sources in one aggregate query, without loading any of them.
+     *
+     * @param id the submission ID
+     * @return the group's versions, or empty if the submission does not exist
+     */
+    @Query("select s.version as submissionVersion, s.updatedAt as submissionUpdatedAt,"
+            + " count(c) as citationCount, coalesce(sum(c.id), 0) as citationIdSum,"
+            + " coalesce(sum(c.version), 0) as citationVersionSum,"
+            + " coalesce(sum(src.version), 0) as sourceVersionSum,"
+            + " max(c.updatedAt) as citationsUpdatedAt, max(src.updatedAt) as sourcesUpdatedAt"
+            + " from Submission s left join s.citations c left join c.source src"
+            + " where s.id = :id group by s.id, s.version, s.updatedAt")
+    Optional<GroupVersion> findGroupVersionById(@Param("id") Long id);
+
+    /**
+     * Versions and modification times of everything a submission group's citations are
+     * rendered from. Citation IDs only grow, so replacing citations changes their sum
+     * even when the count stays the same; versions only grow, so any update to a
+     * citation or source changes the version sums.
+     */
+    interface GroupVersion {
+
+        /**
+         * Gets the version of the submission.
+         *
+         * @return the submission version
+         */
+        Long getSubmissionVersion();
+
+        /**
+         * Gets when the submission was last written.
+         *
+         * @return the submission's last write time
+         */
+        Instant getSubmissionUpdatedAt();
+
+        /**
+         * Gets the number of citations in the submission.
+         *
+         * @return the citation count
+         */
+        Long getCitationCount();
+
+        /**
+         * Gets the sum of the submission's citation IDs.
+         *
+         * @return the citation ID sum, 0 without citations
+         */
+        Long getCitationIdSum();
+
+        /**
+         * Gets the sum of the submission's citation versions.
+         *
+         * @return the citation version sum, 0 without citations
+         */
+        Long getCitationVersionSum();
+
+        /**
+         * Gets the sum of the versions of the cited sources.
+         *
+         * @return the source version sum, 0 without citations
+         */
+        Long getSourceVersionSum();
+
+        /**
+         * Gets when a citation of the submission was last written.
+         *
+         * @return the latest citation write time, or null without citations
+         */
+        Instant getCitationsUpdatedAt();
+
+        /**
+         * Gets when a cited source was last written.
+         *
+         * @return the latest source write time, or null without citations
+         */
+        Instant getSourcesUpdatedAt();
+    }
+}
@@ -1,6 +1,7 @@
 package com.columbia.coms4156.citationservice.repository;
 
 import com.columbia.coms4156.citationservice.model.Video;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -33,4 +34,14 @@ public interface VideoRepository extends JpaRepository<Video, Long> {
      * @return an Optional containing the found video, or empty if no video was found
      */
     Optional<Video> findByTitleIgnoreCaseAndAuthorIgnoreCase(String title, String author);
+
+    /**
+     * Finds the next page of videos after the given ID, ordered by ascending ID
+     * (keyset pagination).
+     *
+     * @param afterId the ID of the last video already returned (0 for the first page)
+     * @param pageable the page request; only its size is used (the page number must be 0)
+     * @return up to {@code pageable.getPageSize()} videos with IDs greater than afterId
+     */
+    List<Video> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
 }
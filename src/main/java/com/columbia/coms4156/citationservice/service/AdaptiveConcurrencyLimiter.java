@@ -0,0 +1,302 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.exception.UpstreamOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits the number of concurrent requests to each upstream API, adapting the limit to how
+ * the upstream copes (additive increase, multiplicative decrease).
+ *
+ * <p>Each answered request that was neither rate limited nor slow raises the limit by
+ * {@code 1 / limit}, so by about one per round of requests, as long as the limit is being
+ * used. A 429 or 503 answer, a connection error, or an answer slower than
+ * {@code backfill.concurrency.latency-threshold} multiplies the limit by
+ * {@code backfill.concurrency.backoff-ratio}, at most once per round so a burst of 429s
+ * only counts once. The limit stays between {@code min-limit} and {@code max-limit}.</p>
+ *
+ * <p>Requests over the limit wait in a queue of at most {@code backfill.concurrency.max-queue}
+ * requests, first come first served; once that is full, further requests are shed with an
+ * {@link UpstreamOverloadedException}, which the caller treats as an unavailable upstream.
+ * A waiting request that is cancelled, e.g. by the lookup's time limit, leaves the queue.</p>
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Limit each upstream starts with.
+     */
+    private final int initialLimit;
+
+    /**
+     * Lowest limit.
+     */
+    private final int minLimit;
+
+    /**
+     * Highest limit.
+     */
+    private final int maxLimit;
+
+    /**
+     * Most requests that can wait for each upstream.
+     */
+    private final int maxQueue;
+
+    /**
+     * Latency above which an answer is taken as a sign of overload.
+     */
+    private final long latencyThresholdNanos;
+
+    /**
+     * Factor the limit is multiplied by on overload.
+     */
+    private final double backoffRatio;
+
+    /**
+     * Service publishing the limits and counting shed requests.
+     */
+    private final MetricsService metricsService;
+
+    /**
+     * Limit of each upstream.
+     */
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new AdaptiveConcurrencyLimiter.
+     *
+     * @param initialLimitParam the limit each upstream starts with
+     * @param minLimitParam the lowest limit
+     * @param maxLimitParam the highest limit
+     * @param maxQueueParam the most requests that can wait for each upstream
+     * @param latencyThresholdParam the latency above which an answer signals overload
+     * @param backoffRatioParam the factor the limit is multiplied by on overload
+     * @param metricsServiceParam the service publishing the limits
+     */
+    public AdaptiveConcurrencyLimiter(
+            @Value("${backfill.concurrency.initial-limit:10}") int initialLimitParam,
+            @Value("${backfill.concurrency.min-limit:1}") int minLimitParam,
+            @Value("${backfill.concurrency.max-limit:64}") int maxLimitParam,
+            @Value("${backfill.concurrency.max-queue:50}") int maxQueueParam,
+            @Value("${backfill.concurrency.latency-threshold:1s}") Duration latencyThresholdParam,
+            @Value("${backfill.concurrency.backoff-ratio:0.5}") double backoffRatioParam,
+            MetricsService metricsServiceParam) {
+        this.initialLimit = initialLimitParam;
+        this.minLimit = minLimitParam;
+        this.maxLimit = maxLimitParam;
+        this.maxQueue = maxQueueParam;
+        this.latencyThresholdNanos = latencyThresholdParam.toNanos();
+        this.backoffRatio = backoffRatioParam;
+        this.metricsService = metricsServiceParam;
+    }
+
+    /**
+     * Gets a WebClient filter holding each request to an upstream to the upstream's limit.
+     *
+     * @param upstream the upstream API, {@link MetricsService#GOOGLE_BOOKS} or
+     *                 {@link MetricsService#CROSSREF}
+     * @return the filter
+     */
+    public ExchangeFilterFunction filter(String upstream) {
+        Limit limit = limits.computeIfAbsent(upstream, this::newLimit);
+        return (request, next) -> limit.acquire().then(Mono.defer(() -> {
+            long start = System.nanoTime();
+            return next.exchange(request)
+                    .doOnNext(response -> limit.onAnswer(response.statusCode(), start))
+                    .doOnError(e -> limit.onOverload(start))
+                    .doFinally(signal -> limit.release());
+        }));
+    }
+
+    /**
+     * Gets the current limit of an upstream.
+     *
+     * @param upstream the upstream API
+     * @return the limit, or the initial limit if no request has been made to the upstream
+     */
+    public int getLimit(String upstream) {
+        Limit limit = limits.get(upstream);
+        return limit == null ? initialLimit : limit.current();
+    }
+
+    /**
+     * Creates the limit of an upstream and publishes it as a metric.
+     *
+     * @param upstream the upstream API
+     * @return the limit
+     */
+    private Limit newLimit(String upstream) {
+        Limit limit = new Limit(upstream);
+        metricsService.registerConcurrencyLimit(upstream, limit, Limit::current,
+                Limit::inFlight);
+        return limit;
+    }
+
+    /**
+     * Concurrency limit, requests in flight and waiting requests of one upstream.
+     */
+    private final class Limit {
+
+        /**
+         * The upstream API.
+         */
+        private final String upstream;
+
+        /**
+         * Requests waiting for a permit, oldest first.
+         */
+        private final Deque<MonoSink<Void>> waiting = new ArrayDeque<>();
+
+        /**
+         * Current limit; fractional so additive increases accumulate.
+         */
+        private double limit = initialLimit;
+
+        /**
+         * Requests holding a permit.
+         */
+        private int inFlight;
+
+        /**
+         * When the limit was last lowered, from {@link System#nanoTime()}.
+         */
+        private long lastDecrease = System.nanoTime();
+
+        /**
+         * Constructs a new Limit.
+         *
+         * @param upstreamParam the upstream API
+         */
+        Limit(String upstreamParam) {
+            this.upstream = upstreamParam;
+        }
+
+        /**
+         * Gets the current limit.
+         *
+         * @return the limit, in whole requests
+         */
+        synchronized int current() {
+            return (int) limit;
+        }
+
+        /**
+         * Gets the number of requests holding a permit.
+         *
+         * @return the requests in flight
+         */
+        synchronized int inFlight() {
+            return inFlight;
+        }
+
+        /**
+         * Takes a permit, waiting for one if the limit is reached.
+         *
+         * @return completes once a permit is held; fails with an
+         *         {@link UpstreamOverloadedException} if the queue is full
+         */
+        Mono<Void> acquire() {
+            return Mono.create(sink -> {
+                boolean shed;
+                synchronized (this) {
+                    if (inFlight < current()) {
+                        inFlight++;
+                        shed = false;
+                    } else if (waiting.size() < maxQueue) {
+                        waiting.addLast(sink);
+                        sink.onCancel(() -> abandon(sink));
+                        return;
+                    } else {
+                        shed = true;
+                    }
+                }
+                if (shed) {
+                    metricsService.recordShed(upstream);
+                    sink.error(new UpstreamOverloadedException("Too many lookups waiting for "
+                            + upstream));
+                } else {
+                    sink.success();
+                }
+            });
+        }
+
+        /**
+         * Removes a cancelled request from the queue, or gives back its permit if it had
+         * already been granted one.
+         *
+         * @param sink the cancelled request
+         */
+        private void abandon(MonoSink<Void> sink) {
+            boolean wasWaiting;
+            synchronized (this) {
+                wasWaiting = waiting.remove(sink);
+            }
+            if (!wasWaiting) {
+                release();
+            }
+        }
+
+        /**
+         * Gives back a permit and hands free permits to waiting requests.
+         */
+        void release() {
+            List<MonoSink<Void>> granted = new ArrayList<>();
+            synchronized (this) {
+                inFlight--;
+                while (inFlight < current() && !waiting.isEmpty()) {
+                    inFlight++;
+                    granted.add(waiting.pollFirst());
+                }
+            }
+            granted.forEach(MonoSink::success);
+        }
+
+        /**
+         * Adjusts the limit to an answer: lowers it if the answer was rate limiting or
+         * slow, raises it otherwise.
+         *
+         * @param status the status of the answer
+         * @param start when the request was sent, from {@link System#nanoTime()}
+         */
+        void onAnswer(HttpStatusCode status, long start) {
+            if (status.value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                    || status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                    || System.nanoTime() - start > latencyThresholdNanos) {
+                onOverload(start);
+                return;
+            }
+            synchronized (this) {
+                // Only grow a limit that is being used
+                if (inFlight * 2 >= limit) {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+            }
+        }
+
+        /**
+         * Lowers the limit, unless it was already lowered since the request was sent.
+         *
+         * @param start when the request was sent, from {@link System#nanoTime()}
+         */
+        synchronized void onOverload(long start) {
+            if (start - lastDecrease > 0) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecrease = System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.CacheRegionStats;
+import com.columbia.coms4156.citationservice.controller.dto.CacheStatsResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Service reporting how effective the Hibernate second-level and query caches are,
+ * read from the Hibernate statistics collected since startup, along with the
+ * {@link SourceDedupeCache} of ingestion lookups.
+ */
+@Service
+public class CacheStatsService {
+
+    /**
+     * The application's entity manager factory. Its Hibernate session factory is looked up
+     * on each call rather than at construction, as Hibernate may still be bootstrapping in
+     * the background, and unwrapping it would block until it is done.
+     */
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Cache of the source IDs found by de-duplication lookups, reported as one more region.
+     */
+    private final SourceDedupeCache sourceDedupeCache;
+
+    /**
+     * Constructs a new CacheStatsService.
+     *
+     * @param entityManagerFactoryParam the JPA entity manager factory backed by Hibernate
+     * @param sourceDedupeCacheParam the cache of de-duplication lookups
+     */
+    public CacheStatsService(EntityManagerFactory entityManagerFactoryParam,
+                             SourceDedupeCache sourceDedupeCacheParam) {
+        this.entityManagerFactory = entityManagerFactoryParam;
+        this.sourceDedupeCache = sourceDedupeCacheParam;
+    }
+
+    /**
+     * Collects the current cache statistics.
+     *
+     * @return entity and query cache totals, and the counts of each cache region followed
+     *         by those of the de-duplication lookups
+     */
+    public CacheStatsResponse getStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class)
+                .getStatistics();
+        CacheRegionStats secondLevel = new CacheRegionStats("second-level",
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount());
+        CacheRegionStats query = new CacheRegionStats("query",
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount());
+
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        List<CacheRegionStats> regions = new ArrayList<>();
+        for (String regionName : regionNames) {
+            CacheRegionStats region = toRegionStats(statistics, regionName);
+            if (region != null) {
+                regions.add(region);
+            }
+        }
+        regions.add(new CacheRegionStats(SourceDedupeCache.NAME, sourceDedupeCache.getHitCount(),
+                sourceDedupeCache.getMissCount(), sourceDedupeCache.getPutCount()));
+        return new CacheStatsResponse(secondLevel, query, regions);
+    }
+
+    /**
+     * Reads the counts of one cache region.
+     *
+     * @param statistics the statistics of the session factory
+     * @param regionName the region name
+     * @return the region counts, or null if Hibernate keeps no statistics for the region
+     */
+    private static CacheRegionStats toRegionStats(Statistics statistics, String regionName) {
+        CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+        if (region == null) {
+            return null;
+        }
+        return new CacheRegionStats(regionName, region.getHitCount(), region.getMissCount(),
+                region.getPutCount());
+    }
+}
@@ -6,21 +6,26 @@ import com.columbia.coms4156.citationservice.model.Book;
 import com.columbia.coms4156.citationservice.model.Citation;
 import com.columbia.coms4156.citationservice.model.CitationResponse;
 import com.columbia.coms4156.citationservice.model.GroupCitationResponse;
-import com.columbia.coms4156.citationservice.model.Submission;
+import com.columbia.coms4156.citationservice.model.Source;
 import com.columbia.coms4156.citationservice.model.Video;
-import com.columbia.coms4156.citationservice.repository.ArticleRepository;
-import com.columbia.coms4156.citationservice.repository.BookRepository;
 import com.columbia.coms4156.citationservice.repository.CitationRepository;
 import com.columbia.coms4156.citationservice.repository.SubmissionRepository;
-import com.columbia.coms4156.citationservice.repository.VideoRepository;
+import com.columbia.coms4156.citationservice.repository.SubmissionRepository.GroupVersion;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Service class for citation-related business logic and citation generation.
@@ -30,18 +35,6 @@ import java.util.Optional;
 @Service
 public class CitationService {
 
-    /**
-     * Repository for managing Book entities.
-     */
-    private final BookRepository bookRepository;
-    /**
-     * Repository for managing Video entities.
-     */
-    private final VideoRepository videoRepository;
-    /**
-     * Repository for managing Article entities.
-     */
-    private final ArticleRepository articleRepository;
     /**
      * Repository for managing Citation entities.
      */
@@ -58,32 +51,37 @@ public class CitationService {
      * Service for fetching article data from CrossRef API.
      */
     private final CrossRefDoiService crossRefDoiService;
+    /**
+     * Service recording render and backfill metrics.
+     */
+    private final MetricsService metricsService;
+    /**
+     * Guard applying timeouts, retries and circuit breakers to the backfill lookups.
+     */
+    private final UpstreamGuard upstreamGuard;
 
     /**
      * Constructs a new CitationService with the given repositories and services.
-     * @param pBookRepository the book repository
-     * @param pVideoRepository the video repository
-     * @param pArticleRepository the article repository
      * @param pCitationRepository the citation repository
      * @param pSubmissionRepository the submission repository
      * @param pGoogleBooksService the Google books service
      * @param pCrossRefDoiService the CrossRef DOI service
+     * @param pMetricsService the metrics service
+     * @param pUpstreamGuard the guard around the backfill lookups
      */
     @Autowired
-    public CitationService(BookRepository pBookRepository,
-                           VideoRepository pVideoRepository,
-                           ArticleRepository pArticleRepository,
-                           CitationRepository pCitationRepository,
+    public CitationService(CitationRepository pCitationRepository,
                            SubmissionRepository pSubmissionRepository,
                            GoogleBooksService pGoogleBooksService,
-                           CrossRefDoiService pCrossRefDoiService) {
-        this.bookRepository = pBookRepository;
-        this.videoRepository = pVideoRepository;
-        this.articleRepository = pArticleRepository;
+                           CrossRefDoiService pCrossRefDoiService,
+                           MetricsService pMetricsService,
+                           UpstreamGuard pUpstreamGuard) {
         this.citationRepository = pCitationRepository;
         this.submissionRepository = pSubmissionRepository;
         this.googleBooksService = pGoogleBooksService;
         this.crossRefDoiService = pCrossRefDoiService;
+        this.metricsService = pMetricsService;
+        this.upstreamGuard = pUpstreamGuard;
     }
 
 
@@ -234,143 +232,289 @@ public class CitationService {
      * @param citationId the ID of the citation object to generate citation for
      * @param style the citation style (MLA, APA, CHICAGO)
      * @param backfill whether to use backfill option
-     * @return CitationResponse containing the generated citation
+     * @return CitationResponse containing the generated citation, listing the upstream APIs
+     *         that could not be reached if the stored metadata had to be used instead
      * @throws IllegalArgumentException if citation not found
      */
+    @Transactional(readOnly = true)
     public CitationResponse generateCitationForSource(Long citationId, String style,
                                                      boolean backfill) {
-        // Find the citation record
-        Optional<Citation> citationOpt = citationRepository.findById(citationId);
-        if (citationOpt.isEmpty()) {
-            throw new ResourceNotFoundException("Citation not found with ID: " + citationId);
-        }
-
-        Citation citation = citationOpt.get();
-        String citationString = generateCitationByMediaType(citation.getMediaId(),
-                citation.getMediaType(), style, backfill);
+        // Both the citation and its source are served from the second-level cache when warm
+        Citation citation = citationRepository.findById(citationId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Citation not found with ID: " + citationId));
+
+        Set<String> unavailableUpstreams = new TreeSet<>();
+        String citationString = generateCitationForCitedSource(citation, style, backfill,
+                null, null, unavailableUpstreams);
+        CitationResponse response = new CitationResponse(citationId.toString(), citationString);
+        if (!unavailableUpstreams.isEmpty()) {
+            response.setBackfillUnavailable(new ArrayList<>(unavailableUpstreams));
+        }
+        return response;
+    }
 
-        return new CitationResponse(citationId.toString(), citationString);
+    /**
+     * Reads the versions a submission group's citations are rendered from, so an unchanged
+     * group can be answered with 304 Not Modified before anything is formatted.
+     *
+     * @param submissionId the ID of the submission
+     * @return the group's versions, or empty if the submission does not exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<GroupVersion> findGroupVersion(Long submissionId) {
+        return submissionRepository.findGroupVersionById(submissionId);
     }
 
     /**
      * Generate citations for all sources in a submission group.
+     * The submission's citations and their sources are loaded in a single join.
      *
      * @param submissionId the ID of the submission containing sources
      * @param style the citation style (MLA, APA, CHICAGO)
      * @param backfill whether to use backfill option
-     * @return GroupCitationResponse containing all generated citations
+     * @return GroupCitationResponse containing all generated citations, listing the upstream
+     *         APIs that could not be reached if stored metadata had to be used instead
      * @throws IllegalArgumentException if submission not found
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public GroupCitationResponse generateCitationsForGroup(Long submissionId, String style,
                                                           boolean backfill) {
-        Optional<Submission> submissionOpt = submissionRepository.findById(submissionId);
-        if (submissionOpt.isEmpty()) {
+        List<Citation> submissionCitations =
+                citationRepository.findWithSourceBySubmissionId(submissionId);
+        if (submissionCitations.isEmpty() && !submissionRepository.existsById(submissionId)) {
             throw new ResourceNotFoundException("Submission not found with ID: " + submissionId);
         }
 
-        Submission submission = submissionOpt.get();
         Map<String, String> citations = new HashMap<>();
-
-        for (Citation citation : submission.getCitations()) {
-            String citationString = generateCitationByMediaType(citation.getMediaId(),
-                    citation.getMediaType(), style, backfill);
+        Set<String> unavailableUpstreams = new TreeSet<>();
+        Map<String, Article> backfilledArticles = backfill
+                ? prefetchArticles(submissionCitations, unavailableUpstreams) : null;
+        Map<String, Book> backfilledBooks = backfill ? new HashMap<>() : null;
+        for (Citation citation : submissionCitations) {
+            String citationString = generateCitationForCitedSource(citation, style, backfill,
+                    backfilledArticles, backfilledBooks, unavailableUpstreams);
             citations.put(citation.getId().toString(), citationString);
         }
+        metricsService.recordGroupSize(citations.size());
 
-        return new GroupCitationResponse(submissionId, citations);
+        GroupCitationResponse response = new GroupCitationResponse(submissionId, citations);
+        if (!unavailableUpstreams.isEmpty()) {
+            response.setBackfillUnavailable(new ArrayList<>(unavailableUpstreams));
+        }
+        return response;
+    }
+
+    /**
+     * Resolves the DOIs of a group's articles with batched CrossRef queries, so backfilling
+     * the group takes a few requests rather than one per article. Each query is guarded on
+     * its own, so the articles of a query that fails are rendered from their stored metadata
+     * while the others are still backfilled.
+     *
+     * @param groupCitations the group's citations, with their sources loaded
+     * @param unavailableUpstreams collects the upstream APIs that could not be reached
+     * @return the articles CrossRef returned, keyed by canonical DOI; empty if it could not
+     *         be reached
+     */
+    private Map<String, Article> prefetchArticles(List<Citation> groupCitations,
+                                                  Set<String> unavailableUpstreams) {
+        Set<String> dois = new LinkedHashSet<>();
+        for (Citation citation : groupCitations) {
+            Object source = Hibernate.unproxy(citation.getSource());
+            if (source instanceof Article && ((Article) source).getCanonicalDoi() != null) {
+                dois.add(((Article) source).getCanonicalDoi());
+            }
+        }
+        if (dois.isEmpty()) {
+            return Map.of();
+        }
+        Set<String> failedDois = new HashSet<>();
+        try {
+            Map<String, Article> found = metricsService.timeBackfill(MetricsService.CROSSREF,
+                    dois.size() + " DOIs", () -> {
+                        CrossRefDoiService.DoiLookup lookup =
+                                crossRefDoiService.fetchArticlesByDois(dois).block();
+                        failedDois.addAll(lookup.getFailedDois());
+                        return nullIfEmpty(lookup.getArticles());
+                    });
+            if (!failedDois.isEmpty()) {
+                unavailableUpstreams.add(MetricsService.CROSSREF);
+            }
+            return found == null ? Map.of() : found;
+        } catch (RuntimeException e) {
+            unavailableUpstreams.add(MetricsService.CROSSREF);
+            return Map.of();
+        }
+    }
+
+    /**
+     * Maps an empty lookup result to null, so it is recorded as {@code not_found}.
+     *
+     * @param found the articles found
+     * @return the articles, or null if there are none
+     */
+    private static Map<String, Article> nullIfEmpty(Map<String, Article> found) {
+        return found == null || found.isEmpty() ? null : found;
     }
 
     /**
-     * Generate citation based on media type and style.
+     * Generate the citation for the source a citation record refers to.
      *
-     * @param mediaId the ID of the media item
-     * @param mediaType the type of media (book, video, article)
+     * @param citation the citation record; a lazy source is loaded (from cache when warm)
      * @param style the citation style (MLA, APA, CHICAGO)
-     * @param backfill whether to use backfill option (currently unused)
+     * @param backfill whether to merge in metadata from Google Books or CrossRef
+     * @param backfilledArticles articles already fetched from CrossRef, keyed by canonical
+     *                           DOI, or null to look up an article's DOI on its own
+     * @param backfilledBooks books already looked up in Google Books for the group, keyed by
+     *                        canonical ISBN (null values mark ISBNs that were not found);
+     *                        filled in as books are looked up, or null to not remember them
+     * @param unavailableUpstreams collects the upstream APIs that could not be reached
      * @return the formatted citation string
-     * @throws IllegalArgumentException if media type is unsupported or media not found
+     * @throws ResourceNotFoundException if the citation has no source
      */
-    private String generateCitationByMediaType(Long mediaId, String mediaType, String style,
-                                             boolean backfill) {
-        switch (mediaType.toLowerCase(Locale.ENGLISH)) {
-            case "book":
-                Optional<Book> bookOptional = bookRepository.findById(mediaId);
-                if (bookOptional.isPresent()) {
-                    Book book = bookOptional.get();
-                    if (backfill && book.getIsbn() != null && !book.getIsbn().isEmpty()) {
-                        Book backfilledBook = googleBooksService
-                                .fetchBookDataByIsbn(book.getIsbn()).block();
-                        if (backfilledBook != null) {
-                            // Merge data, giving precedence to the backfilled data
-                            Book mergedBook = new Book();
-                            mergedBook.setTitle(backfilledBook.getTitle() != null
-                                    ? backfilledBook.getTitle() : book.getTitle());
-                            mergedBook.setAuthor(backfilledBook.getAuthor() != null
-                                    ? backfilledBook.getAuthor() : book.getAuthor());
-                            mergedBook.setPublisher(backfilledBook.getPublisher() != null
-                                    ? backfilledBook.getPublisher() : book.getPublisher());
-                            mergedBook.setPublicationYear(
-                                    backfilledBook.getPublicationYear() != null
-                                    ? backfilledBook.getPublicationYear()
-                                            : book.getPublicationYear());
-                            mergedBook.setIsbn(book.getIsbn()); // Keep original ISBN
-                            mergedBook.setCity(book.getCity()); // Keep original city
-                            return generateCitationByStyle(mergedBook, style);
-                        }
-                    }
-                    return generateCitationByStyle(book, style);
-                }
-                break;
-            case "video":
-                Optional<Video> video = videoRepository.findById(mediaId);
-                if (video.isPresent()) {
-                    return generateCitationByStyle(video.get(), style);
-                }
-                break;
-            case "article":
-                Optional<Article> articleOptional = articleRepository.findById(mediaId);
-                if (articleOptional.isPresent()) {
-                    Article article = articleOptional.get();
-                    if (backfill && article.getDoi() != null && !article.getDoi().isEmpty()) {
-                        Article backfilledArticle = crossRefDoiService
-                                .fetchArticleDataByDoi(article.getDoi()).block();
-                        if (backfilledArticle != null) {
-                            // Merge data, giving precedence to the backfilled data
-                            Article mergedArticle = new Article();
-                            mergedArticle.setTitle(backfilledArticle.getTitle() != null
-                                    ? backfilledArticle.getTitle() : article.getTitle());
-                            mergedArticle.setAuthor(backfilledArticle.getAuthor() != null
-                                    ? backfilledArticle.getAuthor() : article.getAuthor());
-                            mergedArticle.setJournal(backfilledArticle.getJournal() != null
-                                    ? backfilledArticle.getJournal() : article.getJournal());
-                            mergedArticle.setVolume(backfilledArticle.getVolume() != null
-                                    ? backfilledArticle.getVolume() : article.getVolume());
-                            mergedArticle.setIssue(backfilledArticle.getIssue() != null
-                                    ? backfilledArticle.getIssue() : article.getIssue());
-                            mergedArticle.setPages(backfilledArticle.getPages() != null
-                                    ? backfilledArticle.getPages() : article.getPages());
-                            mergedArticle.setPublicationYear(
-                                    backfilledArticle.getPublicationYear() != null
-                                    ? backfilledArticle.getPublicationYear()
-                                            : article.getPublicationYear());
-                            mergedArticle.setUrl(backfilledArticle.getUrl() != null
-                                    ? backfilledArticle.getUrl() : article.getUrl());
-                            mergedArticle.setDoi(article.getDoi()); // Keep original DOI
-                            return generateCitationByStyle(mergedArticle, style);
-                        }
-                    }
-                    return generateCitationByStyle(article, style);
-                }
-                break;
-            default:
-                throw new IllegalArgumentException("Unsupported media type: " + mediaType);
+    private String generateCitationForCitedSource(Citation citation, String style,
+                                                  boolean backfill,
+                                                  Map<String, Article> backfilledArticles,
+                                                  Map<String, Book> backfilledBooks,
+                                                  Set<String> unavailableUpstreams) {
+        if (citation.getSource() == null) {
+            throw new ResourceNotFoundException(
+                    "Media not found for citation ID: " + citation.getId());
+        }
+        Object source = Hibernate.unproxy(citation.getSource());
+        if (backfill && source instanceof Book) {
+            return generateCitationByStyle(
+                    backfillBook((Book) source, backfilledBooks, unavailableUpstreams), style);
+        }
+        if (backfill && source instanceof Article && backfilledArticles != null) {
+            Article article = (Article) source;
+            return generateCitationByStyle(mergeArticle(article,
+                    article.getCanonicalDoi() == null
+                            ? null : backfilledArticles.get(article.getCanonicalDoi())),
+                    style);
+        }
+        if (backfill && source instanceof Article) {
+            return generateCitationByStyle(
+                    backfillArticle((Article) source, unavailableUpstreams), style);
+        }
+        return generateCitationByStyle(source, style);
+    }
+
+    /**
+     * Merges Google Books metadata for the book's ISBN into a copy of the book,
+     * giving precedence to the backfilled data. The lookup uses the canonical ISBN-13, so
+     * a group citing the same book by ISBN-10 and ISBN-13 looks it up once. If Google Books
+     * cannot be reached (it fails, times out, or its circuit breaker is open), the stored
+     * book is used as is.
+     *
+     * @param book the stored book
+     * @param backfilledBooks books already looked up, keyed by canonical ISBN, or null
+     * @param unavailableUpstreams collects the upstream APIs that could not be reached
+     * @return the merged book, or the stored book if it has no ISBN, nothing was found, or
+     *         Google Books could not be reached
+     */
+    private Book backfillBook(Book book, Map<String, Book> backfilledBooks,
+                              Set<String> unavailableUpstreams) {
+        String isbn = book.getCanonicalIsbn();
+        if (isbn == null) {
+            return book;
+        }
+        Book backfilledBook;
+        if (backfilledBooks != null && backfilledBooks.containsKey(isbn)) {
+            backfilledBook = backfilledBooks.get(isbn);
+        } else {
+            try {
+                backfilledBook = metricsService.timeBackfill(MetricsService.GOOGLE_BOOKS, isbn,
+                        () -> upstreamGuard.guard(MetricsService.GOOGLE_BOOKS,
+                                googleBooksService.fetchBookDataByIsbn(isbn)).block());
+            } catch (RuntimeException e) {
+                unavailableUpstreams.add(MetricsService.GOOGLE_BOOKS);
+                return book;
+            }
+            if (backfilledBooks != null) {
+                backfilledBooks.put(isbn, backfilledBook);
+            }
         }
-        throw new ResourceNotFoundException("Media not found with ID: " + mediaId);
+        if (backfilledBook == null) {
+            return book;
+        }
+        Book mergedBook = new Book();
+        mergedBook.setTitle(backfilledBook.getTitle() != null
+                ? backfilledBook.getTitle() : book.getTitle());
+        mergedBook.setAuthor(backfilledBook.getAuthor() != null
+                ? backfilledBook.getAuthor() : book.getAuthor());
+        mergedBook.setPublisher(backfilledBook.getPublisher() != null
+                ? backfilledBook.getPublisher() : book.getPublisher());
+        mergedBook.setPublicationYear(backfilledBook.getPublicationYear() != null
+                ? backfilledBook.getPublicationYear() : book.getPublicationYear());
+        mergedBook.setIsbn(book.getIsbn()); // Keep original ISBN
+        mergedBook.setCity(book.getCity()); // Keep original city
+        return mergedBook;
     }
 
     /**
-     * Generate citation by style for any source type.
+     * Merges CrossRef metadata for the article's DOI into a copy of the article,
+     * giving precedence to the backfilled data. If CrossRef cannot be reached (it fails,
+     * times out, or its circuit breaker is open), the stored article is used as is.
+     *
+     * @param article the stored article
+     * @param unavailableUpstreams collects the upstream APIs that could not be reached
+     * @return the merged article, or the stored article if it has no DOI, nothing was found,
+     *         or CrossRef could not be reached
+     */
+    private Article backfillArticle(Article article, Set<String> unavailableUpstreams) {
+        String doi = article.getCanonicalDoi();
+        if (doi == null) {
+            return article;
+        }
+        Article backfilledArticle;
+        try {
+            backfilledArticle = metricsService.timeBackfill(MetricsService.CROSSREF, doi,
+                    () -> upstreamGuard.guard(MetricsService.CROSSREF,
+                            crossRefDoiService.fetchArticleDataByDoi(doi)).block());
+        } catch (RuntimeException e) {
+            unavailableUpstreams.add(MetricsService.CROSSREF);
+            return article;
+        }
+        return mergeArticle(article, backfilledArticle);
+    }
+
+    /**
+     * Merges CrossRef metadata into a copy of a stored article, giving precedence to the
+     * backfilled data.
+     *
+     * @param article the stored article
+     * @param backfilledArticle the metadata found in CrossRef, or null
+     * @return the merged article, or the stored article if nothing was found
+     */
+    private static Article mergeArticle(Article article, Article backfilledArticle) {
+        if (backfilledArticle == null) {
+            return article;
+        }
+        Article mergedArticle = new Article();
+        mergedArticle.setTitle(backfilledArticle.getTitle() != null
+                ? backfilledArticle.getTitle() : article.getTitle());
+        mergedArticle.setAuthor(backfilledArticle.getAuthor() != null
+                ? backfilledArticle.getAuthor() : article.getAuthor());
+        mergedArticle.setJournal(backfilledArticle.getJournal() != null
+                ? backfilledArticle.getJournal() : article.getJournal());
+        mergedArticle.setVolume(backfilledArticle.getVolume() != null
+                ? backfilledArticle.getVolume() : article.getVolume());
+        mergedArticle.setIssue(backfilledArticle.getIssue() != null
+                ? backfilledArticle.getIssue() : article.getIssue());
+        mergedArticle.setPages(backfilledArticle.getPages() != null
+                ? backfilledArticle.getPages() : article.getPages());
+        mergedArticle.setPublicationYear(backfilledArticle.getPublicationYear() != null
+                ? backfilledArticle.getPublicationYear() : article.getPublicationYear());
+        mergedArticle.setUrl(backfilledArticle.getUrl() != null
+                ? backfilledArticle.getUrl() : article.getUrl());
+        mergedArticle.setDoi(article.getDoi()); // Keep original DOI
+        return mergedArticle;
+    }
+
+    /**
+     * Generate citation by style for any source type, recording the render time per style
+     * and media type.
      *
      * @param source the source object (Book, Video, or Article)
      * @param style the citation style (MLA, APA, CHICAGO)
@@ -378,6 +522,23 @@ public class CitationService {
      * @throws IllegalArgumentException if citation style or source type is unsupported
      */
     public String generateCitationByStyle(Object source, String style) {
+        if (!(source instanceof Source)) {
+            return formatByStyle(source, style);
+        }
+        return metricsService.timeRender(style.toUpperCase(Locale.ENGLISH),
+                ((Source) source).getMediaType().getValue(),
+                () -> formatByStyle(source, style));
+    }
+
+    /**
+     * Formats a citation in the given style for any source type.
+     *
+     * @param source the source object (Book, Video, or Article)
+     * @param style the citation style (MLA, APA, CHICAGO)
+     * @return the formatted citation string
+     * @throws IllegalArgumentException if citation style or source type is unsupported
+     */
+    private String formatByStyle(Object source, String style) {
         switch (style.toUpperCase(Locale.ENGLISH)) {
             case "MLA":
                 if (source instanceof Book) {
@@ -1,507 +1,335 @@
 package com.columbia.coms4156.citationservice.service;
 
 import com.columbia.coms4156.citationservice.model.Article;
-import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.util.function.SingletonSupplier;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Service for fetching article data from the CrossRef API using DOI.
+ * Service for fetching article data from the CrossRef API using DOI, one DOI at a time or
+ * many per request.
  */
 @Service
 public class CrossRefDoiService {
 
     /**
-     * WebClient for making HTTP requests to the CrossRef API.
+     * Fields selected in batched queries: those an article is built from.
      */
-    private final WebClient webClient;
+    private static final String SELECTED_FIELDS = "DOI,title,author,container-title,volume,"
+            + "issue,page,published-online,published-print,issued,URL";
 
     /**
-     * HTTP status code for NOT FOUND.
+     * Most bytes of a response body held in memory per DOI looked up: the 256 KB the
+     * WebClient codecs allowed when responses were bound to objects. A body is joined in
+     * full before it is parsed, so a larger one fails with a DataBufferLimitException
+     * instead of being buffered without bound.
      */
-    private static final int HTTP_NOT_FOUND = 404;
+    static final int MAX_BYTES_PER_DOI = 256 * 1024;
+
+    /**
+     * Most batched queries sent at once for one call.
+     */
+    private static final int MAX_CONCURRENT_BATCHES = 4;
+
+    /**
+     * WebClient for making HTTP requests to the CrossRef API, built on first use so its
+     * HTTP client resources are not set up during startup.
+     */
+    private final SingletonSupplier<WebClient> webClient;
+
+    /**
+     * Sends a second request when CrossRef is slow to answer the first.
+     */
+    private final RequestHedger requestHedger;
+
+    /**
+     * Applies CrossRef's time limit, circuit breaker and retry to each batched query.
+     */
+    private final UpstreamGuard upstreamGuard;
+
+    /**
+     * Most DOIs resolved per batched query.
+     */
+    private final int batchSize;
 
     /**
      * Constructs a new CrossRefDoiService.
      * @param webClientBuilder WebClient builder for creating WebClient instances.
      * @param baseUrl The base URL for the CrossRef API.
+     * @param requestHedgerParam Hedger for slow lookups.
+     * @param concurrencyLimiterParam Limiter of concurrent requests to CrossRef.
+     * @param upstreamGuardParam Guard applied to each batched query.
+     * @param batchSizeParam Most DOIs resolved per batched query.
      */
     public CrossRefDoiService(WebClient.Builder webClientBuilder,
-                              @Value("${crossref.api.base-url}") String baseUrl) {
-        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+                              @Value("${crossref.api.base-url}") String baseUrl,
+                              RequestHedger requestHedgerParam,
+                              AdaptiveConcurrencyLimiter concurrencyLimiterParam,
+                              UpstreamGuard upstreamGuardParam,
+                              @Value("${crossref.api.batch-size:50}") int batchSizeParam) {
+        this.webClient = SingletonSupplier.of(() -> webClientBuilder.baseUrl(baseUrl)
+                .filter(concurrencyLimiterParam.filter(MetricsService.CROSSREF))
+                .build());
+        this.requestHedger = requestHedgerParam;
+        this.upstreamGuard = upstreamGuardParam;
+        this.batchSize = batchSizeParam;
     }
 
     /**
-     * Fetches article data from the CrossRef API by DOI.
+     * Fetches article data from the CrossRef API by DOI. The response body is joined in
+     * memory, up to {@link #MAX_BYTES_PER_DOI}, and then read with a streaming parser that
+     * only picks out the fields an article needs, so large records (long reference lists,
+     * funders, licences) are skipped rather than bound. The body is not parsed as it
+     * arrives off the wire.
      * @param doi The DOI of the article to fetch.
-     * @return A Mono containing the Article, or an empty Mono if not found.
+     * @return A Mono containing the Article, or an empty Mono if not found. Fails if
+     *         CrossRef cannot be reached or answers with an error other than 404, so the
+     *         caller's circuit breaker sees the failure. If hedging is enabled, a slow
+     *         request is sent a second time and the first answer is used.
      */
     public Mono<Article> fetchArticleDataByDoi(String doi) {
         if (doi == null || doi.isEmpty()) {
             return Mono.empty();
         }
 
-        return webClient.get()
-                .uri(uriBuilder ->
-                        uriBuilder.path("/works/" + doi)
-                                .build())
-                .retrieve()
-                .onStatus(status -> status.value() == HTTP_NOT_FOUND,
-                        response -> Mono.empty())
-                .bodyToMono(CrossRefApiResponse.class)
-                .flatMap(apiResponse ->
-                        parseCrossRefApiResponse(apiResponse, doi))
-                .onErrorResume(e -> Mono.empty());
+        Mono<Article> request = DataBufferUtils.join(webClient.obtain().get()
+                        .uri(uriBuilder ->
+                                uriBuilder.path("/works/" + doi)
+                                        .build())
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class), MAX_BYTES_PER_DOI)
+                .mapNotNull(body -> readArticle(body, doi))
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+        return requestHedger.hedge(MetricsService.CROSSREF, request);
     }
 
     /**
-     * Parses the CrossRef API response and converts it to an Article object.
+     * Fetches article data for many DOIs with batched {@code /works?filter=doi:...}
+     * queries, up to {@code crossref.api.batch-size} DOIs per request. Only the fields an
+     * article needs are selected. DOIs containing a comma, which the filter syntax cannot
+     * express, are fetched one at a time. Batched requests are not hedged.
      *
-     * @param apiResponse the API response to parse
-     * @param originalDoi the original DOI used in the request
-     * @return A Mono containing the parsed Article, or empty if parsing fails
+     * <p>Each request is guarded on its own: it gets its own time limit, a retry resends
+     * only its own DOIs, and the circuit breaker records each one. A request that fails
+     * does not discard the articles the others found; its DOIs are reported as failed.</p>
+     * @param dois The DOIs of the articles to fetch.
+     * @return A Mono containing the articles found, keyed by the DOI as given (CrossRef
+     *         matches DOIs case-insensitively), and the DOIs whose request failed; DOIs
+     *         CrossRef does not know are left out. Fails only if every request fails.
      */
-    private Mono<Article> parseCrossRefApiResponse(
-            CrossRefApiResponse apiResponse, String originalDoi) {
-        if (apiResponse == null || apiResponse.getMessage() == null) {
-            return Mono.empty();
-        }
-
-        CrossRefApiResponse.Message message = apiResponse.getMessage();
-
-        // Title is required
-        if (message.getTitle() == null || message.getTitle().isEmpty()) {
-            return Mono.empty();
-        }
-
-        Article article = new Article();
-
-        // Set title (from array, take first element)
-        article.setTitle(message.getTitle().get(0));
-
-        // Set author (combine all authors)
-        if (message.getAuthor() != null && !message.getAuthor().isEmpty()) {
-            StringBuilder authors = new StringBuilder();
-            for (int i = 0; i < message.getAuthor().size(); i++) {
-                CrossRefApiResponse.Author author = message.getAuthor().get(i);
-                if (author.getGiven() != null && author.getFamily() != null) {
-                    authors.append(author.getGiven()).append(" ").append(author.getFamily());
-                } else if (author.getFamily() != null) {
-                    authors.append(author.getFamily());
-                }
-                if (i < message.getAuthor().size() - 1) {
-                    authors.append(", ");
-                }
+    public Mono<DoiLookup> fetchArticlesByDois(Collection<String> dois) {
+        List<String> batchable = new ArrayList<>();
+        List<String> single = new ArrayList<>();
+        for (String doi : new LinkedHashSet<>(dois)) {
+            if (doi == null || doi.isEmpty()) {
+                continue;
+            }
+            if (doi.indexOf(',') < 0) {
+                batchable.add(doi);
+            } else {
+                single.add(doi);
             }
-            article.setAuthor(authors.toString());
         }
-
-        // Set DOI
-        article.setDoi(originalDoi);
-
-        // Set journal (from container-title array)
-        if (message.getContainerTitle() != null && !message.getContainerTitle().isEmpty()) {
-            article.setJournal(message.getContainerTitle().get(0));
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < batchable.size(); i += batchSize) {
+            batches.add(batchable.subList(i, Math.min(i + batchSize, batchable.size())));
         }
+        return Flux.concat(
+                        Flux.fromIterable(batches)
+                                .flatMap(batch -> guard(batch, fetchBatch(batch)),
+                                        MAX_CONCURRENT_BATCHES),
+                        Flux.fromIterable(single)
+                                .flatMap(doi -> guard(List.of(doi), fetchArticleDataByDoi(doi)
+                                        .map(article -> Map.of(doi, article))),
+                                        MAX_CONCURRENT_BATCHES))
+                .collectList()
+                .flatMap(CrossRefDoiService::merge);
+    }
 
-        // Set volume
-        article.setVolume(message.getVolume());
-
-        // Set issue
-        article.setIssue(message.getIssue());
-
-        // Set pages
-        article.setPages(message.getPage());
-
-        // Set publication year (from published-online or published-print)
-        Integer year = extractYear(message);
-        article.setPublicationYear(year);
+    /**
+     * Guards one request, turning its failure into a result listing its DOIs as failed.
+     *
+     * @param dois the DOIs the request looks up
+     * @param request the request
+     * @return the articles the request found, or its DOIs and error if it failed
+     */
+    private Mono<DoiLookup> guard(List<String> dois, Mono<Map<String, Article>> request) {
+        return upstreamGuard.guard(MetricsService.CROSSREF, request.defaultIfEmpty(Map.of()))
+                .map(found -> new DoiLookup(found, Set.of(), null))
+                .onErrorResume(e -> Mono.just(new DoiLookup(Map.of(), Set.copyOf(dois), e)));
+    }
 
-        // Set URL (from response or generate from DOI)
-        if (message.getUrl() != null && !message.getUrl().isEmpty()) {
-            article.setUrl(message.getUrl());
-        } else if (originalDoi != null && !originalDoi.isEmpty()) {
-            article.setUrl("https://doi.org/" + originalDoi);
+    /**
+     * Merges the results of the requests made for one lookup.
+     *
+     * @param parts the result of each request
+     * @return the merged result, or the first error if every request failed
+     */
+    private static Mono<DoiLookup> merge(List<DoiLookup> parts) {
+        Map<String, Article> articles = new HashMap<>();
+        Set<String> failedDois = new HashSet<>();
+        Throwable error = null;
+        boolean anySucceeded = parts.isEmpty();
+        for (DoiLookup part : parts) {
+            articles.putAll(part.getArticles());
+            failedDois.addAll(part.getFailedDois());
+            if (part.error == null) {
+                anySucceeded = true;
+            } else if (error == null) {
+                error = part.error;
+            }
         }
-
-        return Mono.just(article);
+        return anySucceeded ? Mono.just(new DoiLookup(articles, failedDois, null))
+                : Mono.error(error);
     }
 
     /**
-     * Extracts the publication year from the message.
-     * Tries published-online first, then published-print, then issued.
+     * Resolves one batch of DOIs with a single filtered query. The response body is joined
+     * in memory, up to {@link #MAX_BYTES_PER_DOI} for each DOI in the batch, before it is
+     * parsed.
      *
-     * @param message the message containing date information
-     * @return the publication year, or null if not found
+     * @param dois the DOIs, none containing a comma
+     * @return the articles found, keyed by the DOI as given
      */
-    private Integer extractYear(CrossRefApiResponse.Message message) {
-        // Try published-online first
-        if (message.getPublishedOnline() != null
-                && message.getPublishedOnline().getDateParts() != null
-                && !message.getPublishedOnline().getDateParts().isEmpty()
-                && !message.getPublishedOnline().getDateParts().get(0).isEmpty()) {
-            return message.getPublishedOnline().getDateParts().get(0).get(0);
+    private Mono<Map<String, Article>> fetchBatch(List<String> dois) {
+        Map<String, String> requested = new HashMap<>();
+        StringBuilder filter = new StringBuilder();
+        for (String doi : dois) {
+            requested.put(doi.toLowerCase(Locale.ROOT), doi);
+            filter.append(filter.length() == 0 ? "" : ",").append("doi:").append(doi);
         }
+        return DataBufferUtils.join(webClient.obtain().get()
+                        .uri(uriBuilder -> uriBuilder.path("/works")
+                                .queryParam("filter", "{filter}")
+                                .queryParam("select", SELECTED_FIELDS)
+                                .queryParam("rows", dois.size())
+                                .build(filter.toString()))
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class), MAX_BYTES_PER_DOI * dois.size())
+                .map(body -> {
+                    Map<String, Article> found = new HashMap<>();
+                    for (Article article : readItems(body)) {
+                        String doi = article.getDoi() == null ? null
+                                : requested.get(article.getDoi().toLowerCase(Locale.ROOT));
+                        if (doi != null) {
+                            article.setDoi(doi);
+                            found.put(doi, article);
+                        }
+                    }
+                    return found;
+                });
+    }
 
-        // Try published-print
-        if (message.getPublishedPrint() != null
-                && message.getPublishedPrint().getDateParts() != null
-                && !message.getPublishedPrint().getDateParts().isEmpty()
-                && !message.getPublishedPrint().getDateParts().get(0).isEmpty()) {
-            return message.getPublishedPrint().getDateParts().get(0).get(0);
+    /**
+     * Reads the articles from a CrossRef query response body, releasing the body.
+     *
+     * @param body the whole response body
+     * @return the articles listed
+     * @throws DecodingException if the body is not valid JSON
+     */
+    private static List<Article> readItems(DataBuffer body) {
+        try (InputStream in = body.asInputStream(true)) {
+            return CrossRefWorkReader.readItems(in);
+        } catch (IOException e) {
+            throw new DecodingException("Cannot read CrossRef query response", e);
         }
+    }
 
-        // Try issued
-        if (message.getIssued() != null
-                && message.getIssued().getDateParts() != null
-                && !message.getIssued().getDateParts().isEmpty()
-                && !message.getIssued().getDateParts().get(0).isEmpty()) {
-            return message.getIssued().getDateParts().get(0).get(0);
+    /**
+     * Reads the article from a CrossRef response body, releasing the body.
+     *
+     * @param body the whole response body
+     * @param doi the DOI that was looked up
+     * @return the article, or null if the response has no message or the message no title
+     * @throws DecodingException if the body is not valid JSON
+     */
+    private static Article readArticle(DataBuffer body, String doi) {
+        try (InputStream in = body.asInputStream(true)) {
+            return CrossRefWorkReader.read(in, doi);
+        } catch (IOException e) {
+            throw new DecodingException("Cannot read CrossRef response for " + doi, e);
         }
-
-        return null;
     }
 
-    // Inner classes to map the CrossRef API response structure
-    private static class CrossRefApiResponse {
+    /**
+     * The result of looking up many DOIs: the articles found and the DOIs whose request
+     * failed, so those can be rendered from stored metadata.
+     */
+    public static final class DoiLookup {
+
         /**
-         * Status of the API response.
+         * The articles found, keyed by the DOI as given.
          */
-        private String status;
+        private final Map<String, Article> articles;
+
         /**
-         * Message containing the article data.
+         * The DOIs whose request failed.
          */
-        private Message message;
+        private final Set<String> failedDois;
 
         /**
-         * Gets the status.
-         * @return the status
+         * Why the request failed, for a single request's result; null otherwise.
          */
-        public String getStatus() {
-            return status;
-        }
+        private final Throwable error;
 
         /**
-         * Sets the status.
-         * @param statusParam the status to set
+         * Constructs a new DoiLookup.
+         *
+         * @param articlesParam the articles found, keyed by the DOI as given
+         * @param failedDoisParam the DOIs whose request failed
+         * @param errorParam why the request failed, or null
          */
-        public void setStatus(String statusParam) {
-            this.status = statusParam;
+        DoiLookup(Map<String, Article> articlesParam, Set<String> failedDoisParam,
+                  Throwable errorParam) {
+            this.articles = articlesParam;
+            this.failedDois = failedDoisParam;
+            this.error = errorParam;
         }
 
         /**
-         * Gets the message.
-         * @return the message
+         * Constructs a new DoiLookup of articles that were all looked up.
+         *
+         * @param articlesParam the articles found, keyed by the DOI as given
          */
-        public Message getMessage() {
-            return message;
+        public DoiLookup(Map<String, Article> articlesParam) {
+            this(articlesParam, Set.of(), null);
         }
 
         /**
-         * Sets the message.
-         * @param messageParam the message to set
+         * Gets the articles found.
+         *
+         * @return the articles, keyed by the DOI as given
          */
-        public void setMessage(Message messageParam) {
-            this.message = messageParam;
-        }
-
-        private static class Message {
-            /**
-             * Title of the article.
-             */
-            private List<String> title;
-            /**
-             * Authors of the article.
-             */
-            private List<Author> author;
-            /**
-             * Volume number.
-             */
-            private String volume;
-            /**
-             * Issue number.
-             */
-            private String issue;
-            /**
-             * Page numbers.
-             */
-            private String page;
-            /**
-             * Container title (journal name).
-             */
-            @JsonProperty("container-title")
-            private List<String> containerTitle;
-            /**
-             * Published online date information.
-             */
-            @JsonProperty("published-online")
-            private DateInfo publishedOnline;
-            /**
-             * Published print date information.
-             */
-            @JsonProperty("published-print")
-            private DateInfo publishedPrint;
-            /**
-             * Issued date information.
-             */
-            private DateInfo issued;
-            /**
-             * URL of the article.
-             */
-            @JsonProperty("URL")
-            private String url;
-
-            // Getters and Setters
-            /**
-             * Gets the title.
-             * @return the title
-             */
-            public List<String> getTitle() {
-                return title;
-            }
-
-            /**
-             * Sets the title.
-             * @param titleParam the title to set
-             */
-            public void setTitle(List<String> titleParam) {
-                this.title = titleParam;
-            }
-
-            /**
-             * Gets the author list.
-             * @return the author list
-             */
-            public List<Author> getAuthor() {
-                return author;
-            }
-
-            /**
-             * Sets the author list.
-             * @param authorParam the author list to set
-             */
-            public void setAuthor(List<Author> authorParam) {
-                this.author = authorParam;
-            }
-
-            /**
-             * Gets the volume.
-             * @return the volume
-             */
-            public String getVolume() {
-                return volume;
-            }
-
-            /**
-             * Sets the volume.
-             * @param volumeParam the volume to set
-             */
-            public void setVolume(String volumeParam) {
-                this.volume = volumeParam;
-            }
-
-            /**
-             * Gets the issue.
-             * @return the issue
-             */
-            public String getIssue() {
-                return issue;
-            }
-
-            /**
-             * Sets the issue.
-             * @param issueParam the issue to set
-             */
-            public void setIssue(String issueParam) {
-                this.issue = issueParam;
-            }
-
-            /**
-             * Gets the page numbers.
-             * @return the page numbers
-             */
-            public String getPage() {
-                return page;
-            }
-
-            /**
-             * Sets the page numbers.
-             * @param pageParam the page numbers to set
-             */
-            public void setPage(String pageParam) {
-                this.page = pageParam;
-            }
-
-            /**
-             * Gets the container title.
-             * @return the container title
-             */
-            public List<String> getContainerTitle() {
-                return containerTitle;
-            }
-
-            /**
-             * Sets the container title.
-             * @param containerTitleParam the container title to set
-             */
-            public void setContainerTitle(List<String> containerTitleParam) {
-                this.containerTitle = containerTitleParam;
-            }
-
-            /**
-             * Gets the published online date info.
-             * @return the published online date info
-             */
-            public DateInfo getPublishedOnline() {
-                return publishedOnline;
-            }
-
-            /**
-             * Sets the published online date info.
-             * @param publishedOnlineParam the published online date info to set
-             */
-            public void setPublishedOnline(DateInfo publishedOnlineParam) {
-                this.publishedOnline = publishedOnlineParam;
-            }
-
-            /**
-             * Gets the published print date info.
-             * @return the published print date info
-             */
-            public DateInfo getPublishedPrint() {
-                return publishedPrint;
-            }
-
-            /**
-             * Sets the published print date info.
-             * @param publishedPrintParam the published print date info to set
-             */
-            public void setPublishedPrint(DateInfo publishedPrintParam) {
-                this.publishedPrint = publishedPrintParam;
-            }
-
-            /**
-             * Gets the issued date info.
-             * @return the issued date info
-             */
-            public DateInfo getIssued() {
-                return issued;
-            }
-
-            /**
-             * Sets the issued date info.
-             * @param issuedParam the issued date info to set
-             */
-            public void setIssued(DateInfo issuedParam) {
-                this.issued = issuedParam;
-            }
-
-            /**
-             * Gets the URL.
-             * @return the URL
-             */
-            public String getUrl() {
-                return url;
-            }
-
-            /**
-             * Sets the URL.
-             * @param urlParam the URL to set
-             */
-            public void setUrl(String urlParam) {
-                this.url = urlParam;
-            }
+        public Map<String, Article> getArticles() {
+            return articles;
         }
 
-        private static class Author {
-            /**
-             * Given name of the author.
-             */
-            private String given;
-            /**
-             * Family name of the author.
-             */
-            private String family;
-            /**
-             * Sequence of the author.
-             */
-            private String sequence;
-
-            /**
-             * Gets the given name.
-             * @return the given name
-             */
-            public String getGiven() {
-                return given;
-            }
-
-            /**
-             * Sets the given name.
-             * @param givenParam the given name to set
-             */
-            public void setGiven(String givenParam) {
-                this.given = givenParam;
-            }
-
-            /**
-             * Gets the family name.
-             * @return the family name
-             */
-            public String getFamily() {
-                return family;
-            }
-
-            /**
-             * Sets the family name.
-             * @param familyParam the family name to set
-             */
-            public void setFamily(String familyParam) {
-                this.family = familyParam;
-            }
-
-            /**
-             * Gets the sequence.
-             * @return the sequence
-             */
-            public String getSequence() {
-                return sequence;
-            }
-
-            /**
-             * Sets the sequence.
-             * @param sequenceParam the sequence to set
-             */
-            public void setSequence(String sequenceParam) {
-                this.sequence = sequenceParam;
-            }
-        }
-
-        private static class DateInfo {
-            /**
-             * Date parts array containing year, month, day.
-             */
-            @JsonProperty("date-parts")
-            private List<List<Integer>> dateParts;
-
-            /**
-             * Gets the date parts.
-             * @return the date parts
-             */
-            public List<List<Integer>> getDateParts() {
-                return dateParts;
-            }
-
-            /**
-             * Sets the date parts.
-             * @param datePartsParam the date parts to set
-             */
-            public void setDateParts(List<List<Integer>> datePartsParam) {
-                this.dateParts = datePartsParam;
-            }
+        /**
+         * Gets the DOIs whose request failed.
+         *
+         * @return the DOIs, empty if every request succeeded
+         */
+        public Set<String> getFailedDois() {
+            return failedDois;
         }
     }
 }
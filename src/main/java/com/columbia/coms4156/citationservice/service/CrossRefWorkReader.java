@@ -0,0 +1,370 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.model.Article;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Utility class reading {@link Article}s from CrossRef {@code /works/{doi}} and
+ * {@code /works?filter=doi:...} responses with a streaming parser.
+ *
+ * <p>Only the fields an article is built from are read: DOI, title, author,
+ * container-title, volume, issue, page, the publication dates and URL. Everything else,
+ * notably the reference, licence and funder lists that make up most of a large record, is
+ * skipped token by token without building any objects, and parsing stops once the
+ * {@code message} object has been read.</p>
+ */
+final class CrossRefWorkReader {
+
+    /**
+     * Logger for the values left out of an article.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(CrossRefWorkReader.class);
+
+    /**
+     * Factory creating the streaming parsers; thread-safe once configured.
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private CrossRefWorkReader() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Reads the article described by a CrossRef response.
+     *
+     * @param body the response body; not closed
+     * @param doi the DOI that was looked up, set on the article
+     * @return the article, or null if the response has no message or the message no title
+     * @throws IOException if the body cannot be read or is not valid JSON
+     */
+    static Article read(InputStream body, String doi) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (!moveToMessage(parser)) {
+                return null;
+            }
+            return readWork(parser, doi);
+        }
+    }
+
+    /**
+     * Reads the articles listed in a CrossRef {@code /works} query response. Each article
+     * gets the DOI CrossRef lists for it.
+     *
+     * @param body the response body; not closed
+     * @return the articles, leaving out works without a title or DOI
+     * @throws IOException if the body cannot be read or is not valid JSON
+     */
+    static List<Article> readItems(InputStream body) throws IOException {
+        List<Article> articles = new ArrayList<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (!moveToMessage(parser)) {
+                return articles;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && "items".equals(field)) {
+                    readItemArray(parser, articles);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return articles;
+        }
+    }
+
+    /**
+     * Reads the works of the {@code items} array the parser is on.
+     *
+     * @param parser the parser, on the array's start
+     * @param articles receives the works with a title and DOI
+     * @throws IOException if the body cannot be read
+     */
+    private static void readItemArray(JsonParser parser, List<Article> articles)
+            throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            Article article = parser.currentToken() == JsonToken.START_OBJECT
+                    ? readWork(parser, null) : null;
+            if (article == null) {
+                parser.skipChildren();
+            } else if (article.getDoi() != null) {
+                articles.add(article);
+            }
+        }
+    }
+
+    /**
+     * Moves the parser onto the start of the response's {@code message} object.
+     *
+     * @param parser the parser, before the response's first token
+     * @return whether the response has a message object
+     * @throws IOException if the body cannot be read
+     */
+    private static boolean moveToMessage(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_OBJECT && "message".equals(field)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * Reads the work object the parser is on: the message of a single work response or an
+     * item of a query response. Blank values, and optional values the article rejects (such
+     * as a malformed URL), are left out rather than failing the lookup.
+     *
+     * @param parser the parser, on the object's start
+     * @param doi the DOI that was looked up, or null to use the DOI listed in the work
+     * @return the article, or null if the work has no usable title or its DOI is invalid
+     * @throws IOException if the body cannot be read
+     */
+    private static Article readWork(JsonParser parser, String doi) throws IOException {
+        Article article = new Article();
+        String workDoi = doi;
+        String title = null;
+        Integer publishedOnline = null;
+        Integer publishedPrint = null;
+        Integer issued = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "title" -> {
+                    title = nonBlank(readFirstString(parser));
+                }
+                case "author" -> setIfValid(article::setAuthor, readAuthors(parser));
+                case "container-title" -> setIfValid(article::setJournal, readFirstString(parser));
+                case "volume" -> setIfValid(article::setVolume, readString(parser));
+                case "issue" -> setIfValid(article::setIssue, readString(parser));
+                case "page" -> setIfValid(article::setPages, readString(parser));
+                case "URL" -> setIfValid(article::setUrl, readString(parser));
+                case "DOI" -> {
+                    String listedDoi = nonBlank(readString(parser));
+                    workDoi = doi == null ? listedDoi : doi;
+                }
+                case "published-online" -> {
+                    publishedOnline = readYear(parser);
+                }
+                case "published-print" -> {
+                    publishedPrint = readYear(parser);
+                }
+                case "issued" -> {
+                    issued = readYear(parser);
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (title == null) {
+            return null;
+        }
+        try {
+            article.setTitle(title);
+            article.setDoi(workDoi);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Integer year = publishedOnline != null ? publishedOnline
+                : publishedPrint != null ? publishedPrint : issued;
+        setIfValid(article::setPublicationYear, year);
+        if (article.getUrl() == null && workDoi != null) {
+            setIfValid(article::setUrl, "https://doi.org/" + workDoi);
+        }
+        return article;
+    }
+
+    /**
+     * Sets an optional field of an article, leaving it unset if the value is null, blank or
+     * rejected by the setter.
+     *
+     * @param setter the article's setter
+     * @param value the value read from the response
+     * @param <T> the type of the value
+     */
+    private static <T> void setIfValid(Consumer<T> setter, T value) {
+        if (value == null || value instanceof String && ((String) value).isBlank()) {
+            return;
+        }
+        try {
+            setter.accept(value);
+        } catch (IllegalArgumentException e) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Leaving out CrossRef value {}: {}", value, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Maps a blank string to null.
+     *
+     * @param value the string, or null
+     * @return the string, or null if it is null or blank
+     */
+    private static String nonBlank(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /**
+     * Reads the scalar value the parser is on as text.
+     *
+     * @param parser the parser, on the value
+     * @return the text, or null if the value is null, an object or an array
+     * @throws IOException if the body cannot be read
+     */
+    private static String readString(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsString();
+    }
+
+    /**
+     * Reads the first element of the string array the parser is on, skipping the rest.
+     *
+     * @param parser the parser, on the array's start
+     * @return the first string, or null if the array is empty or not an array
+     * @throws IOException if the body cannot be read
+     */
+    private static String readFirstString(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        if (parser.nextToken() == JsonToken.END_ARRAY) {
+            return null;
+        }
+        String first = readString(parser);
+        skipRestOfArray(parser);
+        return first;
+    }
+
+    /**
+     * Reads the author array the parser is on into one string: "Given Family" (or just
+     * "Family", or the name of an organisation) per author, separated by commas. Authors
+     * without any of these are left out.
+     *
+     * @param parser the parser, on the array's start
+     * @return the authors, or null if none has a usable name
+     * @throws IOException if the body cannot be read
+     */
+    private static String readAuthors(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<String> authors = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String given = null;
+            String family = null;
+            String name = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("given".equals(field)) {
+                    given = nonBlank(readString(parser));
+                } else if ("family".equals(field)) {
+                    family = nonBlank(readString(parser));
+                } else if ("name".equals(field)) {
+                    name = nonBlank(readString(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (family != null) {
+                authors.add(given != null ? given + " " + family : family);
+            } else if (name != null) {
+                authors.add(name);
+            }
+        }
+        return authors.isEmpty() ? null : String.join(", ", authors);
+    }
+
+    /**
+     * Reads the year of the date object the parser is on, the first of its
+     * {@code date-parts}, e.g. 2021 in {@code {"date-parts": [[2021, 3, 4]]}}.
+     *
+     * @param parser the parser, on the object's start
+     * @return the year, or null if the date has none
+     * @throws IOException if the body cannot be read
+     */
+    private static Integer readYear(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        Integer year = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && "date-parts".equals(field)) {
+                year = readFirstNumber(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return year;
+    }
+
+    /**
+     * Reads the first number of the first array in the array of arrays the parser is on,
+     * skipping the rest.
+     *
+     * @param parser the parser, on the outer array's start
+     * @return the number, or null if there is none
+     * @throws IOException if the body cannot be read
+     */
+    private static Integer readFirstNumber(JsonParser parser) throws IOException {
+        if (parser.nextToken() == JsonToken.END_ARRAY) {
+            return null;
+        }
+        Integer number = null;
+        if (parser.currentToken() == JsonToken.START_ARRAY
+                && parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                number = parser.getIntValue();
+            } else {
+                parser.skipChildren();
+            }
+            skipRestOfArray(parser);
+        } else {
+            parser.skipChildren();
+        }
+        skipRestOfArray(parser);
+        return number;
+    }
+
+    /**
+     * Skips the remaining elements of the array the parser is in, leaving the parser on
+     * the array's end.
+     *
+     * @param parser the parser, on an element of the array
+     * @throws IOException if the body cannot be read
+     */
+    private static void skipRestOfArray(JsonParser parser) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.exception.ConflictException;
+import com.columbia.coms4156.citationservice.exception.ResourceNotFoundException;
+import com.columbia.coms4156.citationservice.exception.UnauthorizedException;
+import com.columbia.coms4156.citationservice.exception.ValidationException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service starting and stopping an in-process Java Flight Recorder recording, so a running
+ * instance can be profiled without attaching an agent or opening a JMX port.
+ *
+ * <p>At most one recording runs at a time. It uses one of the JDK's predefined settings:
+ * {@code default} (about 1% overhead, suitable for production) or {@code profile} (more
+ * detail, more overhead). The application's own events ({@code citationservice.*}) are
+ * recorded with either. A recording stops by itself once its maximum duration has passed,
+ * and its data is kept until it is stopped and dumped.</p>
+ *
+ * <p>A recording can be downloaded by whoever started it, so the endpoints are off unless
+ * {@code jfr.enabled} is set, and then require the {@code jfr.admin-token} secret. The
+ * events capturing the environment variables and system properties the JVM started with
+ * are turned off, as they hold the database password and API keys.</p>
+ */
+@Service
+public class FlightRecorderService {
+
+    /**
+     * The predefined JDK settings a recording can use.
+     */
+    public static final Set<String> SETTINGS = Set.of("default", "profile");
+
+    /**
+     * Logger for recordings being started and stopped.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlightRecorderService.class);
+
+    /**
+     * Name given to the recordings, as shown in JDK Mission Control.
+     */
+    private static final String RECORDING_NAME = "citation-service";
+
+    /**
+     * Events left out of every recording because they capture secrets from the environment.
+     */
+    private static final Set<String> SECRET_EVENTS =
+            Set.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+
+    /**
+     * Whether recordings may be started and downloaded at all.
+     */
+    private final boolean enabled;
+
+    /**
+     * Secret a caller must present to start or download a recording; blank rejects everyone.
+     */
+    private final byte[] adminToken;
+
+    /**
+     * The current recording, running or stopped by its maximum duration; null if none.
+     */
+    private Recording recording;
+
+    /**
+     * Constructs a new FlightRecorderService.
+     *
+     * @param enabledParam whether recordings may be started and downloaded
+     * @param adminTokenParam the secret callers must present; blank rejects every caller
+     */
+    public FlightRecorderService(@Value("${jfr.enabled:false}") boolean enabledParam,
+                                 @Value("${jfr.admin-token:}") String adminTokenParam) {
+        this.enabled = enabledParam;
+        this.adminToken = adminTokenParam.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks that recordings are enabled and that the caller presented the admin token.
+     *
+     * @param token the token the caller presented, or null if none
+     * @throws ResourceNotFoundException if recordings are disabled
+     * @throws UnauthorizedException if the token is missing or wrong, or none is configured
+     */
+    public void checkAccess(String token) {
+        if (!enabled) {
+            throw new ResourceNotFoundException("Flight Recorder endpoints are disabled");
+        }
+        if (adminToken.length == 0 || token == null
+                || !MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8))) {
+            throw new UnauthorizedException("A valid admin token is required");
+        }
+    }
+
+    /**
+     * Starts a recording.
+     *
+     * @param settings the predefined JDK settings to record with: "default" or "profile"
+     * @param maxDuration the time after which the recording stops by itself
+     * @return the ID of the recording
+     * @throws ValidationException if the settings are not one of {@link #SETTINGS}
+     * @throws ConflictException if a recording is already running
+     */
+    public synchronized long start(String settings, Duration maxDuration) {
+        if (!SETTINGS.contains(settings)) {
+            throw new ValidationException("Unsupported recording settings: " + settings
+                    + ". Use one of " + SETTINGS);
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new ConflictException("Recording " + recording.getId()
+                    + " is already running; stop it first");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Cannot read JFR settings " + settings, e);
+        }
+        Map<String, String> eventSettings = new HashMap<>(configuration.getSettings());
+        for (String event : SECRET_EVENTS) {
+            eventSettings.put(event + "#enabled", "false");
+        }
+        discard();
+        recording = new Recording(eventSettings);
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setDuration(maxDuration);
+        recording.start();
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Started JFR recording {} with {} settings for at most {}",
+                    recording.getId(), settings, maxDuration);
+        }
+        return recording.getId();
+    }
+
+    /**
+     * Stops the current recording and writes its data to a temporary {@code .jfr} file.
+     * The caller should delete the file once it has been read.
+     *
+     * @return the path of the recording file
+     * @throws ResourceNotFoundException if no recording has been started
+     * @throws IOException if the recording cannot be written
+     */
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            throw new ResourceNotFoundException("No JFR recording has been started");
+        }
+        Path file = Files.createTempFile("citation-service-" + recording.getId() + "-", ".jfr");
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            recording.dump(file);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            discard();
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Stopped JFR recording, {} bytes written", Files.size(file));
+        }
+        return file;
+    }
+
+    /**
+     * Closes the current recording, if any, releasing its data.
+     */
+    private void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.columbia.coms4156.citationservice.service;
 import com.columbia.coms4156.citationservice.model.Book;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.function.SingletonSupplier;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
@@ -10,29 +11,42 @@ import reactor.core.publisher.Mono;
 public class GoogleBooksService {
 
     /**
-     * WebClient for making HTTP requests to the Google Books API.
+     * WebClient for making HTTP requests to the Google Books API, built on first use so its
+     * HTTP client resources are not set up during startup.
      */
-    private final WebClient webClient;
+    private final SingletonSupplier<WebClient> webClient;
     /**
      * Google Books API key.
      */
     private final String googleBooksApiKey;
+    /**
+     * Sends a second request when Google Books is slow to answer the first.
+     */
+    private final RequestHedger requestHedger;
 
     /**
      * Constructs a new GoogleBooksService.
      * @param webClientBuilder WebClient builder for creating WebClient instances.
      * @param baseUrl The base URL for the Google Books API.
      * @param apiKey Google Books API key.
+     * @param requestHedgerParam Hedger for slow lookups.
+     * @param concurrencyLimiterParam Limiter of concurrent requests to Google Books.
      */
     public GoogleBooksService(WebClient.Builder webClientBuilder,
                               @Value("${google.books.api.base-url}") String baseUrl,
-                              @Value("${google.books.api.key}") String apiKey) {
-        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+                              @Value("${google.books.api.key}") String apiKey,
+                              RequestHedger requestHedgerParam,
+                              AdaptiveConcurrencyLimiter concurrencyLimiterParam) {
+        this.webClient = SingletonSupplier.of(() -> webClientBuilder.baseUrl(baseUrl)
+                .filter(concurrencyLimiterParam.filter(MetricsService.GOOGLE_BOOKS))
+                .build());
         this.googleBooksApiKey = apiKey;
+        this.requestHedger = requestHedgerParam;
     }
 
     /**
-     * Fetches book data from the Google Books API by ISBN.
+     * Fetches book data from the Google Books API by ISBN. If hedging is enabled, a slow
+     * request is sent a second time and the first answer is used.
      * @param isbn The ISBN of the book to fetch.
      * @return A Mono containing the Book, or an empty Mono if not found.
      */
@@ -41,14 +55,15 @@ public class GoogleBooksService {
             return Mono.empty();
         }
 
-        return webClient.get()
+        Mono<GoogleBooksApiResponse> request = webClient.obtain().get()
                 .uri(uriBuilder ->
                         uriBuilder.path("")
                                 .queryParam("q", "isbn:" + isbn)
                                 .queryParam("key", googleBooksApiKey)
                                 .build())
                 .retrieve()
-                .bodyToMono(GoogleBooksApiResponse.class)
+                .bodyToMono(GoogleBooksApiResponse.class);
+        return requestHedger.hedge(MetricsService.GOOGLE_BOOKS, request)
                 .flatMap(apiResponse ->
                         parseGoogleBooksApiResponse(apiResponse, isbn));
     }
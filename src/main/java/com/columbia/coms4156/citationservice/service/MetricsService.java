@@ -0,0 +1,318 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.utils.BackfillEvent;
+import com.columbia.coms4156.citationservice.utils.CitationRenderEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Service recording the application's Micrometer meters, served in Prometheus format at
+ * {@code /actuator/prometheus}.
+ *
+ * <p>Meter names and tag values are fixed here so the number of time series stays bounded:
+ * styles and media types are only recorded once a citation has rendered, so an unsupported
+ * style in a request never becomes a tag value. Connection pool metrics
+ * ({@code hikaricp.connections.acquire} and friends) are published by Hikari itself.</p>
+ *
+ * <p>Renders and backfill lookups are also emitted as Flight Recorder events
+ * ({@link CitationRenderEvent}, {@link BackfillEvent}), which cost next to nothing unless a
+ * recording is running.</p>
+ */
+@Service
+public class MetricsService {
+
+    /**
+     * Timer of citation rendering, tagged with the style and media type.
+     */
+    public static final String RENDER = "citation.render";
+
+    /**
+     * Distribution of the number of citations rendered per submission group.
+     */
+    public static final String GROUP_SIZE = "citation.group.size";
+
+    /**
+     * Timer of backfill lookups, tagged with the upstream API and the outcome.
+     */
+    public static final String BACKFILL = "citation.backfill";
+
+    /**
+     * Counter of hedged backfill lookups, tagged with the upstream API.
+     */
+    public static final String HEDGES = "citation.backfill.hedges";
+
+    /**
+     * Gauge of the adaptive concurrency limit of each upstream API.
+     */
+    public static final String CONCURRENCY_LIMIT = "citation.backfill.concurrency.limit";
+
+    /**
+     * Gauge of the requests in flight to each upstream API.
+     */
+    public static final String IN_FLIGHT = "citation.backfill.concurrency.in_flight";
+
+    /**
+     * Counter of backfill lookups shed because too many were waiting for the upstream.
+     */
+    public static final String SHED = "citation.backfill.shed";
+
+    /**
+     * Timer of source ingestion batches.
+     */
+    public static final String INGESTION = "source.ingestion";
+
+    /**
+     * Counter of sources ingested; its rate is the ingestion throughput.
+     */
+    public static final String INGESTED_SOURCES = "source.ingestion.sources";
+
+    /**
+     * Counter of ingested sources by whether they matched an existing source.
+     */
+    public static final String DEDUPE = "source.ingestion.dedupe";
+
+    /**
+     * Distribution of the SQL statements issued per request, tagged with the method and
+     * URI pattern of the endpoint.
+     */
+    public static final String REQUEST_STATEMENTS = "http.server.requests.sql.statements";
+
+    /**
+     * Timer of the time spent in SQL statements per request, tagged with the method and
+     * URI pattern of the endpoint.
+     */
+    public static final String REQUEST_SQL_TIME = "http.server.requests.sql.time";
+
+    /**
+     * Backfill upstream tag value for the Google Books API.
+     */
+    public static final String GOOGLE_BOOKS = "google_books";
+
+    /**
+     * Backfill upstream tag value for the CrossRef API.
+     */
+    public static final String CROSSREF = "crossref";
+
+    /**
+     * Registry the meters are registered with.
+     */
+    private final MeterRegistry registry;
+
+    /**
+     * Distribution of submission group sizes.
+     */
+    private final DistributionSummary groupSize;
+
+    /**
+     * Timer of ingestion batches.
+     */
+    private final Timer ingestion;
+
+    /**
+     * Counter of ingested sources.
+     */
+    private final Counter ingestedSources;
+
+    /**
+     * Constructs a new MetricsService.
+     *
+     * @param registryParam the registry to register the meters with
+     */
+    public MetricsService(MeterRegistry registryParam) {
+        this.registry = registryParam;
+        this.groupSize = DistributionSummary.builder(GROUP_SIZE)
+                .description("Citations rendered per submission group")
+                .baseUnit("citations")
+                .register(registryParam);
+        this.ingestion = Timer.builder(INGESTION)
+                .description("Time to ingest a batch of sources")
+                .register(registryParam);
+        this.ingestedSources = Counter.builder(INGESTED_SOURCES)
+                .description("Sources ingested into submission groups")
+                .baseUnit("sources")
+                .register(registryParam);
+    }
+
+    /**
+     * Renders a citation, recording the time taken if it succeeds.
+     *
+     * @param style the citation style requested, e.g. "MLA"
+     * @param mediaType the media type of the source, e.g. "book"
+     * @param render renders the citation
+     * @return the rendered citation
+     */
+    public String timeRender(String style, String mediaType, Supplier<String> render) {
+        CitationRenderEvent event = new CitationRenderEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String citation = render.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.setStyle(style);
+            event.setMediaType(mediaType);
+            event.setLength(citation == null ? 0 : citation.length());
+            event.commit();
+        }
+        Timer.builder(RENDER)
+                .description("Time to render a citation")
+                .tag("style", style)
+                .tag("media_type", mediaType)
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return citation;
+    }
+
+    /**
+     * Records the number of citations rendered for a submission group.
+     *
+     * @param size the number of citations in the group
+     */
+    public void recordGroupSize(int size) {
+        groupSize.record(size);
+    }
+
+    /**
+     * Runs a backfill lookup, recording its latency and outcome: {@code found},
+     * {@code not_found} when it returned nothing, or {@code error} when it threw.
+     *
+     * @param upstream the upstream API, {@link #GOOGLE_BOOKS} or {@link #CROSSREF}
+     * @param key the ISBN or DOI looked up; only recorded in the Flight Recorder event
+     * @param lookup runs the lookup
+     * @param <T> the type of the metadata looked up
+     * @return the metadata found, or null
+     */
+    public <T> T timeBackfill(String upstream, String key, Supplier<T> lookup) {
+        BackfillEvent event = new BackfillEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = lookup.get();
+            outcome = result == null ? "not_found" : "found";
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setUpstream(upstream);
+                event.setKey(key);
+                event.setOutcome(outcome);
+                event.commit();
+            }
+            Timer.builder(BACKFILL)
+                    .description("Latency of backfill lookups against upstream APIs")
+                    .tag("upstream", upstream)
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records that a second, hedging request was sent for a slow backfill lookup.
+     *
+     * @param upstream the upstream API, {@link #GOOGLE_BOOKS} or {@link #CROSSREF}
+     */
+    public void recordHedge(String upstream) {
+        Counter.builder(HEDGES)
+                .description("Backfill lookups sent a second time because the first was slow")
+                .tag("upstream", upstream)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Publishes the adaptive concurrency limit of an upstream and its requests in flight.
+     *
+     * @param upstream the upstream API, {@link #GOOGLE_BOOKS} or {@link #CROSSREF}
+     * @param state the object holding the limit; the gauges do not keep it alive
+     * @param limit reads the current limit
+     * @param inFlight reads the number of requests in flight
+     * @param <T> the type of the object holding the limit
+     */
+    public <T> void registerConcurrencyLimit(String upstream, T state, ToDoubleFunction<T> limit,
+                                             ToDoubleFunction<T> inFlight) {
+        Gauge.builder(CONCURRENCY_LIMIT, state, limit)
+                .description("Concurrent requests currently allowed to the upstream API")
+                .tag("upstream", upstream)
+                .register(registry);
+        Gauge.builder(IN_FLIGHT, state, inFlight)
+                .description("Requests in flight to the upstream API")
+                .tag("upstream", upstream)
+                .register(registry);
+    }
+
+    /**
+     * Records that a backfill lookup was shed because too many were waiting for the upstream.
+     *
+     * @param upstream the upstream API, {@link #GOOGLE_BOOKS} or {@link #CROSSREF}
+     */
+    public void recordShed(String upstream) {
+        Counter.builder(SHED)
+                .description("Backfill lookups shed because the upstream's queue was full")
+                .tag("upstream", upstream)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Records an ingestion batch.
+     *
+     * @param sources the number of sources ingested
+     * @param nanos the time the batch took, in nanoseconds
+     */
+    public void recordIngestion(int sources, long nanos) {
+        ingestion.record(nanos, TimeUnit.NANOSECONDS);
+        ingestedSources.increment(sources);
+    }
+
+    /**
+     * Records whether an ingested source matched an existing source. The hit ratio is
+     * {@code hit / (hit + miss)}.
+     *
+     * @param mediaType the media type of the source, e.g. "book"
+     * @param hit whether an existing source was reused
+     */
+    public void recordDedupe(String mediaType, boolean hit) {
+        Counter.builder(DEDUPE)
+                .description("Ingested sources by whether they matched an existing source")
+                .tag("media_type", mediaType)
+                .tag("result", hit ? "hit" : "miss")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Records the SQL statements a request issued and the time they took. The URI is the
+     * matched pattern (e.g. {@code /api/source/book/{id}}), never the raw path, so the
+     * number of time series stays bounded.
+     *
+     * @param method the HTTP method, e.g. "GET"
+     * @param uri the URI pattern of the endpoint, or "unmapped"
+     * @param statements the number of statements issued
+     * @param timeMillis the time spent executing them, in milliseconds
+     */
+    public void recordRequestQueries(String method, String uri, long statements,
+                                     long timeMillis) {
+        DistributionSummary.builder(REQUEST_STATEMENTS)
+                .description("SQL statements issued per request")
+                .baseUnit("statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry)
+                .record(statements);
+        Timer.builder(REQUEST_SQL_TIME)
+                .description("Time spent executing SQL statements per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry)
+                .record(timeMillis, TimeUnit.MILLISECONDS);
+    }
+}
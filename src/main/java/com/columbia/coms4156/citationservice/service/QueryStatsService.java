@@ -0,0 +1,83 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.EndpointQueryStats;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service aggregating the SQL statements issued per endpoint, as recorded by
+ * {@link com.columbia.coms4156.citationservice.utils.QueryCountFilter}.
+ */
+@Service
+public class QueryStatsService {
+
+    /**
+     * Running totals per endpoint.
+     */
+    private final Map<String, Totals> totalsByEndpoint = new ConcurrentHashMap<>();
+
+    /**
+     * Records the statements issued by one completed request.
+     *
+     * @param endpoint the HTTP method and URI pattern of the request
+     * @param statements the number of SQL statements the request issued
+     * @param timeMillis the time spent executing them, in milliseconds
+     */
+    public void record(String endpoint, long statements, long timeMillis) {
+        Totals totals = totalsByEndpoint.computeIfAbsent(endpoint, e -> new Totals());
+        totals.requests.increment();
+        totals.statements.add(statements);
+        totals.timeMillis.add(timeMillis);
+        totals.maxStatements.accumulateAndGet(statements, Math::max);
+    }
+
+    /**
+     * Gets the totals of every endpoint that has served a request.
+     *
+     * @return the totals per endpoint, most statements first
+     */
+    public List<EndpointQueryStats> getStats() {
+        List<EndpointQueryStats> stats = new ArrayList<>();
+        for (Map.Entry<String, Totals> entry : totalsByEndpoint.entrySet()) {
+            Totals totals = entry.getValue();
+            stats.add(new EndpointQueryStats(entry.getKey(), totals.requests.sum(),
+                    totals.statements.sum(), totals.maxStatements.get(), totals.timeMillis.sum()));
+        }
+        stats.sort(Comparator.comparingLong(EndpointQueryStats::getStatements).reversed()
+                .thenComparing(EndpointQueryStats::getEndpoint));
+        return stats;
+    }
+
+    /**
+     * Running statement totals of one endpoint.
+     */
+    private static final class Totals {
+
+        /**
+         * The number of requests served.
+         */
+        private final LongAdder requests = new LongAdder();
+
+        /**
+         * The total number of statements issued.
+         */
+        private final LongAdder statements = new LongAdder();
+
+        /**
+         * The total statement time in milliseconds.
+         */
+        private final LongAdder timeMillis = new LongAdder();
+
+        /**
+         * The largest number of statements issued by one request.
+         */
+        private final AtomicLong maxStatements = new AtomicLong();
+    }
+}
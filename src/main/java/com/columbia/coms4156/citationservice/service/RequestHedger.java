@@ -0,0 +1,206 @@
+package com.columbia.coms4156.citationservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hedges upstream lookups to cut their tail latency: if a lookup has not answered within
+ * the upstream's recent latency percentile, a second, identical lookup is sent and
+ * whichever answers first is used; the other is cancelled.
+ *
+ * <p>The delay is the {@code backfill.hedging.percentile} of the last
+ * {@value #WINDOW_SIZE} lookup latencies of the upstream (never less than
+ * {@code backfill.hedging.min-delay}); no hedge is sent until {@value #MIN_SAMPLES}
+ * latencies have been seen. A budget caps the extra load: each lookup earns
+ * {@code backfill.hedging.max-extra-load} of a hedge, and a hedge is only sent when a
+ * whole one has been earned, so at most that fraction of lookups is duplicated.</p>
+ *
+ * <p>Hedging is off unless {@code backfill.hedging.enabled} is set, since it sends extra
+ * requests to the upstream APIs.</p>
+ */
+@Component
+public class RequestHedger {
+
+    /**
+     * Number of recent latencies the hedging delay is computed from.
+     */
+    static final int WINDOW_SIZE = 100;
+
+    /**
+     * Number of latencies needed before any hedge is sent.
+     */
+    static final int MIN_SAMPLES = 20;
+
+    /**
+     * Largest number of hedges that can be saved up while lookups are fast.
+     */
+    private static final double MAX_SAVED_HEDGES = 10.0;
+
+    /**
+     * Whether lookups are hedged at all.
+     */
+    private final boolean enabled;
+
+    /**
+     * Latency percentile after which a hedge is sent, between 0 and 1.
+     */
+    private final double percentile;
+
+    /**
+     * Shortest delay before a hedge is sent.
+     */
+    private final Duration minDelay;
+
+    /**
+     * Fraction of a hedge earned per lookup; the most extra load hedging may add.
+     */
+    private final double maxExtraLoad;
+
+    /**
+     * Service counting the hedges sent.
+     */
+    private final MetricsService metricsService;
+
+    /**
+     * Latencies and budget of each upstream.
+     */
+    private final Map<String, UpstreamState> upstreams = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new RequestHedger.
+     *
+     * @param enabledParam whether lookups are hedged
+     * @param percentileParam the latency percentile after which a hedge is sent
+     * @param minDelayParam the shortest delay before a hedge is sent
+     * @param maxExtraLoadParam the most extra load hedging may add, as a fraction of lookups
+     * @param metricsServiceParam the service counting the hedges sent
+     */
+    public RequestHedger(@Value("${backfill.hedging.enabled:false}") boolean enabledParam,
+                         @Value("${backfill.hedging.percentile:0.95}") double percentileParam,
+                         @Value("${backfill.hedging.min-delay:50ms}") Duration minDelayParam,
+                         @Value("${backfill.hedging.max-extra-load:0.1}")
+                         double maxExtraLoadParam,
+                         MetricsService metricsServiceParam) {
+        this.enabled = enabledParam;
+        this.percentile = percentileParam;
+        this.minDelay = minDelayParam;
+        this.maxExtraLoad = maxExtraLoadParam;
+        this.metricsService = metricsServiceParam;
+    }
+
+    /**
+     * Hedges a lookup: subscribes to it, and subscribes to it a second time if it has not
+     * answered within the upstream's hedging delay and the budget allows. The first answer
+     * (a value, no value or an error) is used.
+     *
+     * @param upstream the upstream API, {@link MetricsService#GOOGLE_BOOKS} or
+     *                 {@link MetricsService#CROSSREF}
+     * @param lookup the lookup; each subscription sends a request
+     * @param <T> the type of the lookup's result
+     * @return the hedged lookup
+     */
+    public <T> Mono<T> hedge(String upstream, Mono<T> lookup) {
+        if (!enabled) {
+            return lookup;
+        }
+        UpstreamState state = upstreams.computeIfAbsent(upstream, key -> new UpstreamState());
+        return Mono.defer(() -> {
+            Duration delay = state.earnAndGetDelay();
+            Mono<T> primary = timed(state, lookup);
+            if (delay == null) {
+                return primary;
+            }
+            Mono<T> hedge = Mono.delay(delay).flatMap(tick -> {
+                if (!state.trySpend()) {
+                    return Mono.never();
+                }
+                metricsService.recordHedge(upstream);
+                return timed(state, lookup);
+            });
+            return Mono.firstWithSignal(primary, hedge);
+        });
+    }
+
+    /**
+     * Records the latency of each subscription to a lookup that answers.
+     *
+     * @param state the upstream's state
+     * @param lookup the lookup
+     * @param <T> the type of the lookup's result
+     * @return the timed lookup
+     */
+    private static <T> Mono<T> timed(UpstreamState state, Mono<T> lookup) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return lookup.doOnSuccess(result -> state.record(System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Recent latencies and hedging budget of one upstream.
+     */
+    private final class UpstreamState {
+
+        /**
+         * Ring buffer of the most recent latencies, in nanoseconds.
+         */
+        private final long[] latencies = new long[WINDOW_SIZE];
+
+        /**
+         * Number of latencies recorded, including those overwritten.
+         */
+        private long recorded;
+
+        /**
+         * Hedges earned and not yet spent.
+         */
+        private double budget;
+
+        /**
+         * Records the latency of a lookup.
+         *
+         * @param nanos the latency, in nanoseconds
+         */
+        synchronized void record(long nanos) {
+            latencies[(int) (recorded % WINDOW_SIZE)] = nanos;
+            recorded++;
+        }
+
+        /**
+         * Adds a lookup's share of a hedge to the budget and computes the hedging delay.
+         *
+         * @return the delay after which to hedge, or null if too few latencies are known
+         */
+        synchronized Duration earnAndGetDelay() {
+            budget = Math.min(MAX_SAVED_HEDGES, budget + maxExtraLoad);
+            if (recorded < MIN_SAMPLES) {
+                return null;
+            }
+            int size = (int) Math.min(recorded, WINDOW_SIZE);
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(size - 1, Math.ceil(percentile * size) - 1);
+            Duration delay = Duration.ofNanos(sorted[Math.max(0, index)]);
+            return delay.compareTo(minDelay) < 0 ? minDelay : delay;
+        }
+
+        /**
+         * Spends one hedge from the budget, if a whole one has been earned.
+         *
+         * @return whether a hedge may be sent
+         */
+        synchronized boolean trySpend() {
+            if (budget < 1.0) {
+                return false;
+            }
+            budget -= 1.0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.columbia.coms4156.citationservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the de-duplication lookups made while ingesting sources, mapping a
+ * lookup key (media type and title/author key, ISBN or DOI) to the ID of the source found.
+ *
+ * <p>Only lookups that found a source are cached. A cached "not found" would outlive the
+ * insert that follows it, and invalidating all lookups on every insert would empty the cache
+ * during bulk ingestion, where it matters most. Entries are hints rather than answers: the
+ * caller loads the source by ID (from the second-level cache when warm) and checks it still
+ * matches, dropping the entry if the source has since been deleted or changed. Least
+ * recently used entries are evicted beyond the size bound.</p>
+ */
+@Component
+public class SourceDedupeCache {
+
+    /**
+     * Name the cache is reported under in the cache statistics.
+     */
+    public static final String NAME = "source-dedupe-ids";
+
+    /**
+     * Initial capacity of the backing map, grown as needed up to the size bound.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Load factor of the backing map.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * The cached source IDs by lookup key, in access order; guarded by itself.
+     */
+    private final Map<String, Long> entries;
+
+    /**
+     * Number of lookups answered from the cache.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Number of lookups not found in the cache.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Number of entries added to the cache.
+     */
+    private final LongAdder puts = new LongAdder();
+
+    /**
+     * Constructs a new SourceDedupeCache.
+     *
+     * @param maxEntriesParam the most lookups kept at once
+     */
+    public SourceDedupeCache(
+            @Value("${source.dedupe-cache.max-entries:5000}") int maxEntriesParam) {
+        this.entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntriesParam;
+            }
+        };
+    }
+
+    /**
+     * Builds the key of a lookup.
+     *
+     * @param mediaType the media type looked up, e.g. "book"
+     * @param kind what the lookup is by, e.g. "title-author", "isbn" or "doi"
+     * @param value the value looked up, already normalized
+     * @return the cache key
+     */
+    public static String key(String mediaType, String kind, String value) {
+        return mediaType + ':' + kind + ':' + value;
+    }
+
+    /**
+     * Gets the ID of the source a lookup found last time.
+     *
+     * @param key the lookup key
+     * @return the source ID, or null if the lookup is not cached
+     */
+    public Long get(String key) {
+        Long id;
+        synchronized (entries) {
+            id = entries.get(key);
+        }
+        if (id == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return id;
+    }
+
+    /**
+     * Remembers the source a lookup found.
+     *
+     * @param key the lookup key
+     * @param id the ID of the source found
+     */
+    public void put(String key, Long id) {
+        synchronized (entries) {
+            entries.put(key, id);
+        }
+        puts.increment();
+    }
+
+    /**
+     * Forgets a lookup whose cached source no longer matches.
+     *
+     * @param key the lookup key
+     */
+    public void remove(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Forgets every lookup; the counters are kept.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups not found in the cache.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of entries added to the cache.
+     *
+     * @return the put count
+     */
+    public long getPutCount() {
+        return puts.sum();
+    }
+}
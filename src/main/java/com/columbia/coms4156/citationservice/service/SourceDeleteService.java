@@ -0,0 +1,164 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.BulkDeleteRequest;
+import com.columbia.coms4156.citationservice.controller.dto.BulkDeleteResponse;
+import com.columbia.coms4156.citationservice.model.MediaType;
+import com.columbia.coms4156.citationservice.repository.SourceDeleteRepository;
+import com.columbia.coms4156.citationservice.repository.SourceDeleteRepository.SourceRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Service deleting many sources at once, e.g. to clean up a semester's orphaned sources.
+ *
+ * <p>Matching sources are deleted in chunks of {@value #CHUNK_SIZE}, each in its own short
+ * transaction: one query selects the chunk and flags the cited sources, then set-based
+ * statements delete it. No entity is loaded, and row locks are held for one chunk only.
+ * Cited sources are kept, unless the request cascades to their citations, in which case
+ * the citations are deleted in the same transaction as the sources. Deleted sources are
+ * removed from the search and suggestion indexes once their chunk has committed.</p>
+ */
+@Service
+public class SourceDeleteService {
+
+    /**
+     * Maximum number of sources deleted per transaction.
+     */
+    static final int CHUNK_SIZE = 500;
+
+    /**
+     * Logger for bulk delete progress.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SourceDeleteService.class);
+
+    /**
+     * Repository running the set-based selects and deletes.
+     */
+    private final SourceDeleteRepository sourceDeleteRepository;
+
+    /**
+     * Service keeping the full-text search index current as sources are deleted.
+     */
+    private final SourceSearchService sourceSearchService;
+
+    /**
+     * Service keeping the typeahead suggestion index current as sources are deleted.
+     */
+    private final SourceSuggestService sourceSuggestService;
+
+    /**
+     * Runs each chunk in its own read-write transaction.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructs a new SourceDeleteService.
+     *
+     * @param sourceDeleteRepositoryParam the repository running the deletes
+     * @param sourceSearchServiceParam the full-text search service
+     * @param sourceSuggestServiceParam the typeahead suggestion service
+     * @param transactionManagerParam the transaction manager to run each chunk with
+     */
+    public SourceDeleteService(SourceDeleteRepository sourceDeleteRepositoryParam,
+                               SourceSearchService sourceSearchServiceParam,
+                               SourceSuggestService sourceSuggestServiceParam,
+                               PlatformTransactionManager transactionManagerParam) {
+        this.sourceDeleteRepository = sourceDeleteRepositoryParam;
+        this.sourceSearchService = sourceSearchServiceParam;
+        this.sourceSuggestService = sourceSuggestServiceParam;
+        this.transactionTemplate = new TransactionTemplate(transactionManagerParam);
+    }
+
+    /**
+     * Deletes every source matching the request, one chunk per transaction.
+     *
+     * @param request the IDs and/or criteria selecting the sources, and whether to
+     *        delete the citations of cited sources
+     * @return how many sources matched and how many sources and citations were deleted
+     * @throws IllegalArgumentException if the media type is not supported
+     */
+    public BulkDeleteResponse deleteSources(BulkDeleteRequest request) {
+        String mediaType = request.getMediaType() == null
+                ? null : MediaType.fromValue(request.getMediaType()).getValue();
+        BulkDeleteResponse result = new BulkDeleteResponse();
+        if (request.getIds() != null) {
+            List<Long> ids = request.getIds().stream().distinct().sorted().toList();
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+                deleteChunk(chunk, mediaType, request.getUpdatedBefore(), 0L,
+                        request.isCascade(), result);
+            }
+        } else {
+            long afterId = 0L;
+            List<SourceRef> chunk;
+            do {
+                chunk = deleteChunk(null, mediaType, request.getUpdatedBefore(), afterId,
+                        request.isCascade(), result);
+                if (!chunk.isEmpty()) {
+                    afterId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == CHUNK_SIZE);
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Bulk delete matched {} sources: deleted {} sources and {} citations,"
+                    + " kept {} cited sources", result.getMatchedSources(),
+                    result.getDeletedSources(), result.getDeletedCitations(),
+                    result.getKeptCitedSources());
+        }
+        return result;
+    }
+
+    /**
+     * Selects and deletes one chunk of matching sources in a single transaction, then
+     * removes the deleted sources from the in-process indexes.
+     *
+     * @param ids the IDs to restrict to, or null for any ID
+     * @param mediaType the discriminator to restrict to, or null for any type
+     * @param updatedBefore only delete sources last written before this time, or null
+     * @param afterId the ID of the last source of the previous chunk
+     * @param cascade whether to delete the citations of cited sources
+     * @param result the running totals to add this chunk's counts to
+     * @return the sources selected for the chunk, deleted or not
+     */
+    private List<SourceRef> deleteChunk(List<Long> ids, String mediaType, Instant updatedBefore,
+                                        long afterId, boolean cascade,
+                                        BulkDeleteResponse result) {
+        List<SourceRef> chunk = new ArrayList<>();
+        List<Long> deletedIds = transactionTemplate.execute(status -> {
+            chunk.addAll(sourceDeleteRepository.findBatch(ids, mediaType, updatedBefore,
+                    afterId, CHUNK_SIZE));
+            List<Long> targets = chunk.stream()
+                    .filter(source -> cascade || !source.isCited())
+                    .map(SourceRef::getId)
+                    .toList();
+            if (targets.isEmpty()) {
+                return List.of();
+            }
+            if (cascade) {
+                result.setDeletedCitations(result.getDeletedCitations()
+                        + sourceDeleteRepository.deleteCitationsOf(targets));
+            }
+            return sourceDeleteRepository.deleteUncited(targets);
+        });
+        Map<Long, String> mediaTypes = chunk.stream()
+                .collect(Collectors.toMap(SourceRef::getId, SourceRef::getMediaType));
+        for (Long id : deletedIds) {
+            sourceSearchService.removeSource(mediaTypes.get(id), id);
+            sourceSuggestService.removeSource(mediaTypes.get(id), id);
+        }
+        result.setMatchedSources(result.getMatchedSources() + chunk.size());
+        result.setDeletedSources(result.getDeletedSources() + deletedIds.size());
+        result.setKeptCitedSources(result.getKeptCitedSources() + chunk.size()
+                - deletedIds.size());
+        return chunk;
+    }
+}
@@ -0,0 +1,48 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.model.Source;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Utility class for reading the whole sources table in keyset-paginated batches,
+ * used to build the in-process indexes at startup without loading every row at once.
+ */
+final class SourceScanner {
+
+    /**
+     * Number of rows read per query.
+     */
+    static final int BATCH_SIZE = 500;
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private SourceScanner() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Reads every row in ID order, one batch at a time.
+     *
+     * @param pageQuery the repository's keyset page query
+     * @param consumer receives each row
+     * @param <T> the source type
+     */
+    static <T extends Source> void forEach(BiFunction<Long, PageRequest, List<T>> pageQuery,
+                                           Consumer<? super T> consumer) {
+        long afterId = 0L;
+        List<T> batch;
+        do {
+            batch = pageQuery.apply(afterId, PageRequest.of(0, BATCH_SIZE));
+            for (T row : batch) {
+                consumer.accept(row);
+                afterId = row.getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+}
@@ -0,0 +1,324 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.SearchHit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over source titles, authors and publisher/journal names.
+ *
+ * <p>Used as the full-text search backend when the application is not running on
+ * PostgreSQL (H2 in local development and tests). Each term maps to the postings of the
+ * sources containing it, so a query only visits the sources that contain its rarest
+ * term rather than scanning every row. Matches must contain every query term and are
+ * ranked by a TF-IDF score in which title terms count more than author terms, and author
+ * terms more than publisher or journal terms.</p>
+ */
+@Component
+public class SourceSearchIndex {
+
+    /**
+     * Weight of a term occurring in the title.
+     */
+    private static final double TITLE_WEIGHT = 3.0;
+
+    /**
+     * Weight of a term occurring in the author.
+     */
+    private static final double AUTHOR_WEIGHT = 2.0;
+
+    /**
+     * Weight of a term occurring in the publisher or journal.
+     */
+    private static final double SECONDARY_WEIGHT = 1.0;
+
+    /**
+     * Splits text into terms on anything that is not a letter or digit.
+     */
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Term to postings: the weighted frequency of the term in each source containing it.
+     */
+    private final Map<String, Map<DocKey, Double>> postings = new HashMap<>();
+
+    /**
+     * Indexed sources, keyed by media type and ID, with the terms they were indexed under.
+     */
+    private final Map<DocKey, IndexedDoc> docs = new HashMap<>();
+
+    /**
+     * Guards the postings and documents; searches share the read lock.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a source to the index, replacing any previous entry for the same source.
+     *
+     * @param mediaType the media type of the source
+     * @param id the ID of the source
+     * @param title the title of the source
+     * @param author the author of the source
+     * @param secondary the publisher or journal of the source, or null
+     */
+    public void index(String mediaType, Long id, String title, String author, String secondary) {
+        if (id == null) {
+            return;
+        }
+        DocKey key = new DocKey(mediaType, id);
+        Map<String, Double> terms = new HashMap<>();
+        addTerms(terms, title, TITLE_WEIGHT);
+        addTerms(terms, author, AUTHOR_WEIGHT);
+        addTerms(terms, secondary, SECONDARY_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            docs.put(key, new IndexedDoc(title, author, Set.copyOf(terms.keySet())));
+            terms.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(key, weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a source from the index if present.
+     *
+     * @param mediaType the media type of the source
+     * @param id the ID of the source
+     */
+    public void remove(String mediaType, Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(new DocKey(mediaType, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every source from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docs.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of indexed sources.
+     *
+     * @return the number of indexed sources
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the sources containing every term of the query, best match first.
+     *
+     * @param query the free-text query
+     * @param limit the maximum number of hits to return
+     * @return the ranked hits, empty if the query has no terms or nothing matches
+     */
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<DocKey, Double>> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<DocKey, Double> list = postings.get(term);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Map::size));
+
+            List<SearchHit> hits = new ArrayList<>();
+            for (DocKey key : lists.get(0).keySet()) {
+                double score = 0;
+                boolean matchesAll = true;
+                for (Map<DocKey, Double> list : lists) {
+                    Double weight = list.get(key);
+                    if (weight == null) {
+                        matchesAll = false;
+                        break;
+                    }
+                    score += weight * Math.log(1.0 + (double) docs.size() / list.size());
+                }
+                if (matchesAll) {
+                    IndexedDoc doc = docs.get(key);
+                    hits.add(new SearchHit(key.mediaType, key.id, doc.title, doc.author, score));
+                }
+            }
+            hits.sort(Comparator.comparingDouble(SearchHit::getScore).reversed()
+                    .thenComparing(SearchHit::getMediaType)
+                    .thenComparing(SearchHit::getId));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower-cased terms.
+     *
+     * @param text the text to split, may be null
+     * @return the distinct terms in order of first occurrence
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String term : NON_WORD.split(text.toLowerCase(Locale.ENGLISH))) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Adds the terms of one field to a document's term weights.
+     *
+     * @param terms the document's term weights
+     * @param text the field text, may be null
+     * @param weight the weight of one occurrence in this field
+     */
+    private static void addTerms(Map<String, Double> terms, String text, double weight) {
+        if (text == null) {
+            return;
+        }
+        for (String term : NON_WORD.split(text.toLowerCase(Locale.ENGLISH))) {
+            if (!term.isEmpty()) {
+                terms.merge(term, weight, Double::sum);
+            }
+        }
+    }
+
+    /**
+     * Removes a document and its postings; the caller must hold the write lock.
+     *
+     * @param key the document key
+     */
+    private void removeLocked(DocKey key) {
+        IndexedDoc previous = docs.remove(key);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms) {
+            Map<DocKey, Double> list = postings.get(term);
+            if (list != null) {
+                list.remove(key);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Identifies an indexed source by media type and ID.
+     */
+    private static final class DocKey {
+
+        /**
+         * The media type of the source.
+         */
+        private final String mediaType;
+
+        /**
+         * The ID of the source.
+         */
+        private final Long id;
+
+        /**
+         * Constructs a new DocKey.
+         *
+         * @param mediaTypeParam the media type of the source
+         * @param idParam the ID of the source
+         */
+        DocKey(String mediaTypeParam, Long idParam) {
+            this.mediaType = mediaTypeParam;
+            this.id = idParam;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DocKey)) {
+                return false;
+            }
+            DocKey other = (DocKey) o;
+            return Objects.equals(mediaType, other.mediaType) && Objects.equals(id, other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mediaType, id);
+        }
+    }
+
+    /**
+     * Display fields and indexed terms of a source.
+     */
+    private static final class IndexedDoc {
+
+        /**
+         * The title of the source.
+         */
+        private final String title;
+
+        /**
+         * The author of the source.
+         */
+        private final String author;
+
+        /**
+         * The terms the source was indexed under.
+         */
+        private final Set<String> terms;
+
+        /**
+         * Constructs a new IndexedDoc.
+         *
+         * @param titleParam the title of the source
+         * @param authorParam the author of the source
+         * @param termsParam the terms the source was indexed under
+         */
+        IndexedDoc(String titleParam, String authorParam, Set<String> termsParam) {
+            this.title = titleParam;
+            this.author = authorParam;
+            this.terms = termsParam;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.SearchHit;
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Source;
+import com.columbia.coms4156.citationservice.repository.DatabaseProduct;
+import com.columbia.coms4156.citationservice.repository.SourceRepository;
+import com.columbia.coms4156.citationservice.repository.SourceSearchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service providing ranked full-text search across books, videos and articles.
+ *
+ * <p>On PostgreSQL the search runs in the database against GIN-indexed {@code tsvector}
+ * expressions, which are created at startup. On any other database (H2 in local
+ * development and tests) it is answered from {@link SourceSearchIndex}, which is built
+ * from the sources table at startup and kept current by {@link SourceService} as sources
+ * are created, updated and deleted.</p>
+ */
+@Service
+public class SourceSearchService {
+
+    /**
+     * Logger for search index maintenance.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SourceSearchService.class);
+
+    /**
+     * Repository for reading the sources to index.
+     */
+    private final SourceRepository sourceRepository;
+
+    /**
+     * Repository running the search on PostgreSQL.
+     */
+    private final SourceSearchRepository sourceSearchRepository;
+
+    /**
+     * In-process index answering searches on other databases.
+     */
+    private final SourceSearchIndex sourceSearchIndex;
+
+    /**
+     * Identifies the connected database to pick the search backend.
+     */
+    private final DatabaseProduct databaseProduct;
+
+    /**
+     * Constructs a new SourceSearchService.
+     *
+     * @param sourceRepositoryParam the source repository
+     * @param sourceSearchRepositoryParam the PostgreSQL search repository
+     * @param sourceSearchIndexParam the in-process search index
+     * @param databaseProductParam the connected database product
+     */
+    public SourceSearchService(SourceRepository sourceRepositoryParam,
+                               SourceSearchRepository sourceSearchRepositoryParam,
+                               SourceSearchIndex sourceSearchIndexParam,
+                               DatabaseProduct databaseProductParam) {
+        this.sourceRepository = sourceRepositoryParam;
+        this.sourceSearchRepository = sourceSearchRepositoryParam;
+        this.sourceSearchIndex = sourceSearchIndexParam;
+        this.databaseProduct = databaseProductParam;
+    }
+
+    /**
+     * Prepares the search backend once the application has started: creates the
+     * full-text indexes on PostgreSQL, or builds the in-process index otherwise.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (databaseProduct.isPostgres()) {
+            sourceSearchRepository.createIndex();
+            LOGGER.info("Full-text search indexes ready");
+        } else {
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * Rebuilds the in-process index from the sources table, reading it in ID order
+     * one batch at a time so memory use does not depend on table size.
+     */
+    public void rebuildIndex() {
+        sourceSearchIndex.clear();
+        SourceScanner.forEach(sourceRepository::findByIdGreaterThanOrderByIdAsc,
+                this::indexSource);
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Built in-process search index over {} sources", sourceSearchIndex.size());
+        }
+    }
+
+    /**
+     * Finds the sources matching every term of the query, best match first.
+     *
+     * @param query the free-text query, matched against title, author, publisher and journal
+     * @param limit the maximum number of hits to return
+     * @return the ranked hits
+     */
+    @Transactional(readOnly = true)
+    public List<SearchHit> search(String query, int limit) {
+        if (databaseProduct.isPostgres()) {
+            return sourceSearchRepository.search(query, limit);
+        }
+        return sourceSearchIndex.search(query, limit);
+    }
+
+    /**
+     * Adds or refreshes a saved source in the in-process index.
+     * A no-op on PostgreSQL, where the database maintains its own indexes.
+     *
+     * @param source the saved book, video or article
+     */
+    public void indexSource(Source source) {
+        if (source == null || databaseProduct.isPostgres()) {
+            return;
+        }
+        String secondary = null;
+        if (source instanceof Book) {
+            secondary = ((Book) source).getPublisher();
+        } else if (source instanceof Article) {
+            secondary = ((Article) source).getJournal();
+        }
+        sourceSearchIndex.index(source.getMediaType().getValue(), source.getId(),
+                source.getTitle(), source.getAuthor(), secondary);
+    }
+
+    /**
+     * Removes a deleted source from the in-process index.
+     * A no-op on PostgreSQL, where the database maintains its own indexes.
+     *
+     * @param mediaType the media type of the source: book, video or article
+     * @param id the ID of the deleted source
+     */
+    public void removeSource(String mediaType, Long id) {
+        if (!databaseProduct.isPostgres()) {
+            sourceSearchIndex.remove(mediaType, id);
+        }
+    }
+}
@@ -3,29 +3,49 @@ package com.columbia.coms4156.citationservice.service;
 import com.columbia.coms4156.citationservice.controller.dto.BulkSourceRequest;
 import com.columbia.coms4156.citationservice.controller.dto.SourceDTO;
 import com.columbia.coms4156.citationservice.controller.dto.SourceBatchResponse;
+import com.columbia.coms4156.citationservice.controller.dto.SourcePage;
+import com.columbia.coms4156.citationservice.exception.PreconditionFailedException;
 import com.columbia.coms4156.citationservice.exception.ResourceNotFoundException;
+import com.columbia.coms4156.citationservice.exception.ValidationException;
 import com.columbia.coms4156.citationservice.model.Article;
 import com.columbia.coms4156.citationservice.model.Book;
 import com.columbia.coms4156.citationservice.model.Citation;
+import com.columbia.coms4156.citationservice.model.MediaType;
+import com.columbia.coms4156.citationservice.model.Source;
 import com.columbia.coms4156.citationservice.model.Submission;
 import com.columbia.coms4156.citationservice.model.User;
 import com.columbia.coms4156.citationservice.model.Video;
 import com.columbia.coms4156.citationservice.repository.ArticleRepository;
 import com.columbia.coms4156.citationservice.repository.BookRepository;
 import com.columbia.coms4156.citationservice.repository.CitationRepository;
+import com.columbia.coms4156.citationservice.repository.SourceRepository;
+import com.columbia.coms4156.citationservice.repository.SourceUpsertRepository;
+import com.columbia.coms4156.citationservice.repository.SourceUpsertRepository.UpsertResult;
 import com.columbia.coms4156.citationservice.repository.SubmissionRepository;
 import com.columbia.coms4156.citationservice.repository.UserRepository;
 import com.columbia.coms4156.citationservice.repository.VideoRepository;
+import com.columbia.coms4156.citationservice.utils.Identifiers;
+import com.columbia.coms4156.citationservice.utils.IngestionChunkEvent;
+import com.columbia.coms4156.citationservice.utils.KeysetCursor;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Service class for source-related business logic.
@@ -71,6 +91,42 @@ public class SourceService {
   @Autowired
   private UserRepository userRepository;
 
+  /**
+   * Repository performing race-free inserts of de-duplicated media during bulk ingestion.
+   */
+  @Autowired
+  private SourceUpsertRepository sourceUpsertRepository;
+
+  /**
+   * Repository for referencing sources of any media type from citations.
+   */
+  @Autowired
+  private SourceRepository sourceRepository;
+
+  /**
+   * Service keeping the full-text search index current as sources change.
+   */
+  @Autowired
+  private SourceSearchService sourceSearchService;
+
+  /**
+   * Service keeping the typeahead suggestion index current as sources change.
+   */
+  @Autowired
+  private SourceSuggestService sourceSuggestService;
+
+  /**
+   * Service recording ingestion throughput and de-duplication hits.
+   */
+  @Autowired
+  private MetricsService metricsService;
+
+  /**
+   * Cache of the sources found by earlier de-duplication lookups.
+   */
+  @Autowired
+  private SourceDedupeCache sourceDedupeCache;
+
   /** ObjectMapper for JSON processing. */
   private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -97,7 +153,9 @@ public class SourceService {
    * @return the saved Book entity
    */
   public Book saveBook(Book book) {
-    return bookRepository.save(book);
+    Book saved = bookRepository.save(book);
+    onSourceSaved(saved);
+    return saved;
   }
 
   /**
@@ -106,17 +164,23 @@ public class SourceService {
    * @param id the ID of the Book to find
    * @return an Optional containing the Book if found, empty otherwise
    */
+  @Transactional(readOnly = true)
   public Optional<Book> findBookById(Long id) {
     return bookRepository.findById(id);
   }
 
   /**
-   * Retrieves all Book entities from the database.
+   * Retrieves one keyset-paginated page of Book entities, ordered by ID.
    *
-   * @return a list of all Book entities
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param limit the maximum number of books to return
+   * @return the page of books and the cursor for the next page
    */
-  public List<Book> getAllBooks() {
-    return bookRepository.findAll();
+  @Transactional(readOnly = true)
+  public SourcePage<Book> getBooks(String cursor, int limit) {
+    long afterId = KeysetCursor.decode(cursor);
+    return toPage(bookRepository.findByIdGreaterThanOrderByIdAsc(
+        afterId, PageRequest.of(0, limit + 1)), limit);
   }
 
   /**
@@ -126,6 +190,7 @@ public class SourceService {
    */
   public void deleteBook(Long id) {
     bookRepository.deleteById(id);
+    onSourceDeleted(MediaType.BOOK.getValue(), id);
   }
 
   /**
@@ -133,11 +198,16 @@ public class SourceService {
    *
    * @param id the ID of the Book to update
    * @param updatedBook the Book entity containing updated data
+   * @param expectedVersion the version the update was made against (from If-Match),
+   *        or null to update unconditionally
    * @return the updated Book entity, or null if not found
+   * @throws PreconditionFailedException if the book is no longer at the expected version
    */
-  public Book updateBook(Long id, Book updatedBook) {
+  @Transactional
+  public Book updateBook(Long id, Book updatedBook, Long expectedVersion) {
     return bookRepository.findById(id)
             .map(book -> {
+              checkVersion(book, expectedVersion);
               book.setTitle(updatedBook.getTitle());
               book.setAuthor(updatedBook.getAuthor());
               book.setPublisher(updatedBook.getPublisher());
@@ -145,7 +215,34 @@ public class SourceService {
               book.setCity(updatedBook.getCity());
               book.setEdition(updatedBook.getEdition());
               book.setIsbn(updatedBook.getIsbn());
-              return bookRepository.save(book);
+              Book saved = bookRepository.saveAndFlush(book);
+              onSourceSaved(saved);
+              return saved;
+            })
+            .orElse(null);
+  }
+
+  /**
+   * Applies a JSON Merge Patch (RFC 7396) to an existing Book entity. Fields present in
+   * the patch are set, fields set to null are cleared and absent fields are left as
+   * they are; only the changed columns are written.
+   *
+   * @param id the ID of the Book to patch
+   * @param patch the merge patch, a JSON object of book fields
+   * @param expectedVersion the version the patch was made against (from If-Match),
+   *        or null to patch unconditionally
+   * @return the patched Book entity, or null if not found
+   * @throws PreconditionFailedException if the book is no longer at the expected version
+   * @throws ValidationException if the patch is not an object or sets an invalid value
+   */
+  @Transactional
+  public Book patchBook(Long id, JsonNode patch, Long expectedVersion) {
+    return bookRepository.findById(id)
+            .map(book -> {
+              checkVersion(book, expectedVersion);
+              Book saved = bookRepository.saveAndFlush(applyMergePatch(book, patch));
+              onSourceSaved(saved);
+              return saved;
             })
             .orElse(null);
   }
@@ -158,7 +255,9 @@ public class SourceService {
    * @return the saved Video entity
    */
   public Video saveVideo(Video video) {
-    return videoRepository.save(video);
+    Video saved = videoRepository.save(video);
+    onSourceSaved(saved);
+    return saved;
   }
 
   /**
@@ -167,17 +266,23 @@ public class SourceService {
    * @param id the ID of the Video to find
    * @return an Optional containing the Video if found, empty otherwise
    */
+  @Transactional(readOnly = true)
   public Optional<Video> findVideoById(Long id) {
     return videoRepository.findById(id);
   }
 
   /**
-   * Retrieves all Video entities from the database.
+   * Retrieves one keyset-paginated page of Video entities, ordered by ID.
    *
-   * @return a list of all Video entities
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param limit the maximum number of videos to return
+   * @return the page of videos and the cursor for the next page
    */
-  public List<Video> getAllVideos() {
-    return videoRepository.findAll();
+  @Transactional(readOnly = true)
+  public SourcePage<Video> getVideos(String cursor, int limit) {
+    long afterId = KeysetCursor.decode(cursor);
+    return toPage(videoRepository.findByIdGreaterThanOrderByIdAsc(
+        afterId, PageRequest.of(0, limit + 1)), limit);
   }
 
   /**
@@ -187,6 +292,7 @@ public class SourceService {
    */
   public void deleteVideo(Long id) {
     videoRepository.deleteById(id);
+    onSourceDeleted(MediaType.VIDEO.getValue(), id);
   }
 
   /**
@@ -194,11 +300,16 @@ public class SourceService {
    *
    * @param id the ID of the Video to update
    * @param updatedVideo the Video entity containing updated data
+   * @param expectedVersion the version the update was made against (from If-Match),
+   *        or null to update unconditionally
    * @return the updated Video entity, or null if not found
+   * @throws PreconditionFailedException if the video is no longer at the expected version
    */
-  public Video updateVideo(Long id, Video updatedVideo) {
+  @Transactional
+  public Video updateVideo(Long id, Video updatedVideo, Long expectedVersion) {
     return videoRepository.findById(id)
             .map(video -> {
+              checkVersion(video, expectedVersion);
               video.setTitle(updatedVideo.getTitle());
               video.setAuthor(updatedVideo.getAuthor());
               video.setDirector(updatedVideo.getDirector());
@@ -206,7 +317,34 @@ public class SourceService {
               video.setPlatform(updatedVideo.getPlatform());
               video.setUrl(updatedVideo.getUrl());
               video.setReleaseYear(updatedVideo.getReleaseYear());
-              return videoRepository.save(video);
+              Video saved = videoRepository.saveAndFlush(video);
+              onSourceSaved(saved);
+              return saved;
+            })
+            .orElse(null);
+  }
+
+  /**
+   * Applies a JSON Merge Patch (RFC 7396) to an existing Video entity. Fields present in
+   * the patch are set, fields set to null are cleared and absent fields are left as
+   * they are; only the changed columns are written.
+   *
+   * @param id the ID of the Video to patch
+   * @param patch the merge patch, a JSON object of video fields
+   * @param expectedVersion the version the patch was made against (from If-Match),
+   *        or null to patch unconditionally
+   * @return the patched Video entity, or null if not found
+   * @throws PreconditionFailedException if the video is no longer at the expected version
+   * @throws ValidationException if the patch is not an object or sets an invalid value
+   */
+  @Transactional
+  public Video patchVideo(Long id, JsonNode patch, Long expectedVersion) {
+    return videoRepository.findById(id)
+            .map(video -> {
+              checkVersion(video, expectedVersion);
+              Video saved = videoRepository.saveAndFlush(applyMergePatch(video, patch));
+              onSourceSaved(saved);
+              return saved;
             })
             .orElse(null);
   }
@@ -219,7 +357,9 @@ public class SourceService {
    * @return the saved Article entity
    */
   public Article saveArticle(Article article) {
-    return articleRepository.save(article);
+    Article saved = articleRepository.save(article);
+    onSourceSaved(saved);
+    return saved;
   }
 
   /**
@@ -228,17 +368,23 @@ public class SourceService {
    * @param id the ID of the Article to find
    * @return an Optional containing the Article if found, empty otherwise
    */
+  @Transactional(readOnly = true)
   public Optional<Article> findArticleById(Long id) {
     return articleRepository.findById(id);
   }
 
   /**
-   * Retrieves all Article entities from the database.
+   * Retrieves one keyset-paginated page of Article entities, ordered by ID.
    *
-   * @return a list of all Article entities
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param limit the maximum number of articles to return
+   * @return the page of articles and the cursor for the next page
    */
-  public List<Article> getAllArticles() {
-    return articleRepository.findAll();
+  @Transactional(readOnly = true)
+  public SourcePage<Article> getArticles(String cursor, int limit) {
+    long afterId = KeysetCursor.decode(cursor);
+    return toPage(articleRepository.findByIdGreaterThanOrderByIdAsc(
+        afterId, PageRequest.of(0, limit + 1)), limit);
   }
 
   /**
@@ -248,6 +394,7 @@ public class SourceService {
    */
   public void deleteArticle(Long id) {
     articleRepository.deleteById(id);
+    onSourceDeleted(MediaType.ARTICLE.getValue(), id);
   }
 
   /**
@@ -255,11 +402,16 @@ public class SourceService {
    *
    * @param id the ID of the Article to update
    * @param updatedArticle the Article entity containing updated data
+   * @param expectedVersion the version the update was made against (from If-Match),
+   *        or null to update unconditionally
    * @return the updated Article entity, or null if not found
+   * @throws PreconditionFailedException if the article is no longer at the expected version
    */
-  public Article updateArticle(Long id, Article updatedArticle) {
+  @Transactional
+  public Article updateArticle(Long id, Article updatedArticle, Long expectedVersion) {
     return articleRepository.findById(id)
             .map(article -> {
+              checkVersion(article, expectedVersion);
               article.setTitle(updatedArticle.getTitle());
               article.setAuthor(updatedArticle.getAuthor());
               article.setJournal(updatedArticle.getJournal());
@@ -269,16 +421,179 @@ public class SourceService {
               article.setDoi(updatedArticle.getDoi());
               article.setUrl(updatedArticle.getUrl());
               article.setPublicationYear(updatedArticle.getPublicationYear());
-              return articleRepository.save(article);
+              Article saved = articleRepository.saveAndFlush(article);
+              onSourceSaved(saved);
+              return saved;
+            })
+            .orElse(null);
+  }
+
+  /**
+   * Applies a JSON Merge Patch (RFC 7396) to an existing Article entity. Fields present in
+   * the patch are set, fields set to null are cleared and absent fields are left as
+   * they are; only the changed columns are written.
+   *
+   * @param id the ID of the Article to patch
+   * @param patch the merge patch, a JSON object of article fields
+   * @param expectedVersion the version the patch was made against (from If-Match),
+   *        or null to patch unconditionally
+   * @return the patched Article entity, or null if not found
+   * @throws PreconditionFailedException if the article is no longer at the expected version
+   * @throws ValidationException if the patch is not an object or sets an invalid value
+   */
+  @Transactional
+  public Article patchArticle(Long id, JsonNode patch, Long expectedVersion) {
+    return articleRepository.findById(id)
+            .map(article -> {
+              checkVersion(article, expectedVersion);
+              Article saved = articleRepository.saveAndFlush(applyMergePatch(article, patch));
+              onSourceSaved(saved);
+              return saved;
             })
             .orElse(null);
   }
 
+  /**
+   * Checks that a source is still at the version a conditional update was made against.
+   * A concurrent update committing after this check is caught by Hibernate's own version
+   * check when the update is flushed.
+   *
+   * @param source the source as currently stored
+   * @param expectedVersion the expected version, or null to skip the check
+   * @throws PreconditionFailedException if the versions differ
+   */
+  private static void checkVersion(Source source, Long expectedVersion) {
+    if (expectedVersion != null && !expectedVersion.equals(source.getVersion())) {
+      throw new PreconditionFailedException("The " + source.getMediaType().getValue()
+          + " with ID " + source.getId() + " has changed since version " + expectedVersion
+          + "; its current version is " + source.getVersion() + ".");
+    }
+  }
+
+  /**
+   * Merges a JSON Merge Patch into a source through its setters, so the same validation
+   * applies as when the source is created.
+   *
+   * @param source the managed source to patch
+   * @param patch the merge patch
+   * @param <T> the type of source
+   * @return the patched source
+   * @throws ValidationException if the patch is not an object, changes the ID or sets an
+   *         invalid value
+   */
+  private <T extends Source> T applyMergePatch(T source, JsonNode patch) {
+    if (patch == null || !patch.isObject()) {
+      throw new ValidationException("A merge patch must be a JSON object.");
+    }
+    if (patch.has("id")) {
+      throw new ValidationException("The ID of a " + source.getMediaType().getValue()
+          + " cannot be changed.");
+    }
+    try {
+      return objectMapper.readerForUpdating(source).readValue(patch);
+    } catch (JsonMappingException e) {
+      Throwable cause = e.getCause();
+      throw new ValidationException("Invalid merge patch: "
+          + (cause != null ? cause.getMessage() : e.getOriginalMessage()), e);
+    } catch (IOException e) {
+      throw new ValidationException("Invalid merge patch: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Builds a page from rows fetched with one extra row of look-ahead: the extra row
+   * is dropped and only signals that a next page exists.
+   *
+   * @param rows the rows fetched (up to limit + 1)
+   * @param limit the page size limit
+   * @param <T> the source type
+   * @return the page with its next cursor (null on the last page)
+   */
+  private <T extends Source> SourcePage<T> toPage(List<T> rows, int limit) {
+    if (rows.size() <= limit) {
+      return new SourcePage<>(rows, null, limit);
+    }
+    List<T> items = new ArrayList<>(rows.subList(0, limit));
+    String nextCursor = KeysetCursor.encode(items.get(items.size() - 1).getId());
+    return new SourcePage<>(items, nextCursor, limit);
+  }
+
+  /**
+   * Adds or refreshes a saved source in the search and suggestion indexes. The indexes
+   * are only updated once the surrounding transaction commits, so a batch that rolls back
+   * leaves no hits or suggestions for sources that were never stored.
+   *
+   * @param source the saved source
+   */
+  private void onSourceSaved(Source source) {
+    afterCommit(() -> {
+      sourceSearchService.indexSource(source);
+      sourceSuggestService.indexSource(source);
+    });
+  }
+
+  /**
+   * Runs an action once the current transaction has committed, or straight away when no
+   * transaction is active. Nothing runs if the transaction rolls back.
+   *
+   * @param action the action to run
+   */
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  /**
+   * Removes a deleted source from the search and suggestion indexes.
+   *
+   * @param mediaType the media type of the source: book, video or article
+   * @param id the ID of the deleted source
+   */
+  private void onSourceDeleted(String mediaType, Long id) {
+    sourceSearchService.removeSource(mediaType, id);
+    sourceSuggestService.removeSource(mediaType, id);
+  }
+
+  /**
+   * Records the outcome of an upsert on the upserted source: takes over the ID of the
+   * winning row and, if this call inserted it, adds the source to the in-process indexes.
+   *
+   * @param source the source that was upserted
+   * @param result the upsert result
+   */
+  private void applyUpsert(Source source, UpsertResult result) {
+    source.setId(result.getId());
+    String mediaType = source.getMediaType().getValue();
+    sourceDedupeCache.put(SourceDedupeCache.key(mediaType, "title-author",
+        source.getDedupeKey()), result.getId());
+    if (source instanceof Book book && book.getCanonicalIsbn() != null) {
+      sourceDedupeCache.put(SourceDedupeCache.key(mediaType, "isbn",
+          book.getCanonicalIsbn()), result.getId());
+    } else if (source instanceof Article article && article.getCanonicalDoi() != null) {
+      sourceDedupeCache.put(SourceDedupeCache.key(mediaType, "doi",
+          article.getCanonicalDoi()), result.getId());
+    }
+    metricsService.recordDedupe(source.getMediaType().getValue(), !result.isInserted());
+    if (result.isInserted()) {
+      onSourceSaved(source);
+    }
+  }
+
   /**
    * Processes a batch of sources: creates a submission group (if submissionId is null)
-   * or appends to existing submission, de-duplicates media by title+author
-   * (case-insensitive), persists media as needed, and creates Citation records
-   * linking media to the submission.
+   * or appends to existing submission, de-duplicates media by canonical ISBN or DOI and
+   * then by title+author (case-insensitive), persists media as needed, and creates Citation records
+   * linking media to the submission. New media are written through
+   * {@link SourceUpsertRepository} so concurrent batches citing the same new work
+   * resolve to a single row.
    *
    * @param request the bulk request containing user and sources to process
    * @param submissionId the optional existing submission id to append to
@@ -286,6 +601,31 @@ public class SourceService {
    */
   @Transactional
   public SourceBatchResponse addOrAppendSources(BulkSourceRequest request, Long submissionId) {
+    IngestionChunkEvent event = new IngestionChunkEvent();
+    event.begin();
+    long start = System.nanoTime();
+    SourceBatchResponse response = ingestSources(request, submissionId);
+    metricsService.recordIngestion(response.getCitationIds().size(), System.nanoTime() - start);
+    event.end();
+    if (event.shouldCommit()) {
+      event.setSubmissionId(response.getSubmissionId() == null ? 0L : response.getSubmissionId());
+      event.setSources(request == null || request.getSources() == null
+          ? 0 : request.getSources().size());
+      event.setCitations(response.getCitationIds().size());
+      event.setErrors(response.getErrors() == null ? 0 : response.getErrors().size());
+      event.commit();
+    }
+    return response;
+  }
+
+  /**
+   * Processes a batch of sources for {@link #addOrAppendSources}.
+   *
+   * @param request the bulk request containing user and sources to process
+   * @param submissionId the optional existing submission id to append to
+   * @return a SourceBatchResponse containing the submission id and saved citation ids
+   */
+  private SourceBatchResponse ingestSources(BulkSourceRequest request, Long submissionId) {
     if (request == null
         || request.getSources() == null
         || request.getSources().isEmpty()) {
@@ -328,14 +668,15 @@ public class SourceService {
 
       switch (type) {
         case "book":
-          // try find by title+author
-          Optional<Book> bOpt = bookRepository
-              .findByTitleIgnoreCaseAndAuthorIgnoreCase(
-                  title,
-                  author
-              );
+          // try find by ISBN, then by title+author
+          Optional<Book> bOpt = findBookByIsbn(src.getIsbn());
+          if (bOpt.isEmpty()) {
+            bOpt = findByTitleAndAuthor(MediaType.BOOK, Book.class, title, author,
+                () -> bookRepository.findByTitleIgnoreCaseAndAuthorIgnoreCase(title, author));
+          }
           Book book;
           if (bOpt.isPresent()) {
+            metricsService.recordDedupe(MediaType.BOOK.getValue(), true);
             book = bOpt.get();
           } else {
             book = new Book();
@@ -346,39 +687,39 @@ public class SourceService {
             book.setPublicationYear(src.getYear());
             book.setCity(src.getCity());
             book.setEdition(src.getEdition());
-            book = bookRepository.save(book);
+            applyUpsert(book, sourceUpsertRepository.upsertBook(book));
           }
           mediaId = book.getId();
           break;
 
         case "article":
-          Optional<Article> aOpt = articleRepository
-              .findByTitleIgnoreCaseAndAuthorIgnoreCase(
-                  title,
-                  author
-              );
+          Optional<Article> aOpt = findArticleByDoi(src.getDoi());
+          if (aOpt.isEmpty()) {
+            aOpt = findByTitleAndAuthor(MediaType.ARTICLE, Article.class, title, author,
+                () -> articleRepository.findByTitleIgnoreCaseAndAuthorIgnoreCase(title, author));
+          }
           Article article;
           if (aOpt.isPresent()) {
+            metricsService.recordDedupe(MediaType.ARTICLE.getValue(), true);
             article = aOpt.get();
           } else {
             article = new Article();
             article.setTitle(title);
             article.setAuthor(author);
             article.setPublicationYear(src.getYear());
+            article.setDoi(src.getDoi());
             article.setUrl(src.getUrl());
-            article = articleRepository.save(article);
+            applyUpsert(article, sourceUpsertRepository.upsertArticle(article));
           }
           mediaId = article.getId();
           break;
 
         case "video":
-          Optional<Video> vOpt = videoRepository
-              .findByTitleIgnoreCaseAndAuthorIgnoreCase(
-                  title,
-                  author
-              );
+          Optional<Video> vOpt = findByTitleAndAuthor(MediaType.VIDEO, Video.class, title, author,
+              () -> videoRepository.findByTitleIgnoreCaseAndAuthorIgnoreCase(title, author));
           Video video;
           if (vOpt.isPresent()) {
+            metricsService.recordDedupe(MediaType.VIDEO.getValue(), true);
             video = vOpt.get();
           } else {
             video = new Video();
@@ -388,7 +729,7 @@ public class SourceService {
             video.setPlatform(src.getPlatform());
             video.setUrl(src.getUrl());
             video.setReleaseYear(src.getYear());
-            video = videoRepository.save(video);
+            applyUpsert(video, sourceUpsertRepository.upsertVideo(video));
           }
           mediaId = video.getId();
           break;
@@ -411,17 +752,14 @@ public class SourceService {
         userInputJson = "{}";
       }
 
-      // avoid duplicate citation for same submission+media+type
+      // avoid duplicate citation for same submission+source
       Optional<Citation> existingCitation = citationRepository
-          .findBySubmissionIdAndMediaIdAndMediaType(
-              submission.getId(),
-              mediaId,
-              type
-          );
+          .findBySubmissionIdAndSourceId(submission.getId(), mediaId);
       if (existingCitation.isPresent()) {
         savedCitationIds.add(existingCitation.get().getId().toString());
       } else {
-        Citation citation = new Citation(submission, userInputJson, mediaId, type);
+        Citation citation = new Citation(submission, userInputJson,
+            sourceRepository.getReferenceById(mediaId), MediaType.fromValue(type));
         submission.addCitation(citation);
         citation = citationRepository.save(citation);
         savedCitationIds.add(citation.getId().toString());
@@ -430,4 +768,91 @@ public class SourceService {
 
     return new SourceBatchResponse(submission.getId(), savedCitationIds, errors);
   }
+
+  /**
+   * Finds an existing book by the canonical form of an ingested ISBN.
+   *
+   * @param isbn the ISBN as submitted, possibly null, hyphenated or an ISBN-10
+   * @return the first book with the same ISBN-13, or empty if there is none or the ISBN
+   *         is missing or invalid
+   */
+  private Optional<Book> findBookByIsbn(String isbn) {
+    String canonical = Identifiers.canonicalIsbn(isbn);
+    if (canonical == null) {
+      return Optional.empty();
+    }
+    return findDeduped(SourceDedupeCache.key(MediaType.BOOK.getValue(), "isbn", canonical),
+        Book.class, book -> canonical.equals(book.getCanonicalIsbn()),
+        () -> bookRepository.findFirstByCanonicalIsbnOrderByIdAsc(canonical));
+  }
+
+  /**
+   * Finds an existing article by the canonical form of an ingested DOI.
+   *
+   * @param doi the DOI as submitted, possibly null, prefixed or in any case
+   * @return the first article with the same canonical DOI, or empty if there is none or
+   *         the DOI is missing or invalid
+   */
+  private Optional<Article> findArticleByDoi(String doi) {
+    String canonical = Identifiers.canonicalDoi(doi);
+    if (canonical == null) {
+      return Optional.empty();
+    }
+    return findDeduped(SourceDedupeCache.key(MediaType.ARTICLE.getValue(), "doi", canonical),
+        Article.class, article -> canonical.equals(article.getCanonicalDoi()),
+        () -> articleRepository.findFirstByCanonicalDoiOrderByIdAsc(canonical));
+  }
+
+  /**
+   * Finds an existing source of one media type by its title and author, case-insensitively.
+   *
+   * @param <T> the source type
+   * @param mediaType the media type of the source
+   * @param type the source class
+   * @param title the trimmed title
+   * @param author the trimmed author
+   * @param lookup the repository query run when the lookup is not cached
+   * @return the matching source, or empty if there is none
+   */
+  private <T extends Source> Optional<T> findByTitleAndAuthor(MediaType mediaType,
+      Class<T> type, String title, String author, Supplier<Optional<T>> lookup) {
+    String dedupeKey = Source.dedupeKeyOf(title, author);
+    return findDeduped(SourceDedupeCache.key(mediaType.getValue(), "title-author", dedupeKey),
+        type,
+        source -> dedupeKey.equals(source.getDedupeKey()), lookup);
+  }
+
+  /**
+   * Runs a de-duplication lookup through {@link SourceDedupeCache}. A cached source ID is
+   * loaded by primary key, which the second-level cache usually serves, and used only if
+   * the source still exists and still matches; otherwise the entry is dropped and the
+   * query runs. Only lookups that found a source are cached, so a source inserted after a
+   * miss is found by the next lookup without any invalidation.
+   *
+   * @param <T> the source type
+   * @param cacheKey the lookup key
+   * @param type the source class
+   * @param stillMatches checks a cached source still answers the lookup
+   * @param lookup the repository query run when the lookup is not cached
+   * @return the matching source, or empty if there is none
+   */
+  private <T extends Source> Optional<T> findDeduped(String cacheKey, Class<T> type,
+      Predicate<T> stillMatches, Supplier<Optional<T>> lookup) {
+    Long cachedId = sourceDedupeCache.get(cacheKey);
+    if (cachedId != null) {
+      // Citations of the source may hold an uninitialized proxy of it in this session
+      Optional<T> cached = sourceRepository.findById(cachedId)
+          .map(Hibernate::unproxy)
+          .filter(type::isInstance)
+          .map(type::cast)
+          .filter(stillMatches);
+      if (cached.isPresent()) {
+        return cached;
+      }
+      sourceDedupeCache.remove(cacheKey);
+    }
+    Optional<T> found = lookup.get();
+    found.ifPresent(source -> sourceDedupeCache.put(cacheKey, source.getId()));
+    return found;
+  }
 }
@@ -0,0 +1,363 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.SearchHit;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process trigram index over normalized source titles and authors, used for typeahead.
+ *
+ * <p>Titles and authors are normalized (lower-cased, accents and punctuation removed,
+ * whitespace collapsed) and split into overlapping three-character grams, with each word
+ * padded so that word starts form their own grams. A query is normalized the same way and
+ * scored against every source sharing at least one of its grams: the score is the share of
+ * the query's grams found in the source, plus a bonus when a title or author word starts
+ * with the query. That serves both prefix matches on partially typed words and fuzzy
+ * matches on misspellings without touching the database.</p>
+ */
+@Component
+public class SourceSuggestIndex {
+
+    /**
+     * Minimum share of query grams a source must contain to be suggested without
+     * a prefix match.
+     */
+    private static final double MIN_SIMILARITY = 0.4;
+
+    /**
+     * Score bonus for a source whose title or author has a word starting with the query.
+     */
+    private static final double PREFIX_BONUS = 1.0;
+
+    /**
+     * Length of the grams the text is split into.
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Combining marks left over after Unicode decomposition (accents).
+     */
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Runs of characters that are not letters or digits.
+     */
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Gram to the sources whose title or author contains it.
+     */
+    private final Map<String, Set<DocKey>> postings = new HashMap<>();
+
+    /**
+     * Indexed sources, keyed by media type and ID.
+     */
+    private final Map<DocKey, IndexedDoc> docs = new HashMap<>();
+
+    /**
+     * Guards the postings and documents; suggestions share the read lock.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a source to the index, replacing any previous entry for the same source.
+     *
+     * @param mediaType the media type of the source
+     * @param id the ID of the source
+     * @param title the title of the source
+     * @param author the author of the source
+     */
+    public void index(String mediaType, Long id, String title, String author) {
+        if (id == null) {
+            return;
+        }
+        DocKey key = new DocKey(mediaType, id);
+        String normalizedTitle = normalize(title);
+        String normalizedAuthor = normalize(author);
+        Set<String> grams = new HashSet<>(grams(normalizedTitle, true));
+        grams.addAll(grams(normalizedAuthor, true));
+        IndexedDoc doc = new IndexedDoc(title, author, normalizedTitle, normalizedAuthor, grams);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            docs.put(key, doc);
+            for (String gram : grams) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a source from the index if present.
+     *
+     * @param mediaType the media type of the source
+     * @param id the ID of the source
+     */
+    public void remove(String mediaType, Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(new DocKey(mediaType, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every source from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docs.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of indexed sources.
+     *
+     * @return the number of indexed sources
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Suggests sources whose title or author starts with or resembles the typed text.
+     *
+     * @param query the partially typed title or author
+     * @param limit the maximum number of suggestions to return
+     * @return the suggestions, best first; empty if the query has no letters or digits
+     */
+    public List<SearchHit> suggest(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        // The last word may still be being typed, so it is not padded at its end.
+        Set<String> queryGrams = grams(normalized, false);
+
+        lock.readLock().lock();
+        try {
+            Map<DocKey, Integer> shared = new HashMap<>();
+            for (String gram : queryGrams) {
+                Set<DocKey> keys = postings.get(gram);
+                if (keys != null) {
+                    for (DocKey key : keys) {
+                        shared.merge(key, 1, Integer::sum);
+                    }
+                }
+            }
+            List<SearchHit> hits = new ArrayList<>();
+            for (Map.Entry<DocKey, Integer> entry : shared.entrySet()) {
+                IndexedDoc doc = docs.get(entry.getKey());
+                double score = (double) entry.getValue() / queryGrams.size();
+                boolean prefix = hasWordStartingWith(doc.normalizedTitle, normalized)
+                        || hasWordStartingWith(doc.normalizedAuthor, normalized);
+                if (prefix) {
+                    score += PREFIX_BONUS;
+                } else if (score < MIN_SIMILARITY) {
+                    continue;
+                }
+                hits.add(new SearchHit(entry.getKey().mediaType, entry.getKey().id,
+                        doc.title, doc.author, score));
+            }
+            hits.sort(Comparator.comparingDouble(SearchHit::getScore).reversed()
+                    .thenComparing(SearchHit::getTitle, Comparator.nullsLast(String::compareTo))
+                    .thenComparing(SearchHit::getMediaType)
+                    .thenComparing(SearchHit::getId));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normalizes text for matching: lower case, accents and punctuation removed,
+     * whitespace collapsed.
+     *
+     * @param text the text to normalize, may be null
+     * @return the normalized text, empty if there is none
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        return NON_WORD.matcher(stripped.toLowerCase(Locale.ENGLISH)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Splits normalized text into the grams of each of its words. Every word is padded
+     * with two leading spaces, and one trailing space unless it is open-ended.
+     *
+     * @param normalized the normalized text
+     * @param closeLastWord whether the last word is complete (false for a typed query)
+     * @return the distinct grams
+     */
+    static Set<String> grams(String normalized, boolean closeLastWord) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return grams;
+        }
+        String[] words = normalized.split(" ");
+        for (int i = 0; i < words.length; i++) {
+            boolean closed = closeLastWord || i < words.length - 1;
+            String padded = "  " + words[i] + (closed ? " " : "");
+            for (int start = 0; start + GRAM_LENGTH <= padded.length(); start++) {
+                grams.add(padded.substring(start, start + GRAM_LENGTH));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Checks whether normalized text starts with the prefix at a word boundary.
+     *
+     * @param normalized the normalized text
+     * @param prefix the normalized prefix
+     * @return true if the text or one of its words starts with the prefix
+     */
+    private static boolean hasWordStartingWith(String normalized, String prefix) {
+        return normalized.startsWith(prefix) || normalized.contains(" " + prefix);
+    }
+
+    /**
+     * Removes a document and its postings; the caller must hold the write lock.
+     *
+     * @param key the document key
+     */
+    private void removeLocked(DocKey key) {
+        IndexedDoc previous = docs.remove(key);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : previous.grams) {
+            Set<DocKey> keys = postings.get(gram);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Identifies an indexed source by media type and ID.
+     */
+    private static final class DocKey {
+
+        /**
+         * The media type of the source.
+         */
+        private final String mediaType;
+
+        /**
+         * The ID of the source.
+         */
+        private final Long id;
+
+        /**
+         * Constructs a new DocKey.
+         *
+         * @param mediaTypeParam the media type of the source
+         * @param idParam the ID of the source
+         */
+        DocKey(String mediaTypeParam, Long idParam) {
+            this.mediaType = mediaTypeParam;
+            this.id = idParam;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DocKey)) {
+                return false;
+            }
+            DocKey other = (DocKey) o;
+            return Objects.equals(mediaType, other.mediaType) && Objects.equals(id, other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mediaType, id);
+        }
+    }
+
+    /**
+     * Display fields, normalized fields and grams of an indexed source.
+     */
+    private static final class IndexedDoc {
+
+        /**
+         * The title of the source as stored.
+         */
+        private final String title;
+
+        /**
+         * The author of the source as stored.
+         */
+        private final String author;
+
+        /**
+         * The normalized title.
+         */
+        private final String normalizedTitle;
+
+        /**
+         * The normalized author.
+         */
+        private final String normalizedAuthor;
+
+        /**
+         * The grams the source was indexed under.
+         */
+        private final Set<String> grams;
+
+        /**
+         * Constructs a new IndexedDoc.
+         *
+         * @param titleParam the title of the source
+         * @param authorParam the author of the source
+         * @param normalizedTitleParam the normalized title
+         * @param normalizedAuthorParam the normalized author
+         * @param gramsParam the grams the source was indexed under
+         */
+        IndexedDoc(String titleParam, String authorParam, String normalizedTitleParam,
+                   String normalizedAuthorParam, Set<String> gramsParam) {
+            this.title = titleParam;
+            this.author = authorParam;
+            this.normalizedTitle = normalizedTitleParam;
+            this.normalizedAuthor = normalizedAuthorParam;
+            this.grams = gramsParam;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.SearchHit;
+import com.columbia.coms4156.citationservice.model.Source;
+import com.columbia.coms4156.citationservice.repository.SourceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service providing typeahead suggestions from the sources already stored, so clients can
+ * offer an existing Book, Video or Article instead of creating a duplicate.
+ *
+ * <p>Suggestions are answered entirely from {@link SourceSuggestIndex}, which is built from
+ * the sources table at startup and kept current by {@link SourceService} as sources are
+ * created, updated and deleted, so no keystroke reaches the database.</p>
+ */
+@Service
+public class SourceSuggestService {
+
+    /**
+     * Logger for suggestion index maintenance.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SourceSuggestService.class);
+
+    /**
+     * Repository for reading the sources to index.
+     */
+    private final SourceRepository sourceRepository;
+
+    /**
+     * In-process trigram index answering suggestions.
+     */
+    private final SourceSuggestIndex sourceSuggestIndex;
+
+    /**
+     * Constructs a new SourceSuggestService.
+     *
+     * @param sourceRepositoryParam the source repository
+     * @param sourceSuggestIndexParam the in-process trigram index
+     */
+    public SourceSuggestService(SourceRepository sourceRepositoryParam,
+                                SourceSuggestIndex sourceSuggestIndexParam) {
+        this.sourceRepository = sourceRepositoryParam;
+        this.sourceSuggestIndex = sourceSuggestIndexParam;
+    }
+
+    /**
+     * Builds the suggestion index from the sources table once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        sourceSuggestIndex.clear();
+        SourceScanner.forEach(sourceRepository::findByIdGreaterThanOrderByIdAsc,
+                this::indexSource);
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Built suggestion index over {} sources", sourceSuggestIndex.size());
+        }
+    }
+
+    /**
+     * Suggests stored sources whose title or author starts with or resembles the typed text.
+     *
+     * @param query the partially typed title or author
+     * @param limit the maximum number of suggestions to return
+     * @return the suggestions, best first
+     */
+    public List<SearchHit> suggest(String query, int limit) {
+        return sourceSuggestIndex.suggest(query, limit);
+    }
+
+    /**
+     * Adds or refreshes a saved source in the suggestion index.
+     *
+     * @param source the saved book, video or article
+     */
+    public void indexSource(Source source) {
+        if (source != null) {
+            sourceSuggestIndex.index(source.getMediaType().getValue(), source.getId(),
+                    source.getTitle(), source.getAuthor());
+        }
+    }
+
+    /**
+     * Removes a deleted source from the suggestion index.
+     *
+     * @param mediaType the media type of the source: book, video or article
+     * @param id the ID of the deleted source
+     */
+    public void removeSource(String mediaType, Long id) {
+        sourceSuggestIndex.remove(mediaType, id);
+    }
+}
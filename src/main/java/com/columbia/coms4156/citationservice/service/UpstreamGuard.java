@@ -0,0 +1,74 @@
+package com.columbia.coms4156.citationservice.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Guards the calls to the upstream APIs (Google Books and CrossRef) so a slow or failing
+ * upstream cannot hold up requests.
+ *
+ * <p>Each upstream has its own time limiter, circuit breaker and retry, configured under
+ * {@code resilience4j.*.instances.<upstream>} (falling back to {@code configs.default}).
+ * Every attempt is cut off after the time limit; timeouts and transient errors are retried
+ * after a randomized wait; and once enough attempts fail, the breaker opens and calls are
+ * rejected at once with a {@link io.github.resilience4j.circuitbreaker.CallNotPermittedException}
+ * until it lets a few probe calls through again (half-open).</p>
+ */
+@Component
+public class UpstreamGuard {
+
+    /**
+     * Registry of the per-upstream circuit breakers.
+     */
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    /**
+     * Registry of the per-upstream time limiters.
+     */
+    private final TimeLimiterRegistry timeLimiterRegistry;
+
+    /**
+     * Registry of the per-upstream retries.
+     */
+    private final RetryRegistry retryRegistry;
+
+    /**
+     * Constructs a new UpstreamGuard.
+     *
+     * @param circuitBreakerRegistryParam the registry of circuit breakers
+     * @param timeLimiterRegistryParam the registry of time limiters
+     * @param retryRegistryParam the registry of retries
+     */
+    public UpstreamGuard(CircuitBreakerRegistry circuitBreakerRegistryParam,
+                         TimeLimiterRegistry timeLimiterRegistryParam,
+                         RetryRegistry retryRegistryParam) {
+        this.circuitBreakerRegistry = circuitBreakerRegistryParam;
+        this.timeLimiterRegistry = timeLimiterRegistryParam;
+        this.retryRegistry = retryRegistryParam;
+    }
+
+    /**
+     * Applies the upstream's time limit, circuit breaker and retry to a call. Each retry
+     * attempt goes through the breaker, and no attempt is made while it is open.
+     *
+     * @param upstream the upstream API, {@link MetricsService#GOOGLE_BOOKS} or
+     *                 {@link MetricsService#CROSSREF}
+     * @param call the call, made on subscription
+     * @param <T> the type of the call's result
+     * @return the guarded call
+     */
+    public <T> Mono<T> guard(String upstream, Mono<T> call) {
+        return call
+                .transformDeferred(TimeLimiterOperator.of(
+                        timeLimiterRegistry.timeLimiter(upstream)))
+                .transformDeferred(CircuitBreakerOperator.of(
+                        circuitBreakerRegistry.circuitBreaker(upstream)))
+                .transformDeferred(RetryOperator.of(retryRegistry.retry(upstream)));
+    }
+}
@@ -0,0 +1,92 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one backfill lookup against an upstream API. Its duration is
+ * the lookup latency.
+ */
+@Name("citationservice.Backfill")
+@Label("Backfill")
+@Category("Citation Service")
+@Description("Metadata lookup against Google Books or CrossRef")
+@StackTrace(false)
+public final class BackfillEvent extends Event {
+
+    /**
+     * The upstream API, e.g. "crossref".
+     */
+    @Label("Upstream")
+    private String upstream;
+
+    /**
+     * The key looked up: an ISBN or a DOI.
+     */
+    @Label("Key")
+    private String key;
+
+    /**
+     * How the lookup ended: "found", "not_found" or "error".
+     */
+    @Label("Outcome")
+    private String outcome;
+
+    /**
+     * Sets the upstream API.
+     *
+     * @param upstreamParam the upstream API, e.g. "crossref"
+     */
+    public void setUpstream(String upstreamParam) {
+        this.upstream = upstreamParam;
+    }
+
+    /**
+     * Gets the upstream API, e.g. "crossref".
+     *
+     * @return the upstream
+     */
+    public String getUpstream() {
+        return upstream;
+    }
+
+    /**
+     * Sets the key looked up.
+     *
+     * @param keyParam the ISBN or DOI
+     */
+    public void setKey(String keyParam) {
+        this.key = keyParam;
+    }
+
+    /**
+     * Gets the key looked up: an ISBN or a DOI.
+     *
+     * @return the key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Sets how the lookup ended.
+     *
+     * @param outcomeParam "found", "not_found" or "error"
+     */
+    public void setOutcome(String outcomeParam) {
+        this.outcome = outcomeParam;
+    }
+
+    /**
+     * Gets how the lookup ended: "found", "not_found" or "error".
+     *
+     * @return the outcome
+     */
+    public String getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,143 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import com.columbia.coms4156.citationservice.model.MediaType;
+import com.columbia.coms4156.citationservice.model.Source;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Fills in the {@code canonical_isbn} and {@code canonical_doi} columns of sources saved
+ * before those columns existed, so backfill lookups and de-duplication find them.
+ *
+ * <p>The canonical forms are computed by {@link Identifiers}, which SQL cannot express, so
+ * the rows whose identifier has no canonical form yet are read in ID-ordered batches and
+ * updated with one batched statement per batch, each batch in its own transaction. An
+ * identifier that has no canonical form (one stored before identifiers were validated) is
+ * left as it is and looked at again on the next start.</p>
+ *
+ * <p>It runs after the {@link LegacySourceMigration}, whose copies it also fills in, and
+ * before the warmup, so it finishes before the instance reports ready. Once every row has
+ * been filled in, it finds nothing to do and returns at once.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class CanonicalIdentifierBackfill implements ApplicationRunner {
+
+  /**
+   * Logger for the backfill's progress.
+   */
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(CanonicalIdentifierBackfill.class);
+
+  /**
+   * Most rows read and updated per batch.
+   */
+  static final int BATCH_SIZE = 500;
+
+  /**
+   * JDBC template bound to the application data source.
+   */
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Runs each batch in its own transaction.
+   */
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Entity manager factory; waited for so Hibernate's schema update has added the columns.
+   */
+  private final EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Constructs a new CanonicalIdentifierBackfill.
+   *
+   * @param jdbcTemplateParam the JDBC template to update with
+   * @param transactionManagerParam the transaction manager of the application data source
+   * @param entityManagerFactoryParam the JPA entity manager factory
+   */
+  public CanonicalIdentifierBackfill(NamedParameterJdbcTemplate jdbcTemplateParam,
+                                     PlatformTransactionManager transactionManagerParam,
+                                     EntityManagerFactory entityManagerFactoryParam) {
+    this.jdbcTemplate = jdbcTemplateParam;
+    this.transactionTemplate = new TransactionTemplate(transactionManagerParam);
+    this.entityManagerFactory = entityManagerFactoryParam;
+  }
+
+  /**
+   * Fills in the canonical ISBNs of books and the canonical DOIs of articles.
+   *
+   * @param args the application arguments (not used)
+   */
+  @Override
+  public void run(ApplicationArguments args) {
+    // Blocks until the (deferred) Hibernate bootstrap, and so its schema update, has finished
+    entityManagerFactory.getMetamodel();
+    int isbns = backfill(MediaType.BOOK, "isbn", "canonical_isbn", Identifiers::canonicalIsbn);
+    int dois = backfill(MediaType.ARTICLE, "doi", "canonical_doi", Identifiers::canonicalDoi);
+    if (isbns + dois > 0) {
+      // The updates bypass Hibernate, so cached sources still lack the canonical forms
+      entityManagerFactory.getCache().evict(Source.class);
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("Filled in {} canonical ISBNs and {} canonical DOIs", isbns, dois);
+      }
+    }
+  }
+
+  /**
+   * Fills in one canonical column for every source of a media type that lacks it.
+   *
+   * @param mediaType the media type whose sources carry the identifier
+   * @param column the column of the identifier as entered
+   * @param canonicalColumn the column of its canonical form
+   * @param canonicalize computes the canonical form, or null if there is none
+   * @return the number of rows updated
+   */
+  private int backfill(MediaType mediaType, String column, String canonicalColumn,
+                       UnaryOperator<String> canonicalize) {
+    String select = "SELECT id, " + column + " FROM sources WHERE media_type = :mediaType"
+        + " AND " + column + " IS NOT NULL AND " + canonicalColumn + " IS NULL"
+        + " AND id > :afterId ORDER BY id LIMIT :limit";
+    String update = "UPDATE sources SET " + canonicalColumn + " = :canonical WHERE id = :id";
+    int updated = 0;
+    long afterId = 0;
+    while (true) {
+      List<SqlParameterSource> rows = new ArrayList<>();
+      List<Long> ids = jdbcTemplate.query(select, new MapSqlParameterSource()
+          .addValue("mediaType", mediaType.getValue())
+          .addValue("afterId", afterId)
+          .addValue("limit", BATCH_SIZE), (rs, rowNum) -> {
+            String canonical = canonicalize.apply(rs.getString(column));
+            if (canonical != null) {
+              rows.add(new MapSqlParameterSource("id", rs.getLong("id"))
+                  .addValue("canonical", canonical));
+            }
+            return rs.getLong("id");
+          });
+      if (!rows.isEmpty()) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(update,
+            rows.toArray(new SqlParameterSource[0])));
+        updated += rows.size();
+      }
+      if (ids.size() < BATCH_SIZE) {
+        return updated;
+      }
+      afterId = ids.get(ids.size() - 1);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the rendering of one citation. Its duration is the time spent
+ * formatting.
+ */
+@Name("citationservice.CitationRender")
+@Label("Citation Render")
+@Category("Citation Service")
+@Description("Formatting of one citation in a style")
+@StackTrace(false)
+public final class CitationRenderEvent extends Event {
+
+    /**
+     * The citation style, e.g. "MLA".
+     */
+    @Label("Style")
+    private String style;
+
+    /**
+     * The media type of the cited source, e.g. "book".
+     */
+    @Label("Media Type")
+    private String mediaType;
+
+    /**
+     * The length of the rendered citation, in characters.
+     */
+    @Label("Length")
+    private int length;
+
+    /**
+     * Sets the citation style.
+     *
+     * @param styleParam the citation style, e.g. "MLA"
+     */
+    public void setStyle(String styleParam) {
+        this.style = styleParam;
+    }
+
+    /**
+     * Gets the citation style, e.g. "MLA".
+     *
+     * @return the style
+     */
+    public String getStyle() {
+        return style;
+    }
+
+    /**
+     * Sets the media type of the cited source.
+     *
+     * @param mediaTypeParam the media type, e.g. "book"
+     */
+    public void setMediaType(String mediaTypeParam) {
+        this.mediaType = mediaTypeParam;
+    }
+
+    /**
+     * Gets the media type of the cited source, e.g. "book".
+     *
+     * @return the mediaType
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Sets the length of the rendered citation.
+     *
+     * @param lengthParam the length in characters
+     */
+    public void setLength(int lengthParam) {
+        this.length = lengthParam;
+    }
+
+    /**
+     * Gets the length of the rendered citation, in characters.
+     *
+     * @return the length
+     */
+    public int getLength() {
+        return length;
+    }
+}
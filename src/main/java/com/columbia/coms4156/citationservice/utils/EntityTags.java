@@ -0,0 +1,152 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import com.columbia.coms4156.citationservice.exception.PreconditionFailedException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for the ETags derived from entity versions and for evaluating the
+ * conditional request headers against them.
+ *
+ * <p>A source's ETag is its optimistic-locking version. A submission group's ETag combines
+ * the versions of the submission, its citations and their sources, so any change to what
+ * the group renders changes the tag. Tags are checked before anything is formatted or
+ * serialized, so an unchanged resource costs only the version lookup.</p>
+ */
+public final class EntityTags {
+
+    /**
+     * Separator between the version numbers combined into one ETag.
+     */
+    private static final String PART_SEPARATOR = ".";
+
+    /**
+     * Prefix marking a weak ETag.
+     */
+    private static final String WEAK_PREFIX = "W/";
+
+    /**
+     * Wildcard matching any current representation.
+     */
+    private static final String ANY = "*";
+
+    /**
+     * A single strong tag holding an entity version, as sent in If-Match.
+     */
+    private static final Pattern VERSION_TAG = Pattern.compile("\"(\\d{1,18})\"");
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private EntityTags() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Builds the strong ETag of a single versioned entity.
+     *
+     * @param version the entity version; null (not yet saved) is treated as 0
+     * @return the quoted ETag
+     */
+    public static String ofVersion(Long version) {
+        return of(version == null ? 0L : version);
+    }
+
+    /**
+     * Builds a strong ETag from one or more version numbers.
+     *
+     * @param parts the version numbers identifying the representation
+     * @return the quoted ETag
+     */
+    public static String of(long... parts) {
+        return Arrays.stream(parts)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(PART_SEPARATOR, "\"", "\""));
+    }
+
+    /**
+     * Gets the latest of several modification times.
+     *
+     * @param times the modification times; null entries are ignored
+     * @return the latest time, or null if there is none
+     */
+    public static Instant latest(Instant... times) {
+        Instant latest = null;
+        for (Instant time : times) {
+            if (time != null && (latest == null || time.isAfter(latest))) {
+                latest = time;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Checks whether a GET can be answered with 304 Not Modified. If-None-Match takes
+     * precedence; If-Modified-Since is only consulted when it is absent.
+     *
+     * @param request the request carrying the conditional headers
+     * @param eTag the current ETag of the resource
+     * @param lastModified the current modification time of the resource, may be null
+     * @return true if the client's copy is current
+     */
+    public static boolean isNotModified(HttpServletRequest request, String eTag,
+                                        Instant lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::trim)
+                    .anyMatch(tag -> ANY.equals(tag) || eTag.equals(stripWeak(tag)));
+        }
+        if (lastModified == null) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // HTTP dates have second precision
+        return ifModifiedSince >= 0 && lastModified.getEpochSecond()
+                <= TimeUnit.MILLISECONDS.toSeconds(ifModifiedSince);
+    }
+
+    /**
+     * Reads the version an update is conditional on from its If-Match header.
+     *
+     * @param ifMatch the If-Match header value, may be null
+     * @return the expected version, or null if the update is unconditional
+     *         (no header, or {@code *})
+     * @throws PreconditionFailedException if the header cannot match any version
+     *         (a weak, malformed or multi-valued tag)
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        Matcher tag = VERSION_TAG.matcher(ifMatch.trim());
+        if (tag.matches()) {
+            return Long.valueOf(tag.group(1));
+        }
+        throw new PreconditionFailedException(
+                "If-Match " + ifMatch + " does not match the current version of the resource.");
+    }
+
+    /**
+     * Removes the weak marker from an ETag, for weak comparison.
+     *
+     * @param tag the ETag as sent by the client
+     * @return the tag without its weak marker
+     */
+    private static String stripWeak(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
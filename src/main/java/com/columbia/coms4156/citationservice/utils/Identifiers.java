@@ -0,0 +1,174 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class canonicalizing the identifiers sources are looked up by, so the same work
+ * always maps to the same key however it was typed.
+ *
+ * <p>ISBNs are reduced to their 13 digits: separators and an {@code ISBN} label are dropped,
+ * the checksum is verified, and an ISBN-10 is converted to the {@code 978} ISBN-13 it is
+ * equivalent to. DOIs are case-insensitive, so they are lower-cased once any resolver or
+ * {@code doi:} prefix has been stripped.</p>
+ */
+public final class Identifiers {
+
+    /**
+     * Length of an ISBN-10.
+     */
+    private static final int ISBN_10_LENGTH = 10;
+
+    /**
+     * Length of an ISBN-13.
+     */
+    private static final int ISBN_13_LENGTH = 13;
+
+    /**
+     * ISBN-10 checksum modulus.
+     */
+    private static final int ISBN_10_MODULUS = 11;
+
+    /**
+     * Value of the ISBN-10 check character X.
+     */
+    private static final int ISBN_10_X_VALUE = 10;
+
+    /**
+     * ISBN-13 weight of every second digit.
+     */
+    private static final int ISBN_13_ODD_MULTIPLIER = 3;
+
+    /**
+     * ISBN-13 checksum modulus.
+     */
+    private static final int BASE_10 = 10;
+
+    /**
+     * Prefix (the Bookland EAN) turning an ISBN-10 into its ISBN-13.
+     */
+    private static final String ISBN_10_PREFIX = "978";
+
+    /**
+     * Optional leading label such as {@code ISBN}, {@code ISBN-13:} or {@code isbn10}.
+     */
+    private static final Pattern ISBN_LABEL = Pattern.compile("^isbn(?:-?1[03])?:?",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Separators allowed between ISBN digit groups.
+     */
+    private static final Pattern ISBN_SEPARATORS = Pattern.compile("[\\s\\-]");
+
+    /**
+     * An ISBN-10 once separators are removed: nine digits and a digit or X check character.
+     */
+    private static final Pattern ISBN_10 = Pattern.compile("^[0-9]{9}[0-9X]$");
+
+    /**
+     * An ISBN-13 once separators are removed.
+     */
+    private static final Pattern ISBN_13 = Pattern.compile("^[0-9]{13}$");
+
+    /**
+     * Resolver URL or {@code doi:} prefix written in front of a DOI.
+     */
+    private static final Pattern DOI_PREFIX = Pattern.compile(
+            "^(?:(?:https?://)?(?:dx\\.)?doi\\.org/|doi:\\s*)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * A DOI: {@code 10.}, a registrant code of four or more digits, a slash and a suffix.
+     */
+    private static final Pattern DOI = Pattern.compile("^10\\.[0-9]{4,}/\\S+$");
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private Identifiers() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Canonicalizes an ISBN to the 13 digits of its ISBN-13.
+     *
+     * @param isbn the ISBN as entered, ISBN-10 or ISBN-13, with or without separators
+     * @return the ISBN-13 digits, or null if the value is null or not a valid ISBN
+     */
+    public static String canonicalIsbn(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        String label = ISBN_LABEL.matcher(isbn.trim()).replaceFirst("");
+        String digits = ISBN_SEPARATORS.matcher(label).replaceAll("").toUpperCase(Locale.ROOT);
+        if (digits.length() == ISBN_10_LENGTH) {
+            return isValidIsbn10(digits) ? toIsbn13(digits) : null;
+        }
+        if (digits.length() == ISBN_13_LENGTH && ISBN_13.matcher(digits).matches()
+                && isbn13CheckDigit(digits) == Character.getNumericValue(
+                        digits.charAt(ISBN_13_LENGTH - 1))) {
+            return digits;
+        }
+        return null;
+    }
+
+    /**
+     * Canonicalizes a DOI: strips a resolver URL or {@code doi:} prefix and lower-cases it.
+     *
+     * @param doi the DOI as entered, e.g. {@code https://doi.org/10.1038/Nature14539}
+     * @return the bare lower-case DOI, e.g. {@code 10.1038/nature14539}, or null if the value
+     *         is null or not a DOI
+     */
+    public static String canonicalDoi(String doi) {
+        if (doi == null) {
+            return null;
+        }
+        String bare = DOI_PREFIX.matcher(doi.trim()).replaceFirst("").toLowerCase(Locale.ROOT);
+        return DOI.matcher(bare).matches() ? bare : null;
+    }
+
+    /**
+     * Checks the format and check character of an ISBN-10.
+     *
+     * @param isbn10 the ten characters of the ISBN-10
+     * @return true if the ISBN-10 is valid
+     */
+    private static boolean isValidIsbn10(String isbn10) {
+        if (!ISBN_10.matcher(isbn10).matches()) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < ISBN_10_LENGTH; i++) {
+            char c = isbn10.charAt(i);
+            int value = c == 'X' ? ISBN_10_X_VALUE : Character.getNumericValue(c);
+            sum += value * (ISBN_10_LENGTH - i);
+        }
+        return sum % ISBN_10_MODULUS == 0;
+    }
+
+    /**
+     * Converts a valid ISBN-10 to its ISBN-13.
+     *
+     * @param isbn10 the ten characters of the ISBN-10
+     * @return the thirteen digits of the ISBN-13
+     */
+    private static String toIsbn13(String isbn10) {
+        String withoutCheck = ISBN_10_PREFIX + isbn10.substring(0, ISBN_10_LENGTH - 1);
+        return withoutCheck + isbn13CheckDigit(withoutCheck);
+    }
+
+    /**
+     * Computes the ISBN-13 check digit of the first twelve digits.
+     *
+     * @param digits at least the first twelve digits of an ISBN-13
+     * @return the check digit
+     */
+    private static int isbn13CheckDigit(String digits) {
+        int sum = 0;
+        for (int i = 0; i < ISBN_13_LENGTH - 1; i++) {
+            int digit = Character.getNumericValue(digits.charAt(i));
+            sum += i % 2 == 0 ? digit : digit * ISBN_13_ODD_MULTIPLIER;
+        }
+        return (BASE_10 - sum % BASE_10) % BASE_10;
+    }
+}
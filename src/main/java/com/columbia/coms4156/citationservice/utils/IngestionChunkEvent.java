@@ -0,0 +1,116 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one batch of sources ingested into a submission group. Its
+ * duration is the time the batch took, including its database writes.
+ */
+@Name("citationservice.IngestionChunk")
+@Label("Ingestion Chunk")
+@Category("Citation Service")
+@Description("One batch of sources added to a submission group")
+@StackTrace(false)
+public final class IngestionChunkEvent extends Event {
+
+    /**
+     * The ID of the submission group the sources were added to.
+     */
+    @Label("Submission ID")
+    private long submissionId;
+
+    /**
+     * The number of sources in the batch.
+     */
+    @Label("Sources")
+    private int sources;
+
+    /**
+     * The number of citations the batch produced.
+     */
+    @Label("Citations")
+    private int citations;
+
+    /**
+     * The number of errors reported for the batch, e.g. for unsupported media types.
+     */
+    @Label("Errors")
+    private int errors;
+
+    /**
+     * Sets the ID of the submission group.
+     *
+     * @param submissionIdParam the submission ID
+     */
+    public void setSubmissionId(long submissionIdParam) {
+        this.submissionId = submissionIdParam;
+    }
+
+    /**
+     * Gets the ID of the submission group the sources were added to.
+     *
+     * @return the submissionId
+     */
+    public long getSubmissionId() {
+        return submissionId;
+    }
+
+    /**
+     * Sets the number of sources in the batch.
+     *
+     * @param sourcesParam the number of sources
+     */
+    public void setSources(int sourcesParam) {
+        this.sources = sourcesParam;
+    }
+
+    /**
+     * Gets the number of sources in the batch.
+     *
+     * @return the sources
+     */
+    public int getSources() {
+        return sources;
+    }
+
+    /**
+     * Sets the number of citations the batch produced.
+     *
+     * @param citationsParam the number of citations
+     */
+    public void setCitations(int citationsParam) {
+        this.citations = citationsParam;
+    }
+
+    /**
+     * Gets the number of citations the batch produced.
+     *
+     * @return the citations
+     */
+    public int getCitations() {
+        return citations;
+    }
+
+    /**
+     * Sets the number of errors reported for the batch.
+     *
+     * @param errorsParam the number of errors
+     */
+    public void setErrors(int errorsParam) {
+        this.errors = errorsParam;
+    }
+
+    /**
+     * Gets the number of errors reported for the batch, e.g. for unsupported media types.
+     *
+     * @return the errors
+     */
+    public int getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,69 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import com.columbia.coms4156.citationservice.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Utility class for encoding and decoding opaque keyset pagination cursors.
+ * A cursor records the ID of the last row a client has seen; the next page
+ * starts strictly after it, so every page is an index range scan on the ID
+ * column no matter how deep the client pages.
+ */
+public final class KeysetCursor {
+
+    /**
+     * Prefix identifying the cursor format, so the encoding can evolve later.
+     */
+    private static final String ID_PREFIX = "id:";
+
+    /**
+     * Private constructor to prevent instantiation.
+     * This is a utility class with only static methods.
+     */
+    private KeysetCursor() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Encodes the ID of the last row on a page as an opaque cursor.
+     *
+     * @param lastId the ID of the last row returned
+     * @return the URL-safe cursor token
+     */
+    public static String encode(Long lastId) {
+        if (lastId == null) {
+            throw new IllegalArgumentException("Cursor ID cannot be null");
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((ID_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor into the ID after which the next page starts.
+     *
+     * @param cursor the cursor token, or null/blank for the first page
+     * @return the ID to page after (0 for the first page)
+     * @throws ValidationException if the cursor is malformed
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()),
+                    StandardCharsets.UTF_8);
+            if (!decoded.startsWith(ID_PREFIX)) {
+                throw new ValidationException("Invalid cursor: " + cursor);
+            }
+            long id = Long.parseLong(decoded.substring(ID_PREFIX.length()));
+            if (id < 0) {
+                throw new ValidationException("Invalid cursor: " + cursor);
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
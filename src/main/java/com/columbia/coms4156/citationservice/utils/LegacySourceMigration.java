@@ -0,0 +1,293 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import com.columbia.coms4156.citationservice.model.MediaType;
+import com.columbia.coms4156.citationservice.model.Source;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Moves sources out of the per-type {@code books}, {@code videos} and {@code articles}
+ * tables used before all media types shared the {@code sources} table, so a database
+ * upgraded in place by {@code ddl-auto=update} keeps rendering its existing submissions.
+ *
+ * <p>For each legacy table that still exists, every row is copied into {@code sources}
+ * (reusing a source that already has the same media type and de-duplication key), the
+ * citations that referenced it through {@code media_id} are pointed at the copy through
+ * {@code source_id}, and the table is renamed to {@code <name>_legacy} so the copy runs only
+ * once. Each table is migrated in its own transaction. Citation media types are stored in
+ * lower case, as they always were, so they need no conversion.</p>
+ *
+ * <p>The migration runs before the other application runners (the warmup among them), so
+ * it finishes before the instance reports ready. On a fresh database there is nothing to
+ * migrate and it returns at once.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LegacySourceMigration implements ApplicationRunner {
+
+  /**
+   * Logger for the migration's progress.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(LegacySourceMigration.class);
+
+  /**
+   * Suffix appended to the name of a legacy table once it has been migrated.
+   */
+  static final String MIGRATED_SUFFIX = "_legacy";
+
+  /**
+   * The legacy tables and their type-specific columns.
+   */
+  private static final List<LegacyTable> LEGACY_TABLES = List.of(
+      new LegacyTable("books", MediaType.BOOK, List.of(
+          "publisher", "publication_year", "city", "edition", "isbn")),
+      new LegacyTable("videos", MediaType.VIDEO, List.of(
+          "director", "duration_seconds", "platform", "url", "release_year")),
+      new LegacyTable("articles", MediaType.ARTICLE, List.of(
+          "journal", "volume", "issue", "pages", "doi", "url", "publication_year")));
+
+  /**
+   * JDBC template bound to the application data source.
+   */
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Runs each table's migration in its own transaction.
+   */
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Entity manager factory; waited for so Hibernate's schema update has run first.
+   */
+  private final EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Constructs a new LegacySourceMigration.
+   *
+   * @param jdbcTemplateParam the JDBC template to migrate with
+   * @param transactionManagerParam the transaction manager of the application data source
+   * @param entityManagerFactoryParam the JPA entity manager factory
+   */
+  public LegacySourceMigration(NamedParameterJdbcTemplate jdbcTemplateParam,
+                               PlatformTransactionManager transactionManagerParam,
+                               EntityManagerFactory entityManagerFactoryParam) {
+    this.jdbcTemplate = jdbcTemplateParam;
+    this.transactionTemplate = new TransactionTemplate(transactionManagerParam);
+    this.entityManagerFactory = entityManagerFactoryParam;
+  }
+
+  /**
+   * Migrates every legacy table that still exists.
+   *
+   * @param args the application arguments (not used)
+   */
+  @Override
+  public void run(ApplicationArguments args) {
+    // Blocks until the (deferred) Hibernate bootstrap, and so its schema update, has finished
+    entityManagerFactory.getMetamodel();
+    if (!tableHasColumn("citations", "media_id")) {
+      return;
+    }
+    boolean migratedAny = false;
+    for (LegacyTable table : LEGACY_TABLES) {
+      if (tableExists(table.getName())) {
+        Integer migrated = transactionTemplate.execute(status -> migrate(table));
+        migratedAny = true;
+        if (LOGGER.isInfoEnabled()) {
+          LOGGER.info("Migrated {} rows of legacy table {} into sources", migrated,
+              table.getName());
+        }
+      }
+    }
+    if (migratedAny) {
+      // The copies bypass Hibernate, so nothing cached before them can be trusted
+      entityManagerFactory.getCache().evictAll();
+    }
+  }
+
+  /**
+   * Copies one legacy table into the sources table, repoints its citations and renames it.
+   *
+   * @param table the legacy table
+   * @return the number of rows copied
+   */
+  private int migrate(LegacyTable table) {
+    String mediaType = table.getMediaType().getValue();
+    String columns = String.join(", ", table.getColumns());
+    int[] migrated = {0};
+    jdbcTemplate.query("SELECT id, title, author, " + columns + " FROM " + table.getName()
+        + " ORDER BY id", new MapSqlParameterSource(), rs -> {
+          Long sourceId = copy(table, rs);
+          jdbcTemplate.update("UPDATE citations SET source_id = :sourceId,"
+              + " media_type = :mediaType WHERE media_id = :legacyId"
+              + " AND LOWER(media_type) = :mediaType AND source_id IS NULL",
+              new MapSqlParameterSource("sourceId", sourceId)
+                  .addValue("mediaType", mediaType)
+                  .addValue("legacyId", rs.getLong("id")));
+          migrated[0]++;
+        });
+    jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE " + table.getName()
+        + " RENAME TO " + table.getName() + MIGRATED_SUFFIX);
+    return migrated[0];
+  }
+
+  /**
+   * Copies the current row of a legacy table into the sources table, unless a source with
+   * the same media type and de-duplication key exists already.
+   *
+   * @param table the legacy table
+   * @param rs the result set positioned on the row
+   * @return the ID of the copy or of the existing source
+   * @throws SQLException if the row cannot be read
+   */
+  private Long copy(LegacyTable table, ResultSet rs) throws SQLException {
+    String mediaType = table.getMediaType().getValue();
+    String dedupeKey = Source.dedupeKeyOf(rs.getString("title"), rs.getString("author"));
+    MapSqlParameterSource params = new MapSqlParameterSource("mediaType", mediaType)
+        .addValue("title", rs.getString("title"))
+        .addValue("author", rs.getString("author"))
+        .addValue("dedupeKey", dedupeKey);
+    List<Long> existing = jdbcTemplate.queryForList("SELECT id FROM sources"
+        + " WHERE media_type = :mediaType AND dedupe_key = :dedupeKey", params, Long.class);
+    if (!existing.isEmpty()) {
+      return existing.get(0);
+    }
+    for (String column : table.getColumns()) {
+      params.addValue(column, rs.getObject(column));
+    }
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    jdbcTemplate.update("INSERT INTO sources (media_type, title, author, dedupe_key, "
+        + String.join(", ", table.getColumns()) + ") VALUES (:mediaType, :title, :author,"
+        + " :dedupeKey, " + table.getColumns().stream().map(column -> ":" + column)
+            .collect(Collectors.joining(", ")) + ")",
+        params, keyHolder, new String[] {"id"});
+    return keyHolder.getKey().longValue();
+  }
+
+  /**
+   * Checks whether a table exists, whatever case the database stores its name in.
+   *
+   * @param table the table name in lower case
+   * @return true if the table exists
+   */
+  private boolean tableExists(String table) {
+    return Boolean.TRUE.equals(jdbcTemplate.getJdbcTemplate().execute(
+        (ConnectionCallback<Boolean>) connection -> {
+          DatabaseMetaData metaData = connection.getMetaData();
+          return hasRow(metaData.getTables(null, null, table, new String[] {"TABLE"}))
+              || hasRow(metaData.getTables(null, null, table.toUpperCase(Locale.ROOT),
+                  new String[] {"TABLE"}));
+        }));
+  }
+
+  /**
+   * Checks whether a table has a column, whatever case the database stores names in.
+   *
+   * @param table the table name in lower case
+   * @param column the column name in lower case
+   * @return true if the table has the column
+   */
+  private boolean tableHasColumn(String table, String column) {
+    return Boolean.TRUE.equals(jdbcTemplate.getJdbcTemplate().execute(
+        (ConnectionCallback<Boolean>) connection -> {
+          DatabaseMetaData metaData = connection.getMetaData();
+          return hasRow(metaData.getColumns(null, null, table, column))
+              || hasRow(metaData.getColumns(null, null, table.toUpperCase(Locale.ROOT),
+                  column.toUpperCase(Locale.ROOT)));
+        }));
+  }
+
+  /**
+   * Checks whether a metadata result set has a row, closing it.
+   *
+   * @param rs the result set
+   * @return true if it has at least one row
+   * @throws SQLException if the result set cannot be read
+   */
+  private static boolean hasRow(ResultSet rs) throws SQLException {
+    try (rs) {
+      return rs.next();
+    }
+  }
+
+  /**
+   * A legacy per-type table and the type-specific columns it shares with the sources table.
+   */
+  private static final class LegacyTable {
+
+    /**
+     * The table name.
+     */
+    private final String name;
+
+    /**
+     * The media type of the rows.
+     */
+    private final MediaType mediaType;
+
+    /**
+     * The type-specific columns, besides id, title and author.
+     */
+    private final List<String> columns;
+
+    /**
+     * Constructs a new LegacyTable.
+     *
+     * @param nameParam the table name
+     * @param mediaTypeParam the media type of the rows
+     * @param columnsParam the type-specific columns
+     */
+    LegacyTable(String nameParam, MediaType mediaTypeParam, List<String> columnsParam) {
+      this.name = nameParam;
+      this.mediaType = mediaTypeParam;
+      this.columns = columnsParam;
+    }
+
+    /**
+     * Gets the table name.
+     *
+     * @return the table name
+     */
+    String getName() {
+      return name;
+    }
+
+    /**
+     * Gets the media type of the rows.
+     *
+     * @return the media type
+     */
+    MediaType getMediaType() {
+      return mediaType;
+    }
+
+    /**
+     * Gets the type-specific columns.
+     *
+     * @return the column names
+     */
+    List<String> getColumns() {
+      return columns;
+    }
+  }
+}
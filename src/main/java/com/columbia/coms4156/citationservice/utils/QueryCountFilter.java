@@ -0,0 +1,119 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import com.columbia.coms4156.citationservice.service.MetricsService;
+import com.columbia.coms4156.citationservice.service.QueryStatsService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter recording how many SQL statements each request issued and how long
+ * they took, per endpoint.
+ *
+ * <p>The thread's statement counts are reset when the request starts and read when it
+ * completes. The totals go to {@link QueryStatsService} for {@code /api/admin/query-stats},
+ * and each request is recorded through {@link MetricsService} as a distribution of
+ * statements and a timer of SQL time, tagged with the endpoint's method and URI pattern, so
+ * they can be graphed and alerted on per endpoint. Requests issuing more statements
+ * than {@code query-count.warn-threshold} are logged as warnings, since that usually means
+ * an N+1 access pattern.</p>
+ */
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+  /** Logger for this class. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryCountFilter.class);
+
+  /**
+   * Endpoint name used for requests that did not match a handler.
+   */
+  private static final String UNMAPPED = "unmapped";
+
+  /**
+   * Service aggregating statement counts per endpoint.
+   */
+  private final QueryStatsService queryStatsService;
+
+  /**
+   * Service recording the per-request statement metrics.
+   */
+  private final MetricsService metricsService;
+
+  /**
+   * Number of statements above which a request is logged as a warning.
+   */
+  private final long warnThreshold;
+
+  /**
+   * Constructs a new QueryCountFilter.
+   *
+   * @param queryStatsServiceParam the service aggregating statement counts
+   * @param metricsServiceParam the service recording the per-request metrics
+   * @param warnThresholdParam the statement count above which a request is logged as a warning
+   */
+  public QueryCountFilter(QueryStatsService queryStatsServiceParam,
+                          MetricsService metricsServiceParam,
+                          @Value("${query-count.warn-threshold:100}") long warnThresholdParam) {
+    this.queryStatsService = queryStatsServiceParam;
+    this.metricsService = metricsServiceParam;
+    this.warnThreshold = warnThresholdParam;
+  }
+
+  /**
+   * Resets the statement counts, runs the request, then records the counts it produced.
+   *
+   * @param request the HTTP request
+   * @param response the HTTP response
+   * @param filterChain the remaining filters
+   * @throws ServletException if a later filter or the handler fails
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain)
+      throws ServletException, IOException {
+    QueryCountHolder.clear();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      QueryCount count = QueryCountHolder.getGrandTotal();
+      QueryCountHolder.clear();
+      String pattern = endpointPattern(request);
+      String endpoint = request.getMethod() + " " + pattern;
+      queryStatsService.record(endpoint, count.getTotal(), count.getTime());
+      metricsService.recordRequestQueries(request.getMethod(), pattern, count.getTotal(),
+          count.getTime());
+      if (count.getTotal() > warnThreshold) {
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn("{} issued {} SQL statements ({} ms), above the threshold of {}",
+              endpoint, count.getTotal(), count.getTime(), warnThreshold);
+        }
+      } else if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("{} issued {} SQL statements ({} ms)",
+            endpoint, count.getTotal(), count.getTime());
+      }
+    }
+  }
+
+  /**
+   * Gets the handler's URI pattern, so requests for different IDs share one endpoint.
+   *
+   * @param request the completed HTTP request
+   * @return the matched URI pattern, or "unmapped" if no handler matched
+   */
+  private static String endpointPattern(HttpServletRequest request) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return pattern != null ? pattern.toString() : UNMAPPED;
+  }
+}
@@ -0,0 +1,42 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application data source in a proxy that counts and times every SQL statement.
+ *
+ * <p>Counts are kept per thread in {@link net.ttddyy.dsproxy.QueryCountHolder}, so the
+ * statements issued while serving one request (or running one test operation) can be read
+ * back after it completes. See {@link QueryCountFilter}.</p>
+ */
+@Component
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+  /**
+   * Name the proxied data source is registered under in the query counts.
+   */
+  public static final String DATA_SOURCE_NAME = "citation-db";
+
+  /**
+   * Wraps data source beans in the counting proxy; other beans are returned unchanged.
+   *
+   * @param bean the initialized bean
+   * @param beanName the name of the bean
+   * @return the proxied data source, or the bean itself
+   */
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+      return ProxyDataSourceBuilder.create((DataSource) bean)
+          .name(DATA_SOURCE_NAME)
+          .countQuery()
+          .build();
+    }
+    return bean;
+  }
+}
@@ -0,0 +1,190 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Configures the application data source, adding a read replica when one is configured.
+ *
+ * <p>The primary pool is built from the usual {@code spring.datasource.*} properties. When
+ * {@code spring.datasource.replica.url} is set, a second pool is opened against it and
+ * read-only transactions are routed there by {@link ReadReplicaRoutingDataSource}; the
+ * replica uses the primary's user, password and driver unless its own are set. Without a
+ * replica URL, the primary pool is used for everything, as before.</p>
+ *
+ * <p>Pool settings are bound from {@code spring.datasource.hikari.*} for the primary and
+ * {@code spring.datasource.replica.hikari.*} for the replica, as Spring Boot does for its
+ * own pool. The replica is given a short connection timeout so a read falls back to the
+ * primary quickly when the replica is down, and it is skipped for
+ * {@code spring.datasource.replica.retry-after} after a failure.</p>
+ *
+ * <p>Both pools report to the meter registry under their pool name, so the time requests
+ * wait for a connection ({@code hikaricp.connections.acquire}) can be told apart per
+ * database.</p>
+ */
+@Configuration
+public class ReadReplicaDataSourceConfig {
+
+  /**
+   * Pool name of the primary database connections.
+   */
+  private static final String PRIMARY_POOL_NAME = "primary";
+
+  /**
+   * Pool name of the read replica connections.
+   */
+  private static final String REPLICA_POOL_NAME = "replica";
+
+  /**
+   * Pool settings of the primary: the {@code spring.datasource.*} connection settings,
+   * overlaid with {@code spring.datasource.hikari.*}.
+   *
+   * @param properties the {@code spring.datasource.*} properties of the primary
+   * @return the primary pool settings
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariConfig primaryHikariConfig(DataSourceProperties properties) {
+    return connectionSettings(properties, properties.determineUrl(),
+        properties.determineUsername(), properties.determinePassword());
+  }
+
+  /**
+   * Pool settings of the read replica: its URL and credentials, falling back to the
+   * primary's user and password, overlaid with {@code spring.datasource.replica.hikari.*}.
+   *
+   * @param properties the {@code spring.datasource.*} properties of the primary
+   * @param replicaUrl the JDBC URL of the read replica; empty for none
+   * @param replicaUsername the replica user; empty to use the primary's
+   * @param replicaPassword the replica password; empty to use the primary's
+   * @return the replica pool settings
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.replica.hikari")
+  public HikariConfig replicaHikariConfig(DataSourceProperties properties,
+                                          @Value("${spring.datasource.replica.url:}")
+                                          String replicaUrl,
+                                          @Value("${spring.datasource.replica.username:}")
+                                          String replicaUsername,
+                                          @Value("${spring.datasource.replica.password:}")
+                                          String replicaPassword) {
+    return connectionSettings(properties, replicaUrl,
+        replicaUsername.isBlank() ? properties.determineUsername() : replicaUsername,
+        replicaPassword.isBlank() ? properties.determinePassword() : replicaPassword);
+  }
+
+  /**
+   * Creates the application data source: the primary pool alone, or the primary and the
+   * replica behind a routing data source.
+   *
+   * @param primaryConfig the pool settings of the primary
+   * @param replicaConfig the pool settings of the replica
+   * @param replicaRetryAfter how long the replica is skipped after it failed to connect
+   * @param meterRegistry the registry the pools report their metrics to, if any
+   * @return the data source
+   */
+  @Bean
+  public DataSource dataSource(@Qualifier("primaryHikariConfig") HikariConfig primaryConfig,
+                               @Qualifier("replicaHikariConfig") HikariConfig replicaConfig,
+                               @Value("${spring.datasource.replica.retry-after:30s}")
+                               Duration replicaRetryAfter,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+    MeterRegistry registry = meterRegistry.getIfAvailable();
+    HikariDataSource primary = pool(primaryConfig, PRIMARY_POOL_NAME, false, registry);
+    if (replicaConfig.getJdbcUrl() == null || replicaConfig.getJdbcUrl().isBlank()) {
+      return primary;
+    }
+    return new RoutingDataSourceProxy(new ReadReplicaRoutingDataSource(primary,
+        pool(replicaConfig, REPLICA_POOL_NAME, true, registry), replicaRetryAfter));
+  }
+
+  /**
+   * Creates pool settings holding the connection settings of a database.
+   *
+   * @param properties the {@code spring.datasource.*} properties, supplying the driver
+   * @param url the JDBC URL
+   * @param username the database user
+   * @param password the user's password
+   * @return the pool settings
+   */
+  private static HikariConfig connectionSettings(DataSourceProperties properties, String url,
+                                                 String username, String password) {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(url);
+    config.setUsername(username);
+    config.setPassword(password);
+    config.setDriverClassName(properties.determineDriverClassName());
+    return config;
+  }
+
+  /**
+   * Builds a named Hikari connection pool. The pool is not started until the first
+   * connection is requested.
+   *
+   * @param config the bound pool settings
+   * @param poolName the name of the pool, shown in its logs and metrics
+   * @param readOnly whether the pool's connections are read-only
+   * @param registry the registry to report the pool's metrics to, or null for none
+   * @return the pool
+   */
+  private static HikariDataSource pool(HikariConfig config, String poolName, boolean readOnly,
+                                       MeterRegistry registry) {
+    HikariDataSource pool = new HikariDataSource();
+    config.copyStateTo(pool);
+    pool.setPoolName(poolName);
+    pool.setReadOnly(readOnly);
+    if (registry != null) {
+      pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+    }
+    return pool;
+  }
+
+  /**
+   * Defers fetching a connection until the first statement, by which time the
+   * transaction's read-only flag is set and the connection can be routed. Closing it
+   * closes both pools when the application shuts down.
+   */
+  static final class RoutingDataSourceProxy extends LazyConnectionDataSourceProxy
+      implements Closeable {
+
+    /**
+     * The routing data source connections are fetched from.
+     */
+    private final ReadReplicaRoutingDataSource routing;
+
+    /**
+     * Constructs a new RoutingDataSourceProxy.
+     *
+     * @param routingParam the routing data source
+     */
+    RoutingDataSourceProxy(ReadReplicaRoutingDataSource routingParam) {
+      super(routingParam);
+      this.routing = routingParam;
+    }
+
+    /**
+     * Closes the connection pools behind the routing data source.
+     *
+     * @throws IOException if a pool fails to close
+     */
+    @Override
+    public void close() throws IOException {
+      routing.close();
+    }
+  }
+}
@@ -0,0 +1,205 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Data source sending read-only transactions to a read replica and everything else to
+ * the primary database.
+ *
+ * <p>The route is picked from the current transaction when a connection is requested:
+ * {@code @Transactional(readOnly = true)} work goes to the replica, and work outside a
+ * transaction or in a read-write one goes to the primary. If the replica cannot hand out
+ * a connection, the request falls back to the primary so reads keep working while the
+ * replica is down, and the replica is skipped for a while so later reads do not each wait
+ * for it to time out again. Wrap this data source in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * connection is only requested once the transaction's read-only flag has been set.</p>
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource
+    implements Closeable {
+
+  /** Logger for this class. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+  /** Nanoseconds in a millisecond. */
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+
+  /**
+   * The databases a connection can be routed to.
+   */
+  public enum Route {
+    /** The primary database, taking all writes. */
+    PRIMARY,
+    /** The read replica, taking read-only transactions. */
+    REPLICA
+  }
+
+  /**
+   * The primary database, also used when the replica is unavailable.
+   */
+  private final DataSource primary;
+
+  /**
+   * The read replica.
+   */
+  private final DataSource replica;
+
+  /**
+   * How long, in nanoseconds, the replica is skipped after it failed to give a connection.
+   */
+  private final long retryAfterNanos;
+
+  /**
+   * {@link System#nanoTime()} before which the replica is skipped; 0 while it is healthy.
+   */
+  private final AtomicLong replicaDownUntil = new AtomicLong();
+
+  /**
+   * Constructs a new ReadReplicaRoutingDataSource.
+   *
+   * @param primaryParam the primary database
+   * @param replicaParam the read replica
+   * @param retryAfterParam how long the replica is skipped after it failed to connect
+   */
+  public ReadReplicaRoutingDataSource(DataSource primaryParam, DataSource replicaParam,
+                                      Duration retryAfterParam) {
+    this.primary = primaryParam;
+    this.replica = replicaParam;
+    this.retryAfterNanos = retryAfterParam.toNanos();
+    setTargetDataSources(Map.of(Route.PRIMARY, primaryParam, Route.REPLICA, replicaParam));
+    setDefaultTargetDataSource(primaryParam);
+    afterPropertiesSet();
+  }
+
+  /**
+   * Gets the pools reads and writes are routed between.
+   *
+   * @return the primary and the replica data source
+   */
+  public List<DataSource> getPools() {
+    return List.of(primary, replica);
+  }
+
+  /**
+   * Routes read-only transactions to the replica and everything else to the primary.
+   *
+   * @return the route for the current thread
+   */
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        ? Route.REPLICA : Route.PRIMARY;
+  }
+
+  /**
+   * Gets a connection from the routed database, falling back to the primary if the
+   * replica cannot provide one or failed to recently.
+   *
+   * @return the connection
+   * @throws SQLException if the primary cannot provide a connection either
+   */
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (!useReplica()) {
+      return primary.getConnection();
+    }
+    try {
+      return replicaConnected(replica.getConnection());
+    } catch (SQLException e) {
+      replicaFailed(e);
+      return primary.getConnection();
+    }
+  }
+
+  /**
+   * Gets a connection for the given credentials from the routed database, falling back
+   * to the primary if the replica cannot provide one or failed to recently.
+   *
+   * @param username the database user
+   * @param password the user's password
+   * @return the connection
+   * @throws SQLException if the primary cannot provide a connection either
+   */
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    if (!useReplica()) {
+      return primary.getConnection(username, password);
+    }
+    try {
+      return replicaConnected(replica.getConnection(username, password));
+    } catch (SQLException e) {
+      replicaFailed(e);
+      return primary.getConnection(username, password);
+    }
+  }
+
+  /**
+   * Checks whether the current work should go to the replica: it is read-only and the
+   * replica has not failed within the retry interval.
+   *
+   * @return true to ask the replica for the connection
+   */
+  private boolean useReplica() {
+    if (Route.PRIMARY.equals(determineCurrentLookupKey())) {
+      return false;
+    }
+    long downUntil = replicaDownUntil.get();
+    return downUntil == 0 || System.nanoTime() - downUntil >= 0;
+  }
+
+  /**
+   * Marks the replica healthy again once it has handed out a connection.
+   *
+   * @param connection the replica connection
+   * @return the connection
+   */
+  private Connection replicaConnected(Connection connection) {
+    if (replicaDownUntil.get() != 0 && replicaDownUntil.getAndSet(0) != 0) {
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("Read replica available again");
+      }
+    }
+    return connection;
+  }
+
+  /**
+   * Skips the replica for the retry interval after it failed to give a connection.
+   *
+   * @param e the failure
+   */
+  private void replicaFailed(SQLException e) {
+    replicaDownUntil.set(System.nanoTime() + retryAfterNanos);
+    if (LOGGER.isWarnEnabled()) {
+      LOGGER.warn("Read replica unavailable, reading from the primary for {} ms: {}",
+          retryAfterNanos / NANOS_PER_MILLI, e.getMessage());
+    }
+  }
+
+  /**
+   * Closes the connection pools of both databases.
+   *
+   * @throws IOException if a pool fails to close
+   */
+  @Override
+  public void close() throws IOException {
+    if (replica instanceof Closeable) {
+      ((Closeable) replica).close();
+    }
+    if (primary instanceof Closeable) {
+      ((Closeable) primary).close();
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Wraps the application's repositories so every call is observed, giving one trace span
+ * (and one {@value #OBSERVATION_NAME} timer sample) per repository method call.
+ *
+ * <p>Both Spring Data repositories and the JDBC {@code @Repository} classes are covered.
+ * Each observation's contextual name is the repository and method, e.g.
+ * {@code SourceRepository.findById}; Micrometer Tracing lower-hyphenates it into the span
+ * name {@code source-repository.find-by-id}. A slow request's trace thus shows which
+ * queries it spent its time in. Calls made before the observation registry exists (during startup)
+ * are not observed.</p>
+ */
+@Component
+public class RepositoryObservationPostProcessor implements BeanPostProcessor {
+
+  /**
+   * Name of the observation recorded for each repository call.
+   */
+  public static final String OBSERVATION_NAME = "citation.repository";
+
+  /**
+   * Package the application's repositories live in.
+   */
+  private static final String REPOSITORY_PACKAGE =
+      "com.columbia.coms4156.citationservice.repository";
+
+  /**
+   * Registry the observations are recorded with, resolved on first use.
+   */
+  private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+  /**
+   * Constructs a new RepositoryObservationPostProcessor.
+   *
+   * @param observationRegistryParam provides the registry to record observations with
+   */
+  public RepositoryObservationPostProcessor(
+      ObjectProvider<ObservationRegistry> observationRegistryParam) {
+    this.observationRegistry = observationRegistryParam;
+  }
+
+  /**
+   * Adds the observing interceptor to the application's repositories; other beans are
+   * returned unchanged.
+   *
+   * @param bean the initialized bean
+   * @param beanName the name of the bean
+   * @return the observed repository, or the bean itself
+   */
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    String repositoryName = repositoryName(bean);
+    if (repositoryName == null) {
+      return bean;
+    }
+    MethodInterceptor interceptor = new ObservingInterceptor(repositoryName);
+    if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+      ((Advised) bean).addAdvice(0, interceptor);
+      return bean;
+    }
+    ProxyFactory proxyFactory = new ProxyFactory(bean);
+    proxyFactory.setProxyTargetClass(!(bean instanceof Repository));
+    proxyFactory.addAdvice(interceptor);
+    return proxyFactory.getProxy(ClassUtils.getDefaultClassLoader());
+  }
+
+  /**
+   * Gets the name spans of a repository bean are prefixed with.
+   *
+   * @param bean the bean
+   * @return the simple name of the repository interface or class, or null if the bean is
+   *         not one of the application's repositories
+   */
+  private static String repositoryName(Object bean) {
+    if (bean instanceof Repository) {
+      for (Class<?> type : ClassUtils.getAllInterfaces(bean)) {
+        if (Repository.class.isAssignableFrom(type)
+            && type.getPackageName().startsWith(REPOSITORY_PACKAGE)) {
+          return type.getSimpleName();
+        }
+      }
+      return null;
+    }
+    Class<?> type = AopUtils.getTargetClass(bean);
+    if (type.getPackageName().startsWith(REPOSITORY_PACKAGE)
+        && AnnotatedElementUtils.hasAnnotation(type,
+            org.springframework.stereotype.Repository.class)) {
+      return ClassUtils.getUserClass(type).getSimpleName();
+    }
+    return null;
+  }
+
+  /**
+   * Runs each repository call inside an observation named after the repository and method.
+   */
+  private final class ObservingInterceptor implements MethodInterceptor {
+
+    /**
+     * Simple name of the observed repository.
+     */
+    private final String repositoryName;
+
+    /**
+     * Constructs a new ObservingInterceptor.
+     *
+     * @param repositoryNameParam the simple name of the observed repository
+     */
+    ObservingInterceptor(String repositoryNameParam) {
+      this.repositoryName = repositoryNameParam;
+    }
+
+    /**
+     * Observes the call, unless it is an {@link Object} method or no registry exists yet.
+     *
+     * @param invocation the repository method call
+     * @return the result of the call
+     * @throws Throwable whatever the call throws
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+      ObservationRegistry registry = observationRegistry.getIfAvailable();
+      if (registry == null || ReflectionUtils.isObjectMethod(invocation.getMethod())) {
+        return invocation.proceed();
+      }
+      String method = invocation.getMethod().getName();
+      return Observation.createNotStarted(OBSERVATION_NAME, registry)
+          .contextualName(repositoryName + "." + method)
+          .lowCardinalityKeyValue("repository", repositoryName)
+          .lowCardinalityKeyValue("method", method)
+          .observeChecked(invocation::proceed);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Servlet filter deciding once per request whether its INFO and DEBUG logs are kept.
+ *
+ * <p>A request is sampled with probability {@code logging.request-sample-rate}. For an
+ * unsampled request, {@link #MDC_KEY} is set for the request's duration and
+ * {@link RequestLogSamplingTurboFilter} drops its log events below WARN, so a request's
+ * logs are either all there or, apart from warnings and errors, all gone. With the
+ * default rate of 1.0 every request is logged.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLogSamplingFilter extends OncePerRequestFilter {
+
+  /**
+   * MDC key set to "false" while an unsampled request is being served.
+   */
+  public static final String MDC_KEY = "logSampled";
+
+  /**
+   * Probability that a request's logs are kept, from 0.0 to 1.0.
+   */
+  private final double sampleRate;
+
+  /**
+   * Constructs a new RequestLogSamplingFilter.
+   *
+   * @param sampleRateParam the probability that a request's logs are kept
+   */
+  public RequestLogSamplingFilter(
+      @Value("${logging.request-sample-rate:1.0}") double sampleRateParam) {
+    this.sampleRate = sampleRateParam;
+  }
+
+  /**
+   * Marks the request as unsampled with probability {@code 1 - sampleRate}, then serves it.
+   *
+   * @param request the HTTP request
+   * @param response the HTTP response
+   * @param filterChain the rest of the filter chain
+   * @throws ServletException if a later filter or the handler fails
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain)
+      throws ServletException, IOException {
+    if (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    MDC.put(MDC_KEY, "false");
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      MDC.remove(MDC_KEY);
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Logback turbo filter dropping the INFO and DEBUG events of requests that
+ * {@link RequestLogSamplingFilter} left out of the sample. Warnings and errors are always
+ * kept.
+ *
+ * <p>Turbo filters run before a log event is created, so a dropped event costs one MDC
+ * lookup; {@code LOGGER.isInfoEnabled()} guards also return false for unsampled
+ * requests.</p>
+ */
+public class RequestLogSamplingTurboFilter extends TurboFilter {
+
+  /**
+   * Denies events below WARN while an unsampled request is being served.
+   *
+   * @param marker the event's marker, if any
+   * @param logger the logger
+   * @param level the event's level
+   * @param format the message format
+   * @param params the message parameters
+   * @param t the throwable, if any
+   * @return DENY for dropped events, NEUTRAL otherwise
+   */
+  @Override
+  public FilterReply decide(Marker marker, Logger logger, Level level, String format,
+                            Object[] params, Throwable t) {
+    if (level == null || level.isGreaterOrEqual(Level.WARN)
+        || !"false".equals(MDC.get(RequestLogSamplingFilter.MDC_KEY))) {
+      return FilterReply.NEUTRAL;
+    }
+    return FilterReply.DENY;
+  }
+}
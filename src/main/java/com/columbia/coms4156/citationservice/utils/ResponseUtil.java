@@ -4,6 +4,8 @@ import com.columbia.coms4156.citationservice.model.ErrorResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Instant;
+
 /**
  * Utility class for creating standardized HTTP responses.
  */
@@ -40,6 +42,34 @@ public final class ResponseUtil {
         return success(body, HttpStatus.OK);
     }
 
+    /**
+     * Creates a successful response with HTTP 200 OK status, carrying the version
+     * of the body in the ETag and Last-Modified headers.
+     *
+     * @param body the response body
+     * @param eTag the ETag of the body
+     * @param lastModified when the body last changed, or null if unknown
+     * @param <T> the type of the response body
+     * @return ResponseEntity with the body, validators and HTTP 200 status
+     */
+    public static <T> ResponseEntity<T> ok(T body, String eTag, Instant lastModified) {
+        return withValidators(ResponseEntity.ok(), eTag, lastModified).body(body);
+    }
+
+    /**
+     * Creates an empty response with HTTP 304 NOT MODIFIED status, repeating the
+     * validators of the unchanged resource.
+     *
+     * @param eTag the current ETag of the resource
+     * @param lastModified when the resource last changed, or null if unknown
+     * @param <T> the type the response body would have had
+     * @return ResponseEntity with the validators and HTTP 304 status
+     */
+    public static <T> ResponseEntity<T> notModified(String eTag, Instant lastModified) {
+        return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), eTag, lastModified)
+                .build();
+    }
+
     /**
      * Creates a successful response with HTTP 201 CREATED status.
      *
@@ -60,6 +90,23 @@ public final class ResponseUtil {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    /**
+     * Sets the ETag and, when known, the Last-Modified header on a response.
+     *
+     * @param builder the response builder
+     * @param eTag the ETag
+     * @param lastModified the modification time, or null if unknown
+     * @return the builder
+     */
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder builder,
+                                                             String eTag, Instant lastModified) {
+        builder.eTag(eTag);
+        if (lastModified != null) {
+            builder.lastModified(lastModified);
+        }
+        return builder;
+    }
+
     /**
      * Creates an error response.
      *
@@ -97,6 +144,17 @@ public final class ResponseUtil {
         return error("Not Found", message, HttpStatus.NOT_FOUND, path);
     }
 
+    /**
+     * Creates a conflict error response.
+     *
+     * @param message the detailed error message
+     * @param path the request path that caused the error
+     * @return ResponseEntity containing ErrorResponse with HTTP 409 status
+     */
+    public static ResponseEntity<ErrorResponse> conflict(String message, String path) {
+        return error("Conflict", message, HttpStatus.CONFLICT, path);
+    }
+
     /**
      * Creates an internal server error response.
      *
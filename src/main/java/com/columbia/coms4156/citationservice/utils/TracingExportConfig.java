@@ -0,0 +1,46 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporterBuilder;
+import org.springframework.boot.actuate.autoconfigure.tracing.otlp.OtlpProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+
+/**
+ * Exports trace spans over OTLP/HTTP, but only when {@code management.otlp.tracing.endpoint}
+ * (the {@code OTLP_TRACING_ENDPOINT} variable) is set.
+ *
+ * <p>Spring Boot's own OTLP auto-configuration, excluded in {@code application.properties},
+ * always creates the exporter and falls back to a collector on {@code localhost:4318}, so an
+ * instance without one logged an export failure for every batch of spans. Without an
+ * endpoint, spans are still created, so log lines keep their trace and span IDs, but they
+ * are not sent anywhere.</p>
+ */
+@Configuration
+@EnableConfigurationProperties(OtlpProperties.class)
+public class TracingExportConfig {
+
+  /**
+   * Creates the OTLP/HTTP span exporter from the {@code management.otlp.tracing.*}
+   * properties.
+   *
+   * @param properties the endpoint, timeout, compression and headers to export with
+   * @return the span exporter
+   */
+  @Bean
+  @ConditionalOnExpression("!'${management.otlp.tracing.endpoint:}'.isBlank()")
+  public OtlpHttpSpanExporter otlpHttpSpanExporter(OtlpProperties properties) {
+    OtlpHttpSpanExporterBuilder builder = OtlpHttpSpanExporter.builder()
+        .setEndpoint(properties.getEndpoint())
+        .setTimeout(properties.getTimeout())
+        // The compression enum is package-private, so it is read through Object
+        .setCompression(String.valueOf((Object) properties.getCompression())
+            .toLowerCase(Locale.ROOT));
+    properties.getHeaders().forEach(builder::addHeader);
+    return builder.build();
+  }
+}
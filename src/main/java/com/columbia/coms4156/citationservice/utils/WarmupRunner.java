@@ -0,0 +1,275 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Video;
+import com.columbia.coms4156.citationservice.repository.ArticleRepository;
+import com.columbia.coms4156.citationservice.repository.BookRepository;
+import com.columbia.coms4156.citationservice.repository.VideoRepository;
+import com.columbia.coms4156.citationservice.service.CitationService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.client.HttpClient;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Warms the application up before it reports itself ready, so the first requests after a
+ * cold start do not pay for pool connections, class loading and JIT compilation.
+ *
+ * <p>The warmup opens the minimum idle connections of the primary pool and of the read
+ * replica pool, if one is configured, runs a lookup through each source repository,
+ * renders synthetic Book, Video and Article citations in every style, and initializes the
+ * shared Reactor Netty event loops, DNS resolver and TLS provider used by the Google Books
+ * and CrossRef clients. Failures are logged and do not stop startup.</p>
+ *
+ * <p>Spring Boot only moves the readiness state to {@code ACCEPTING_TRAFFIC} once all
+ * application runners have returned, so {@code /actuator/health/readiness} stays
+ * {@code OUT_OF_SERVICE} until the warmup has finished. Set {@code warmup.enabled=false}
+ * to skip it.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "warmup.enabled", matchIfMissing = true)
+public class WarmupRunner implements ApplicationRunner {
+
+  /**
+   * Logger for the warmup's progress.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(WarmupRunner.class);
+
+  /**
+   * Longest time to wait for the HTTP client resources to initialize.
+   */
+  private static final Duration HTTP_CLIENT_TIMEOUT = Duration.ofSeconds(10);
+
+  /**
+   * ID looked up in each repository; no source has it.
+   */
+  private static final long MISSING_ID = -1L;
+
+  /**
+   * Year given to the synthetic sources.
+   */
+  private static final int SAMPLE_YEAR = 2020;
+
+  /**
+   * Duration given to the synthetic video, in seconds.
+   */
+  private static final int SAMPLE_DURATION_SECONDS = 600;
+
+  /**
+   * The application data source.
+   */
+  private final DataSource dataSource;
+
+  /**
+   * Repository of books.
+   */
+  private final BookRepository bookRepository;
+
+  /**
+   * Repository of videos.
+   */
+  private final VideoRepository videoRepository;
+
+  /**
+   * Repository of articles.
+   */
+  private final ArticleRepository articleRepository;
+
+  /**
+   * Service rendering the synthetic citations.
+   */
+  private final CitationService citationService;
+
+  /**
+   * Publisher of the readiness state changes.
+   */
+  private final ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Number of times each formatter is run.
+   */
+  private final int renderIterations;
+
+  /**
+   * Constructs a new WarmupRunner.
+   *
+   * @param dataSourceParam the application data source
+   * @param bookRepositoryParam the book repository
+   * @param videoRepositoryParam the video repository
+   * @param articleRepositoryParam the article repository
+   * @param citationServiceParam the service rendering citations
+   * @param eventPublisherParam the publisher of readiness state changes
+   * @param renderIterationsParam the number of times each formatter is run
+   */
+  public WarmupRunner(DataSource dataSourceParam,
+                      BookRepository bookRepositoryParam,
+                      VideoRepository videoRepositoryParam,
+                      ArticleRepository articleRepositoryParam,
+                      CitationService citationServiceParam,
+                      ApplicationEventPublisher eventPublisherParam,
+                      @Value("${warmup.render-iterations:500}") int renderIterationsParam) {
+    this.dataSource = dataSourceParam;
+    this.bookRepository = bookRepositoryParam;
+    this.videoRepository = videoRepositoryParam;
+    this.articleRepository = articleRepositoryParam;
+    this.citationService = citationServiceParam;
+    this.eventPublisher = eventPublisherParam;
+    this.renderIterations = renderIterationsParam;
+  }
+
+  /**
+   * Runs the warmup, holding the readiness state at {@code REFUSING_TRAFFIC} meanwhile.
+   *
+   * @param args the application arguments (not used)
+   */
+  @Override
+  public void run(ApplicationArguments args) {
+    AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+    long start = System.nanoTime();
+    primeConnectionPool();
+    primeRepositories();
+    primeFormatters();
+    primeHttpClient();
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("Warmup finished in {} ms",
+          Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+  }
+
+  /**
+   * Opens the minimum idle connections of the primary pool and, if one is configured, of
+   * the read replica pool at once, so none is opened on a request's behalf.
+   */
+  void primeConnectionPool() {
+    List<DataSource> pools = List.of(dataSource);
+    try {
+      if (dataSource.isWrapperFor(ReadReplicaRoutingDataSource.class)) {
+        pools = dataSource.unwrap(ReadReplicaRoutingDataSource.class).getPools();
+      }
+    } catch (SQLException e) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Could not find the connection pools: {}", e.getMessage());
+      }
+    }
+    for (DataSource pool : pools) {
+      primePool(pool);
+    }
+  }
+
+  /**
+   * Opens a pool's minimum idle connections.
+   *
+   * @param pool the pool to prime
+   */
+  private static void primePool(DataSource pool) {
+    try {
+      int size = pool.isWrapperFor(HikariDataSource.class)
+          ? Math.max(1, pool.unwrap(HikariDataSource.class).getMinimumIdle()) : 1;
+      String url = holdConnections(pool, size);
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("Opened {} connections to {}", size, url);
+      }
+    } catch (SQLException e) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Could not prime the connection pool: {}", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Opens connections one after the other, holding each until the rest are open so the
+   * pool cannot hand the same one out twice.
+   *
+   * @param pool the pool to open the connections from
+   * @param count how many connections to open, at least one
+   * @return the URL of the database the connections are to
+   * @throws SQLException if a connection cannot be opened
+   */
+  private static String holdConnections(DataSource pool, int count) throws SQLException {
+    try (Connection connection = pool.getConnection()) {
+      return count > 1 ? holdConnections(pool, count - 1) : connection.getMetaData().getURL();
+    }
+  }
+
+  /**
+   * Looks up a missing source in each repository, preparing the lookup queries and the
+   * second-level cache regions.
+   */
+  void primeRepositories() {
+    try {
+      bookRepository.findById(MISSING_ID);
+      videoRepository.findById(MISSING_ID);
+      articleRepository.findById(MISSING_ID);
+    } catch (RuntimeException e) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Could not prime the repositories: {}", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Renders a synthetic source of each media type in every style. The formatters are
+   * called directly, so the renders are not recorded in the citation metrics.
+   */
+  void primeFormatters() {
+    Book book = new Book("Warmup Book", "Jane Doe, John Smith");
+    book.setPublisher("Warmup Press");
+    book.setPublicationYear(SAMPLE_YEAR);
+    book.setCity("New York");
+    book.setEdition("2nd");
+    book.setIsbn("9780306406157");
+    Video video = new Video("Warmup Video", "Jane Doe");
+    video.setDirector("John Smith");
+    video.setDurationSeconds(SAMPLE_DURATION_SECONDS);
+    video.setPlatform("YouTube");
+    video.setUrl("https://www.youtube.com/watch?v=warmup");
+    video.setReleaseYear(SAMPLE_YEAR);
+    Article article = new Article("Warmup Article", "Jane Doe, John Smith");
+    article.setJournal("Journal of Warmups");
+    article.setVolume("12");
+    article.setIssue("3");
+    article.setPages("45-67");
+    article.setDoi("10.1000/warmup");
+    article.setPublicationYear(SAMPLE_YEAR);
+    for (int i = 0; i < renderIterations; i++) {
+      citationService.generateMLACitation(book);
+      citationService.generateMLACitation(video);
+      citationService.generateMLACitation(article);
+      citationService.generateAPACitation(book);
+      citationService.generateAPACitation(video);
+      citationService.generateAPACitation(article);
+      citationService.generateChicagoCitation(book);
+      citationService.generateChicagoCitation(video);
+      citationService.generateChicagoCitation(article);
+    }
+  }
+
+  /**
+   * Initializes the event loops, DNS resolver and TLS provider shared by the WebClients
+   * of the upstream APIs, without connecting to either API.
+   */
+  void primeHttpClient() {
+    try {
+      HttpClient.create().warmup().block(HTTP_CLIENT_TIMEOUT);
+    } catch (RuntimeException e) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Could not prime the HTTP client: {}", e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.columbia.coms4156.citationservice;
+
+import com.columbia.coms4156.citationservice.standin.StandInInitializer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Runs the service against local Google Books and CrossRef stand-ins instead of the real
+ * APIs, with the {@code standin} profile, for reproducible offline load tests:
+ * {@code mvn spring-boot:test-run}.
+ */
+public final class TestCitationServiceApplication {
+
+    private TestCitationServiceApplication() {
+    }
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(CitationServiceApplication.class)
+                .profiles("standin")
+                .initializers(new StandInInitializer())
+                .run(args);
+    }
+}
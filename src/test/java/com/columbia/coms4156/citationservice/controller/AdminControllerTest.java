@@ -0,0 +1,84 @@
+package com.columbia.coms4156.citationservice.controller;
+
+import com.columbia.coms4156.citationservice.service.CacheStatsService;
+import com.columbia.coms4156.citationservice.service.FlightRecorderService;
+import com.columbia.coms4156.citationservice.service.MetricsService;
+import com.columbia.coms4156.citationservice.service.QueryStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AdminController.class)
+@Import(FlightRecorderService.class)
+@TestPropertySource(properties = {"jfr.enabled=true", "jfr.admin-token=" + AdminControllerTest.TOKEN})
+class AdminControllerTest {
+
+    static final String TOKEN = "test-admin-token";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CacheStatsService cacheStatsService;
+
+    @MockBean
+    private QueryStatsService queryStatsService;
+
+    @MockBean
+    private MetricsService metricsService;
+
+    @Test
+    void startsAndStreamsAJfrRecording() throws Exception {
+        mockMvc.perform(post("/api/admin/jfr/start").header("X-Admin-Token", TOKEN).param("maxSeconds", "60"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recordingId").isNumber())
+                .andExpect(jsonPath("$.settings").value("default"));
+        mockMvc.perform(post("/api/admin/jfr/start").header("X-Admin-Token", TOKEN))
+                .andExpect(status().isConflict());
+
+        MvcResult stop = mockMvc.perform(post("/api/admin/jfr/stop").header("X-Admin-Token", TOKEN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(stop))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString(".jfr")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Every JFR file starts with the magic bytes "FLR\0"
+        assertTrue(body.length > 4 && body[0] == 'F' && body[1] == 'L' && body[2] == 'R');
+        mockMvc.perform(post("/api/admin/jfr/stop").header("X-Admin-Token", TOKEN))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rejectsInvalidRecordingParameters() throws Exception {
+        mockMvc.perform(post("/api/admin/jfr/start").header("X-Admin-Token", TOKEN).param("settings", "everything"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/admin/jfr/start").header("X-Admin-Token", TOKEN).param("maxSeconds", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rejectsRecordingRequestsWithoutTheAdminToken() throws Exception {
+        mockMvc.perform(post("/api/admin/jfr/start"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/admin/jfr/start").header("X-Admin-Token", "wrong"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/admin/jfr/stop"))
+                .andExpect(status().isUnauthorized());
+    }
+}
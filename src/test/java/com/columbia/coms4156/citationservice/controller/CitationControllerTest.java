@@ -7,7 +7,10 @@ import com.columbia.coms4156.citationservice.model.CitationResponse;
 import com.columbia.coms4156.citationservice.model.ErrorResponse;
 import com.columbia.coms4156.citationservice.model.GroupCitationResponse;
 import com.columbia.coms4156.citationservice.model.Video;
+import com.columbia.coms4156.citationservice.repository.SubmissionRepository.GroupVersion;
 import com.columbia.coms4156.citationservice.service.CitationService;
+import com.columbia.coms4156.citationservice.service.MetricsService;
+import com.columbia.coms4156.citationservice.service.QueryStatsService;
 import com.columbia.coms4156.citationservice.service.SourceService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -18,12 +21,17 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.*;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,6 +48,12 @@ class CitationControllerTest {
     @MockBean
     private SourceService sourceService;
 
+    @MockBean
+    private QueryStatsService queryStatsService;
+
+    @MockBean
+    private MetricsService metricsService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -516,6 +530,7 @@ class CitationControllerTest {
         GroupCitationResponse response = new GroupCitationResponse(submissionId, citations);
         String defaultStyle = "MLA";
 
+        givenGroupVersion(submissionId);
         given(citationService.generateCitationsForGroup(eq(submissionId), eq(defaultStyle), eq(false)))
                 .willReturn(response);
 
@@ -537,6 +552,7 @@ class CitationControllerTest {
         citations.put("1", "APA Book citation");
         GroupCitationResponse response = new GroupCitationResponse(submissionId, citations);
 
+        givenGroupVersion(submissionId);
         given(citationService.generateCitationsForGroup(eq(submissionId), eq("APA"), eq(false)))
                 .willReturn(response);
 
@@ -551,10 +567,8 @@ class CitationControllerTest {
     void generateCitationsForGroup_NotFound() throws Exception {
         // Arrange
         Long submissionId = 999L;
-        String defaultStyle = "MLA";
 
-        given(citationService.generateCitationsForGroup(eq(submissionId), eq(defaultStyle), eq(false)))
-                .willThrow(new ResourceNotFoundException("Submission not found with ID: " + submissionId));
+        given(citationService.findGroupVersion(submissionId)).willReturn(Optional.empty());
 
         // Act & Assert
         mockMvc.perform(get("/api/cite/group/{submissionId}", submissionId))
@@ -613,6 +627,7 @@ class CitationControllerTest {
         Long submissionId = 5L;
         String defaultStyle = "MLA";
 
+        givenGroupVersion(submissionId);
         given(citationService.generateCitationsForGroup(eq(submissionId), eq(defaultStyle), eq(false)))
                 .willThrow(new RuntimeException("Unexpected error"));
 
@@ -801,6 +816,7 @@ class CitationControllerTest {
         citations.put("1", "Chicago Book citation");
         GroupCitationResponse response = new GroupCitationResponse(submissionId, citations);
 
+        givenGroupVersion(submissionId);
         given(citationService.generateCitationsForGroup(eq(submissionId), eq("CHICAGO"), eq(false)))
                 .willReturn(response);
 
@@ -1056,5 +1072,56 @@ class CitationControllerTest {
                         .content(objectMapper.writeValueAsString(article)))
                 .andExpect(status().isOk());
     }
-}
 
+    @Test
+    @DisplayName("GET /api/cite/group/{submissionId} returns the group's ETag")
+    void generateCitationsForGroup_ReturnsETag() throws Exception {
+        Long submissionId = 5L;
+        givenGroupVersion(submissionId);
+        given(citationService.generateCitationsForGroup(eq(submissionId), eq("MLA"), eq(false)))
+                .willReturn(new GroupCitationResponse(submissionId, new HashMap<>()));
+
+        mockMvc.perform(get("/api/cite/group/{submissionId}", submissionId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2.2.3.0.0\""))
+                .andExpect(header().exists("Last-Modified"));
+    }
+
+    @Test
+    @DisplayName("GET /api/cite/group/{submissionId} returns 304 without formatting when unchanged")
+    void generateCitationsForGroup_NotModified() throws Exception {
+        Long submissionId = 5L;
+        givenGroupVersion(submissionId);
+
+        mockMvc.perform(get("/api/cite/group/{submissionId}", submissionId)
+                        .header("If-None-Match", "\"2.2.3.0.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2.2.3.0.0\""))
+                .andExpect(content().string(""));
+
+        verify(citationService, never()).generateCitationsForGroup(any(), any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("GET /api/cite/group/{submissionId} returns 200 when the group has changed")
+    void generateCitationsForGroup_ModifiedSinceETag() throws Exception {
+        Long submissionId = 5L;
+        givenGroupVersion(submissionId);
+        given(citationService.generateCitationsForGroup(eq(submissionId), eq("MLA"), eq(false)))
+                .willReturn(new GroupCitationResponse(submissionId, new HashMap<>()));
+
+        mockMvc.perform(get("/api/cite/group/{submissionId}", submissionId)
+                        .header("If-None-Match", "\"1.1.1.0.0\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.submissionId").value(5));
+    }
+
+    private void givenGroupVersion(Long submissionId) {
+        GroupVersion version = mock(GroupVersion.class);
+        given(version.getSubmissionVersion()).willReturn(2L);
+        given(version.getCitationCount()).willReturn(2L);
+        given(version.getCitationIdSum()).willReturn(3L);
+        given(version.getSubmissionUpdatedAt()).willReturn(Instant.parse("2024-05-01T10:00:00Z"));
+        given(citationService.findGroupVersion(submissionId)).willReturn(Optional.of(version));
+    }
+}
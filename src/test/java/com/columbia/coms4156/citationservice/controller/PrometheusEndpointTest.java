@@ -0,0 +1,46 @@
+package com.columbia.coms4156.citationservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Scrapes the Prometheus endpoint after rendering a citation, with metrics export enabled
+ * as in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void servesRenderTimesAndPoolWaitTimes() throws Exception {
+        mockMvc.perform(post("/api/cite/book").param("style", "apa")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Dune\", \"author\": \"Frank Herbert\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "citation_render_seconds_bucket{application=\"citation-service\","
+                                + "media_type=\"book\",style=\"APA\"")))
+                .andExpect(content().string(containsString(
+                        "hikaricp_connections_acquire_seconds_count{")));
+    }
+}
@@ -1,33 +1,55 @@
 package com.columbia.coms4156.citationservice.controller;
 
+import com.columbia.coms4156.citationservice.controller.dto.BulkDeleteRequest;
+import com.columbia.coms4156.citationservice.controller.dto.BulkDeleteResponse;
 import com.columbia.coms4156.citationservice.controller.dto.BulkSourceRequest;
+import com.columbia.coms4156.citationservice.controller.dto.SearchHit;
 import com.columbia.coms4156.citationservice.controller.dto.SourceBatchResponse;
 import com.columbia.coms4156.citationservice.controller.dto.SourceDTO;
+import com.columbia.coms4156.citationservice.controller.dto.SourcePage;
 import com.columbia.coms4156.citationservice.controller.dto.UserDTO;
+import com.columbia.coms4156.citationservice.exception.PreconditionFailedException;
 import com.columbia.coms4156.citationservice.exception.ResourceNotFoundException;
+import com.columbia.coms4156.citationservice.exception.ValidationException;
 import com.columbia.coms4156.citationservice.model.Book;
 import com.columbia.coms4156.citationservice.model.Video;
 import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.service.MetricsService;
+import com.columbia.coms4156.citationservice.service.QueryStatsService;
+import com.columbia.coms4156.citationservice.service.SourceDeleteService;
+import com.columbia.coms4156.citationservice.service.SourceSearchService;
 import com.columbia.coms4156.citationservice.service.SourceService;
+import com.columbia.coms4156.citationservice.service.SourceSuggestService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -40,6 +62,21 @@ class SourceControllerTest {
     @MockBean
     private SourceService sourceService;
 
+    @MockBean
+    private SourceSearchService sourceSearchService;
+
+    @MockBean
+    private SourceDeleteService sourceDeleteService;
+
+    @MockBean
+    private SourceSuggestService sourceSuggestService;
+
+    @MockBean
+    private QueryStatsService queryStatsService;
+
+    @MockBean
+    private MetricsService metricsService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -193,7 +230,22 @@ class SourceControllerTest {
         }
 
         @Test
-        @DisplayName("GET /api/source/book returns all books")
+        @DisplayName("POST /api/source/book returns 409 when the book duplicates an existing one")
+        void createBook_Duplicate() throws Exception {
+                Book book = new Book("Test Book", "Test Author");
+
+                given(sourceService.saveBook(any(Book.class)))
+                                .willThrow(new DataIntegrityViolationException("duplicate dedupe_key"));
+
+                mockMvc.perform(post("/api/source/book")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(book)))
+                                .andExpect(status().isConflict())
+                                .andExpect(jsonPath("$.error").value("Conflict"));
+        }
+
+        @Test
+        @DisplayName("GET /api/source/book returns first page of books")
         void getAllBooks_Success() throws Exception {
                 Book b1 = new Book();
                 b1.setId(1L);
@@ -202,13 +254,53 @@ class SourceControllerTest {
                 b2.setId(2L);
                 b2.setTitle("Book Two");
 
-                given(sourceService.getAllBooks()).willReturn(Arrays.asList(b1, b2));
+                given(sourceService.getBooks(isNull(), eq(50)))
+                                .willReturn(new SourcePage<>(Arrays.asList(b1, b2), null, 50));
 
                 mockMvc.perform(get("/api/source/book"))
                                 .andExpect(status().isOk())
-                                .andExpect(jsonPath("$.length()").value(2))
-                                .andExpect(jsonPath("$[0].title").value("Book One"))
-                                .andExpect(jsonPath("$[1].title").value("Book Two"));
+                                .andExpect(jsonPath("$.items.length()").value(2))
+                                .andExpect(jsonPath("$.items[0].title").value("Book One"))
+                                .andExpect(jsonPath("$.items[1].title").value("Book Two"))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                                .andExpect(jsonPath("$.limit").value(50));
+        }
+
+        @Test
+        @DisplayName("GET /api/source/book passes cursor and limit and returns next cursor")
+        void getBooks_WithCursor() throws Exception {
+                Book b3 = new Book();
+                b3.setId(3L);
+                b3.setTitle("Book Three");
+
+                given(sourceService.getBooks("abc", 1))
+                                .willReturn(new SourcePage<>(Arrays.asList(b3), "next", 1));
+
+                mockMvc.perform(get("/api/source/book").param("cursor", "abc").param("limit", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].title").value("Book Three"))
+                                .andExpect(jsonPath("$.nextCursor").value("next"))
+                                .andExpect(jsonPath("$.limit").value(1));
+        }
+
+        @Test
+        @DisplayName("GET /api/source/book returns 400 when limit is out of range")
+        void getBooks_InvalidLimit() throws Exception {
+                mockMvc.perform(get("/api/source/book").param("limit", "0"))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/api/source/video").param("limit", "501"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("GET /api/source/article returns 400 for a malformed cursor")
+        void getArticles_InvalidCursor() throws Exception {
+                given(sourceService.getArticles("bogus", 50))
+                                .willThrow(new ValidationException("Invalid cursor: bogus"));
+
+                mockMvc.perform(get("/api/source/article").param("cursor", "bogus"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("Invalid cursor: bogus"));
         }
 
         @Test
@@ -251,7 +343,7 @@ class SourceControllerTest {
                 updatedBook.setPublisher("Updated Publisher");
                 updatedBook.setPublicationYear(2023);
 
-                given(sourceService.updateBook(eq(1L), any(Book.class))).willReturn(updatedBook);
+                given(sourceService.updateBook(eq(1L), any(Book.class), isNull())).willReturn(updatedBook);
 
                 mockMvc.perform(put("/api/source/book/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -270,7 +362,7 @@ class SourceControllerTest {
                 book.setPublisher("Updated Publisher");
                 book.setPublicationYear(2023);
 
-                given(sourceService.updateBook(eq(1L), any(Book.class))).willReturn(null);
+                given(sourceService.updateBook(eq(1L), any(Book.class), isNull())).willReturn(null);
 
                 mockMvc.perform(put("/api/source/book/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -325,7 +417,7 @@ class SourceControllerTest {
         }
 
         @Test
-        @DisplayName("GET /api/source/video returns all videos")
+        @DisplayName("GET /api/source/video returns first page of videos")
         void getAllVideos_Success() throws Exception {
                 Video v1 = new Video();
                 v1.setId(1L);
@@ -334,13 +426,16 @@ class SourceControllerTest {
                 v2.setId(2L);
                 v2.setTitle("Video Two");
 
-                given(sourceService.getAllVideos()).willReturn(Arrays.asList(v1, v2));
+                given(sourceService.getVideos(isNull(), eq(50)))
+                                .willReturn(new SourcePage<>(Arrays.asList(v1, v2), null, 50));
 
                 mockMvc.perform(get("/api/source/video"))
                                 .andExpect(status().isOk())
-                                .andExpect(jsonPath("$.length()").value(2))
-                                .andExpect(jsonPath("$[0].title").value("Video One"))
-                                .andExpect(jsonPath("$[1].title").value("Video Two"));
+                                .andExpect(jsonPath("$.items.length()").value(2))
+                                .andExpect(jsonPath("$.items[0].title").value("Video One"))
+                                .andExpect(jsonPath("$.items[1].title").value("Video Two"))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                                .andExpect(jsonPath("$.limit").value(50));
         }
 
         @Test
@@ -381,7 +476,7 @@ class SourceControllerTest {
                 updatedVideo.setAuthor("Updated Author");
                 updatedVideo.setReleaseYear(2023);
 
-                given(sourceService.updateVideo(eq(1L), any(Video.class))).willReturn(updatedVideo);
+                given(sourceService.updateVideo(eq(1L), any(Video.class), isNull())).willReturn(updatedVideo);
 
                 mockMvc.perform(put("/api/source/video/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -398,7 +493,7 @@ class SourceControllerTest {
                 video.setAuthor("Updated Author");
                 video.setReleaseYear(2023);
 
-                given(sourceService.updateVideo(eq(1L), any(Video.class))).willReturn(null);
+                given(sourceService.updateVideo(eq(1L), any(Video.class), isNull())).willReturn(null);
 
                 mockMvc.perform(put("/api/source/video/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -455,7 +550,7 @@ class SourceControllerTest {
         }
 
         @Test
-        @DisplayName("GET /api/source/article returns all articles")
+        @DisplayName("GET /api/source/article returns first page of articles")
         void getAllArticles_Success() throws Exception {
                 Article a1 = new Article();
                 a1.setId(1L);
@@ -464,13 +559,16 @@ class SourceControllerTest {
                 a2.setId(2L);
                 a2.setTitle("Article Two");
 
-                given(sourceService.getAllArticles()).willReturn(Arrays.asList(a1, a2));
+                given(sourceService.getArticles(isNull(), eq(50)))
+                                .willReturn(new SourcePage<>(Arrays.asList(a1, a2), null, 50));
 
                 mockMvc.perform(get("/api/source/article"))
                                 .andExpect(status().isOk())
-                                .andExpect(jsonPath("$.length()").value(2))
-                                .andExpect(jsonPath("$[0].title").value("Article One"))
-                                .andExpect(jsonPath("$[1].title").value("Article Two"));
+                                .andExpect(jsonPath("$.items.length()").value(2))
+                                .andExpect(jsonPath("$.items[0].title").value("Article One"))
+                                .andExpect(jsonPath("$.items[1].title").value("Article Two"))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                                .andExpect(jsonPath("$.limit").value(50));
         }
 
         @Test
@@ -513,7 +611,7 @@ class SourceControllerTest {
                 updatedArticle.setJournal("Updated Journal");
                 updatedArticle.setPublicationYear(2023);
 
-                given(sourceService.updateArticle(eq(1L), any(Article.class))).willReturn(updatedArticle);
+                given(sourceService.updateArticle(eq(1L), any(Article.class), isNull())).willReturn(updatedArticle);
 
                 mockMvc.perform(put("/api/source/article/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -531,7 +629,7 @@ class SourceControllerTest {
                 article.setJournal("Updated Journal");
                 article.setPublicationYear(2023);
 
-                given(sourceService.updateArticle(eq(1L), any(Article.class))).willReturn(null);
+                given(sourceService.updateArticle(eq(1L), any(Article.class), isNull())).willReturn(null);
 
                 mockMvc.perform(put("/api/source/article/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -558,4 +656,228 @@ class SourceControllerTest {
                 mockMvc.perform(delete("/api/source/article/1"))
                                 .andExpect(status().isNotFound());
         }
+
+    @Test
+    @DisplayName("GET /api/source/search returns ranked hits")
+    void searchSources_Success() throws Exception {
+        given(sourceSearchService.search("hobbit tolkien", 20)).willReturn(Arrays.asList(
+                new SearchHit("book", 1L, "The Hobbit", "J.R.R. Tolkien", 2.5),
+                new SearchHit("video", 4L, "The Hobbit", "Peter Jackson", 1.0)));
+
+        mockMvc.perform(get("/api/source/search").param("q", "hobbit tolkien"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].mediaType").value("book"))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].mediaType").value("video"));
+    }
+
+    @Test
+    @DisplayName("GET /api/source/search returns 400 for a missing or blank query")
+    void searchSources_BlankQuery() throws Exception {
+        mockMvc.perform(get("/api/source/search"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/source/search").param("q", "  "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Search query 'q' cannot be blank."));
+        mockMvc.perform(get("/api/source/search").param("q", "x").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/source/suggest returns suggestions")
+    void suggestSources_Success() throws Exception {
+        given(sourceSuggestService.suggest("hobb", 10)).willReturn(Arrays.asList(
+                new SearchHit("book", 1L, "The Hobbit", "J.R.R. Tolkien", 1.8)));
+
+        mockMvc.perform(get("/api/source/suggest").param("q", "hobb"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("The Hobbit"));
+    }
+
+    @Test
+    @DisplayName("GET /api/source/suggest returns 400 for a blank query")
+    void suggestSources_BlankQuery() throws Exception {
+        mockMvc.perform(get("/api/source/suggest").param("q", ""))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Suggestion query 'q' cannot be blank."));
+    }
+
+    @Test
+    @DisplayName("GET /api/source/book/{id} returns the book's version as its ETag")
+    void getBookById_ReturnsETag() throws Exception {
+        given(sourceService.findBookById(1L)).willReturn(Optional.of(versionedBook(3L)));
+
+        mockMvc.perform(get("/api/source/book/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/source/book/{id} returns 304 with an empty body when the ETag matches")
+    void getBookById_NotModified() throws Exception {
+        given(sourceService.findBookById(1L)).willReturn(Optional.of(versionedBook(3L)));
+
+        mockMvc.perform(get("/api/source/book/1").header("If-None-Match", "W/\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /api/source/book/{id} returns 304 when not modified since the given date")
+    void getBookById_NotModifiedSince() throws Exception {
+        given(sourceService.findBookById(1L)).willReturn(Optional.of(versionedBook(3L)));
+
+        mockMvc.perform(get("/api/source/book/1")
+                        .header("If-Modified-Since", "Wed, 01 May 2024 10:00:00 GMT"))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/source/book/1")
+                        .header("If-Modified-Since", "Wed, 01 May 2024 09:59:59 GMT"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("PUT /api/source/book/{id} passes the If-Match version and returns the new ETag")
+    void updateBook_IfMatch() throws Exception {
+        given(sourceService.updateBook(eq(1L), any(Book.class), eq(3L)))
+                .willReturn(versionedBook(4L));
+
+        mockMvc.perform(put("/api/source/book/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(versionedBook(3L))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    @DisplayName("PUT /api/source/book/{id} returns 412 when the book changed since If-Match")
+    void updateBook_PreconditionFailed() throws Exception {
+        given(sourceService.updateBook(eq(1L), any(Book.class), eq(2L)))
+                .willThrow(new PreconditionFailedException("changed"));
+
+        mockMvc.perform(put("/api/source/book/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(versionedBook(3L))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error").value("Precondition Failed"));
+    }
+
+    @Test
+    @DisplayName("PUT /api/source/article/{id} returns 412 for a weak If-Match ETag")
+    void updateArticle_WeakIfMatch() throws Exception {
+        Article article = new Article("Attention Is All You Need", "Ashish Vaswani");
+
+        mockMvc.perform(put("/api/source/article/1")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(article)))
+                .andExpect(status().isPreconditionFailed());
+        verify(sourceService, never()).updateArticle(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("PUT /api/source/video/{id} returns 409 when a concurrent update wins")
+    void updateVideo_ConcurrentUpdate() throws Exception {
+        given(sourceService.updateVideo(eq(1L), any(Video.class), isNull()))
+                .willThrow(new ObjectOptimisticLockingFailureException(Video.class, 1L));
+        Video video = new Video("Intro to Algorithms", "MIT OpenCourseWare");
+
+        mockMvc.perform(put("/api/source/video/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(video)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/source/book/{id} applies a merge patch and returns the new ETag")
+    void patchBook_MergePatch() throws Exception {
+        Book patched = versionedBook(4L);
+        patched.setPublisher("Chilton Books");
+        given(sourceService.patchBook(eq(1L), any(JsonNode.class), eq(3L))).willReturn(patched);
+
+        mockMvc.perform(patch("/api/source/book/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"publisher\":\"Chilton Books\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.publisher").value("Chilton Books"));
+        verify(sourceService).patchBook(eq(1L),
+                argThat(node -> "Chilton Books".equals(node.path("publisher").asText())), eq(3L));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/source/video/{id} returns 404 if the video doesn't exist")
+    void patchVideo_NotFound() throws Exception {
+        given(sourceService.patchVideo(eq(999L), any(JsonNode.class), isNull())).willReturn(null);
+
+        mockMvc.perform(patch("/api/source/video/999")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"platform\":\"YouTube\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/source/article/{id} returns 400 for an invalid patch value")
+    void patchArticle_InvalidValue() throws Exception {
+        given(sourceService.patchArticle(eq(1L), any(JsonNode.class), isNull()))
+                .willThrow(new ValidationException("Invalid merge patch: Invalid DOI format"));
+
+        mockMvc.perform(patch("/api/source/article/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"doi\":\"not-a-doi\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/source/sources/delete returns the bulk delete counts")
+    void deleteSources_ReturnsCounts() throws Exception {
+        given(sourceDeleteService.deleteSources(any(BulkDeleteRequest.class)))
+                .willReturn(new BulkDeleteResponse(3, 2, 0, 1));
+
+        mockMvc.perform(post("/api/source/sources/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"mediaType\":\"book\",\"updatedBefore\":\"2024-06-01T00:00:00Z\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matchedSources").value(3))
+                .andExpect(jsonPath("$.deletedSources").value(2))
+                .andExpect(jsonPath("$.keptCitedSources").value(1));
+        verify(sourceDeleteService).deleteSources(argThat(request ->
+                "book".equals(request.getMediaType()) && !request.isCascade()
+                        && Instant.parse("2024-06-01T00:00:00Z").equals(request.getUpdatedBefore())));
+    }
+
+    @Test
+    @DisplayName("POST /api/source/sources/delete returns 400 without any criterion")
+    void deleteSources_NoCriteria() throws Exception {
+        mockMvc.perform(post("/api/source/sources/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cascade\":true}"))
+                .andExpect(status().isBadRequest());
+        verify(sourceDeleteService, never()).deleteSources(any());
+    }
+
+    @Test
+    @DisplayName("POST /api/source/sources/delete returns 400 for a non-positive ID")
+    void deleteSources_InvalidId() throws Exception {
+        mockMvc.perform(post("/api/source/sources/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[4,0]}"))
+                .andExpect(status().isBadRequest());
+        verify(sourceDeleteService, never()).deleteSources(any());
+    }
+
+    private static Book versionedBook(Long version) {
+        Book book = new Book("Dune", "Frank Herbert");
+        book.setId(1L);
+        book.setVersion(version);
+        book.setUpdatedAt(Instant.parse("2024-05-01T10:00:00Z"));
+        return book;
+    }
 }
@@ -201,6 +201,16 @@ class ArticleTest {
         assertEquals("DOI cannot be blank", exception.getMessage());
     }
 
+    @Test
+    void testSetDoiWithResolverPrefixKeepsEnteredValueAndCanonicalDoi() {
+        article.setDoi("https://doi.org/10.1038/Nature14539");
+        assertEquals("https://doi.org/10.1038/Nature14539", article.getDoi());
+        assertEquals("10.1038/nature14539", article.getCanonicalDoi());
+
+        article.setDoi(null);
+        assertNull(article.getCanonicalDoi());
+    }
+
     @Test
     void testSetDoiInvalidFormat() {
         IllegalArgumentException exception = assertThrows(
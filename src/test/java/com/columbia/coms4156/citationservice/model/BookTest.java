@@ -243,6 +243,16 @@ class BookTest {
         assertEquals(validIsbn13, book.getIsbn());
     }
 
+    @Test
+    void testSetIsbnKeepsEnteredValueAndCanonicalIsbn13() {
+        book.setIsbn("0-140-44911-6");
+        assertEquals("0-140-44911-6", book.getIsbn());
+        assertEquals("9780140449112", book.getCanonicalIsbn());
+
+        book.setIsbn(null);
+        assertNull(book.getCanonicalIsbn());
+    }
+
     @Test
     void testSetIsbnNull() {
         assertDoesNotThrow(() -> book.setIsbn(null));
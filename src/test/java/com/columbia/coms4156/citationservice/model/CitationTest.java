@@ -34,16 +34,17 @@ class CitationTest {
     @Test
     void testParameterizedConstructor() {
         String metadata = "{'title': 'Test Book'}";
-        Long mediaId = 123L;
-        String mediaType = "book";
+        Book book = new Book("Test Book", "Test Author");
+        book.setId(123L);
 
-        Citation newCitation = new Citation(testSubmission, metadata, mediaId, mediaType);
+        Citation newCitation = new Citation(testSubmission, metadata, book, MediaType.BOOK);
 
         assertNotNull(newCitation);
         assertEquals(testSubmission, newCitation.getSubmission());
         assertEquals(metadata, newCitation.getUserInputMetaData());
-        assertEquals(mediaId, newCitation.getMediaId());
-        assertEquals(mediaType, newCitation.getMediaType());
+        assertSame(book, newCitation.getSource());
+        assertEquals(123L, newCitation.getMediaId());
+        assertEquals(MediaType.BOOK, newCitation.getMediaType());
     }
 
     // ID setter tests
@@ -115,35 +116,31 @@ class CitationTest {
         assertEquals("User input metadata cannot be blank", exception.getMessage());
     }
 
-    // Media ID setter tests
+    // Source setter tests
     @Test
-    void testSetMediaIdValid() {
-        Long validMediaId = 100L;
-        citation.setMediaId(validMediaId);
-        assertEquals(validMediaId, citation.getMediaId());
+    void testSetSourceValid() {
+        Article article = new Article("Test Article", "Test Author");
+        article.setId(100L);
+        citation.setSource(article);
+        assertSame(article, citation.getSource());
+        assertEquals(100L, citation.getMediaId());
+        assertEquals(MediaType.ARTICLE, citation.getMediaType());
     }
 
     @Test
-    void testSetMediaIdNull() {
-        assertDoesNotThrow(() -> citation.setMediaId(null));
+    void testSetSourceNull() {
+        citation.setMediaType(MediaType.VIDEO);
+        assertDoesNotThrow(() -> citation.setSource(null));
+        assertNull(citation.getSource());
         assertNull(citation.getMediaId());
-    }
-
-    @Test
-    void testSetMediaIdNegative() {
-        IllegalArgumentException exception = assertThrows(
-            IllegalArgumentException.class,
-            () -> citation.setMediaId(-5L)
-        );
-        assertEquals("Media ID cannot be negative", exception.getMessage());
+        assertEquals(MediaType.VIDEO, citation.getMediaType());
     }
 
     // Media type setter tests
     @Test
     void testSetMediaTypeValid() {
-        String validType = "article";
-        citation.setMediaType(validType);
-        assertEquals(validType, citation.getMediaType());
+        citation.setMediaType(MediaType.ARTICLE);
+        assertEquals(MediaType.ARTICLE, citation.getMediaType());
     }
 
     @Test
@@ -152,31 +149,14 @@ class CitationTest {
         assertNull(citation.getMediaType());
     }
 
-    @Test
-    void testSetMediaTypeBlank() {
-        IllegalArgumentException exception = assertThrows(
-            IllegalArgumentException.class,
-            () -> citation.setMediaType("   ")
-        );
-        assertEquals("Media type cannot be blank", exception.getMessage());
-    }
-
-    @Test
-    void testSetMediaTypeEmpty() {
-        IllegalArgumentException exception = assertThrows(
-            IllegalArgumentException.class,
-            () -> citation.setMediaType("")
-        );
-        assertEquals("Media type cannot be blank", exception.getMessage());
-    }
-
     // ToString test
     @Test
     void testToString() {
         citation.setId(1L);
         citation.setSubmission(testSubmission);
-        citation.setMediaId(123L);
-        citation.setMediaType("book");
+        Book book = new Book("Test Book", "Test Author");
+        book.setId(123L);
+        citation.setSource(book);
 
         String result = citation.toString();
         assertNotNull(result);
@@ -193,23 +173,33 @@ class CitationTest {
         citation.setId(10L);
         citation.setSubmission(testSubmission);
         citation.setUserInputMetaData("{'title': 'Complete Test'}");
-        citation.setMediaId(456L);
-        citation.setMediaType("video");
+        Video video = new Video("Test Video", "Test Author");
+        video.setId(456L);
+        citation.setSource(video);
 
         assertEquals(Long.valueOf(10L), citation.getId());
         assertEquals(testSubmission, citation.getSubmission());
         assertEquals("{'title': 'Complete Test'}", citation.getUserInputMetaData());
         assertEquals(Long.valueOf(456L), citation.getMediaId());
-        assertEquals("video", citation.getMediaType());
+        assertEquals(MediaType.VIDEO, citation.getMediaType());
     }
 
     @Test
     void testValidMediaTypes() {
-        String[] validTypes = {"book", "article", "video", "webpage"};
+        String[] validTypes = {"book", "article", "video", " Video "};
 
         for (String type : validTypes) {
-            assertDoesNotThrow(() -> citation.setMediaType(type));
-            assertEquals(type, citation.getMediaType());
+            assertDoesNotThrow(() -> citation.setMediaType(MediaType.fromValue(type)));
+            assertEquals(type.trim().toLowerCase(), citation.getMediaType().getValue());
         }
     }
+
+    @Test
+    void testUnsupportedMediaType() {
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> MediaType.fromValue("webpage")
+        );
+        assertEquals("Unsupported media type: webpage", exception.getMessage());
+    }
 }
@@ -22,6 +22,11 @@ class SourceTest {
         public TestSource(String title, String author) {
             super(title, author);
         }
+
+        @Override
+        public MediaType getMediaType() {
+            return MediaType.BOOK;
+        }
     }
 
     private TestSource source;
@@ -451,4 +456,36 @@ class SourceTest {
             assertEquals(author, source.getAuthor());
         }
     }
+
+    @Test
+    void testDedupeKeyNullUntilTitleAndAuthorSet() {
+        assertNull(source.getDedupeKey());
+        source.setTitle("Test Title");
+        assertNull(source.getDedupeKey());
+        source.setAuthor("Test Author");
+        assertNotNull(source.getDedupeKey());
+    }
+
+    @Test
+    void testDedupeKeyIgnoresCaseAndSurroundingWhitespace() {
+        TestSource first = new TestSource("  The Hobbit ", "J.R.R. Tolkien");
+        TestSource second = new TestSource("the hobbit", "  j.r.r. TOLKIEN  ");
+        assertEquals(first.getDedupeKey(), second.getDedupeKey());
+    }
+
+    @Test
+    void testDedupeKeyTracksTitleAndAuthorChanges() {
+        TestSource newSource = new TestSource("Title", "Author");
+        String original = newSource.getDedupeKey();
+        newSource.setTitle("Other Title");
+        assertNotEquals(original, newSource.getDedupeKey());
+        assertEquals(Source.dedupeKeyOf("Other Title", "Author"), newSource.getDedupeKey());
+    }
+
+    @Test
+    void testDedupeKeyDistinguishesTitleAuthorBoundary() {
+        assertNotEquals(Source.dedupeKeyOf("ab", "c"), Source.dedupeKeyOf("a", "bc"));
+        assertNull(Source.dedupeKeyOf(null, "Author"));
+        assertNull(Source.dedupeKeyOf("Title", null));
+    }
 }
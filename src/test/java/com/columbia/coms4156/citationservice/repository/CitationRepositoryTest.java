@@ -0,0 +1,73 @@
+package com.columbia.coms4156.citationservice.repository;
+
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Citation;
+import com.columbia.coms4156.citationservice.model.MediaType;
+import com.columbia.coms4156.citationservice.model.Source;
+import com.columbia.coms4156.citationservice.model.Submission;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the citation queries that load the cited source in the same statement.
+ */
+@DataJpaTest
+class CitationRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CitationRepository citationRepository;
+
+    @Test
+    void findWithSourceBySubmissionIdLoadsEachSourceAsItsSubtype() {
+        Book book = entityManager.persist(new Book("Dune", "Frank Herbert"));
+        Article article = entityManager.persist(new Article("Attention", "Ashish Vaswani"));
+        Submission submission = entityManager.persist(new Submission());
+        Citation first = entityManager.persist(
+                new Citation(submission, null, book, MediaType.BOOK));
+        entityManager.persist(new Citation(submission, null, article, MediaType.ARTICLE));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Citation> citations =
+                citationRepository.findWithSourceBySubmissionId(submission.getId());
+
+        assertEquals(2, citations.size());
+        assertEquals(first.getId(), citations.get(0).getId());
+        for (Citation citation : citations) {
+            Source source = citation.getSource();
+            assertTrue(Hibernate.isInitialized(source));
+        }
+        assertInstanceOf(Book.class, Hibernate.unproxy(citations.get(0).getSource()));
+        assertInstanceOf(Article.class, Hibernate.unproxy(citations.get(1).getSource()));
+        assertEquals(MediaType.ARTICLE, citations.get(1).getMediaType());
+    }
+
+    @Test
+    void findBySubmissionIdAndSourceIdMatchesOnlyThatSource() {
+        Book book = entityManager.persist(new Book("Dune", "Frank Herbert"));
+        Submission submission = entityManager.persist(new Submission());
+        Citation citation = entityManager.persist(
+                new Citation(submission, null, book, MediaType.BOOK));
+        entityManager.flush();
+
+        assertEquals(citation.getId(), citationRepository
+                .findBySubmissionIdAndSourceId(submission.getId(), book.getId())
+                .orElseThrow().getId());
+        assertTrue(citationRepository
+                .findBySubmissionIdAndSourceId(submission.getId(), book.getId() + 1)
+                .isEmpty());
+    }
+}
@@ -0,0 +1,129 @@
+package com.columbia.coms4156.citationservice.repository;
+
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Video;
+import com.columbia.coms4156.citationservice.repository.SourceUpsertRepository.UpsertResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the upsert statements against the embedded H2 database (MERGE path).
+ */
+@DataJpaTest
+@Import({SourceUpsertRepository.class, DatabaseProduct.class})
+class SourceUpsertRepositoryTest {
+
+    @Autowired
+    private SourceUpsertRepository sourceUpsertRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Test
+    void upsertBookInsertsOnceForSameTitleAndAuthor() {
+        Book first = new Book("The Hobbit", "J.R.R. Tolkien");
+        first.setPublisher("Allen & Unwin");
+        first.setPublicationYear(1937);
+
+        UpsertResult inserted = sourceUpsertRepository.upsertBook(first);
+        UpsertResult matched = sourceUpsertRepository.upsertBook(
+                new Book("  the hobbit ", "J.R.R. TOLKIEN"));
+
+        assertTrue(inserted.isInserted());
+        assertFalse(matched.isInserted());
+        assertNotNull(inserted.getId());
+        assertEquals(inserted.getId(), matched.getId());
+        assertEquals(1, bookRepository.count());
+
+        Book stored = bookRepository.findById(inserted.getId()).orElseThrow();
+        assertEquals("The Hobbit", stored.getTitle());
+        assertEquals("Allen & Unwin", stored.getPublisher());
+        assertEquals(1937, stored.getPublicationYear());
+        assertEquals(first.getDedupeKey(), stored.getDedupeKey());
+    }
+
+    @Test
+    void upsertBookInsertsDistinctWorks() {
+        UpsertResult a = sourceUpsertRepository.upsertBook(new Book("Title A", "Author"));
+        UpsertResult b = sourceUpsertRepository.upsertBook(new Book("Title B", "Author"));
+
+        assertTrue(a.isInserted());
+        assertTrue(b.isInserted());
+        assertNotEquals(a.getId(), b.getId());
+        assertEquals(2, bookRepository.count());
+    }
+
+    @Test
+    void upsertVideoAndArticleWriteTypeSpecificColumns() {
+        Video video = new Video("Inception", "Christopher Nolan");
+        video.setPlatform("Warner Bros");
+        video.setReleaseYear(2010);
+        Article article = new Article("Attention Is All You Need", "Ashish Vaswani");
+        article.setJournal("NeurIPS");
+        article.setPublicationYear(2017);
+
+        UpsertResult videoResult = sourceUpsertRepository.upsertVideo(video);
+        UpsertResult articleResult = sourceUpsertRepository.upsertArticle(article);
+
+        assertTrue(videoResult.isInserted());
+        assertTrue(articleResult.isInserted());
+        assertEquals("Warner Bros",
+                videoRepository.findById(videoResult.getId()).orElseThrow().getPlatform());
+        assertEquals("NeurIPS",
+                articleRepository.findById(articleResult.getId()).orElseThrow().getJournal());
+        assertFalse(sourceUpsertRepository.upsertVideo(
+                new Video("inception", "christopher nolan")).isInserted());
+    }
+
+    @Test
+    void upsertWritesCanonicalIdentifiersForLookup() {
+        Book book = new Book("Deep Learning", "Ian Goodfellow");
+        book.setIsbn("0-306-40615-2");
+        Article article = new Article("Deep learning", "Yann LeCun");
+        article.setDoi("https://doi.org/10.1038/Nature14539");
+
+        UpsertResult bookResult = sourceUpsertRepository.upsertBook(book);
+        UpsertResult articleResult = sourceUpsertRepository.upsertArticle(article);
+
+        assertEquals(bookResult.getId(), bookRepository
+                .findFirstByCanonicalIsbnOrderByIdAsc("9780306406157").orElseThrow().getId());
+        assertEquals(articleResult.getId(), articleRepository
+                .findFirstByCanonicalDoiOrderByIdAsc("10.1038/nature14539").orElseThrow().getId());
+        assertEquals("0-306-40615-2",
+                bookRepository.findById(bookResult.getId()).orElseThrow().getIsbn());
+    }
+
+    @Test
+    void upsertKeysDedupeOnMediaType() {
+        UpsertResult book = sourceUpsertRepository.upsertBook(new Book("Dune", "Frank Herbert"));
+        UpsertResult video = sourceUpsertRepository.upsertVideo(new Video("Dune", "Frank Herbert"));
+
+        assertTrue(book.isInserted());
+        assertTrue(video.isInserted());
+        assertNotEquals(book.getId(), video.getId());
+        assertEquals(1, bookRepository.count());
+        assertEquals(1, videoRepository.count());
+    }
+
+    @Test
+    void upsertRequiresTitleAndAuthor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> sourceUpsertRepository.upsertBook(new Book()));
+    }
+}
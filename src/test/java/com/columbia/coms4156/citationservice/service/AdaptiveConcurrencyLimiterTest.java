@@ -0,0 +1,182 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.exception.UpstreamOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final ClientRequest REQUEST =
+            ClientRequest.create(HttpMethod.GET, URI.create("http://upstream/works")).build();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /** Answers of the requests that reached the upstream, in order. */
+    private final List<Sinks.One<ClientResponse>> answers = new ArrayList<>();
+
+    /** An upstream that answers each request when the test tells it to. */
+    private final ExchangeFunction upstream = request -> {
+        Sinks.One<ClientResponse> answer = Sinks.one();
+        answers.add(answer);
+        return answer.asMono();
+    };
+
+    /**
+     * A limiter with the default settings, for tests of the upstream services.
+     */
+    static AdaptiveConcurrencyLimiter limiter() {
+        return new AdaptiveConcurrencyLimiter(10, 1, 64, 50, Duration.ofSeconds(1), 0.5,
+                new MetricsService(new SimpleMeterRegistry()));
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxQueue,
+                                               Duration latencyThreshold) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 1, 64, maxQueue, latencyThreshold,
+                0.5, new MetricsService(registry));
+    }
+
+    private Mono<ClientResponse> send(ExchangeFilterFunction filter) {
+        return filter.filter(REQUEST, upstream);
+    }
+
+    private void answer(int index, HttpStatus status) {
+        answers.get(index).tryEmitValue(ClientResponse.create(status).build());
+    }
+
+    @Test
+    void requestsOverTheLimitWaitForAPermit() {
+        ExchangeFilterFunction filter = limiter(2, 10, Duration.ofSeconds(1))
+                .filter(MetricsService.CROSSREF);
+
+        send(filter).subscribe();
+        send(filter).subscribe();
+        send(filter).subscribe();
+        assertEquals(2, answers.size());
+        assertEquals(2.0, registry.get(MetricsService.IN_FLIGHT).gauge().value());
+
+        answer(0, HttpStatus.OK);
+        assertEquals(3, answers.size());
+    }
+
+    @Test
+    void requestsAreShedOnceTheQueueIsFull() {
+        ExchangeFilterFunction filter = limiter(1, 1, Duration.ofSeconds(1))
+                .filter(MetricsService.CROSSREF);
+        send(filter).subscribe();
+        send(filter).subscribe();
+
+        StepVerifier.create(send(filter))
+                .expectError(UpstreamOverloadedException.class)
+                .verify();
+        assertEquals(1, answers.size());
+        assertEquals(1.0, registry.get(MetricsService.SHED)
+                .tag("upstream", MetricsService.CROSSREF).counter().count());
+    }
+
+    @Test
+    void cancelledRequestsLeaveTheQueue() {
+        ExchangeFilterFunction filter = limiter(1, 1, Duration.ofSeconds(1))
+                .filter(MetricsService.CROSSREF);
+        send(filter).subscribe();
+        Disposable waiting = send(filter).subscribe();
+        waiting.dispose();
+
+        send(filter).subscribe();
+        answer(0, HttpStatus.OK);
+
+        assertEquals(2, answers.size());
+        assertEquals(0.0, registry.find(MetricsService.SHED).counters().size());
+    }
+
+    @Test
+    void fastAnswersRaiseAUsedLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 10, Duration.ofSeconds(1));
+        ExchangeFilterFunction filter = limiter.filter(MetricsService.CROSSREF);
+        for (int i = 0; i < 4; i++) {
+            send(filter).subscribe();
+        }
+
+        // Each answer with the limit in use adds 1 / limit: 2 + 1/2 + 1/2.5 + 1/2.9
+        answer(0, HttpStatus.OK);
+        answer(1, HttpStatus.NOT_FOUND);
+        assertEquals(2, limiter.getLimit(MetricsService.CROSSREF));
+        answer(2, HttpStatus.OK);
+        assertEquals(3, limiter.getLimit(MetricsService.CROSSREF));
+    }
+
+    @Test
+    void fastAnswersDoNotRaiseAnIdleLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 10, Duration.ofSeconds(1));
+        ExchangeFilterFunction filter = limiter.filter(MetricsService.CROSSREF);
+
+        for (int i = 0; i < 5; i++) {
+            send(filter).subscribe();
+            answer(i, HttpStatus.OK);
+        }
+
+        assertEquals(10, limiter.getLimit(MetricsService.CROSSREF));
+    }
+
+    @Test
+    void rateLimitedAnswersHalveTheLimitOncePerRound() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 10, Duration.ofSeconds(1));
+        ExchangeFilterFunction filter = limiter.filter(MetricsService.CROSSREF);
+        send(filter).subscribe();
+        send(filter).subscribe();
+
+        answer(0, HttpStatus.TOO_MANY_REQUESTS);
+        answer(1, HttpStatus.SERVICE_UNAVAILABLE);
+        assertEquals(5, limiter.getLimit(MetricsService.CROSSREF));
+
+        send(filter).subscribe();
+        answer(2, HttpStatus.TOO_MANY_REQUESTS);
+        assertEquals(2, limiter.getLimit(MetricsService.CROSSREF));
+        assertEquals(2.0, registry.get(MetricsService.CONCURRENCY_LIMIT).gauge().value());
+    }
+
+    @Test
+    void slowAnswersLowerTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 10, Duration.ofMillis(20));
+        ExchangeFilterFunction filter = limiter.filter(MetricsService.GOOGLE_BOOKS);
+        ExchangeFunction slowUpstream = request -> Mono.delay(Duration.ofMillis(100))
+                .thenReturn(ClientResponse.create(HttpStatus.OK).build());
+
+        filter.filter(REQUEST, slowUpstream).block();
+
+        assertEquals(5, limiter.getLimit(MetricsService.GOOGLE_BOOKS));
+        assertEquals(10, limiter.getLimit(MetricsService.CROSSREF));
+    }
+
+    @Test
+    void connectionErrorsLowerTheLimitAndReleaseThePermit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 0, Duration.ofSeconds(1));
+        ExchangeFilterFunction filter = limiter.filter(MetricsService.CROSSREF);
+        ExchangeFunction unreachable = request -> Mono.error(new IllegalStateException("refused"));
+
+        StepVerifier.create(filter.filter(REQUEST, unreachable))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertEquals(1, limiter.getLimit(MetricsService.CROSSREF));
+        StepVerifier.create(send(filter)).then(() -> answer(0, HttpStatus.OK))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+}
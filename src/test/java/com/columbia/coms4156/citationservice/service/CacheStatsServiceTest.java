@@ -0,0 +1,103 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.CacheRegionStats;
+import com.columbia.coms4156.citationservice.controller.dto.CacheStatsResponse;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Source;
+import com.columbia.coms4156.citationservice.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that sources are served from the second-level cache once warm and that the cache
+ * counts are reported. Runs without a test transaction so that each repository call commits
+ * and reads through a fresh session, as requests do.
+ */
+@DataJpaTest
+@Import({CacheStatsService.class, SourceDedupeCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheStatsServiceTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Autowired
+    private SourceDedupeCache sourceDedupeCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void statisticsAreNotReadUntilRequested() {
+        EntityManagerFactory bootstrapping = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(bootstrapping.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+
+        new CacheStatsService(bootstrapping, new SourceDedupeCache(1));
+
+        verify(sessionFactory, never()).getStatistics();
+    }
+
+    @Test
+    void findByIdIsServedFromSecondLevelCache() {
+        Book book = bookRepository.save(new Book("Dune", "Frank Herbert"));
+
+        bookRepository.findById(book.getId()).orElseThrow();
+        bookRepository.findById(book.getId()).orElseThrow();
+
+        CacheRegionStats sources = region(cacheStatsService.getStats(), Source.CACHE_REGION);
+        assertTrue(sources.getHitCount() >= 1);
+        assertTrue(cacheStatsService.getStats().getSecondLevelCache().getHitCount() >= 1);
+    }
+
+    @Test
+    void dedupeLookupCountsAreReportedAsARegion() {
+        CacheRegionStats before = region(cacheStatsService.getStats(), SourceDedupeCache.NAME);
+
+        sourceDedupeCache.get("book:title-author:dune");
+        sourceDedupeCache.put("book:title-author:dune", 1L);
+        sourceDedupeCache.get("book:title-author:dune");
+
+        CacheRegionStats after = region(cacheStatsService.getStats(), SourceDedupeCache.NAME);
+        assertEquals(1, after.getHitCount() - before.getHitCount());
+        assertEquals(1, after.getMissCount() - before.getMissCount());
+        assertEquals(1, after.getPutCount() - before.getPutCount());
+    }
+
+    private CacheRegionStats region(CacheStatsResponse stats, String name) {
+        return stats.getRegions().stream()
+                .filter(region -> name.equals(region.getRegion()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
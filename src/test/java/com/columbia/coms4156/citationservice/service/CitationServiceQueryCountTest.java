@@ -0,0 +1,125 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Citation;
+import com.columbia.coms4156.citationservice.model.GroupCitationResponse;
+import com.columbia.coms4156.citationservice.model.Source;
+import com.columbia.coms4156.citationservice.model.Submission;
+import com.columbia.coms4156.citationservice.model.Video;
+import com.columbia.coms4156.citationservice.repository.CitationRepository;
+import com.columbia.coms4156.citationservice.repository.SourceRepository;
+import com.columbia.coms4156.citationservice.repository.SubmissionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.columbia.coms4156.citationservice.utils.QueryCountAssertions.assertMaxStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Upper bounds on the SQL statements CitationService issues against a real database, so
+ * an N+1 regression in citation rendering fails the build.
+ *
+ * <p>Not transactional: every service call commits in its own transaction, as requests
+ * do, so entries the second-level cache takes on one call are readable by the next.
+ * Caches are cleared before each test so every cold read reaches the database.</p>
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CitationServiceQueryCountTest {
+
+    private static final int SOURCES = 12;
+
+    @Autowired
+    private CitationService citationService;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private SourceRepository sourceRepository;
+
+    @Autowired
+    private CitationRepository citationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Submission> submissions = new ArrayList<>();
+
+    private final List<Source> sources = new ArrayList<>();
+
+    private final List<Citation> citations = new ArrayList<>();
+
+    private Submission submission;
+
+    @BeforeEach
+    void setUp() {
+        submission = newSubmission();
+        for (int i = 0; i < SOURCES; i++) {
+            Source source;
+            if (i % 3 == 0) {
+                source = new Book("Query Count Book " + i, "Author " + i);
+            } else if (i % 3 == 1) {
+                source = new Video("Query Count Video " + i, "Author " + i);
+            } else {
+                source = new Article("Query Count Article " + i, "Author " + i);
+            }
+            source = sourceRepository.save(source);
+            sources.add(source);
+            citations.add(citationRepository.save(
+                    new Citation(submission, null, source, source.getMediaType())));
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @AfterEach
+    void tearDown() {
+        citationRepository.deleteAll(citations);
+        sourceRepository.deleteAll(sources);
+        submissionRepository.deleteAll(submissions);
+    }
+
+    @Test
+    void groupRenderIssuesOneStatementRegardlessOfSize() {
+        GroupCitationResponse[] response = new GroupCitationResponse[1];
+
+        assertMaxStatements(1, () -> response[0] =
+                citationService.generateCitationsForGroup(submission.getId(), "MLA", false));
+
+        assertEquals(SOURCES, response[0].getCitations().size());
+    }
+
+    @Test
+    void emptyGroupRenderChecksSubmissionOnce() {
+        Long emptyId = newSubmission().getId();
+
+        assertMaxStatements(2, () ->
+                citationService.generateCitationsForGroup(emptyId, "APA", false));
+    }
+
+    @Test
+    void singleRenderIsServedFromSecondLevelCacheOnceWarm() {
+        Long citationId = citations.get(1).getId();
+
+        assertMaxStatements(2, () ->
+                citationService.generateCitationForSource(citationId, "MLA", false));
+        assertMaxStatements(0, () ->
+                citationService.generateCitationForSource(citationId, "CHICAGO", false));
+    }
+
+    private Submission newSubmission() {
+        Submission saved = submissionRepository.save(new Submission());
+        submissions.add(saved);
+        return saved;
+    }
+}
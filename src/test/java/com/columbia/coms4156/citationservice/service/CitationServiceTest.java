@@ -6,37 +6,45 @@ import com.columbia.coms4156.citationservice.model.Book;
 import com.columbia.coms4156.citationservice.model.Citation;
 import com.columbia.coms4156.citationservice.model.CitationResponse;
 import com.columbia.coms4156.citationservice.model.GroupCitationResponse;
+import com.columbia.coms4156.citationservice.model.MediaType;
+import com.columbia.coms4156.citationservice.model.Source;
 import com.columbia.coms4156.citationservice.model.Submission;
 import com.columbia.coms4156.citationservice.model.Video;
-import com.columbia.coms4156.citationservice.repository.ArticleRepository;
-import com.columbia.coms4156.citationservice.repository.BookRepository;
 import com.columbia.coms4156.citationservice.repository.CitationRepository;
 import com.columbia.coms4156.citationservice.repository.SubmissionRepository;
-import com.columbia.coms4156.citationservice.repository.VideoRepository;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class CitationServiceTest {
 
-    @Mock
-    private BookRepository bookRepository;
-    @Mock
-    private VideoRepository videoRepository;
-    @Mock
-    private ArticleRepository articleRepository;
     @Mock
     private CitationRepository citationRepository;
     @Mock
@@ -46,6 +54,18 @@ class CitationServiceTest {
     @Mock
     private CrossRefDoiService crossRefDoiService;
 
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private MetricsService metricsService = new MetricsService(meterRegistry);
+    @Spy
+    private UpstreamGuard upstreamGuard = new UpstreamGuard(
+            CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                    .slidingWindowSize(2)
+                    .minimumNumberOfCalls(2)
+                    .build()),
+            TimeLimiterRegistry.ofDefaults(),
+            RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build()));
+
     @InjectMocks
     private CitationService citationService;
 
@@ -212,11 +232,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(articleId);
-        citation.setMediaType("article");
+        citation.setSource(storedArticle);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(articleRepository.findById(articleId)).thenReturn(Optional.of(storedArticle));
         when(crossRefDoiService.fetchArticleDataByDoi(doi))
                 .thenReturn(reactor.core.publisher.Mono.just(backfilledArticle));
 
@@ -248,11 +266,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(bookId);
-        citation.setMediaType("book");
+        citation.setSource(storedBook);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(storedBook));
         when(googleBooksService.fetchBookDataByIsbn(isbn))
                 .thenReturn(reactor.core.publisher.Mono.just(backfilledBook));
 
@@ -262,6 +278,193 @@ class CitationServiceTest {
         String citationStr = response.getCitationString();
         assertTrue(citationStr.contains("Backfilled Title"));
         assertTrue(citationStr.contains("2000")); // Should use original year
+        assertEquals(1, meterRegistry.get(MetricsService.BACKFILL)
+                .tags("upstream", MetricsService.GOOGLE_BOOKS, "outcome", "found")
+                .timer().count());
+        assertEquals(1, meterRegistry.get(MetricsService.RENDER)
+                .tags("style", "MLA", "media_type", "book").timer().count());
+    }
+
+    @Test
+    void testBackfillRecordsNotFoundAndErrorOutcomes() {
+        Article article = new Article("Stored Title", "Stored Author");
+        article.setDoi("10.1000/missing");
+        Citation citation = new Citation();
+        citation.setId(31L);
+        citation.setSource(article);
+        when(citationRepository.findById(31L)).thenReturn(Optional.of(citation));
+        when(crossRefDoiService.fetchArticleDataByDoi("10.1000/missing"))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.error(new IllegalStateException("CrossRef unavailable")));
+
+        CitationResponse found = citationService.generateCitationForSource(31L, "apa", true);
+        CitationResponse degraded = citationService.generateCitationForSource(31L, "apa", true);
+
+        assertNull(found.getBackfillUnavailable());
+        assertEquals(List.of(MetricsService.CROSSREF), degraded.getBackfillUnavailable());
+        assertEquals(found.getCitationString(), degraded.getCitationString());
+
+        assertEquals(1, meterRegistry.get(MetricsService.BACKFILL)
+                .tags("upstream", MetricsService.CROSSREF, "outcome", "not_found")
+                .timer().count());
+        assertEquals(1, meterRegistry.get(MetricsService.BACKFILL)
+                .tags("upstream", MetricsService.CROSSREF, "outcome", "error")
+                .timer().count());
+        assertEquals(2, meterRegistry.get(MetricsService.RENDER)
+                .tags("style", "APA", "media_type", "article").timer().count());
+    }
+
+    @Test
+    void testOpenBreakerRendersStoredBooksWithoutCallingGoogleBooks() {
+        Book book = new Book("Stored Title", "Stored Author");
+        book.setIsbn("9780306406157");
+        Citation first = new Citation();
+        first.setId(41L);
+        first.setSource(book);
+        Citation second = new Citation();
+        second.setId(42L);
+        second.setSource(book);
+        Citation third = new Citation();
+        third.setId(43L);
+        third.setSource(book);
+        when(citationRepository.findWithSourceBySubmissionId(7L))
+                .thenReturn(List.of(first, second, third));
+        AtomicInteger lookups = new AtomicInteger();
+        when(googleBooksService.fetchBookDataByIsbn("9780306406157"))
+                .thenReturn(Mono.defer(() -> {
+                    lookups.incrementAndGet();
+                    return Mono.error(new IllegalStateException("Google Books unavailable"));
+                }));
+
+        GroupCitationResponse response = citationService.generateCitationsForGroup(7L, "mla",
+                true);
+
+        assertEquals(List.of(MetricsService.GOOGLE_BOOKS), response.getBackfillUnavailable());
+        assertEquals(3, response.getCitations().size());
+        assertTrue(response.getCitations().get("43").contains("Stored Title"));
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void testGroupBackfillResolvesArticlesInOneBatch() {
+        Article first = new Article("Stored First", "Stored Author");
+        first.setDoi("10.1000/first");
+        Article second = new Article("Stored Second", "Stored Author");
+        second.setDoi("10.1000/second");
+        Article noDoi = new Article("Stored Third", "Stored Author");
+        List<Citation> citations = new ArrayList<>();
+        long id = 51L;
+        for (Article article : List.of(first, second, first, noDoi)) {
+            Citation citation = new Citation();
+            citation.setId(id++);
+            citation.setSource(article);
+            citations.add(citation);
+        }
+        when(citationRepository.findWithSourceBySubmissionId(8L)).thenReturn(citations);
+        Article backfilled = new Article("Backfilled First", "Backfilled Author");
+        when(crossRefDoiService.fetchArticlesByDois(
+                Set.of("10.1000/first", "10.1000/second")))
+                .thenReturn(Mono.just(new CrossRefDoiService.DoiLookup(
+                        Map.of("10.1000/first", backfilled))));
+
+        GroupCitationResponse response = citationService.generateCitationsForGroup(8L, "mla",
+                true);
+
+        assertNull(response.getBackfillUnavailable());
+        assertTrue(response.getCitations().get("51").contains("Backfilled First"));
+        assertTrue(response.getCitations().get("53").contains("Backfilled First"));
+        assertTrue(response.getCitations().get("52").contains("Stored Second"));
+        assertTrue(response.getCitations().get("54").contains("Stored Third"));
+        verify(crossRefDoiService, never()).fetchArticleDataByDoi(anyString());
+        assertEquals(1, meterRegistry.get(MetricsService.BACKFILL)
+                .tags("upstream", MetricsService.CROSSREF, "outcome", "found")
+                .timer().count());
+    }
+
+    @Test
+    void testGroupBackfillLooksUpEachCanonicalIdentifierOnce() {
+        Book isbn10 = new Book("Stored Book", "Stored Author");
+        isbn10.setIsbn("0-306-40615-2");
+        Book isbn13 = new Book("Stored Book", "Stored Author");
+        isbn13.setIsbn("978-0-306-40615-7");
+        Article resolverUrl = new Article("Stored Article", "Stored Author");
+        resolverUrl.setDoi("https://doi.org/10.1000/ABC");
+        Article prefixed = new Article("Stored Article", "Stored Author");
+        prefixed.setDoi("doi:10.1000/abc");
+        List<Citation> citations = new ArrayList<>();
+        long id = 71L;
+        for (Source source : List.<Source>of(isbn10, isbn13, resolverUrl, prefixed)) {
+            Citation citation = new Citation();
+            citation.setId(id++);
+            citation.setSource(source);
+            citations.add(citation);
+        }
+        when(citationRepository.findWithSourceBySubmissionId(10L)).thenReturn(citations);
+        AtomicInteger bookLookups = new AtomicInteger();
+        when(googleBooksService.fetchBookDataByIsbn("9780306406157"))
+                .thenReturn(Mono.fromSupplier(() -> {
+                    bookLookups.incrementAndGet();
+                    return new Book("Backfilled Book", "Backfilled Author");
+                }));
+        when(crossRefDoiService.fetchArticlesByDois(Set.of("10.1000/abc")))
+                .thenReturn(Mono.just(new CrossRefDoiService.DoiLookup(Map.of("10.1000/abc",
+                        new Article("Backfilled Article", "Backfilled Author")))));
+
+        GroupCitationResponse response = citationService.generateCitationsForGroup(10L, "mla",
+                true);
+
+        assertEquals(1, bookLookups.get());
+        assertTrue(response.getCitations().get("71").contains("Backfilled Book"));
+        assertTrue(response.getCitations().get("72").contains("Backfilled Book"));
+        assertTrue(response.getCitations().get("73").contains("Backfilled Article"));
+        assertTrue(response.getCitations().get("74").contains("Backfilled Article"));
+    }
+
+    @Test
+    void testGroupBackfillRendersStoredArticlesWhenTheBatchFails() {
+        Article article = new Article("Stored Title", "Stored Author");
+        article.setDoi("10.1000/down");
+        Citation citation = new Citation();
+        citation.setId(61L);
+        citation.setSource(article);
+        when(citationRepository.findWithSourceBySubmissionId(9L)).thenReturn(List.of(citation));
+        when(crossRefDoiService.fetchArticlesByDois(Set.of("10.1000/down")))
+                .thenReturn(Mono.error(new IllegalStateException("CrossRef unavailable")));
+
+        GroupCitationResponse response = citationService.generateCitationsForGroup(9L, "apa",
+                true);
+
+        assertEquals(List.of(MetricsService.CROSSREF), response.getBackfillUnavailable());
+        assertTrue(response.getCitations().get("61").contains("Stored Title"));
+        verify(crossRefDoiService, never()).fetchArticleDataByDoi(anyString());
+    }
+
+    @Test
+    void testGroupBackfillKeepsTheArticlesOfBatchesThatSucceeded() {
+        Article up = new Article("Stored Up", "Stored Author");
+        up.setDoi("10.1000/up");
+        Article down = new Article("Stored Down", "Stored Author");
+        down.setDoi("10.1000/down");
+        List<Citation> citations = new ArrayList<>();
+        long id = 62L;
+        for (Article article : List.of(up, down)) {
+            Citation citation = new Citation();
+            citation.setId(id++);
+            citation.setSource(article);
+            citations.add(citation);
+        }
+        when(citationRepository.findWithSourceBySubmissionId(11L)).thenReturn(citations);
+        when(crossRefDoiService.fetchArticlesByDois(Set.of("10.1000/up", "10.1000/down")))
+                .thenReturn(Mono.just(new CrossRefDoiService.DoiLookup(
+                        Map.of("10.1000/up", new Article("Backfilled Up", "Backfilled Author")),
+                        Set.of("10.1000/down"), null)));
+
+        GroupCitationResponse response = citationService.generateCitationsForGroup(11L, "mla",
+                true);
+
+        assertEquals(List.of(MetricsService.CROSSREF), response.getBackfillUnavailable());
+        assertTrue(response.getCitations().get("62").contains("Backfilled Up"));
+        assertTrue(response.getCitations().get("63").contains("Stored Down"));
     }
 
     @Test
@@ -288,11 +491,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(articleId);
-        citation.setMediaType("article");
+        citation.setSource(storedArticle);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(articleRepository.findById(articleId)).thenReturn(Optional.of(storedArticle));
         when(crossRefDoiService.fetchArticleDataByDoi(doi))
                 .thenReturn(reactor.core.publisher.Mono.just(backfilledArticle));
 
@@ -328,11 +529,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(articleId);
-        citation.setMediaType("article");
+        citation.setSource(storedArticle);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(articleRepository.findById(articleId)).thenReturn(Optional.of(storedArticle));
         when(crossRefDoiService.fetchArticleDataByDoi(doi))
                 .thenReturn(reactor.core.publisher.Mono.just(backfilledArticle));
 
@@ -436,11 +635,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(bookId);
-        citation.setMediaType("book");
+        citation.setSource(storedBook);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(storedBook));
         when(googleBooksService.fetchBookDataByIsbn(isbn)).thenReturn(Mono.empty());
 
         String expectedCitation = "Author, Original. _Original Title_. Original Publisher, 2000.";
@@ -461,11 +658,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(bookId);
-        citation.setMediaType("book");
+        citation.setSource(storedBook);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(storedBook));
         // googleBooksService.fetchBookDataByIsbn should not be called
 
         String expectedCitation = "Author, Original. _Original Title_. Original Publisher, 2000.";
@@ -486,11 +681,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(bookId);
-        citation.setMediaType("book");
+        citation.setSource(storedBook);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(storedBook));
         // googleBooksService.fetchBookDataByIsbn should not be called
 
         String expectedCitation = "Author, Original. _Original Title_. Original Publisher, 2000.";
@@ -515,11 +708,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(articleId);
-        citation.setMediaType("article");
+        citation.setSource(storedArticle);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(articleRepository.findById(articleId)).thenReturn(Optional.of(storedArticle));
         when(crossRefDoiService.fetchArticleDataByDoi(doi)).thenReturn(Mono.empty());
 
         String expectedCitation = "Author, Original. \"Original Article Title.\" Original Journal, vol. 10, no. 3, 2020.";
@@ -542,11 +733,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(articleId);
-        citation.setMediaType("article");
+        citation.setSource(storedArticle);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(articleRepository.findById(articleId)).thenReturn(Optional.of(storedArticle));
         // crossRefDoiService.fetchArticleDataByDoi should not be called
 
         String expectedCitation = "Author, Original. \"Original Article Title.\" Original Journal, vol. 10, no. 3, 2020.";
@@ -569,11 +758,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(articleId);
-        citation.setMediaType("article");
+        citation.setSource(storedArticle);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(articleRepository.findById(articleId)).thenReturn(Optional.of(storedArticle));
         // crossRefDoiService.fetchArticleDataByDoi should not be called
 
         String expectedCitation = "Author, Original. \"Original Article Title.\" Original Journal, vol. 10, no. 3, 2020.";
@@ -772,13 +959,9 @@ class CitationServiceTest {
 
         Citation citation1 = new Citation();
         citation1.setId(1L);
-        citation1.setMediaId(101L);
-        citation1.setMediaType("book");
 
         Citation citation2 = new Citation();
         citation2.setId(2L);
-        citation2.setMediaId(201L);
-        citation2.setMediaType("video");
 
         List<Citation> citations = new ArrayList<>();
         citations.add(citation1);
@@ -795,14 +978,17 @@ class CitationServiceTest {
         video.setPlatform("YouTube");
         video.setReleaseYear(2021);
 
-        when(submissionRepository.findById(submissionId)).thenReturn(Optional.of(submission));
-        when(bookRepository.findById(101L)).thenReturn(Optional.of(book));
-        when(videoRepository.findById(201L)).thenReturn(Optional.of(video));
+        citation1.setSource(book);
+        citation2.setSource(video);
+
+        when(citationRepository.findWithSourceBySubmissionId(submissionId)).thenReturn(citations);
 
         GroupCitationResponse response = citationService.generateCitationsForGroup(submissionId, style, false);
         assertNotNull(response);
         assertEquals(submissionId, response.getSubmissionId());
         assertEquals(2, response.getCitations().size());
+        assertEquals(1, meterRegistry.get(MetricsService.GROUP_SIZE).summary().count());
+        assertEquals(2.0, meterRegistry.get(MetricsService.GROUP_SIZE).summary().totalAmount());
     }
 
     @Test
@@ -815,8 +1001,6 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(3L);
-        citation.setMediaId(102L);
-        citation.setMediaType("book");
 
         List<Citation> citations = new ArrayList<>();
         citations.add(citation);
@@ -827,8 +1011,9 @@ class CitationServiceTest {
         book.setPublisher("Test Publisher");
         book.setPublicationYear(2020);
 
-        when(submissionRepository.findById(submissionId)).thenReturn(Optional.of(submission));
-        when(bookRepository.findById(102L)).thenReturn(Optional.of(book));
+        citation.setSource(book);
+
+        when(citationRepository.findWithSourceBySubmissionId(submissionId)).thenReturn(citations);
 
         GroupCitationResponse response = citationService.generateCitationsForGroup(submissionId, style, false);
         assertNotNull(response);
@@ -846,8 +1031,6 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(4L);
-        citation.setMediaId(301L);
-        citation.setMediaType("article");
 
         List<Citation> citations = new ArrayList<>();
         citations.add(citation);
@@ -858,8 +1041,9 @@ class CitationServiceTest {
         article.setJournal("Test Journal");
         article.setPublicationYear(2022);
 
-        when(submissionRepository.findById(submissionId)).thenReturn(Optional.of(submission));
-        when(articleRepository.findById(301L)).thenReturn(Optional.of(article));
+        citation.setSource(article);
+
+        when(citationRepository.findWithSourceBySubmissionId(submissionId)).thenReturn(citations);
 
         GroupCitationResponse response = citationService.generateCitationsForGroup(submissionId, style, false);
         assertNotNull(response);
@@ -934,7 +1118,8 @@ class CitationServiceTest {
     @Test
     void testGenerateCitationsForGroupNotFound() {
         Long submissionId = 999L;
-        when(submissionRepository.findById(submissionId)).thenReturn(Optional.empty());
+        when(citationRepository.findWithSourceBySubmissionId(submissionId)).thenReturn(List.of());
+        when(submissionRepository.existsById(submissionId)).thenReturn(false);
 
         try {
             citationService.generateCitationsForGroup(submissionId, "MLA", false);
@@ -944,27 +1129,6 @@ class CitationServiceTest {
         }
     }
 
-    @Test
-    void testGenerateCitationByMediaTypeUnsupportedMediaType() {
-        Long citationId = 14L;
-        Long mediaId = 1L;
-        String style = "MLA";
-
-        Citation citation = new Citation();
-        citation.setId(citationId);
-        citation.setMediaId(mediaId);
-        citation.setMediaType("podcast"); // Unsupported type
-
-        when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-
-        try {
-            citationService.generateCitationForSource(citationId, style, false);
-            assertTrue(false, "Should have thrown IllegalArgumentException");
-        } catch (IllegalArgumentException e) {
-            assertTrue(e.getMessage().contains("Unsupported media type"));
-        }
-    }
-
     @Test
     void testGenerateCitationByMediaTypeMediaNotFound() {
         Long citationId = 8L;
@@ -973,11 +1137,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(bookId);
-        citation.setMediaType("book");
+        citation.setMediaType(MediaType.BOOK);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
 
         try {
             citationService.generateCitationForSource(citationId, style, false);
@@ -1006,11 +1168,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(bookId);
-        citation.setMediaType("book");
+        citation.setSource(storedBook);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(storedBook));
         when(googleBooksService.fetchBookDataByIsbn(isbn))
                 .thenReturn(reactor.core.publisher.Mono.just(backfilledBook));
 
@@ -1039,11 +1199,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(articleId);
-        citation.setMediaType("article");
+        citation.setSource(storedArticle);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(articleRepository.findById(articleId)).thenReturn(Optional.of(storedArticle));
         when(crossRefDoiService.fetchArticleDataByDoi(doi))
                 .thenReturn(reactor.core.publisher.Mono.just(backfilledArticle));
 
@@ -1062,6 +1220,8 @@ class CitationServiceTest {
         } catch (IllegalArgumentException e) {
             assertTrue(e.getMessage().contains("Unsupported citation style"));
         }
+        // Failed renders are not timed, so request input never becomes a tag value
+        assertTrue(meterRegistry.find(MetricsService.RENDER).timers().isEmpty());
     }
 
     @Test
@@ -1202,11 +1362,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(videoId);
-        citation.setMediaType("video");
+        citation.setMediaType(MediaType.VIDEO);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(videoRepository.findById(videoId)).thenReturn(Optional.empty());
 
         try {
             citationService.generateCitationForSource(citationId, style, false);
@@ -1224,11 +1382,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(articleId);
-        citation.setMediaType("article");
+        citation.setMediaType(MediaType.ARTICLE);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(articleRepository.findById(articleId)).thenReturn(Optional.empty());
 
         try {
             citationService.generateCitationForSource(citationId, style, false);
@@ -1296,11 +1452,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(bookId);
-        citation.setMediaType("book");
+        citation.setSource(storedBook);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(storedBook));
         when(googleBooksService.fetchBookDataByIsbn(isbn))
                 .thenReturn(reactor.core.publisher.Mono.just(backfilledBook));
 
@@ -1340,11 +1494,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(articleId);
-        citation.setMediaType("article");
+        citation.setSource(storedArticle);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(articleRepository.findById(articleId)).thenReturn(Optional.of(storedArticle));
         when(crossRefDoiService.fetchArticleDataByDoi(doi))
                 .thenReturn(reactor.core.publisher.Mono.just(backfilledArticle));
 
@@ -1371,11 +1523,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(bookId);
-        citation.setMediaType("book");
+        citation.setSource(storedBook);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(storedBook));
         // googleBooksService should not be called
 
         CitationResponse response = citationService.generateCitationForSource(citationId, style, true);
@@ -1398,11 +1548,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(articleId);
-        citation.setMediaType("article");
+        citation.setSource(storedArticle);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(articleRepository.findById(articleId)).thenReturn(Optional.of(storedArticle));
         // crossRefDoiService should not be called
 
         CitationResponse response = citationService.generateCitationForSource(citationId, style, true);
@@ -1634,11 +1782,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(articleId);
-        citation.setMediaType("article");
+        citation.setSource(storedArticle);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(articleRepository.findById(articleId)).thenReturn(Optional.of(storedArticle));
         when(crossRefDoiService.fetchArticleDataByDoi(doi))
                 .thenReturn(reactor.core.publisher.Mono.just(backfilledArticle));
 
@@ -1669,11 +1815,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(articleId);
-        citation.setMediaType("article");
+        citation.setSource(storedArticle);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(articleRepository.findById(articleId)).thenReturn(Optional.of(storedArticle));
         when(crossRefDoiService.fetchArticleDataByDoi(doi))
                 .thenReturn(reactor.core.publisher.Mono.just(backfilledArticle));
 
@@ -1704,11 +1848,9 @@ class CitationServiceTest {
 
         Citation citation = new Citation();
         citation.setId(citationId);
-        citation.setMediaId(bookId);
-        citation.setMediaType("book");
+        citation.setSource(storedBook);
 
         when(citationRepository.findById(citationId)).thenReturn(Optional.of(citation));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(storedBook));
         when(googleBooksService.fetchBookDataByIsbn(isbn))
                 .thenReturn(reactor.core.publisher.Mono.just(backfilledBook));
 
@@ -1843,11 +1985,9 @@ class CitationServiceTest {
         submission.setId(submissionId);
         Citation citation = new Citation();
         citation.setId(1L);
-        citation.setMediaId(999L);
-        citation.setMediaType("video");
+        citation.setMediaType(MediaType.VIDEO);
         submission.setCitations(List.of(citation));
-        when(submissionRepository.findById(submissionId)).thenReturn(Optional.of(submission));
-        when(videoRepository.findById(999L)).thenReturn(Optional.empty());
+        when(citationRepository.findWithSourceBySubmissionId(submissionId)).thenReturn(List.of(citation));
         try {
             citationService.generateCitationsForGroup(submissionId, style, false);
             assertTrue(false, "Should have thrown ResourceNotFoundException");
@@ -1864,11 +2004,9 @@ class CitationServiceTest {
         submission.setId(submissionId);
         Citation citation = new Citation();
         citation.setId(2L);
-        citation.setMediaId(999L);
-        citation.setMediaType("book");
+        citation.setMediaType(MediaType.BOOK);
         submission.setCitations(List.of(citation));
-        when(submissionRepository.findById(submissionId)).thenReturn(Optional.of(submission));
-        when(bookRepository.findById(999L)).thenReturn(Optional.empty());
+        when(citationRepository.findWithSourceBySubmissionId(submissionId)).thenReturn(List.of(citation));
         try {
             citationService.generateCitationsForGroup(submissionId, style, false);
             assertTrue(false, "Should have thrown ResourceNotFoundException");
@@ -1885,11 +2023,9 @@ class CitationServiceTest {
         submission.setId(submissionId);
         Citation citation = new Citation();
         citation.setId(3L);
-        citation.setMediaId(999L);
-        citation.setMediaType("article");
+        citation.setMediaType(MediaType.ARTICLE);
         submission.setCitations(List.of(citation));
-        when(submissionRepository.findById(submissionId)).thenReturn(Optional.of(submission));
-        when(articleRepository.findById(999L)).thenReturn(Optional.empty());
+        when(citationRepository.findWithSourceBySubmissionId(submissionId)).thenReturn(List.of(citation));
         try {
             citationService.generateCitationsForGroup(submissionId, style, false);
             assertTrue(false, "Should have thrown ResourceNotFoundException");
@@ -1898,24 +2034,4 @@ class CitationServiceTest {
         }
     }
 
-    @Test
-    void testGenerateCitationsForGroupWithUnsupportedMediaType() {
-        Long submissionId = 53L;
-        String style = "MLA";
-        Submission submission = new Submission();
-        submission.setId(submissionId);
-        Citation citation = new Citation();
-        citation.setId(4L);
-        citation.setMediaId(1L);
-        citation.setMediaType("unsupported"); // Unsupported media type
-        submission.setCitations(List.of(citation));
-        when(submissionRepository.findById(submissionId)).thenReturn(Optional.of(submission));
-        try {
-            citationService.generateCitationsForGroup(submissionId, style, false);
-            assertTrue(false, "Should have thrown IllegalArgumentException");
-        } catch (IllegalArgumentException e) {
-            assertTrue(e.getMessage().contains("Unsupported media type"));
-        }
-    }
-
 }
@@ -1,16 +1,35 @@
 package com.columbia.coms4156.citationservice.service;
 
 import com.columbia.coms4156.citationservice.model.Article;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.time.Duration;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,7 +43,10 @@ class CrossRefDoiServiceTest {
         mockWebServer = new MockWebServer();
         mockWebServer.start();
         String baseUrl = mockWebServer.url("/").toString();
-        crossRefDoiService = new CrossRefDoiService(WebClient.builder(), baseUrl);
+        crossRefDoiService = new CrossRefDoiService(WebClient.builder(), baseUrl,
+                RequestHedgerTest.disabledHedger(),
+                AdaptiveConcurrencyLimiterTest.limiter(),
+                UpstreamGuardTest.singleAttemptGuard(), 50);
     }
 
     @AfterEach
@@ -307,14 +329,243 @@ class CrossRefDoiServiceTest {
     }
 
     @Test
-    void fetchArticleDataByDoiServerErrorReturnsEmptyMono() {
+    void fetchArticleDataByDoiServerErrorFails() {
         mockWebServer.enqueue(new MockResponse()
                 .setResponseCode(500)
                 .setBody("Internal Server Error"));
 
         Mono<Article> articleMono = crossRefDoiService.fetchArticleDataByDoi("10.1234/error");
 
-        StepVerifier.create(articleMono).verifyComplete();
+        StepVerifier.create(articleMono)
+                .expectError(WebClientResponseException.InternalServerError.class)
+                .verify();
+    }
+
+    @Test
+    void fetchArticleDataByDoiInvalidJsonFails() {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"message\": {\"title\": [")
+                .addHeader("Content-Type", "application/json"));
+
+        StepVerifier.create(crossRefDoiService.fetchArticleDataByDoi("10.1234/broken"))
+                .expectError(DecodingException.class)
+                .verify();
+    }
+
+    @Test
+    void fetchArticleDataByDoiOversizedBodyFails() {
+        String padding = "x".repeat(CrossRefDoiService.MAX_BYTES_PER_DOI);
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"message\": {\"title\": [\"Big\"], \"abstract\": \""
+                        + padding + "\"}}")
+                .addHeader("Content-Type", "application/json"));
+
+        StepVerifier.create(crossRefDoiService.fetchArticleDataByDoi("10.1234/big"))
+                .expectError(DataBufferLimitException.class)
+                .verify();
+    }
+
+    @Test
+    void slowLookupIsHedgedAndTheFasterAnswerIsUsed() {
+        RequestHedger hedger = new RequestHedger(true, 0.95, Duration.ofMillis(50), 1.0,
+                new MetricsService(new SimpleMeterRegistry()));
+        CrossRefDoiService hedged = new CrossRefDoiService(WebClient.builder(),
+                mockWebServer.url("/").toString(), hedger,
+                AdaptiveConcurrencyLimiterTest.limiter(),
+                UpstreamGuardTest.singleAttemptGuard(), 50);
+        String body = """
+                {"status": "ok", "message": {"title": ["Hedged"]}}
+                """;
+        for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+            hedged.fetchArticleDataByDoi("10.1234/warm").block();
+        }
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(body)
+                .addHeader("Content-Type", "application/json")
+                .setBodyDelay(5, TimeUnit.SECONDS));
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(body)
+                .addHeader("Content-Type", "application/json"));
+
+        long start = System.nanoTime();
+        Article article = hedged.fetchArticleDataByDoi("10.1234/slow").block();
+
+        assertEquals("Hedged", article.getTitle());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+        assertEquals(RequestHedger.MIN_SAMPLES + 2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void rateLimitedAnswerLowersTheConcurrencyLimit() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiterTest.limiter();
+        CrossRefDoiService limited = new CrossRefDoiService(WebClient.builder(),
+                mockWebServer.url("/").toString(), RequestHedgerTest.disabledHedger(), limiter,
+                UpstreamGuardTest.singleAttemptGuard(), 50);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(429));
+
+        StepVerifier.create(limited.fetchArticleDataByDoi("10.1234/limited"))
+                .expectError(WebClientResponseException.TooManyRequests.class)
+                .verify();
+
+        assertEquals(5, limiter.getLimit(MetricsService.CROSSREF));
+    }
+
+    @Test
+    void fetchArticlesByDoisResolvesManyDoisPerRequest() throws InterruptedException {
+        CrossRefDoiService batched = new CrossRefDoiService(WebClient.builder(),
+                mockWebServer.url("/").toString(), RequestHedgerTest.disabledHedger(),
+                AdaptiveConcurrencyLimiterTest.limiter(),
+                UpstreamGuardTest.singleAttemptGuard(), 2);
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String filter = request.getRequestUrl().queryParameter("filter");
+                String items = filter.contains("10.1000/A")
+                        ? "{\"DOI\": \"10.1000/a\", \"title\": [\"First\"]}"
+                        : "{\"DOI\": \"10.1000/c\", \"title\": [\"Third\"]}";
+                return new MockResponse()
+                        .setBody("{\"status\": \"ok\", \"message\": {\"total-results\": 1,"
+                                + " \"items\": [" + items + "]}}")
+                        .addHeader("Content-Type", "application/json");
+            }
+        });
+
+        Map<String, Article> articles = batched.fetchArticlesByDois(
+                List.of("10.1000/A", "10.1000/b", "10.1000/c", "10.1000/A"))
+                .block().getArticles();
+
+        assertEquals(Set.of("10.1000/A", "10.1000/c"), articles.keySet());
+        assertEquals("First", articles.get("10.1000/A").getTitle());
+        assertEquals("10.1000/A", articles.get("10.1000/A").getDoi());
+        assertEquals("Third", articles.get("10.1000/c").getTitle());
+        assertEquals(2, mockWebServer.getRequestCount());
+        Set<String> filters = new HashSet<>();
+        for (int i = 0; i < 2; i++) {
+            RecordedRequest request = mockWebServer.takeRequest();
+            assertEquals("/works", request.getRequestUrl().encodedPath());
+            assertTrue(request.getRequestUrl().queryParameter("select").startsWith("DOI,title"));
+            filters.add(request.getRequestUrl().queryParameter("filter"));
+        }
+        assertEquals(Set.of("doi:10.1000/A,doi:10.1000/b", "doi:10.1000/c"), filters);
     }
-}
 
+    @Test
+    void fetchArticlesByDoisLooksUpDoisWithCommasOnTheirOwn() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"message\": {\"title\": [\"Odd\"]}}")
+                .addHeader("Content-Type", "application/json"));
+
+        Map<String, Article> articles =
+                crossRefDoiService.fetchArticlesByDois(List.of("10.1000/a,b")).block()
+                        .getArticles();
+
+        assertEquals("Odd", articles.get("10.1000/a,b").getTitle());
+        assertTrue(mockWebServer.takeRequest().getPath().startsWith("/works/10.1000/a,b"));
+    }
+
+    @Test
+    void fetchArticlesByDoisFailsWhenABatchFails() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+
+        StepVerifier.create(crossRefDoiService.fetchArticlesByDois(List.of("10.1000/a")))
+                .expectError(WebClientResponseException.ServiceUnavailable.class)
+                .verify();
+    }
+
+    @Test
+    void fetchArticlesByDoisKeepsTheBatchesThatSucceeded() {
+        CrossRefDoiService batched = new CrossRefDoiService(WebClient.builder(),
+                mockWebServer.url("/").toString(), RequestHedgerTest.disabledHedger(),
+                AdaptiveConcurrencyLimiterTest.limiter(),
+                UpstreamGuardTest.singleAttemptGuard(), 1);
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getRequestUrl().queryParameter("filter").contains("10.1000/b")) {
+                    return new MockResponse().setResponseCode(503);
+                }
+                return new MockResponse()
+                        .setBody("{\"message\": {\"items\": [{\"DOI\": \"10.1000/a\","
+                                + " \"title\": [\"First\"]}]}}")
+                        .addHeader("Content-Type", "application/json");
+            }
+        });
+
+        CrossRefDoiService.DoiLookup lookup =
+                batched.fetchArticlesByDois(List.of("10.1000/a", "10.1000/b")).block();
+
+        assertEquals(Set.of("10.1000/a"), lookup.getArticles().keySet());
+        assertEquals(Set.of("10.1000/b"), lookup.getFailedDois());
+    }
+
+    @Test
+    void fetchArticlesByDoisSkipsMalformedItemsOfABatch() {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"message\": {\"items\": ["
+                        + "{\"DOI\": \"10.1000/a\", \"title\": [\"First\"], \"author\": []},"
+                        + "{\"title\": [\"No DOI\"]},"
+                        + "{\"DOI\": \"10.1000/b\", \"title\": [\" \"]},"
+                        + "{\"DOI\": \"10.1000/c\", \"title\": [\"Third\"],"
+                        + " \"author\": [{\"name\": \"Consortium\"}], \"URL\": \"bad\"}]}}")
+                .addHeader("Content-Type", "application/json"));
+
+        CrossRefDoiService.DoiLookup lookup = crossRefDoiService.fetchArticlesByDois(
+                List.of("10.1000/a", "10.1000/b", "10.1000/c")).block();
+
+        assertEquals(Set.of("10.1000/a", "10.1000/c"), lookup.getArticles().keySet());
+        assertEquals("Consortium", lookup.getArticles().get("10.1000/c").getAuthor());
+        assertTrue(lookup.getFailedDois().isEmpty());
+    }
+
+    @Test
+    void fetchArticlesByDoisRetriesOnlyTheBatchThatFailed() {
+        UpstreamGuard retrying = new UpstreamGuard(CircuitBreakerRegistry.ofDefaults(),
+                TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                        .timeoutDuration(Duration.ofSeconds(10))
+                        .build()),
+                RetryRegistry.of(RetryConfig.custom()
+                        .maxAttempts(2)
+                        .waitDuration(Duration.ofMillis(10))
+                        .build()));
+        CrossRefDoiService batched = new CrossRefDoiService(WebClient.builder(),
+                mockWebServer.url("/").toString(), RequestHedgerTest.disabledHedger(),
+                AdaptiveConcurrencyLimiterTest.limiter(), retrying, 1);
+        List<String> filters = new CopyOnWriteArrayList<>();
+        AtomicBoolean failed = new AtomicBoolean();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String filter = request.getRequestUrl().queryParameter("filter");
+                filters.add(filter);
+                if (filter.contains("10.1000/b") && failed.compareAndSet(false, true)) {
+                    return new MockResponse().setResponseCode(503);
+                }
+                String doi = filter.substring("doi:".length());
+                return new MockResponse()
+                        .setBody("{\"message\": {\"items\": [{\"DOI\": \"" + doi + "\","
+                                + " \"title\": [\"Found\"]}]}}")
+                        .addHeader("Content-Type", "application/json");
+            }
+        });
+
+        CrossRefDoiService.DoiLookup lookup =
+                batched.fetchArticlesByDois(List.of("10.1000/a", "10.1000/b")).block();
+
+        assertEquals(Set.of("10.1000/a", "10.1000/b"), lookup.getArticles().keySet());
+        assertTrue(lookup.getFailedDois().isEmpty());
+        assertEquals(List.of("doi:10.1000/a"),
+                filters.stream().filter(f -> f.contains("10.1000/a")).toList());
+        assertEquals(List.of("doi:10.1000/b", "doi:10.1000/b"),
+                filters.stream().filter(f -> f.contains("10.1000/b")).toList());
+    }
+
+    @Test
+    void fetchArticlesByDoisWithNoDoisSendsNothing() {
+        Map<String, Article> articles =
+                crossRefDoiService.fetchArticlesByDois(List.of()).block().getArticles();
+
+        assertTrue(articles.isEmpty());
+        assertEquals(0, mockWebServer.getRequestCount());
+    }
+}
@@ -0,0 +1,204 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.model.Article;
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CrossRefWorkReaderTest {
+
+    private static Article read(String json) throws IOException {
+        return CrossRefWorkReader.read(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "10.1000/xyz");
+    }
+
+    @Test
+    void readsTheArticleFieldsAndSkipsEverythingElse() throws IOException {
+        StringBuilder references = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            references.append(i == 0 ? "" : ",")
+                    .append("{\"key\": \"ref").append(i).append("\", \"title\": [\"Cited ")
+                    .append(i).append("\"], \"author\": [{\"family\": \"Nobody\"}]}");
+        }
+        Article article = read("""
+                {
+                  "status": "ok",
+                  "message-type": "work",
+                  "message": {
+                    "reference": [%s],
+                    "license": [{"URL": "https://creativecommons.org", "start": {"date-parts": [[1999]]}}],
+                    "funder": [{"name": "Funder", "award": ["A1", "A2"]}],
+                    "title": ["Streaming Parsers", "Subtitle"],
+                    "author": [
+                      {"given": "Ada", "family": "Lovelace", "affiliation": [{"name": "X"}]},
+                      {"family": "Turing"},
+                      {"given": "Only"}
+                    ],
+                    "container-title": ["Journal of Parsing"],
+                    "volume": 12,
+                    "issue": "3",
+                    "page": "1-20",
+                    "issued": {"date-parts": [[2019, 1]]},
+                    "published-print": {"date-parts": [[2020, 5, 1]]},
+                    "URL": "https://example.org/article"
+                  }
+                }
+                """.formatted(references));
+
+        assertEquals("Streaming Parsers", article.getTitle());
+        assertEquals("Ada Lovelace, Turing", article.getAuthor());
+        assertEquals("Journal of Parsing", article.getJournal());
+        assertEquals("12", article.getVolume());
+        assertEquals("3", article.getIssue());
+        assertEquals("1-20", article.getPages());
+        assertEquals(2020, article.getPublicationYear());
+        assertEquals("https://example.org/article", article.getUrl());
+        assertEquals("10.1000/xyz", article.getDoi());
+    }
+
+    @Test
+    void prefersTheOnlinePublicationYear() throws IOException {
+        Article article = read("""
+                {"message": {
+                  "title": ["T"],
+                  "issued": {"date-parts": [[2018]]},
+                  "published-print": {"date-parts": [[2020]]},
+                  "published-online": {"date-parts": [[2019, 12]]}
+                }}
+                """);
+
+        assertEquals(2019, article.getPublicationYear());
+        assertEquals("https://doi.org/10.1000/xyz", article.getUrl());
+        assertNull(article.getAuthor());
+    }
+
+    @Test
+    void emptyAndMalformedDatesAreSkipped() throws IOException {
+        Article article = read("""
+                {"message": {
+                  "published-online": {"date-parts": [[]]},
+                  "published-print": {"date-parts": [["2020"]], "timestamp": 1},
+                  "issued": {"date-parts": [[null], [2017]]},
+                  "title": ["T"]
+                }}
+                """);
+
+        assertNull(article.getPublicationYear());
+        assertEquals("T", article.getTitle());
+    }
+
+    @Test
+    void missingMessageOrTitleReadsNothing() throws IOException {
+        assertNull(read("{\"status\": \"ok\"}"));
+        assertNull(read("{\"status\": \"ok\", \"message\": {\"title\": []}}"));
+        assertNull(read("{\"message\": {\"author\": [{\"family\": \"Turing\"}]}}"));
+        assertNull(read("[]"));
+    }
+
+    @Test
+    void emptyAuthorArrayLeavesTheAuthorUnset() throws IOException {
+        Article article = read("{\"message\": {\"title\": [\"T\"], \"author\": []}}");
+
+        assertEquals("T", article.getTitle());
+        assertNull(article.getAuthor());
+    }
+
+    @Test
+    void organisationAuthorIsNamed() throws IOException {
+        Article article = read("{\"message\": {\"title\": [\"T\"],"
+                + " \"author\": [{\"name\": \"LIGO Scientific Collaboration\"}]}}");
+
+        assertEquals("LIGO Scientific Collaboration", article.getAuthor());
+    }
+
+    @Test
+    void authorsWithoutNamesLeaveTheAuthorUnset() throws IOException {
+        Article article = read("{\"message\": {\"title\": [\"T\"],"
+                + " \"author\": [{\"given\": \"Only\"}, {\"name\": \" \"}]}}");
+
+        assertNull(article.getAuthor());
+    }
+
+    @Test
+    void blankTitleReadsNothing() throws IOException {
+        assertNull(read("{\"message\": {\"title\": [\"  \"],"
+                + " \"author\": [{\"family\": \"X\"}]}}"));
+    }
+
+    @Test
+    void blankAndInvalidOptionalFieldsAreLeftOut() throws IOException {
+        Article article = read("""
+                {"message": {
+                  "title": ["T"], "container-title": [""], "volume": " ", "issue": "",
+                  "page": "", "URL": "not a url", "issued": {"date-parts": [[99999]]}
+                }}
+                """);
+
+        assertEquals("T", article.getTitle());
+        assertNull(article.getJournal());
+        assertNull(article.getVolume());
+        assertNull(article.getIssue());
+        assertNull(article.getPages());
+        assertNull(article.getPublicationYear());
+        assertEquals("https://doi.org/10.1000/xyz", article.getUrl());
+    }
+
+    @Test
+    void malformedItemsAreSkippedOneByOne() throws IOException {
+        List<Article> articles = CrossRefWorkReader.readItems(new ByteArrayInputStream("""
+                {"message": {"items": [
+                  {"DOI": "10.1000/a", "title": ["First"], "author": []},
+                  {"DOI": "not-a-doi", "title": ["Bad DOI"]},
+                  {"DOI": "10.1000/b", "title": [""]},
+                  "not an object",
+                  {"DOI": "10.1000/c", "title": ["Third"], "URL": "ftp://x", "volume": ""}
+                ]}}
+                """.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of("10.1000/a", "10.1000/c"),
+                articles.stream().map(Article::getDoi).toList());
+        assertEquals("https://doi.org/10.1000/c", articles.get(1).getUrl());
+    }
+
+    @Test
+    void invalidJsonFails() {
+        assertThrows(JsonParseException.class, () -> read("{\"message\": {\"title\": [\"T\"}"));
+    }
+
+    @Test
+    void readsTheItemsOfAQueryResponse() throws IOException {
+        List<Article> articles = CrossRefWorkReader.readItems(new ByteArrayInputStream("""
+                {"status": "ok", "message": {
+                  "facets": {}, "total-results": 3,
+                  "items": [
+                    {"DOI": "10.1000/a", "title": ["First"], "reference": [{"key": "r"}]},
+                    {"DOI": "10.1000/b"},
+                    {"title": ["No DOI"]},
+                    {"title": ["Second"], "DOI": "10.1000/c", "issued": {"date-parts": [[2001]]}}
+                  ],
+                  "items-per-page": 20
+                }}
+                """.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, articles.size());
+        assertEquals("10.1000/a", articles.get(0).getDoi());
+        assertEquals("https://doi.org/10.1000/a", articles.get(0).getUrl());
+        assertEquals("Second", articles.get(1).getTitle());
+        assertEquals(2001, articles.get(1).getPublicationYear());
+    }
+
+    @Test
+    void theLookedUpDoiWinsOverTheListedOne() throws IOException {
+        Article article = read("{\"message\": {\"DOI\": \"10.1000/XYZ\", \"title\": [\"T\"]}}");
+
+        assertEquals("10.1000/xyz", article.getDoi());
+    }
+}
@@ -0,0 +1,107 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.exception.ConflictException;
+import com.columbia.coms4156.citationservice.exception.ResourceNotFoundException;
+import com.columbia.coms4156.citationservice.exception.UnauthorizedException;
+import com.columbia.coms4156.citationservice.exception.ValidationException;
+import com.columbia.coms4156.citationservice.utils.CitationRenderEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FlightRecorderServiceTest {
+
+    private final FlightRecorderService flightRecorderService = new FlightRecorderService(true, "secret");
+
+    private Path file;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void recordsApplicationEventsUntilStopped() throws IOException {
+        MetricsService metricsService = new MetricsService(new SimpleMeterRegistry());
+        flightRecorderService.start("default", Duration.ofMinutes(1));
+
+        String citation = "Doe, John. _Title_.";
+        metricsService.timeRender("MLA", "book", () -> citation);
+        metricsService.timeBackfill(MetricsService.CROSSREF, "10.1000/jfr", () -> null);
+        file = flightRecorderService.stop();
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent render = single(events, "citationservice.CitationRender");
+        assertEquals("MLA", render.getString("style"));
+        assertEquals("book", render.getString("mediaType"));
+        assertEquals(citation.length(), render.getInt("length"));
+        RecordedEvent backfill = single(events, "citationservice.Backfill");
+        assertEquals("crossref", backfill.getString("upstream"));
+        assertEquals("10.1000/jfr", backfill.getString("key"));
+        assertEquals("not_found", backfill.getString("outcome"));
+        // The environment and system properties hold the database password and API keys
+        assertEquals(0, events.stream()
+                .filter(e -> e.getEventType().getName().equals("jdk.InitialEnvironmentVariable")
+                        || e.getEventType().getName().equals("jdk.InitialSystemProperty"))
+                .count());
+    }
+
+    @Test
+    void eventsOutsideARecordingAreDropped() throws IOException {
+        new CitationRenderEvent().commit();
+        flightRecorderService.start("profile", Duration.ofMinutes(1));
+        file = flightRecorderService.stop();
+
+        assertEquals(0, RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("citationservice."))
+                .count());
+    }
+
+    @Test
+    void onlyOneRecordingRunsAtATime() throws IOException {
+        flightRecorderService.start("default", Duration.ofMinutes(1));
+
+        assertThrows(ConflictException.class,
+                () -> flightRecorderService.start("default", Duration.ofMinutes(1)));
+        file = flightRecorderService.stop();
+        assertThrows(ResourceNotFoundException.class, flightRecorderService::stop);
+    }
+
+    @Test
+    void accessNeedsRecordingsEnabledAndTheAdminToken() {
+        flightRecorderService.checkAccess("secret");
+
+        assertThrows(UnauthorizedException.class, () -> flightRecorderService.checkAccess(null));
+        assertThrows(UnauthorizedException.class, () -> flightRecorderService.checkAccess("wrong"));
+        assertThrows(UnauthorizedException.class,
+                () -> new FlightRecorderService(true, "").checkAccess(""));
+        assertThrows(ResourceNotFoundException.class,
+                () -> new FlightRecorderService(false, "secret").checkAccess("secret"));
+    }
+
+    @Test
+    void rejectsUnknownSettings() {
+        assertThrows(ValidationException.class,
+                () -> flightRecorderService.start("everything", Duration.ofMinutes(1)));
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> named = events.stream()
+                .filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertEquals(1, named.size(), name);
+        return named.get(0);
+    }
+}
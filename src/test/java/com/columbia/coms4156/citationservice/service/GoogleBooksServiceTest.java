@@ -24,7 +24,9 @@ class GoogleBooksServiceTest {
         mockWebServer = new MockWebServer();
         mockWebServer.start();
         String baseUrl = mockWebServer.url("/").toString();
-        googleBooksService = new GoogleBooksService(WebClient.builder(), baseUrl, "test-api-key");
+        googleBooksService = new GoogleBooksService(WebClient.builder(), baseUrl, "test-api-key",
+                RequestHedgerTest.disabledHedger(),
+                AdaptiveConcurrencyLimiterTest.limiter());
     }
 
     @AfterEach
@@ -0,0 +1,33 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.EndpointQueryStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryStatsServiceTest {
+
+    private final QueryStatsService queryStatsService = new QueryStatsService();
+
+    @Test
+    void recordAggregatesPerEndpointMostStatementsFirst() {
+        queryStatsService.record("GET /api/cite/{citationId}", 2, 3);
+        queryStatsService.record("GET /api/cite/group/{submissionId}", 1, 1);
+        queryStatsService.record("GET /api/cite/{citationId}", 0, 0);
+        queryStatsService.record("POST /api/source/sources", 31, 12);
+
+        List<EndpointQueryStats> stats = queryStatsService.getStats();
+
+        assertEquals(3, stats.size());
+        assertEquals("POST /api/source/sources", stats.get(0).getEndpoint());
+        EndpointQueryStats single = stats.get(1);
+        assertEquals("GET /api/cite/{citationId}", single.getEndpoint());
+        assertEquals(2, single.getRequests());
+        assertEquals(2, single.getStatements());
+        assertEquals(2, single.getMaxStatements());
+        assertEquals(3, single.getTimeMillis());
+        assertEquals(1.0, single.getAverageStatements());
+    }
+}
@@ -0,0 +1,134 @@
+package com.columbia.coms4156.citationservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RequestHedgerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /**
+     * A hedger that never hedges, for tests of the upstream services.
+     */
+    static RequestHedger disabledHedger() {
+        return new RequestHedger(false, 0.95, Duration.ofMillis(50), 0.1,
+                new MetricsService(new SimpleMeterRegistry()));
+    }
+
+    private RequestHedger hedger(double maxExtraLoad) {
+        return new RequestHedger(true, 0.95, Duration.ofMillis(20), maxExtraLoad,
+                new MetricsService(registry));
+    }
+
+    /**
+     * A lookup whose first subscription answers after {@code firstDelay} and whose later
+     * subscriptions answer at once, with the number of the subscription that answered.
+     */
+    private static Mono<Integer> lookup(AtomicInteger subscriptions, Duration firstDelay) {
+        return Mono.defer(() -> {
+            int n = subscriptions.incrementAndGet();
+            return n == 1 ? Mono.delay(firstDelay).thenReturn(n) : Mono.just(n);
+        });
+    }
+
+    private static void warmUp(RequestHedger hedger, String upstream) {
+        for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+            hedger.hedge(upstream, Mono.just(0)).block();
+        }
+    }
+
+    @Test
+    void disabledHedgerSubscribesOnce() {
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        Integer answer = disabledHedger()
+                .hedge(MetricsService.CROSSREF, lookup(subscriptions, Duration.ofMillis(200)))
+                .block();
+
+        assertEquals(1, answer);
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    void noHedgeBeforeEnoughLatenciesAreKnown() {
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        Integer answer = hedger(1.0)
+                .hedge(MetricsService.CROSSREF, lookup(subscriptions, Duration.ofMillis(200)))
+                .block();
+
+        assertEquals(1, answer);
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    void slowLookupIsHedgedAndTheFirstAnswerWins() {
+        RequestHedger hedger = hedger(1.0);
+        warmUp(hedger, MetricsService.CROSSREF);
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        Integer answer = hedger
+                .hedge(MetricsService.CROSSREF, lookup(subscriptions, Duration.ofSeconds(5)))
+                .block(Duration.ofSeconds(2));
+
+        assertEquals(2, answer);
+        assertEquals(2, subscriptions.get());
+        assertEquals(1.0, registry.get(MetricsService.HEDGES)
+                .tag("upstream", MetricsService.CROSSREF).counter().count());
+    }
+
+    @Test
+    void fastLookupIsNotHedged() {
+        RequestHedger hedger = hedger(1.0);
+        warmUp(hedger, MetricsService.CROSSREF);
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        Integer answer = hedger
+                .hedge(MetricsService.CROSSREF, lookup(subscriptions, Duration.ZERO))
+                .block();
+
+        assertEquals(1, answer);
+        assertEquals(1, subscriptions.get());
+        assertNull(registry.find(MetricsService.HEDGES).counter());
+    }
+
+    @Test
+    void budgetCapsTheHedgesSent() {
+        // The median keeps the delay short even as unhedged slow lookups are recorded
+        RequestHedger hedger = new RequestHedger(true, 0.5, Duration.ofMillis(20), 0.25,
+                new MetricsService(registry));
+        warmUp(hedger, MetricsService.CROSSREF);
+        int hedged = 0;
+
+        for (int i = 0; i < 12; i++) {
+            AtomicInteger subscriptions = new AtomicInteger();
+            hedger.hedge(MetricsService.CROSSREF,
+                    lookup(subscriptions, Duration.ofMillis(150))).block();
+            if (subscriptions.get() > 1) {
+                hedged++;
+            }
+        }
+
+        // Each of the 32 lookups, warm-up included, earned a quarter of a hedge
+        assertEquals(8, hedged);
+    }
+
+    @Test
+    void upstreamsAreTrackedSeparately() {
+        RequestHedger hedger = hedger(1.0);
+        warmUp(hedger, MetricsService.CROSSREF);
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        hedger.hedge(MetricsService.GOOGLE_BOOKS, lookup(subscriptions, Duration.ofMillis(200)))
+                .block();
+
+        assertEquals(1, subscriptions.get());
+    }
+}
@@ -0,0 +1,49 @@
+package com.columbia.coms4156.citationservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SourceDedupeCacheTest {
+
+    @Test
+    void cachedLookupsAreCounted() {
+        SourceDedupeCache cache = new SourceDedupeCache(10);
+
+        assertNull(cache.get("book:isbn:9780306406157"));
+        cache.put("book:isbn:9780306406157", 7L);
+        assertEquals(7L, cache.get("book:isbn:9780306406157"));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getPutCount());
+    }
+
+    @Test
+    void leastRecentlyUsedLookupIsEvictedBeyondTheBound() {
+        SourceDedupeCache cache = new SourceDedupeCache(2);
+        cache.put("a", 1L);
+        cache.put("b", 2L);
+        cache.get("a");
+
+        cache.put("c", 3L);
+
+        assertEquals(1L, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3L, cache.get("c"));
+    }
+
+    @Test
+    void removedLookupIsNoLongerCached() {
+        SourceDedupeCache cache = new SourceDedupeCache(10);
+        cache.put("a", 1L);
+        cache.put("b", 2L);
+
+        cache.remove("a");
+        assertNull(cache.get("a"));
+
+        cache.clear();
+        assertNull(cache.get("b"));
+    }
+}
@@ -0,0 +1,174 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.BulkDeleteRequest;
+import com.columbia.coms4156.citationservice.controller.dto.BulkDeleteResponse;
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Citation;
+import com.columbia.coms4156.citationservice.model.Source;
+import com.columbia.coms4156.citationservice.model.Submission;
+import com.columbia.coms4156.citationservice.model.Video;
+import com.columbia.coms4156.citationservice.repository.CitationRepository;
+import com.columbia.coms4156.citationservice.repository.SourceDeleteRepository;
+import com.columbia.coms4156.citationservice.repository.SourceDeleteRepository.SourceRef;
+import com.columbia.coms4156.citationservice.repository.SourceRepository;
+import com.columbia.coms4156.citationservice.repository.SubmissionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.columbia.coms4156.citationservice.utils.QueryCountAssertions.assertMaxStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk deletes against a real database. Not transactional: each chunk commits on its own,
+ * as in production, and sources are read back through the second-level cache afterwards
+ * to check the deleted ones were evicted.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SourceDeleteServiceTest {
+
+    private static final int ARTICLES = 20;
+
+    @Autowired
+    private SourceDeleteService sourceDeleteService;
+
+    @Autowired
+    private SourceDeleteRepository sourceDeleteRepository;
+
+    @Autowired
+    private SourceRepository sourceRepository;
+
+    @Autowired
+    private CitationRepository citationRepository;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    private final List<Long> sourceIds = new ArrayList<>();
+
+    private Submission submission;
+
+    private Book citedBook;
+
+    private Video uncitedVideo;
+
+    private Citation citation;
+
+    @BeforeEach
+    void setUp() {
+        submission = submissionRepository.save(new Submission());
+        citedBook = save(new Book("Bulk Delete Cited Book", "Author"));
+        uncitedVideo = save(new Video("Bulk Delete Orphaned Video", "Author"));
+        citation = citationRepository.save(
+                new Citation(submission, null, citedBook, citedBook.getMediaType()));
+        // Warm the second-level cache so the deletes must evict
+        sourceRepository.findById(citedBook.getId());
+        sourceRepository.findById(uncitedVideo.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        citationRepository.deleteAllById(List.of(citation.getId()));
+        sourceRepository.deleteAllById(sourceIds);
+        submissionRepository.deleteAllById(List.of(submission.getId()));
+    }
+
+    @Test
+    void keepsCitedSourcesUnlessCascading() {
+        BulkDeleteResponse response = sourceDeleteService.deleteSources(
+                request(List.of(citedBook.getId(), uncitedVideo.getId()), false));
+
+        assertEquals(2, response.getMatchedSources());
+        assertEquals(1, response.getDeletedSources());
+        assertEquals(1, response.getKeptCitedSources());
+        assertEquals(0, response.getDeletedCitations());
+        assertFalse(sourceRepository.findById(uncitedVideo.getId()).isPresent());
+        assertTrue(sourceRepository.findById(citedBook.getId()).isPresent());
+        assertTrue(citationRepository.findById(citation.getId()).isPresent());
+    }
+
+    @Test
+    void cascadeDeletesCitationsAndBumpsTheirSubmission() {
+        long version = submissionRepository.findById(submission.getId()).orElseThrow()
+                .getVersion();
+
+        BulkDeleteResponse response = sourceDeleteService.deleteSources(
+                request(List.of(citedBook.getId()), true));
+
+        assertEquals(1, response.getDeletedSources());
+        assertEquals(1, response.getDeletedCitations());
+        assertFalse(sourceRepository.findById(citedBook.getId()).isPresent());
+        assertFalse(citationRepository.findById(citation.getId()).isPresent());
+        assertEquals(version + 1, submissionRepository.findById(submission.getId())
+                .orElseThrow().getVersion());
+    }
+
+    @Test
+    void mediaTypeFilterAppliesToTheIdList() {
+        BulkDeleteRequest request = request(List.of(citedBook.getId(), uncitedVideo.getId()),
+                true);
+        request.setMediaType("Video");
+
+        BulkDeleteResponse response = sourceDeleteService.deleteSources(request);
+
+        assertEquals(1, response.getDeletedSources());
+        assertEquals(0, response.getDeletedCitations());
+        assertTrue(sourceRepository.findById(citedBook.getId()).isPresent());
+    }
+
+    @Test
+    void deletesAChunkWithAFixedNumberOfStatements() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ARTICLES; i++) {
+            ids.add(save(new Article("Bulk Delete Article " + i, "Author " + i)).getId());
+        }
+        BulkDeleteResponse[] response = new BulkDeleteResponse[1];
+
+        // One select flagging cited sources and one delete, however many sources match
+        assertMaxStatements(2, () ->
+                response[0] = sourceDeleteService.deleteSources(request(ids, false)));
+        assertEquals(ARTICLES, response[0].getDeletedSources());
+    }
+
+    @Test
+    void findsBatchesByFilterCriteria() {
+        Instant later = Instant.now().plus(1, ChronoUnit.DAYS);
+        List<Long> videos = sourceDeleteRepository.findBatch(null, "video", later, 0L, 10000)
+                .stream().map(SourceRef::getId).toList();
+        List<SourceRef> older = sourceDeleteRepository.findBatch(null, null,
+                uncitedVideo.getUpdatedAt().minus(1, ChronoUnit.DAYS), 0L, 10000);
+        List<SourceRef> cited = sourceDeleteRepository.findBatch(
+                List.of(citedBook.getId()), null, null, 0L, 1);
+
+        assertTrue(videos.contains(uncitedVideo.getId()));
+        assertFalse(videos.contains(citedBook.getId()));
+        assertTrue(older.stream().noneMatch(ref -> ref.getId() == uncitedVideo.getId()));
+        assertTrue(cited.get(0).isCited());
+        assertEquals("book", cited.get(0).getMediaType());
+    }
+
+    private <T extends Source> T save(T source) {
+        T saved = sourceRepository.save(source);
+        sourceIds.add(saved.getId());
+        return saved;
+    }
+
+    private static BulkDeleteRequest request(List<Long> ids, boolean cascade) {
+        BulkDeleteRequest request = new BulkDeleteRequest();
+        request.setIds(ids);
+        request.setCascade(cascade);
+        return request;
+    }
+}
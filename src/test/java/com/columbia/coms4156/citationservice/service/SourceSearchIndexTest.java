@@ -0,0 +1,63 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.SearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceSearchIndexTest {
+
+    private SourceSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SourceSearchIndex();
+        index.index("book", 1L, "The Hobbit", "J.R.R. Tolkien", "Allen & Unwin");
+        index.index("book", 2L, "The Silmarillion", "J.R.R. Tolkien", "Allen & Unwin");
+        index.index("video", 3L, "The Hobbit: An Unexpected Journey", "Peter Jackson", null);
+        index.index("article", 4L, "Tolkien and Language", "Jane Doe", "Journal of Tolkien Research");
+    }
+
+    @Test
+    void searchRequiresEveryTerm() {
+        List<SearchHit> hits = index.search("hobbit tolkien", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals("book", hits.get(0).getMediaType());
+        assertEquals(1L, hits.get(0).getId());
+        assertEquals("The Hobbit", hits.get(0).getTitle());
+    }
+
+    @Test
+    void searchRanksTitleMatchesAboveAuthorAndJournalMatches() {
+        List<SearchHit> hits = index.search("TOLKIEN", 10);
+
+        assertEquals(3, hits.size());
+        assertEquals(4L, hits.get(0).getId());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void searchAppliesLimitAndIgnoresPunctuation() {
+        assertEquals(1, index.search("hobbit!", 1).size());
+        assertTrue(index.search("  ,; ", 10).isEmpty());
+        assertTrue(index.search("nonexistent", 10).isEmpty());
+    }
+
+    @Test
+    void reindexAndRemoveUpdatePostings() {
+        index.index("book", 1L, "Farmer Giles of Ham", "J.R.R. Tolkien", null);
+        index.remove("video", 3L);
+
+        assertTrue(index.search("hobbit", 10).isEmpty());
+        assertEquals(1L, index.search("farmer", 10).get(0).getId());
+        assertEquals(3, index.size());
+
+        index.clear();
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,97 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.SearchHit;
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Video;
+import com.columbia.coms4156.citationservice.repository.DatabaseProduct;
+import com.columbia.coms4156.citationservice.repository.SourceRepository;
+import com.columbia.coms4156.citationservice.repository.SourceSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SourceSearchServiceTest {
+
+    @Mock
+    private SourceRepository sourceRepository;
+
+    @Mock
+    private SourceSearchRepository sourceSearchRepository;
+
+    @Mock
+    private DatabaseProduct databaseProduct;
+
+    private SourceSearchIndex sourceSearchIndex;
+
+    private SourceSearchService sourceSearchService;
+
+    @BeforeEach
+    void setUp() {
+        sourceSearchIndex = new SourceSearchIndex();
+        sourceSearchService = new SourceSearchService(sourceRepository, sourceSearchRepository,
+                sourceSearchIndex, databaseProduct);
+    }
+
+    @Test
+    void initializeBuildsInProcessIndexOnH2() {
+        Book book = new Book("Dune", "Frank Herbert");
+        book.setId(1L);
+        book.setPublisher("Chilton");
+        Video video = new Video("Dune", "Denis Villeneuve");
+        video.setId(2L);
+        Article article = new Article("Ecology of Dune", "Jane Doe");
+        article.setId(3L);
+        article.setJournal("Science Fiction Studies");
+        when(databaseProduct.isPostgres()).thenReturn(false);
+        when(sourceRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 500)))
+                .thenReturn(List.of(book, video, article));
+
+        sourceSearchService.initialize();
+
+        assertEquals(3, sourceSearchIndex.size());
+        assertEquals(3, sourceSearchService.search("dune", 10).size());
+        assertEquals("book", sourceSearchService.search("chilton", 10).get(0).getMediaType());
+        verify(sourceSearchRepository, never()).createIndex();
+    }
+
+    @Test
+    void indexAndRemoveSourceMaintainInProcessIndex() {
+        Article article = new Article("Attention Is All You Need", "Ashish Vaswani");
+        article.setId(7L);
+        when(databaseProduct.isPostgres()).thenReturn(false);
+
+        sourceSearchService.indexSource(article);
+        assertEquals(7L, sourceSearchService.search("attention", 5).get(0).getId());
+
+        sourceSearchService.removeSource("article", 7L);
+        assertEquals(0, sourceSearchIndex.size());
+    }
+
+    @Test
+    void postgresUsesDatabaseIndexes() {
+        List<SearchHit> hits = List.of(new SearchHit("book", 1L, "Dune", "Frank Herbert", 0.6));
+        when(databaseProduct.isPostgres()).thenReturn(true);
+        when(sourceSearchRepository.search("dune", 10)).thenReturn(hits);
+
+        sourceSearchService.initialize();
+        sourceSearchService.indexSource(new Book("Dune", "Frank Herbert"));
+
+        verify(sourceSearchRepository).createIndex();
+        verify(sourceRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+        assertEquals(hits, sourceSearchService.search("dune", 10));
+        assertEquals(0, sourceSearchIndex.size());
+    }
+}
@@ -0,0 +1,112 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.BulkSourceRequest;
+import com.columbia.coms4156.citationservice.controller.dto.SourceBatchResponse;
+import com.columbia.coms4156.citationservice.controller.dto.SourceDTO;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import net.ttddyy.dsproxy.QueryCount;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.columbia.coms4156.citationservice.utils.QueryCountAssertions.assertMaxStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Upper bounds on the SQL statements bulk ingestion and source patches issue against a real
+ * database, so a regression in the per-source cost of SourceService.addOrAppendSources or a
+ * patch that rewrites the whole row fails the build.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SourceServiceQueryCountTest {
+
+    private static final int SOURCES = 10;
+
+    @Autowired
+    private SourceService sourceService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SourceDedupeCache sourceDedupeCache;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        sourceDedupeCache.clear();
+    }
+
+    @Test
+    void bulkIngestionOfNewSourcesCostsAFixedNumberOfStatementsPerSource() {
+        BulkSourceRequest request = request("New");
+        SourceBatchResponse[] response = new SourceBatchResponse[1];
+
+        // Submission insert, then per source: dedupe lookup, upsert, id lookup,
+        // duplicate-citation check and citation insert.
+        assertMaxStatements(1 + 5 * SOURCES, () ->
+                response[0] = sourceService.addOrAppendSources(request, null));
+
+        assertEquals(SOURCES, response[0].getCitationIds().size());
+    }
+
+    @Test
+    void bulkIngestionOfStoredSourcesSkipsTheUpsert() {
+        sourceService.addOrAppendSources(request("Seen"), null);
+        BulkSourceRequest request = request("Seen");
+
+        // Submission insert, then per source: dedupe lookup, duplicate-citation check and
+        // citation insert; sources already stored are never upserted again.
+        QueryCount count = assertMaxStatements(1 + 3 * SOURCES, () ->
+                sourceService.addOrAppendSources(request, null));
+        assertEquals(0, count.getOther());
+    }
+
+    @Test
+    void patchingASourceUpdatesOnlyTheChangedColumns() throws Exception {
+        Book book = new Book("Patched Title", "Patched Author");
+        book.setPublisher("Old Publisher");
+        book.setIsbn("9780306406157");
+        sourceService.saveBook(book);
+        JsonNode patch = new ObjectMapper().readTree("{\"publisher\":\"New Publisher\"}");
+        Book[] patched = new Book[1];
+
+        // The book is already in the persistence context, so the patch is a single UPDATE.
+        QueryCount count = assertMaxStatements(1, () ->
+                patched[0] = sourceService.patchBook(book.getId(), patch, book.getVersion()));
+        assertEquals(1, count.getUpdate());
+        assertEquals("New Publisher", patched[0].getPublisher());
+        assertEquals("9780306406157", patched[0].getIsbn());
+        assertEquals(1L, patched[0].getVersion());
+        assertTrue(entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .getEntityDescriptor(Book.class).getEntityMetamodel().isDynamicUpdate());
+    }
+
+    private BulkSourceRequest request(String prefix) {
+        List<SourceDTO> sources = new ArrayList<>();
+        for (int i = 0; i < SOURCES; i++) {
+            SourceDTO source = new SourceDTO();
+            source.setMediaType(i % 2 == 0 ? "book" : "article");
+            source.setTitle(prefix + " Title " + i);
+            source.setAuthor("Author " + i);
+            sources.add(source);
+        }
+        BulkSourceRequest request = new BulkSourceRequest();
+        request.setSources(sources);
+        return request;
+    }
+}
@@ -3,18 +3,32 @@ package com.columbia.coms4156.citationservice.service;
 import com.columbia.coms4156.citationservice.controller.dto.BulkSourceRequest;
 import com.columbia.coms4156.citationservice.controller.dto.SourceBatchResponse;
 import com.columbia.coms4156.citationservice.controller.dto.SourceDTO;
+import com.columbia.coms4156.citationservice.controller.dto.SourcePage;
+import com.columbia.coms4156.citationservice.exception.PreconditionFailedException;
+import com.columbia.coms4156.citationservice.exception.ValidationException;
 import com.columbia.coms4156.citationservice.model.Book;
 import com.columbia.coms4156.citationservice.model.Citation;
 import com.columbia.coms4156.citationservice.model.Submission;
 import com.columbia.coms4156.citationservice.repository.BookRepository;
 import com.columbia.coms4156.citationservice.repository.CitationRepository;
+import com.columbia.coms4156.citationservice.repository.SourceRepository;
+import com.columbia.coms4156.citationservice.repository.SourceUpsertRepository;
+import com.columbia.coms4156.citationservice.repository.SourceUpsertRepository.UpsertResult;
 import com.columbia.coms4156.citationservice.repository.SubmissionRepository;
+import com.columbia.coms4156.citationservice.utils.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import reactor.core.publisher.Mono;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -39,6 +53,8 @@ import java.util.List;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.times;
 
@@ -69,6 +85,25 @@ class SourceServiceTest {
     @Mock
     private CitationRepository citationRepository;
 
+    @Mock
+    private SourceUpsertRepository sourceUpsertRepository;
+
+    @Mock
+    private SourceRepository sourceRepository;
+
+    @Mock
+    private SourceSearchService sourceSearchService;
+
+    @Mock
+    private SourceSuggestService sourceSuggestService;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private MetricsService metricsService = new MetricsService(meterRegistry);
+
+    @Spy
+    private SourceDedupeCache sourceDedupeCache = new SourceDedupeCache(100);
 
     @BeforeEach
     void setUp() {
@@ -97,7 +132,7 @@ class SourceServiceTest {
 
         when(submissionRepository.save(any(Submission.class))).thenReturn(submission);
         when(bookRepository.findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString())).thenReturn(Optional.empty());
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(sourceUpsertRepository.upsertBook(any(Book.class))).thenReturn(new UpsertResult(book.getId(), true));
         when(citationRepository.save(any(Citation.class))).thenReturn(citation);
 
         var response = sourceService.addOrAppendSources(request, null);
@@ -108,8 +143,12 @@ class SourceServiceTest {
 
         verify(submissionRepository, times(1)).save(any(Submission.class));
         verify(bookRepository, times(1)).findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString());
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(sourceUpsertRepository, times(1)).upsertBook(any(Book.class));
         verify(citationRepository, times(1)).save(any(Citation.class));
+        assertEquals(1.0, meterRegistry.get(MetricsService.INGESTED_SOURCES).counter().count());
+        assertEquals(1, meterRegistry.get(MetricsService.INGESTION).timer().count());
+        assertEquals(1.0, meterRegistry.get(MetricsService.DEDUPE)
+                .tags("media_type", "book", "result", "miss").counter().count());
     }
 
     @Test
@@ -135,7 +174,7 @@ class SourceServiceTest {
 
         when(submissionRepository.findById(1L)).thenReturn(Optional.of(submission));
         when(bookRepository.findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString())).thenReturn(Optional.empty());
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(sourceUpsertRepository.upsertBook(any(Book.class))).thenReturn(new UpsertResult(book.getId(), true));
         when(citationRepository.save(any(Citation.class))).thenReturn(citation);
 
         var response = sourceService.addOrAppendSources(request, 1L);
@@ -147,7 +186,7 @@ class SourceServiceTest {
         verify(submissionRepository, never()).save(any(Submission.class));
         verify(submissionRepository, times(1)).findById(1L);
         verify(bookRepository, times(1)).findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString());
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(sourceUpsertRepository, times(1)).upsertBook(any(Book.class));
         verify(citationRepository, times(1)).save(any(Citation.class));
     }
 
@@ -222,7 +261,7 @@ class SourceServiceTest {
 
         when(submissionRepository.save(any(Submission.class))).thenReturn(submission);
         when(bookRepository.findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString())).thenReturn(Optional.empty());
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(sourceUpsertRepository.upsertBook(any(Book.class))).thenReturn(new UpsertResult(book.getId(), true));
         when(citationRepository.save(any(Citation.class))).thenReturn(citation);
 
         var response = sourceService.addOrAppendSources(request, null);
@@ -234,7 +273,7 @@ class SourceServiceTest {
 
         verify(submissionRepository, times(1)).save(any(Submission.class));
         verify(bookRepository, times(1)).findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString());
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(sourceUpsertRepository, times(1)).upsertBook(any(Book.class));
         verify(citationRepository, times(1)).save(any(Citation.class));
     }
 
@@ -273,6 +312,115 @@ class SourceServiceTest {
         verify(bookRepository, times(1)).findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString());
         verify(bookRepository, never()).save(any(Book.class));
         verify(citationRepository, times(1)).save(any(Citation.class));
+        assertEquals(1.0, meterRegistry.get(MetricsService.DEDUPE)
+                .tags("media_type", "book", "result", "hit").counter().count());
+    }
+
+    @Test
+    void testAddOrAppendSources_StoredBookIsFoundThroughDedupeCache() {
+        SourceDTO sourceDTO = new SourceDTO();
+        sourceDTO.setMediaType("book");
+        sourceDTO.setTitle("Test Book");
+        sourceDTO.setAuthor("Test Author");
+
+        BulkSourceRequest request = new BulkSourceRequest();
+        request.setSources(Collections.singletonList(sourceDTO));
+
+        Submission submission = new Submission();
+        submission.setId(1L);
+
+        Book book = new Book("Test Book", "Test Author");
+        book.setId(1L);
+
+        Citation citation = new Citation();
+        citation.setId(1L);
+
+        when(submissionRepository.save(any(Submission.class))).thenReturn(submission);
+        when(bookRepository.findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString()))
+                .thenReturn(Optional.empty());
+        when(sourceUpsertRepository.upsertBook(any(Book.class))).thenReturn(new UpsertResult(1L, true));
+        when(sourceRepository.findById(1L)).thenReturn(Optional.of(book), Optional.empty());
+        when(citationRepository.save(any(Citation.class))).thenReturn(citation);
+
+        // The miss is not cached, but the upserted book is
+        sourceService.addOrAppendSources(request, null);
+        // Loaded by ID instead of queried again
+        sourceService.addOrAppendSources(request, null);
+        // Gone since: the stale entry is dropped and the lookup runs again
+        sourceService.addOrAppendSources(request, null);
+
+        verify(bookRepository, times(2)).findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString());
+        verify(sourceRepository, times(2)).findById(1L);
+        verify(sourceUpsertRepository, times(2)).upsertBook(any(Book.class));
+        assertEquals(2, sourceDedupeCache.getHitCount());
+    }
+
+    @Test
+    void testAddOrAppendSources_BookMatchedByCanonicalIsbn() {
+        SourceDTO sourceDTO = new SourceDTO();
+        sourceDTO.setMediaType("book");
+        sourceDTO.setTitle("Test Book: Second Printing");
+        sourceDTO.setAuthor("T. Author");
+        sourceDTO.setIsbn("0-306-40615-2");
+
+        BulkSourceRequest request = new BulkSourceRequest();
+        request.setSources(Collections.singletonList(sourceDTO));
+
+        Submission submission = new Submission();
+        submission.setId(1L);
+
+        Book book = new Book("Test Book", "Test Author");
+        book.setId(1L);
+        book.setIsbn("9780306406157");
+
+        Citation citation = new Citation();
+        citation.setId(1L);
+
+        when(submissionRepository.save(any(Submission.class))).thenReturn(submission);
+        when(bookRepository.findFirstByCanonicalIsbnOrderByIdAsc("9780306406157"))
+                .thenReturn(Optional.of(book));
+        when(citationRepository.save(any(Citation.class))).thenReturn(citation);
+
+        var response = sourceService.addOrAppendSources(request, null);
+
+        assertEquals(1, response.getCitationIds().size());
+        verify(bookRepository, never()).findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString());
+        verify(sourceUpsertRepository, never()).upsertBook(any(Book.class));
+        assertEquals(1.0, meterRegistry.get(MetricsService.DEDUPE)
+                .tags("media_type", "book", "result", "hit").counter().count());
+    }
+
+    @Test
+    void testAddOrAppendSources_ArticleMatchedByCanonicalDoi() {
+        SourceDTO sourceDTO = new SourceDTO();
+        sourceDTO.setMediaType("article");
+        sourceDTO.setTitle("Test Article");
+        sourceDTO.setAuthor("Test Author");
+        sourceDTO.setDoi("https://doi.org/10.1000/ABC");
+
+        BulkSourceRequest request = new BulkSourceRequest();
+        request.setSources(Collections.singletonList(sourceDTO));
+
+        Submission submission = new Submission();
+        submission.setId(1L);
+
+        Article article = new Article("Test Article", "Test Author");
+        article.setId(1L);
+        article.setDoi("10.1000/abc");
+
+        Citation citation = new Citation();
+        citation.setId(1L);
+
+        when(submissionRepository.save(any(Submission.class))).thenReturn(submission);
+        when(articleRepository.findFirstByCanonicalDoiOrderByIdAsc("10.1000/abc"))
+                .thenReturn(Optional.of(article));
+        when(citationRepository.save(any(Citation.class))).thenReturn(citation);
+
+        var response = sourceService.addOrAppendSources(request, null);
+
+        assertEquals(1, response.getCitationIds().size());
+        verify(articleRepository, never()).findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString());
+        verify(sourceUpsertRepository, never()).upsertArticle(any(Article.class));
     }
 
     @Test
@@ -357,7 +505,7 @@ class SourceServiceTest {
 
         when(bookRepository.findById(id)).thenReturn(Optional.empty());
 
-        Book result = sourceService.updateBook(id, updatedBook);
+        Book result = sourceService.updateBook(id, updatedBook, null);
         assertEquals(null, result);
     }
 
@@ -369,7 +517,7 @@ class SourceServiceTest {
 
         when(videoRepository.findById(id)).thenReturn(Optional.empty());
 
-        Video result = sourceService.updateVideo(id, updatedVideo);
+        Video result = sourceService.updateVideo(id, updatedVideo, null);
         assertEquals(null, result);
     }
 
@@ -381,10 +529,99 @@ class SourceServiceTest {
 
         when(articleRepository.findById(id)).thenReturn(Optional.empty());
 
-        Article result = sourceService.updateArticle(id, updatedArticle);
+        Article result = sourceService.updateArticle(id, updatedArticle, null);
         assertEquals(null, result);
     }
 
+    @Test
+    void testUpdateBookWithStaleVersion() {
+        Book existingBook = new Book("Old Title", "Old Author");
+        existingBook.setId(1L);
+        existingBook.setVersion(3L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> sourceService.updateBook(1L, new Book("New Title", "New Author"), 2L));
+        assertEquals("Old Title", existingBook.getTitle());
+        verify(bookRepository, never()).save(any(Book.class));
+    }
+
+    @Test
+    void testUpdateBookWithCurrentVersion() {
+        Book existingBook = new Book("Old Title", "Old Author");
+        existingBook.setId(1L);
+        existingBook.setVersion(3L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+        when(bookRepository.saveAndFlush(any(Book.class))).thenAnswer(i -> i.getArgument(0));
+
+        Book result = sourceService.updateBook(1L, new Book("New Title", "New Author"), 3L);
+        assertEquals("New Title", result.getTitle());
+    }
+
+    @Test
+    void testPatchBookChangesOnlyGivenFields() throws Exception {
+        Book existingBook = new Book("Old Title", "Old Author");
+        existingBook.setId(1L);
+        existingBook.setPublisher("Old Publisher");
+        existingBook.setCity("New York");
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+        when(bookRepository.saveAndFlush(any(Book.class))).thenAnswer(i -> i.getArgument(0));
+
+        Book result = sourceService.patchBook(1L,
+                new ObjectMapper().readTree("{\"publisher\":\"New Publisher\",\"city\":null}"), null);
+
+        assertEquals("Old Title", result.getTitle());
+        assertEquals("Old Author", result.getAuthor());
+        assertEquals("New Publisher", result.getPublisher());
+        assertNull(result.getCity());
+    }
+
+    @Test
+    void testPatchBookRejectsInvalidValue() throws Exception {
+        Book existingBook = new Book("Old Title", "Old Author");
+        existingBook.setId(1L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+
+        ValidationException e = assertThrows(ValidationException.class, () ->
+                sourceService.patchBook(1L, new ObjectMapper().readTree("{\"title\":\" \"}"), null));
+        assertEquals("Invalid merge patch: Title cannot be blank", e.getMessage());
+        verify(bookRepository, never()).saveAndFlush(any(Book.class));
+    }
+
+    @Test
+    void testPatchBookRejectsIdChangeAndNonObjectPatch() throws Exception {
+        Book existingBook = new Book("Old Title", "Old Author");
+        existingBook.setId(1L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
+        ObjectMapper mapper = new ObjectMapper();
+
+        assertThrows(ValidationException.class, () ->
+                sourceService.patchBook(1L, mapper.readTree("{\"id\":2}"), null));
+        assertThrows(ValidationException.class, () ->
+                sourceService.patchBook(1L, mapper.readTree("[]"), null));
+        assertEquals(1L, existingBook.getId());
+    }
+
+    @Test
+    void testPatchVideoWithStaleVersion() throws Exception {
+        Video existingVideo = new Video("Old Title", "Old Author");
+        existingVideo.setId(1L);
+        existingVideo.setVersion(5L);
+        when(videoRepository.findById(1L)).thenReturn(Optional.of(existingVideo));
+
+        assertThrows(PreconditionFailedException.class, () -> sourceService.patchVideo(1L,
+                new ObjectMapper().readTree("{\"platform\":\"YouTube\"}"), 4L));
+        assertNull(existingVideo.getPlatform());
+    }
+
+    @Test
+    void testPatchArticleNotFound() throws Exception {
+        when(articleRepository.findById(999L)).thenReturn(Optional.empty());
+
+        assertNull(sourceService.patchArticle(999L,
+                new ObjectMapper().readTree("{\"journal\":\"Nature\"}"), null));
+    }
+
     @Test
     void testAddOrAppendSourcesWithNullRequest() {
         var response = sourceService.addOrAppendSources(null, null);
@@ -425,7 +662,7 @@ class SourceServiceTest {
 
         when(submissionRepository.save(any(Submission.class))).thenReturn(submission);
         when(bookRepository.findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString())).thenReturn(Optional.of(book));
-        when(citationRepository.findBySubmissionIdAndMediaIdAndMediaType(1L, 1L, "book")).thenReturn(Optional.of(existingCitation));
+        when(citationRepository.findBySubmissionIdAndSourceId(1L, 1L)).thenReturn(Optional.of(existingCitation));
 
         var response = sourceService.addOrAppendSources(request, null);
 
@@ -464,7 +701,7 @@ class SourceServiceTest {
         when(submissionRepository.save(any(Submission.class))).thenReturn(submission);
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(userEntity));
         when(bookRepository.findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString())).thenReturn(Optional.empty());
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(sourceUpsertRepository.upsertBook(any(Book.class))).thenReturn(new UpsertResult(book.getId(), true));
         when(citationRepository.save(any(Citation.class))).thenReturn(citation);
 
         var response = sourceService.addOrAppendSources(request, null);
@@ -494,7 +731,7 @@ class SourceServiceTest {
 
         when(submissionRepository.save(any(Submission.class))).thenReturn(submission);
         when(articleRepository.findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString())).thenReturn(Optional.empty());
-        when(articleRepository.save(any(Article.class))).thenReturn(article);
+        when(sourceUpsertRepository.upsertArticle(any(Article.class))).thenReturn(new UpsertResult(article.getId(), true));
         when(citationRepository.save(any(Citation.class))).thenReturn(citation);
 
         var response = sourceService.addOrAppendSources(request, null);
@@ -524,7 +761,7 @@ class SourceServiceTest {
 
         when(submissionRepository.save(any(Submission.class))).thenReturn(submission);
         when(videoRepository.findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString())).thenReturn(Optional.empty());
-        when(videoRepository.save(any(Video.class))).thenReturn(video);
+        when(sourceUpsertRepository.upsertVideo(any(Video.class))).thenReturn(new UpsertResult(video.getId(), true));
         when(citationRepository.save(any(Citation.class))).thenReturn(citation);
 
         var response = sourceService.addOrAppendSources(request, null);
@@ -558,7 +795,7 @@ class SourceServiceTest {
         when(submissionRepository.save(any(Submission.class))).thenReturn(submission);
         when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty()); // User not found
         when(bookRepository.findByTitleIgnoreCaseAndAuthorIgnoreCase(anyString(), anyString())).thenReturn(Optional.empty());
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(sourceUpsertRepository.upsertBook(any(Book.class))).thenReturn(new UpsertResult(book.getId(), true));
         when(citationRepository.save(any(Citation.class))).thenReturn(citation);
 
         var response = sourceService.addOrAppendSources(request, null);
@@ -632,5 +869,87 @@ class SourceServiceTest {
             assertTrue(e.getMessage().contains("Author cannot be blank"));
         }
     }
-}
 
+    @Test
+    void testGetBooks_ReturnsNextCursorWhenMoreRowsExist() {
+        Book b1 = new Book("One", "Author");
+        b1.setId(1L);
+        Book b2 = new Book("Two", "Author");
+        b2.setId(2L);
+        Book b3 = new Book("Three", "Author");
+        b3.setId(3L);
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(b1, b2, b3));
+
+        SourcePage<Book> page = sourceService.getBooks(null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(2, page.getLimit());
+        assertEquals(2L, KeysetCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void testGetVideos_LastPageHasNoCursor() {
+        Video v = new Video("Clip", "Creator");
+        v.setId(8L);
+        when(videoRepository.findByIdGreaterThanOrderByIdAsc(7L, PageRequest.of(0, 11)))
+                .thenReturn(List.of(v));
+
+        SourcePage<Video> page = sourceService.getVideos(KeysetCursor.encode(7L), 10);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetArticles_RejectsMalformedCursor() {
+        assertThrows(ValidationException.class,
+                () -> sourceService.getArticles("not-a-cursor", 10));
+        assertThrows(ValidationException.class,
+                () -> sourceService.getArticles(KeysetCursor.encode(-1L), 10));
+        verify(articleRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void testSaveBook_IndexesSavedBookForSearch() {
+        Book book = new Book("Dune", "Frank Herbert");
+        Book saved = new Book("Dune", "Frank Herbert");
+        saved.setId(5L);
+        when(bookRepository.save(book)).thenReturn(saved);
+
+        assertEquals(saved, sourceService.saveBook(book));
+        verify(sourceSearchService).indexSource(saved);
+        verify(sourceSuggestService).indexSource(saved);
+    }
+
+    @Test
+    void testSaveBook_IndexesOnlyAfterCommit() {
+        Book book = new Book("Dune", "Frank Herbert");
+        Book saved = new Book("Dune", "Frank Herbert");
+        saved.setId(5L);
+        when(bookRepository.save(book)).thenReturn(saved);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            sourceService.saveBook(book);
+            verify(sourceSearchService, never()).indexSource(any());
+            verify(sourceSuggestService, never()).indexSource(any());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+            verify(sourceSearchService).indexSource(saved);
+            verify(sourceSuggestService).indexSource(saved);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testDeleteVideo_RemovesVideoFromSearchIndex() {
+        sourceService.deleteVideo(3L);
+
+        verify(videoRepository).deleteById(3L);
+        verify(sourceSearchService).removeSource("video", 3L);
+        verify(sourceSuggestService).removeSource("video", 3L);
+    }
+}
@@ -0,0 +1,73 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.controller.dto.SearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceSuggestIndexTest {
+
+    private SourceSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SourceSuggestIndex();
+        index.index("book", 1L, "The Hobbit", "J.R.R. Tolkien");
+        index.index("book", 2L, "The Great Gatsby", "F. Scott Fitzgerald");
+        index.index("video", 3L, "Inception", "Christopher Nolan");
+        index.index("article", 4L, "Café Society", "Émile Durkheim");
+    }
+
+    @Test
+    void normalizeLowercasesAndStripsAccentsAndPunctuation() {
+        assertEquals("cafe society", SourceSuggestIndex.normalize("  Café—Society! "));
+        assertEquals("", SourceSuggestIndex.normalize(null));
+    }
+
+    @Test
+    void suggestMatchesWordPrefixesOfTitlesAndAuthors() {
+        assertEquals(1L, index.suggest("hob", 10).get(0).getId());
+        assertEquals(2L, index.suggest("fitzg", 10).get(0).getId());
+        assertEquals(3L, index.suggest("christopher no", 10).get(0).getId());
+        assertEquals(4L, index.suggest("emile", 10).get(0).getId());
+    }
+
+    @Test
+    void suggestToleratesMisspellings() {
+        List<SearchHit> hits = index.suggest("incepton", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals("video", hits.get(0).getMediaType());
+        assertEquals("Inception", hits.get(0).getTitle());
+    }
+
+    @Test
+    void suggestRanksPrefixMatchesFirstAndAppliesLimit() {
+        index.index("book", 5L, "The Hobbit Companion", "Someone Else");
+
+        List<SearchHit> hits = index.suggest("the", 2);
+
+        assertEquals(2, hits.size());
+        assertTrue(hits.get(0).getScore() >= hits.get(1).getScore());
+        assertTrue(index.suggest("!!", 10).isEmpty());
+        assertTrue(index.suggest("zzzz", 10).isEmpty());
+    }
+
+    @Test
+    void reindexAndRemoveUpdateSuggestions() {
+        index.index("book", 1L, "Farmer Giles of Ham", "J.R.R. Tolkien");
+        index.remove("video", 3L);
+
+        assertTrue(index.suggest("hobbit", 10).isEmpty());
+        assertTrue(index.suggest("inception", 10).isEmpty());
+        assertEquals(1L, index.suggest("farm", 10).get(0).getId());
+        assertEquals(3, index.size());
+
+        index.clear();
+        assertEquals(0, index.size());
+    }
+}
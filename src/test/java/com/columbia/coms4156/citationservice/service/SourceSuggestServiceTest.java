@@ -0,0 +1,73 @@
+package com.columbia.coms4156.citationservice.service;
+
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Source;
+import com.columbia.coms4156.citationservice.model.Video;
+import com.columbia.coms4156.citationservice.repository.SourceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SourceSuggestServiceTest {
+
+    @Mock
+    private SourceRepository sourceRepository;
+
+    private SourceSuggestIndex sourceSuggestIndex;
+
+    private SourceSuggestService sourceSuggestService;
+
+    @BeforeEach
+    void setUp() {
+        sourceSuggestIndex = new SourceSuggestIndex();
+        sourceSuggestService = new SourceSuggestService(sourceRepository, sourceSuggestIndex);
+    }
+
+    @Test
+    void rebuildIndexReadsSourcesInKeysetBatches() {
+        List<Source> firstBatch = new ArrayList<>();
+        for (long id = 1; id <= SourceScanner.BATCH_SIZE; id++) {
+            Book book = new Book("Book " + id, "Author");
+            book.setId(id);
+            firstBatch.add(book);
+        }
+        Book last = new Book("Final Book", "Author");
+        last.setId(SourceScanner.BATCH_SIZE + 1L);
+        Video video = new Video("Inception", "Christopher Nolan");
+        video.setId(SourceScanner.BATCH_SIZE + 2L);
+        when(sourceRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 500)))
+                .thenReturn(firstBatch);
+        when(sourceRepository.findByIdGreaterThanOrderByIdAsc(500L, PageRequest.of(0, 500)))
+                .thenReturn(List.of(last, video));
+
+        sourceSuggestService.rebuildIndex();
+
+        assertEquals(SourceScanner.BATCH_SIZE + 2, sourceSuggestIndex.size());
+        assertEquals(501L, sourceSuggestService.suggest("final", 5).get(0).getId());
+        assertEquals("video", sourceSuggestService.suggest("nolan", 5).get(0).getMediaType());
+    }
+
+    @Test
+    void indexAndRemoveSourceMaintainIndex() {
+        Article article = new Article("Attention Is All You Need", "Ashish Vaswani");
+        article.setId(7L);
+
+        sourceSuggestService.indexSource(article);
+        sourceSuggestService.indexSource(null);
+        assertEquals(7L, sourceSuggestService.suggest("atten", 5).get(0).getId());
+
+        sourceSuggestService.removeSource("article", 7L);
+        assertEquals(0, sourceSuggestIndex.size());
+    }
+}
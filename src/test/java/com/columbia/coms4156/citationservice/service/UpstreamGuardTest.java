@@ -0,0 +1,112 @@
+package com.columbia.coms4156.citationservice.service;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UpstreamGuardTest {
+
+    /**
+     * A guard that tries each call once, with a time limit long enough for a cold HTTP
+     * client, for tests of the upstream services.
+     */
+    static UpstreamGuard singleAttemptGuard() {
+        return new UpstreamGuard(CircuitBreakerRegistry.ofDefaults(),
+                TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                        .timeoutDuration(Duration.ofSeconds(10))
+                        .build()),
+                RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build()));
+    }
+
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(
+            CircuitBreakerConfig.custom()
+                    .slidingWindowSize(4)
+                    .minimumNumberOfCalls(4)
+                    .failureRateThreshold(50)
+                    .waitDurationInOpenState(Duration.ofMillis(200))
+                    .permittedNumberOfCallsInHalfOpenState(1)
+                    .build());
+
+    private final UpstreamGuard guard = new UpstreamGuard(circuitBreakers,
+            TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                    .timeoutDuration(Duration.ofMillis(100))
+                    .build()),
+            RetryRegistry.of(RetryConfig.custom()
+                    .maxAttempts(2)
+                    .intervalFunction(IntervalFunction
+                            .ofRandomized(Duration.ofMillis(10), 0.5))
+                    .retryExceptions(TimeoutException.class, IllegalStateException.class)
+                    .build()));
+
+    @Test
+    void slowCallsAreCutOffAndRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> slow = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.never();
+        });
+
+        StepVerifier.create(guard.guard(MetricsService.CROSSREF, slow))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void nonTransientErrorsAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> rejected = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new IllegalArgumentException("bad request"));
+        });
+
+        StepVerifier.create(guard.guard(MetricsService.GOOGLE_BOOKS, rejected))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void openBreakerRejectsCallsUntilAProbeSucceeds() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> failing = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new IllegalStateException("upstream down"));
+        });
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(guard.guard(MetricsService.CROSSREF, failing))
+                    .expectError(IllegalStateException.class)
+                    .verify();
+        }
+        CircuitBreaker breaker = circuitBreakers.circuitBreaker(MetricsService.CROSSREF);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        StepVerifier.create(guard.guard(MetricsService.CROSSREF, failing))
+                .expectError(CallNotPermittedException.class)
+                .verify();
+        assertEquals(4, attempts.get());
+
+        Thread.sleep(250);
+        StepVerifier.create(guard.guard(MetricsService.CROSSREF, Mono.just("found")))
+                .expectNext("found")
+                .verifyComplete();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(CircuitBreaker.State.CLOSED,
+                circuitBreakers.circuitBreaker(MetricsService.GOOGLE_BOOKS).getState());
+    }
+}
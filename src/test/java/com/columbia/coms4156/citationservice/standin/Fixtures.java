@@ -0,0 +1,113 @@
+package com.columbia.coms4156.citationservice.standin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the fixture responses under {@code src/test/resources/standin}.
+ *
+ * <p>A key (ISBN, or DOI with {@code /} written as {@code _}) with its own file, e.g.
+ * {@code crossref/10.1103_PhysRevLett.116.061102.json}, gets that recorded response.
+ * Any other key gets the {@code default.json} template with {@code {{key}}} replaced,
+ * so load tests can use as many distinct keys as they like. Keys starting with
+ * {@code missing} are not found.</p>
+ */
+final class Fixtures {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String MISSING_PREFIX = "missing";
+
+    private Fixtures() {
+    }
+
+    /** Answers {@code GET /books/v1/volumes?q=isbn:<isbn>}. */
+    static MockResponse googleBooks(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        String query = url == null ? null : url.queryParameter("q");
+        if (query == null || !query.startsWith("isbn:")) {
+            return new MockResponse().setResponseCode(400);
+        }
+        String isbn = query.substring("isbn:".length());
+        if (isbn.startsWith(MISSING_PREFIX)) {
+            return json("{\"kind\": \"books#volumes\", \"totalItems\": 0}");
+        }
+        return json(load("google-books", isbn));
+    }
+
+    /** Answers {@code GET /works/<doi>} and {@code GET /works?filter=doi:<doi>,...}. */
+    static MockResponse crossRef(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        String path = url == null ? "" : url.encodedPath();
+        if (path.startsWith("/works/")) {
+            String doi = URLDecoder.decode(path.substring("/works/".length()),
+                    StandardCharsets.UTF_8);
+            if (doi.startsWith(MISSING_PREFIX)) {
+                return new MockResponse().setResponseCode(404).setBody("Resource not found.");
+            }
+            return json(load("crossref", doi));
+        }
+        String filter = url == null ? null : url.queryParameter("filter");
+        if (!"/works".equals(path) || filter == null) {
+            return new MockResponse().setResponseCode(400);
+        }
+        ObjectNode list = MAPPER.createObjectNode();
+        list.put("status", "ok");
+        list.put("message-type", "work-list");
+        ObjectNode message = list.putObject("message");
+        ArrayNode items = MAPPER.createArrayNode();
+        for (String clause : filter.split(",")) {
+            String doi = clause.startsWith("doi:") ? clause.substring("doi:".length()) : null;
+            if (doi != null && !doi.startsWith(MISSING_PREFIX)) {
+                items.add(readTree(load("crossref", doi)).path("message"));
+            }
+        }
+        message.put("total-results", items.size());
+        message.set("items", items);
+        return json(list.toString());
+    }
+
+    private static String load(String upstream, String key) {
+        ClassPathResource recorded =
+                new ClassPathResource("standin/" + upstream + "/" + key.replace('/', '_') + ".json");
+        if (recorded.exists()) {
+            return read(recorded);
+        }
+        String template = read(new ClassPathResource("standin/" + upstream + "/default.json"));
+        return template.replace("{{key}}", key);
+    }
+
+    private static String read(ClassPathResource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JsonNode readTree(String json) {
+        try {
+            return MAPPER.readTree(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(body);
+    }
+}
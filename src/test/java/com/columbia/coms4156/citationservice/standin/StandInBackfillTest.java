@@ -0,0 +1,104 @@
+package com.columbia.coms4156.citationservice.standin;
+
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Citation;
+import com.columbia.coms4156.citationservice.model.GroupCitationResponse;
+import com.columbia.coms4156.citationservice.model.Source;
+import com.columbia.coms4156.citationservice.model.Submission;
+import com.columbia.coms4156.citationservice.repository.CitationRepository;
+import com.columbia.coms4156.citationservice.repository.SourceRepository;
+import com.columbia.coms4156.citationservice.repository.SubmissionRepository;
+import com.columbia.coms4156.citationservice.service.CitationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Backfills a submission group through the whole application with the upstream APIs
+ * replaced by the stand-ins, as {@code mvn spring-boot:test-run} does, but with the
+ * latency, errors and bursts turned off.
+ */
+@SpringBootTest(properties = {
+        "standin.google-books.latency-median=0ms",
+        "standin.google-books.error-rate=0",
+        "standin.crossref.latency-median=0ms",
+        "standin.crossref.error-rate=0",
+        "standin.crossref.burst-every=0"
+})
+@ContextConfiguration(initializers = StandInInitializer.class)
+@ActiveProfiles({"test", "standin"})
+class StandInBackfillTest {
+
+    @Autowired
+    private CitationService citationService;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private SourceRepository sourceRepository;
+
+    @Autowired
+    private CitationRepository citationRepository;
+
+    @Autowired
+    @Qualifier("crossRefStandIn")
+    private UpstreamStandIn crossRefStandIn;
+
+    private final List<Citation> citations = new ArrayList<>();
+
+    private final List<Source> sources = new ArrayList<>();
+
+    private Submission submission;
+
+    @AfterEach
+    void tearDown() {
+        citationRepository.deleteAll(citations);
+        sourceRepository.deleteAll(sources);
+        submissionRepository.delete(submission);
+    }
+
+    @Test
+    void groupBackfillUsesTheStandIns() {
+        submission = submissionRepository.save(new Submission());
+        Book book = new Book("Stored Book", "Stored Author");
+        book.setIsbn("9780262033848");
+        cite(book);
+        for (int i = 0; i < 30; i++) {
+            Article article = new Article("Stored Article " + i, "Stored Author");
+            article.setDoi("10.5555/standin." + i);
+            cite(article);
+        }
+        int crossRefRequests = crossRefStandIn.requestCount();
+
+        GroupCitationResponse response =
+                citationService.generateCitationsForGroup(submission.getId(), "MLA", true);
+
+        assertNull(response.getBackfillUnavailable());
+        assertEquals(31, response.getCitations().size());
+        assertTrue(response.getCitations().get(citations.get(0).getId().toString())
+                .contains("Introduction to Algorithms"));
+        assertTrue(response.getCitations().get(citations.get(5).getId().toString())
+                .contains("Stand-in Article 10.5555/standin.4"));
+        assertEquals(1, crossRefStandIn.requestCount() - crossRefRequests);
+    }
+
+    private void cite(Source source) {
+        Source saved = sourceRepository.save(source);
+        sources.add(saved);
+        citations.add(citationRepository.save(
+                new Citation(submission, null, saved, saved.getMediaType())));
+    }
+}
@@ -0,0 +1,128 @@
+package com.columbia.coms4156.citationservice.standin;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * How a stand-in upstream misbehaves: how long it takes to answer, how often it fails, and
+ * when it rate limits.
+ *
+ * <p>Latencies follow a log-normal distribution fitted to a median and a 99th percentile,
+ * which matches the long right tail of real API latencies. A fraction of requests fail
+ * with 500. Every {@code burstEvery} requests, the next {@code burstLength} requests are
+ * answered 429 with a {@code Retry-After} header, like a rate limit window being hit.
+ * All randomness comes from one seeded generator, so a run can be repeated exactly when
+ * requests arrive in the same order.</p>
+ */
+public final class StandInBehaviour {
+
+    /** The z-score of the 99th percentile of a standard normal distribution. */
+    private static final double Z_99 = 2.326;
+
+    private final Duration medianLatency;
+    private final Duration p99Latency;
+    private final double errorRate;
+    private final int burstEvery;
+    private final int burstLength;
+    private final Random random;
+    private long requests;
+
+    /**
+     * Creates a behaviour.
+     *
+     * @param medianLatency the median latency; zero for none
+     * @param p99Latency the 99th percentile latency, at least the median
+     * @param errorRate the fraction of requests answered 500, between 0 and 1
+     * @param burstEvery the number of requests between 429 bursts; 0 for no bursts
+     * @param burstLength the number of requests answered 429 in each burst
+     * @param seed the seed of the random generator
+     */
+    public StandInBehaviour(Duration medianLatency, Duration p99Latency, double errorRate,
+                            int burstEvery, int burstLength, long seed) {
+        this.medianLatency = medianLatency;
+        this.p99Latency = p99Latency.compareTo(medianLatency) < 0 ? medianLatency : p99Latency;
+        this.errorRate = errorRate;
+        this.burstEvery = burstEvery;
+        this.burstLength = burstLength;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Reads a behaviour from {@code <prefix>.latency-median}, {@code .latency-p99},
+     * {@code .error-rate}, {@code .burst-every} and {@code .burst-length}, seeded by
+     * {@code standin.seed}. Anything not set means no latency, errors or bursts.
+     *
+     * @param environment the environment to read from
+     * @param prefix the property prefix, e.g. {@code standin.crossref}
+     * @return the behaviour
+     */
+    public static StandInBehaviour from(Environment environment, String prefix) {
+        return new StandInBehaviour(
+                DurationStyle.detectAndParse(
+                        environment.getProperty(prefix + ".latency-median", "0ms")),
+                DurationStyle.detectAndParse(
+                        environment.getProperty(prefix + ".latency-p99", "0ms")),
+                environment.getProperty(prefix + ".error-rate", Double.class, 0.0),
+                environment.getProperty(prefix + ".burst-every", Integer.class, 0),
+                environment.getProperty(prefix + ".burst-length", Integer.class, 0),
+                environment.getProperty("standin.seed", Long.class, 42L));
+    }
+
+    /** A behaviour that answers at once and never fails. */
+    public static StandInBehaviour none() {
+        return new StandInBehaviour(Duration.ZERO, Duration.ZERO, 0.0, 0, 0, 0L);
+    }
+
+    /**
+     * Decides what happens to the next request.
+     *
+     * @return the latency to add and the status to force, if any
+     */
+    public synchronized Decision next() {
+        long index = requests++;
+        Duration latency = nextLatency();
+        if (burstEvery > 0 && index >= burstEvery && index % burstEvery < burstLength) {
+            return new Decision(latency, 429);
+        }
+        if (random.nextDouble() < errorRate) {
+            return new Decision(latency, 500);
+        }
+        return new Decision(latency, 0);
+    }
+
+    private Duration nextLatency() {
+        if (medianLatency.isZero()) {
+            return Duration.ZERO;
+        }
+        double median = medianLatency.toNanos();
+        double sigma = Math.log(p99Latency.toNanos() / median) / Z_99;
+        return Duration.ofNanos((long) (median * Math.exp(sigma * random.nextGaussian())));
+    }
+
+    /**
+     * What happens to one request.
+     */
+    public static final class Decision {
+
+        private final Duration latency;
+        private final int forcedStatus;
+
+        Decision(Duration latency, int forcedStatus) {
+            this.latency = latency;
+            this.forcedStatus = forcedStatus;
+        }
+
+        /** The time to wait before answering. */
+        public Duration latency() {
+            return latency;
+        }
+
+        /** The error status to answer with, or 0 to serve the fixture. */
+        public int forcedStatus() {
+            return forcedStatus;
+        }
+    }
+}
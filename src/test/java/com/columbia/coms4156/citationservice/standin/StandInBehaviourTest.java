@@ -0,0 +1,77 @@
+package com.columbia.coms4156.citationservice.standin;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StandInBehaviourTest {
+
+    @Test
+    void latenciesFollowTheConfiguredMedianAndP99() {
+        StandInBehaviour behaviour = new StandInBehaviour(Duration.ofMillis(100),
+                Duration.ofMillis(800), 0.0, 0, 0, 7L);
+        List<Duration> latencies = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            latencies.add(behaviour.next().latency());
+        }
+        Collections.sort(latencies);
+
+        long median = latencies.get(10_000).toMillis();
+        long p99 = latencies.get(19_800).toMillis();
+        assertTrue(median >= 90 && median <= 110, () -> "median " + median);
+        assertTrue(p99 >= 700 && p99 <= 900, () -> "p99 " + p99);
+    }
+
+    @Test
+    void errorsFollowTheConfiguredRate() {
+        StandInBehaviour behaviour = new StandInBehaviour(Duration.ZERO, Duration.ZERO, 0.1,
+                0, 0, 7L);
+        int errors = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (behaviour.next().forcedStatus() == 500) {
+                errors++;
+            }
+        }
+
+        assertTrue(errors > 900 && errors < 1100, "errors " + errors);
+    }
+
+    @Test
+    void burstsOf429FollowEveryNRequests() {
+        StandInBehaviour behaviour = new StandInBehaviour(Duration.ZERO, Duration.ZERO, 0.0,
+                10, 3, 7L);
+        List<Integer> limited = new ArrayList<>();
+        for (int i = 0; i < 35; i++) {
+            if (behaviour.next().forcedStatus() == 429) {
+                limited.add(i);
+            }
+        }
+
+        assertEquals(List.of(10, 11, 12, 20, 21, 22, 30, 31, 32), limited);
+    }
+
+    @Test
+    void theSameSeedRepeatsTheSameRun() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("standin.seed", "3")
+                .withProperty("standin.crossref.latency-median", "50ms")
+                .withProperty("standin.crossref.latency-p99", "1s")
+                .withProperty("standin.crossref.error-rate", "0.2");
+        StandInBehaviour first = StandInBehaviour.from(environment, "standin.crossref");
+        StandInBehaviour second = StandInBehaviour.from(environment, "standin.crossref");
+
+        for (int i = 0; i < 100; i++) {
+            StandInBehaviour.Decision a = first.next();
+            StandInBehaviour.Decision b = second.next();
+            assertEquals(a.latency(), b.latency());
+            assertEquals(a.forcedStatus(), b.forcedStatus());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.columbia.coms4156.citationservice.standin;
+
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Starts the Google Books and CrossRef stand-ins before the application context is
+ * refreshed and points the services at them; stops them when the context closes.
+ *
+ * <p>Each stand-in's behaviour is read from {@code standin.google-books.*} and
+ * {@code standin.crossref.*} (see {@link StandInBehaviour#from}).</p>
+ */
+public class StandInInitializer
+        implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        ConfigurableEnvironment environment = context.getEnvironment();
+        UpstreamStandIn googleBooks;
+        UpstreamStandIn crossRef;
+        try {
+            googleBooks = UpstreamStandIn.googleBooks(
+                    StandInBehaviour.from(environment, "standin.google-books"));
+            crossRef = UpstreamStandIn.crossRef(
+                    StandInBehaviour.from(environment, "standin.crossref"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start the upstream stand-ins", e);
+        }
+        environment.getPropertySources().addFirst(new MapPropertySource("standin", Map.of(
+                "google.books.api.base-url", googleBooks.baseUrl(),
+                "crossref.api.base-url", crossRef.baseUrl())));
+        context.getBeanFactory().registerSingleton("googleBooksStandIn", googleBooks);
+        context.getBeanFactory().registerSingleton("crossRefStandIn", crossRef);
+        context.addApplicationListener(new ApplicationListener<ContextClosedEvent>() {
+            @Override
+            public void onApplicationEvent(ContextClosedEvent event) {
+                try {
+                    googleBooks.close();
+                    crossRef.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+}
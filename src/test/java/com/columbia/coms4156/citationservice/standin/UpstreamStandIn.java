@@ -0,0 +1,76 @@
+package com.columbia.coms4156.citationservice.standin;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A local stand-in for an upstream API: a {@link MockWebServer} answering with fixture
+ * responses, delayed and failed as its {@link StandInBehaviour} says.
+ */
+public final class UpstreamStandIn implements Closeable {
+
+    /** Seconds a rate-limited client is asked to wait. */
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final MockWebServer server = new MockWebServer();
+    private final String basePath;
+
+    private UpstreamStandIn(String basePath, StandInBehaviour behaviour,
+                            Function<RecordedRequest, MockResponse> fixtures) {
+        this.basePath = basePath;
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                StandInBehaviour.Decision decision = behaviour.next();
+                MockResponse response = switch (decision.forcedStatus()) {
+                    case 0 -> fixtures.apply(request);
+                    case 429 -> new MockResponse().setResponseCode(429)
+                            .setHeader("Retry-After", RETRY_AFTER_SECONDS);
+                    default -> new MockResponse().setResponseCode(decision.forcedStatus());
+                };
+                return response.setHeadersDelay(decision.latency().toNanos(),
+                        TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    /** Starts a Google Books stand-in serving {@code /books/v1/volumes?q=isbn:...}. */
+    public static UpstreamStandIn googleBooks(StandInBehaviour behaviour) throws IOException {
+        return start("/books/v1/volumes", behaviour, Fixtures::googleBooks);
+    }
+
+    /** Starts a CrossRef stand-in serving {@code /works/{doi}} and {@code /works?filter=}. */
+    public static UpstreamStandIn crossRef(StandInBehaviour behaviour) throws IOException {
+        return start("/", behaviour, Fixtures::crossRef);
+    }
+
+    private static UpstreamStandIn start(String basePath, StandInBehaviour behaviour,
+                                         Function<RecordedRequest, MockResponse> fixtures)
+            throws IOException {
+        UpstreamStandIn standIn = new UpstreamStandIn(basePath, behaviour, fixtures);
+        standIn.server.start();
+        return standIn;
+    }
+
+    /** The base URL to configure the service with. */
+    public String baseUrl() {
+        return server.url(basePath).toString();
+    }
+
+    /** The number of requests received so far. */
+    public int requestCount() {
+        return server.getRequestCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+}
@@ -0,0 +1,129 @@
+package com.columbia.coms4156.citationservice.standin;
+
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.service.AdaptiveConcurrencyLimiter;
+import com.columbia.coms4156.citationservice.service.CrossRefDoiService;
+import com.columbia.coms4156.citationservice.service.GoogleBooksService;
+import com.columbia.coms4156.citationservice.service.MetricsService;
+import com.columbia.coms4156.citationservice.service.RequestHedger;
+import com.columbia.coms4156.citationservice.service.UpstreamGuard;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the real upstream services against the stand-ins, checking the fixtures parse the
+ * way the real APIs' responses do.
+ */
+class UpstreamStandInTest {
+
+    private UpstreamStandIn standIn;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        standIn.close();
+    }
+
+    private static MetricsService metrics() {
+        return new MetricsService(new SimpleMeterRegistry());
+    }
+
+    private static GoogleBooksService googleBooks(UpstreamStandIn standIn) {
+        return new GoogleBooksService(WebClient.builder(), standIn.baseUrl(), "standin",
+                new RequestHedger(false, 0.95, Duration.ofMillis(50), 0.1, metrics()),
+                new AdaptiveConcurrencyLimiter(10, 1, 64, 50, Duration.ofSeconds(1), 0.5,
+                        metrics()));
+    }
+
+    private static CrossRefDoiService crossRef(UpstreamStandIn standIn) {
+        return new CrossRefDoiService(WebClient.builder(), standIn.baseUrl(),
+                new RequestHedger(false, 0.95, Duration.ofMillis(50), 0.1, metrics()),
+                new AdaptiveConcurrencyLimiter(10, 1, 64, 50, Duration.ofSeconds(1), 0.5,
+                        metrics()),
+                new UpstreamGuard(CircuitBreakerRegistry.ofDefaults(),
+                        TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                                .timeoutDuration(Duration.ofSeconds(10))
+                                .build()),
+                        RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build())), 50);
+    }
+
+    @Test
+    void googleBooksServesRecordedTemplatedAndMissingBooks() throws IOException {
+        standIn = UpstreamStandIn.googleBooks(StandInBehaviour.none());
+        GoogleBooksService service = googleBooks(standIn);
+
+        Book recorded = service.fetchBookDataByIsbn("9780262033848").block();
+        Book templated = service.fetchBookDataByIsbn("9780306406157").block();
+
+        assertEquals("Introduction to Algorithms", recorded.getTitle());
+        assertEquals("MIT Press", recorded.getPublisher());
+        assertEquals(2009, recorded.getPublicationYear());
+        assertEquals("Stand-in Book 9780306406157", templated.getTitle());
+        assertNull(service.fetchBookDataByIsbn("missing-1").block());
+    }
+
+    @Test
+    void crossRefServesSingleAndBatchedLookups() throws IOException {
+        standIn = UpstreamStandIn.crossRef(StandInBehaviour.none());
+        CrossRefDoiService service = crossRef(standIn);
+
+        Article recorded = service.fetchArticleDataByDoi("10.1038/nature14539").block();
+        Map<String, Article> batch = service.fetchArticlesByDois(List.of(
+                "10.1103/PhysRevLett.116.061102", "10.5555/any", "missing/1")).block().getArticles();
+
+        assertEquals("Deep learning", recorded.getTitle());
+        assertEquals("Yann LeCun, Yoshua Bengio, Geoffrey Hinton", recorded.getAuthor());
+        assertEquals("Nature", recorded.getJournal());
+        assertEquals(2015, recorded.getPublicationYear());
+        assertEquals(2, batch.size());
+        assertEquals("Physical Review Letters",
+                batch.get("10.1103/PhysRevLett.116.061102").getJournal());
+        assertEquals("Stand-in Article 10.5555/any", batch.get("10.5555/any").getTitle());
+        assertNull(service.fetchArticleDataByDoi("missing/2").block());
+        assertEquals(3, standIn.requestCount());
+    }
+
+    @Test
+    void burstsAndErrorsReachTheService() throws IOException {
+        standIn = UpstreamStandIn.crossRef(
+                new StandInBehaviour(Duration.ZERO, Duration.ZERO, 1.0, 1, 1, 1L));
+        CrossRefDoiService service = crossRef(standIn);
+
+        StepVerifier.create(service.fetchArticleDataByDoi("10.5555/first"))
+                .expectError(WebClientResponseException.InternalServerError.class)
+                .verify();
+        StepVerifier.create(service.fetchArticleDataByDoi("10.5555/second"))
+                .expectError(WebClientResponseException.TooManyRequests.class)
+                .verify();
+    }
+
+    @Test
+    void latencyIsAddedBeforeTheAnswer() throws IOException {
+        standIn = UpstreamStandIn.googleBooks(new StandInBehaviour(Duration.ofMillis(300),
+                Duration.ofMillis(300), 0.0, 0, 0, 1L));
+        GoogleBooksService service = googleBooks(standIn);
+
+        long start = System.nanoTime();
+        service.fetchBookDataByIsbn("9780134685991").block();
+
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(300).toNanos());
+    }
+}
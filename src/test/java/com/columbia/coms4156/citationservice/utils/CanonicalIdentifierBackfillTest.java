@@ -0,0 +1,95 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.repository.ArticleRepository;
+import com.columbia.coms4156.citationservice.repository.BookRepository;
+import com.columbia.coms4156.citationservice.repository.SourceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Fills in the canonical columns of sources inserted without them on the embedded H2
+ * database, as rows saved before the columns existed are.
+ */
+@DataJpaTest
+@Import(CanonicalIdentifierBackfill.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CanonicalIdentifierBackfillTest {
+
+    @Autowired
+    private CanonicalIdentifierBackfill backfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private SourceRepository sourceRepository;
+
+    @AfterEach
+    void tearDown() {
+        sourceRepository.deleteAll();
+    }
+
+    private String canonicalColumn(String column, String title) {
+        return jdbcTemplate.queryForObject("SELECT " + column + " FROM sources WHERE title = ?",
+                String.class, title);
+    }
+
+    @Test
+    void fillsInCanonicalIsbnsAndDois() {
+        jdbcTemplate.update("INSERT INTO sources (media_type, title, author, isbn)"
+                + " VALUES ('book', 'Old Book', 'Author', '0-306-40615-2')");
+        jdbcTemplate.update("INSERT INTO sources (media_type, title, author, doi)"
+                + " VALUES ('article', 'Old Article', 'Author', 'https://doi.org/10.1000/ABC')");
+
+        backfill.run(null);
+
+        assertEquals("9780306406157", canonicalColumn("canonical_isbn", "Old Book"));
+        assertEquals("10.1000/abc", canonicalColumn("canonical_doi", "Old Article"));
+        Book book = bookRepository.findFirstByCanonicalIsbnOrderByIdAsc("9780306406157")
+                .orElseThrow();
+        assertEquals("Old Book", book.getTitle());
+        Article article = articleRepository.findFirstByCanonicalDoiOrderByIdAsc("10.1000/abc")
+                .orElseThrow();
+        assertEquals("Old Article", article.getTitle());
+    }
+
+    @Test
+    void readsEveryBatch() {
+        for (int i = 0; i <= CanonicalIdentifierBackfill.BATCH_SIZE; i++) {
+            jdbcTemplate.update("INSERT INTO sources (media_type, title, author, isbn)"
+                    + " VALUES ('book', ?, 'Author', '9780306406157')", "Book " + i);
+        }
+
+        backfill.run(null);
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sources WHERE canonical_isbn IS NULL", Integer.class));
+    }
+
+    @Test
+    void leavesIdentifiersWithoutACanonicalFormAlone() {
+        jdbcTemplate.update("INSERT INTO sources (media_type, title, author, isbn)"
+                + " VALUES ('book', 'Bad Isbn', 'Author', '9780306406158')");
+
+        backfill.run(null);
+
+        assertNull(canonicalColumn("canonical_isbn", "Bad Isbn"));
+    }
+}
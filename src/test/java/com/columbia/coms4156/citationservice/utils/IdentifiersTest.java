@@ -0,0 +1,53 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdentifiersTest {
+
+    @Test
+    void isbn13IsStrippedOfSeparatorsAndLabel() {
+        assertEquals("9780306406157", Identifiers.canonicalIsbn("978-0-306-40615-7"));
+        assertEquals("9780306406157", Identifiers.canonicalIsbn(" 978 0 306 40615 7 "));
+        assertEquals("9780306406157", Identifiers.canonicalIsbn("ISBN-13: 978-0-306-40615-7"));
+    }
+
+    @Test
+    void isbn10IsConvertedToIsbn13() {
+        assertEquals("9780306406157", Identifiers.canonicalIsbn("0-306-40615-2"));
+        assertEquals("9780140449112", Identifiers.canonicalIsbn("isbn 0140449116"));
+        assertEquals("9780439420891", Identifiers.canonicalIsbn("043942089X"));
+        assertEquals("9780439420891", Identifiers.canonicalIsbn("043942089x"));
+    }
+
+    @Test
+    void invalidIsbnsHaveNoCanonicalForm() {
+        assertNull(Identifiers.canonicalIsbn(null));
+        assertNull(Identifiers.canonicalIsbn(""));
+        assertNull(Identifiers.canonicalIsbn("9780306406158"));
+        assertNull(Identifiers.canonicalIsbn("0306406153"));
+        assertNull(Identifiers.canonicalIsbn("03064X6152"));
+        assertNull(Identifiers.canonicalIsbn("978030640615"));
+    }
+
+    @Test
+    void doiIsLowerCasedWithoutPrefix() {
+        assertEquals("10.1038/nature14539", Identifiers.canonicalDoi("10.1038/Nature14539"));
+        assertEquals("10.1038/nature14539",
+                Identifiers.canonicalDoi("https://doi.org/10.1038/nature14539"));
+        assertEquals("10.1038/nature14539",
+                Identifiers.canonicalDoi("HTTP://DX.DOI.ORG/10.1038/NATURE14539"));
+        assertEquals("10.1038/nature14539", Identifiers.canonicalDoi("doi: 10.1038/nature14539"));
+        assertEquals("10.1038/nature14539", Identifiers.canonicalDoi(" 10.1038/nature14539 "));
+    }
+
+    @Test
+    void invalidDoisHaveNoCanonicalForm() {
+        assertNull(Identifiers.canonicalDoi(null));
+        assertNull(Identifiers.canonicalDoi("invalid-doi"));
+        assertNull(Identifiers.canonicalDoi("11.1234/test"));
+        assertNull(Identifiers.canonicalDoi("https://example.org/10.1038/nature14539"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Citation;
+import com.columbia.coms4156.citationservice.model.MediaType;
+import com.columbia.coms4156.citationservice.repository.BookRepository;
+import com.columbia.coms4156.citationservice.repository.CitationRepository;
+import com.columbia.coms4156.citationservice.repository.SourceRepository;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Migrates hand-built legacy tables on the embedded H2 database. Runs outside a test
+ * transaction, since renaming a table commits on H2.
+ */
+@DataJpaTest
+@Import(LegacySourceMigration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LegacySourceMigrationTest {
+
+    @Autowired
+    private LegacySourceMigration migration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CitationRepository citationRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private SourceRepository sourceRepository;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS books_legacy");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS books");
+        jdbcTemplate.execute("DELETE FROM citations");
+        jdbcTemplate.execute("ALTER TABLE citations DROP COLUMN IF EXISTS media_id");
+        sourceRepository.deleteAll();
+    }
+
+    @Test
+    void copiesLegacyRowsAndRepointsTheirCitations() {
+        createLegacyBooks();
+        jdbcTemplate.update("INSERT INTO books (id, title, author, publisher, isbn)"
+                + " VALUES (7, 'Legacy Book', 'Legacy Author', 'Old Press', '9780306406157')");
+        jdbcTemplate.update("INSERT INTO books (id, title, author) VALUES (8, 'Dup', 'Author')");
+        bookRepository.save(new Book("dup", "author"));
+        jdbcTemplate.update("INSERT INTO citations (media_id, media_type) VALUES (7, 'book')");
+        jdbcTemplate.update("INSERT INTO citations (media_id, media_type) VALUES (8, 'book')");
+        jdbcTemplate.update("INSERT INTO citations (media_id, media_type) VALUES (9, 'book')");
+
+        migration.run(null);
+
+        assertEquals(2, bookRepository.count());
+        List<Citation> citations = citationRepository.findAll();
+        assertEquals(3, citations.size());
+        for (Citation citation : citations) {
+            assertEquals(MediaType.BOOK, citation.getMediaType());
+        }
+        Long legacyBookId = jdbcTemplate.queryForObject(
+                "SELECT source_id FROM citations WHERE media_id = 7", Long.class);
+        Book book = bookRepository.findById(legacyBookId).orElseThrow();
+        assertEquals("Old Press", book.getPublisher());
+        assertEquals("9780306406157", book.getIsbn());
+        Long dupId = jdbcTemplate.queryForObject(
+                "SELECT source_id FROM citations WHERE media_id = 8", Long.class);
+        assertInstanceOf(Book.class, Hibernate.unproxy(sourceRepository.findById(dupId)
+                .orElseThrow()));
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT source_id FROM citations WHERE media_id = 9", Long.class));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM books_legacy", Integer.class));
+    }
+
+    @Test
+    void runsOnlyOnce() {
+        createLegacyBooks();
+        jdbcTemplate.update("INSERT INTO books (id, title, author) VALUES (1, 'Once', 'Only')");
+
+        migration.run(null);
+        migration.run(null);
+
+        assertEquals(1, bookRepository.count());
+    }
+
+    private void createLegacyBooks() {
+        jdbcTemplate.execute("CREATE TABLE books (id BIGINT PRIMARY KEY,"
+                + " title VARCHAR(255) NOT NULL, author VARCHAR(255) NOT NULL,"
+                + " dedupe_key VARCHAR(512), publisher VARCHAR(255), publication_year INT,"
+                + " city VARCHAR(255), edition VARCHAR(255), isbn VARCHAR(255))");
+        jdbcTemplate.execute("ALTER TABLE citations ADD COLUMN media_id BIGINT");
+    }
+}
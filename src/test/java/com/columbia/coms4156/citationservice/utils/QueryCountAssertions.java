@@ -0,0 +1,59 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test helper asserting upper bounds on the SQL statements an operation issues, so that an
+ * N+1 regression fails the build instead of slowing production.
+ *
+ * <p>Relies on {@link QueryCountingDataSourcePostProcessor} proxying the data source, which
+ * it does in any full {@code @SpringBootTest} context. Counts are per thread, so the
+ * operation must run on the calling thread.</p>
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+        // Static helpers only
+    }
+
+    /**
+     * Runs the operation and returns the statements it issued.
+     */
+    public static QueryCount countStatements(Runnable operation) {
+        QueryCountHolder.clear();
+        try {
+            operation.run();
+            return copy(QueryCountHolder.getGrandTotal());
+        } finally {
+            QueryCountHolder.clear();
+        }
+    }
+
+    /**
+     * Runs the operation and fails if it issued more than {@code max} SQL statements.
+     */
+    public static QueryCount assertMaxStatements(long max, Runnable operation) {
+        QueryCount count = countStatements(operation);
+        assertTrue(count.getTotal() <= max, () -> String.format(
+                "Expected at most %d SQL statements but %d were issued "
+                        + "(select=%d, insert=%d, update=%d, delete=%d, other=%d)",
+                max, count.getTotal(), count.getSelect(), count.getInsert(),
+                count.getUpdate(), count.getDelete(), count.getOther()));
+        return count;
+    }
+
+    private static QueryCount copy(QueryCount source) {
+        QueryCount copy = new QueryCount();
+        copy.setSelect(source.getSelect());
+        copy.setInsert(source.getInsert());
+        copy.setUpdate(source.getUpdate());
+        copy.setDelete(source.getDelete());
+        copy.setOther(source.getOther());
+        copy.setTotal(source.getTotal());
+        copy.setTime(source.getTime());
+        return copy;
+    }
+}
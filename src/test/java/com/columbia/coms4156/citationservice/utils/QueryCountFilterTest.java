@@ -0,0 +1,65 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import com.columbia.coms4156.citationservice.service.MetricsService;
+import com.columbia.coms4156.citationservice.service.QueryStatsService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryCountFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final QueryStatsService queryStatsService = new QueryStatsService();
+
+    private final QueryCountFilter filter = new QueryCountFilter(queryStatsService,
+            new MetricsService(meterRegistry), 100);
+
+    @Test
+    void statementsAreRecordedAsMetricsTaggedWithTheUriPattern() throws Exception {
+        issueStatements("/api/source/book/1", 3, 7);
+        issueStatements("/api/source/book/2", 1, 1);
+
+        DistributionSummary statements = meterRegistry.get(MetricsService.REQUEST_STATEMENTS)
+                .tags("method", "GET", "uri", "/api/source/book/{id}").summary();
+        assertEquals(2, statements.count());
+        assertEquals(4.0, statements.totalAmount());
+        assertEquals(3.0, statements.max());
+        Timer time = meterRegistry.get(MetricsService.REQUEST_SQL_TIME)
+                .tags("method", "GET", "uri", "/api/source/book/{id}").timer();
+        assertEquals(8.0, time.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(2, queryStatsService.getStats().get(0).getRequests());
+    }
+
+    private void issueStatements(String path, int selects, long timeMillis) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        MockFilterChain chain = new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req,
+                                   jakarta.servlet.http.HttpServletResponse res) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                        "/api/source/book/{id}");
+                QueryCount count = new QueryCount();
+                for (int i = 0; i < selects; i++) {
+                    count.incrementSelect();
+                    count.incrementTotal();
+                }
+                count.setTime(timeMillis);
+                QueryCountHolder.put("dataSource", count);
+            }
+        });
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+    }
+}
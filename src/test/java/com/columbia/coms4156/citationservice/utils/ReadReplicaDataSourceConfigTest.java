@@ -0,0 +1,92 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the application against two separate H2 databases standing in for a primary and a
+ * read replica. Only the primary gets the schema, so whether the sources table is visible
+ * shows which database a transaction was routed to.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary",
+    "spring.datasource.replica.url=jdbc:h2:mem:routing-replica",
+    "spring.datasource.hikari.maximum-pool-size=7",
+    "spring.datasource.replica.hikari.maximum-pool-size=3"
+})
+class ReadReplicaDataSourceConfigTest {
+
+    private static final String COUNT_SOURCES_TABLES =
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'SOURCES'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private int countSourcesTables() {
+        return jdbcTemplate.queryForObject(COUNT_SOURCES_TABLES, Integer.class);
+    }
+
+    @Test
+    void readOnlyTransactionsAreRoutedToTheReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Integer tables = readOnly.execute(status -> countSourcesTables());
+
+        assertEquals(0, tables);
+    }
+
+    @Test
+    void readWriteTransactionsAreRoutedToThePrimary() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        Integer tables = readWrite.execute(status -> countSourcesTables());
+
+        assertEquals(1, tables);
+    }
+
+    @Test
+    void workOutsideTransactionsGoesToThePrimary() {
+        assertEquals(1, countSourcesTables());
+    }
+
+    @Test
+    void poolSettingsAreBoundPerPool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.execute(status -> countSourcesTables());
+        countSourcesTables();
+
+        assertEquals(7.0, meterRegistry.get("hikaricp.connections.max").tag("pool", "primary")
+                .gauge().value());
+        assertEquals(3.0, meterRegistry.get("hikaricp.connections.max").tag("pool", "replica")
+                .gauge().value());
+    }
+
+    @Test
+    void bothPoolsReportConnectionWaitTimes() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.execute(status -> countSourcesTables());
+        countSourcesTables();
+
+        for (String pool : new String[] {"primary", "replica"}) {
+            assertTrue(meterRegistry.get("hikaricp.connections.acquire").tag("pool", pool)
+                    .timer().count() > 0, pool);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private final DataSource primary =
+            mock(DataSource.class, withSettings().extraInterfaces(Closeable.class));
+
+    private final DataSource replica =
+            mock(DataSource.class, withSettings().extraInterfaces(Closeable.class));
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection replicaConnection = mock(Connection.class);
+
+    private final ReadReplicaRoutingDataSource routing =
+            new ReadReplicaRoutingDataSource(primary, replica, Duration.ofMinutes(1));
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readWriteWorkGoesToThePrimary() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replicaConnection, routing.getConnection());
+    }
+
+    @Test
+    void readOnlyTransactionsFallBackToThePrimaryWhenTheReplicaIsDown() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void replicaIsSkippedForAWhileAfterItFailed() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        routing.getConnection();
+        assertSame(primaryConnection, routing.getConnection());
+
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    void replicaIsRetriedOnceTheIntervalHasPassed() throws SQLException {
+        ReadReplicaRoutingDataSource retrying =
+                new ReadReplicaRoutingDataSource(primary, replica, Duration.ZERO);
+        when(replica.getConnection())
+                .thenThrow(new SQLException("Connection refused"))
+                .thenReturn(replicaConnection);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, retrying.getConnection());
+        assertSame(replicaConnection, retrying.getConnection());
+    }
+
+    @Test
+    void closeClosesBothPools() throws Exception {
+        routing.close();
+
+        verify((Closeable) primary).close();
+        verify((Closeable) replica).close();
+    }
+}
@@ -0,0 +1,133 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import com.columbia.coms4156.citationservice.repository.SourceRepository;
+import com.columbia.coms4156.citationservice.service.CrossRefDoiService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Collects the spans of real requests with an in-memory exporter, checking that
+ * repository and upstream calls are recorded as children of the span they run in.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+@ActiveProfiles("test")
+class RepositoryObservationPostProcessorTest {
+
+    private static final MockWebServer CROSSREF = new MockWebServer();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Autowired
+    private SourceRepository sourceRepository;
+
+    @Autowired
+    private CrossRefDoiService crossRefDoiService;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @DynamicPropertySource
+    static void crossRefUrl(DynamicPropertyRegistry registry) throws IOException {
+        CROSSREF.start();
+        registry.add("crossref.api.base-url", () -> CROSSREF.url("/").toString());
+    }
+
+    @AfterAll
+    static void stopCrossRef() throws IOException {
+        CROSSREF.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        spanExporter.reset();
+    }
+
+    @Test
+    void requestSpanParentsItsRepositoryCalls() throws Exception {
+        mockMvc.perform(get("/api/source/book/{id}", 987654L))
+                .andExpect(status().isNotFound());
+
+        List<SpanData> spans = finishedSpans();
+        SpanData request = span(spans, "http get /api/source/book/{id}");
+        SpanData findById = span(spans, "book-repository.find-by-id");
+        assertEquals(request.getTraceId(), findById.getTraceId());
+        assertEquals(request.getSpanId(), findById.getParentSpanId());
+    }
+
+    @Test
+    void upstreamCallsJoinTheCurrentTrace() {
+        CROSSREF.enqueue(new MockResponse().setResponseCode(404));
+        Observation parent = Observation.start("test.backfill", observationRegistry);
+        try (Observation.Scope scope = parent.openScope()) {
+            sourceRepository.count();
+            crossRefDoiService.fetchArticleDataByDoi("10.1000/traced").block();
+        } finally {
+            parent.stop();
+        }
+
+        List<SpanData> spans = finishedSpans();
+        SpanData root = span(spans, "test.backfill");
+        SpanData count = span(spans, "source-repository.count");
+        SpanData crossRef = span(spans, "http get");
+        assertEquals(root.getSpanId(), count.getParentSpanId());
+        assertEquals(root.getTraceId(), crossRef.getTraceId());
+        assertEquals(root.getSpanId(), crossRef.getParentSpanId());
+    }
+
+    private List<SpanData> finishedSpans() {
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        return spanExporter.getFinishedSpanItems();
+    }
+
+    private static SpanData span(List<SpanData> spans, String name) {
+        List<SpanData> named = spans.stream().filter(s -> s.getName().equals(name)).toList();
+        assertTrue(!named.isEmpty(), () -> "No span named " + name + " in " + spans.stream()
+                .map(SpanData::getName).toList());
+        return named.get(0);
+    }
+}
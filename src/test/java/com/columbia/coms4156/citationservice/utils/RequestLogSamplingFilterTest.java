@@ -0,0 +1,68 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RequestLogSamplingFilterTest {
+
+    private final RequestLogSamplingTurboFilter turboFilter = new RequestLogSamplingTurboFilter();
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RequestLogSamplingFilterTest.class);
+
+    @Test
+    void unsampledRequestsKeepOnlyWarningsAndErrors() throws Exception {
+        List<String> mdcDuringRequest = new ArrayList<>();
+        List<FilterReply> replies = new ArrayList<>();
+        MockFilterChain chain = new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req,
+                                   jakarta.servlet.http.HttpServletResponse res) {
+                mdcDuringRequest.add(MDC.get(RequestLogSamplingFilter.MDC_KEY));
+                for (Level level : new Level[] {Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR}) {
+                    replies.add(turboFilter.decide(null, logger, level, "msg", null, null));
+                }
+            }
+        });
+
+        new RequestLogSamplingFilter(0.0).doFilter(new MockHttpServletRequest(),
+                new MockHttpServletResponse(), chain);
+
+        assertEquals(List.of("false"), mdcDuringRequest);
+        assertEquals(List.of(FilterReply.DENY, FilterReply.DENY, FilterReply.NEUTRAL,
+                FilterReply.NEUTRAL), replies);
+        assertNull(MDC.get(RequestLogSamplingFilter.MDC_KEY));
+    }
+
+    @Test
+    void sampledRequestsAreLoggedInFull() throws Exception {
+        List<String> mdcDuringRequest = new ArrayList<>();
+        MockFilterChain chain = new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req,
+                                   jakarta.servlet.http.HttpServletResponse res) {
+                mdcDuringRequest.add(MDC.get(RequestLogSamplingFilter.MDC_KEY));
+            }
+        });
+
+        new RequestLogSamplingFilter(1.0).doFilter(new MockHttpServletRequest(),
+                new MockHttpServletResponse(), chain);
+
+        assertEquals(1, mdcDuringRequest.size());
+        assertNull(mdcDuringRequest.get(0));
+        assertEquals(FilterReply.NEUTRAL,
+                turboFilter.decide(null, logger, Level.INFO, "msg", null, null));
+    }
+}
@@ -0,0 +1,29 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TracingExportConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(TracingExportConfig.class);
+
+    @Test
+    void spansAreNotExportedWithoutAnEndpoint() {
+        contextRunner
+                .withPropertyValues("management.otlp.tracing.endpoint=")
+                .run(context -> assertEquals(0,
+                        context.getBeansOfType(OtlpHttpSpanExporter.class).size()));
+    }
+
+    @Test
+    void spansAreExportedToTheConfiguredEndpoint() {
+        contextRunner
+                .withPropertyValues("management.otlp.tracing.endpoint=http://collector:4318/v1/traces")
+                .run(context -> assertEquals(1,
+                        context.getBeansOfType(OtlpHttpSpanExporter.class).size()));
+    }
+}
@@ -0,0 +1,113 @@
+package com.columbia.coms4156.citationservice.utils;
+
+import com.columbia.coms4156.citationservice.model.Article;
+import com.columbia.coms4156.citationservice.model.Book;
+import com.columbia.coms4156.citationservice.model.Video;
+import com.columbia.coms4156.citationservice.repository.ArticleRepository;
+import com.columbia.coms4156.citationservice.repository.BookRepository;
+import com.columbia.coms4156.citationservice.repository.VideoRepository;
+import com.columbia.coms4156.citationservice.service.CitationService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the warmup has run by the time the application reports ready, and that its
+ * renders bypass the citation metrics.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WarmupRunnerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void readinessIsUpOnceWarmupHasRun() throws Exception {
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+    }
+
+    @Test
+    void warmupOpensTheMinimumIdleConnections() throws Exception {
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        assertTrue(pool.getHikariPoolMXBean().getTotalConnections() >= pool.getMinimumIdle());
+    }
+
+    @Test
+    void rendersEveryFormatterWithoutRecordingMetrics() {
+        CitationService citationService = mock(CitationService.class);
+        ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+        WarmupRunner runner = new WarmupRunner(dataSource, mock(BookRepository.class),
+                mock(VideoRepository.class), mock(ArticleRepository.class), citationService,
+                publisher, 3);
+
+        runner.run(new DefaultApplicationArguments());
+
+        verify(publisher).publishEvent(argThat((ApplicationEvent event) ->
+                event instanceof AvailabilityChangeEvent
+                        && ((AvailabilityChangeEvent<?>) event).getState()
+                        == ReadinessState.REFUSING_TRAFFIC));
+        verify(citationService, times(3)).generateMLACitation(any(Book.class));
+        verify(citationService, times(3)).generateAPACitation(any(Video.class));
+        verify(citationService, times(3)).generateChicagoCitation(any(Article.class));
+        verify(citationService, never()).generateCitationByStyle(any(), anyString());
+    }
+
+    @Test
+    void warmupPrimesTheReplicaPoolToo() {
+        try (HikariDataSource primary = pool("warmup-primary");
+             HikariDataSource replica = pool("warmup-replica")) {
+            WarmupRunner runner = new WarmupRunner(
+                    new ReadReplicaRoutingDataSource(primary, replica, Duration.ZERO),
+                    mock(BookRepository.class), mock(VideoRepository.class),
+                    mock(ArticleRepository.class), mock(CitationService.class),
+                    mock(ApplicationEventPublisher.class), 1);
+
+            runner.primeConnectionPool();
+
+            for (HikariDataSource pool : new HikariDataSource[] {primary, replica}) {
+                assertTrue(pool.getHikariPoolMXBean().getTotalConnections()
+                        >= pool.getMinimumIdle(), pool.getPoolName());
+            }
+        }
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl("jdbc:h2:mem:" + name);
+        pool.setMinimumIdle(2);
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+}